@@ -0,0 +1,465 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.build;
+
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Prepares src/main/webapp for the war. Every file is copied to the output directory, with the JS
+ * and CSS minified. Then, in each page, every run of consecutive tags loading local scripts or
+ * stylesheets is replaced by one tag loading a bundle of them, written to ASSETS_DIR under a name
+ * that includes a hash of its contents. A file loaded by more than one page is left out of the
+ * bundles and written to ASSETS_DIR on its own in the same way, so that it is only downloaded once
+ * however many pages load it. A changed bundle always gets a new name, so appengine-web.xml lets
+ * browsers cache ASSETS_DIR for good while the pages expire quickly.
+ *
+ * <p>The minifiers only drop comments and whitespace, and keep line breaks, so they never change
+ * what a script does, including where semicolons are inserted.
+ *
+ * <p>Compiled on its own and run by Maven in the prepare-package phase with the source and output
+ * directories as arguments, so that packaging doesn't depend on the tests.
+ */
+public final class StaticAssetPipeline {
+  /** The directory bundles are written to, relative to the root of the webapp. */
+  public static final String ASSETS_DIR = "assets";
+
+  // A tag loading a stylesheet or script from this app, on a line of its own.
+  private static final Pattern STYLESHEET =
+      Pattern.compile(
+          "^(\\s*)<link rel=\"stylesheet\" href=\"(/?[\\w-][\\w./-]*\\.css)\"\\s*/?>\\s*$");
+  private static final Pattern SCRIPT =
+      Pattern.compile("^(\\s*)<script src=\"(/?[\\w-][\\w./-]*\\.js)\"></script>\\s*$");
+  // How many hex digits of a bundle's hash go in its name.
+  private static final int HASH_LENGTH = 10;
+  // The keywords a regular expression literal can follow.
+  private static final ImmutableSet<String> KEYWORDS_BEFORE_EXPRESSION =
+      ImmutableSet.of(
+          "return", "typeof", "instanceof", "in", "of", "new", "delete", "void", "throw", "case",
+          "do", "else", "yield", "await");
+  // The characters a regular expression literal can follow, as opposed to a division.
+  private static final String PUNCTUATION_BEFORE_EXPRESSION = "(,=:[!&|?{};+-*%<>~^";
+  // The characters whitespace around can be dropped in CSS.
+  private static final String CSS_PUNCTUATION = "{};,";
+
+  private final Path source;
+  private final Path output;
+
+  /** Initializes the fields for StaticAssetPipeline. */
+  public StaticAssetPipeline(Path source, Path output) {
+    this.source = source;
+    this.output = output;
+  }
+
+  public static void main(String[] args) throws IOException {
+    Preconditions.checkArgument(
+        args.length == 2, "Usage: StaticAssetPipeline <webapp directory> <output directory>");
+    new StaticAssetPipeline(Paths.get(args[0]), Paths.get(args[1])).run();
+  }
+
+  /** Replaces the output directory with a processed copy of the source directory. */
+  public void run() throws IOException {
+    deleteRecursively(output);
+    List<Path> pages = new ArrayList<Path>();
+    for (Path file : listFiles(source)) {
+      Path copy = output.resolve(source.relativize(file).toString());
+      Files.createDirectories(copy.getParent());
+      String name = file.getFileName().toString();
+      if (name.endsWith(".js")) {
+        write(copy, minifyJs(read(file)));
+      } else if (name.endsWith(".css")) {
+        write(copy, minifyCss(read(file)));
+      } else {
+        Files.copy(file, copy);
+      }
+      if (name.endsWith(".html") || name.endsWith(".jsp")) {
+        pages.add(copy);
+      }
+    }
+    Set<Path> shared = sharedAssets(pages);
+    for (Path page : pages) {
+      write(page, bundle(page, shared));
+    }
+  }
+
+  // Returns the local stylesheets and scripts that more than one of pages loads.
+  private Set<Path> sharedAssets(List<Path> pages) throws IOException {
+    Set<Path> loaded = new HashSet<Path>();
+    Set<Path> shared = new HashSet<Path>();
+    for (Path page : pages) {
+      Set<Path> pageAssets = new HashSet<Path>();
+      for (String line : Files.readAllLines(page, StandardCharsets.UTF_8)) {
+        Matcher matcher = matchAsset(line);
+        if (matcher != null) {
+          pageAssets.add(asset(page, matcher));
+        }
+      }
+      for (Path asset : pageAssets) {
+        if (!loaded.add(asset)) {
+          shared.add(asset);
+        }
+      }
+    }
+    return shared;
+  }
+
+  // Returns page with each run of tags loading local stylesheets or scripts replaced by tags
+  // loading a bundle of them, and writes the bundles.
+  private String bundle(Path page, Set<Path> shared) throws IOException {
+    StringBuilder rewritten = new StringBuilder();
+    List<Path> run = new ArrayList<Path>();
+    String runIndent = "";
+    Pattern runPattern = null;
+    for (String line : Files.readAllLines(page, StandardCharsets.UTF_8)) {
+      Matcher matcher = matchAsset(line);
+      Pattern pattern = matcher == null ? null : matcher.pattern();
+      if (pattern != runPattern && !run.isEmpty()) {
+        writeRun(page, run, runPattern, shared, runIndent, rewritten);
+        run.clear();
+      }
+      runPattern = pattern;
+      if (pattern == null) {
+        rewritten.append(line).append('\n');
+        continue;
+      }
+      if (run.isEmpty()) {
+        runIndent = matcher.group(1);
+      }
+      run.add(asset(page, matcher));
+    }
+    if (!run.isEmpty()) {
+      writeRun(page, run, runPattern, shared, runIndent, rewritten);
+    }
+    return rewritten.toString();
+  }
+
+  // Returns a matcher of line if it is a tag loading a local stylesheet or script, and null
+  // otherwise.
+  private static Matcher matchAsset(String line) {
+    for (Pattern pattern : new Pattern[] {STYLESHEET, SCRIPT}) {
+      Matcher matcher = pattern.matcher(line);
+      if (matcher.matches()) {
+        return matcher;
+      }
+    }
+    return null;
+  }
+
+  // Returns the copy of the file the tag matched by matcher in page loads.
+  private Path asset(Path page, Matcher matcher) {
+    String href = matcher.group(2);
+    Path asset =
+        href.startsWith("/") ? output.resolve(href.substring(1)) : page.getParent().resolve(href);
+    Preconditions.checkState(
+        Files.isRegularFile(asset), "%s loads %s, which doesn't exist", page, href);
+    return asset.normalize();
+  }
+
+  // Appends the tags loading run, the assets of consecutive tags in page matching pattern, to
+  // rewritten. Each asset in shared gets a tag of its own, and the assets between them are
+  // bundled for page alone.
+  private void writeRun(
+      Path page,
+      List<Path> run,
+      Pattern pattern,
+      Set<Path> shared,
+      String indent,
+      StringBuilder rewritten)
+      throws IOException {
+    List<Path> pageAssets = new ArrayList<Path>();
+    for (Path asset : run) {
+      if (!shared.contains(asset)) {
+        pageAssets.add(asset);
+        continue;
+      }
+      if (!pageAssets.isEmpty()) {
+        rewritten.append(indent).append(writeBundle(page, pageAssets, pattern)).append('\n');
+        pageAssets.clear();
+      }
+      rewritten
+          .append(indent)
+          .append(writeBundle(asset, Collections.singletonList(asset), pattern))
+          .append('\n');
+    }
+    if (!pageAssets.isEmpty()) {
+      rewritten.append(indent).append(writeBundle(page, pageAssets, pattern)).append('\n');
+    }
+  }
+
+  // Writes the bundle of assets, named after namedAfter, and returns the tag that loads it.
+  private String writeBundle(Path namedAfter, List<Path> assets, Pattern pattern)
+      throws IOException {
+    boolean scripts = pattern == SCRIPT;
+    StringBuilder contents = new StringBuilder();
+    for (Path asset : assets) {
+      if (contents.length() > 0 && scripts) {
+        // Keeps a script that doesn't end in a semicolon from running on into the next one.
+        contents.append(";\n");
+      }
+      contents.append(read(asset));
+    }
+    String hash =
+        Hashing.sha256()
+            .hashString(contents, StandardCharsets.UTF_8)
+            .toString()
+            .substring(0, HASH_LENGTH);
+    String fileName = namedAfter.getFileName().toString();
+    String name =
+        String.format(
+            "%s.%s.%s",
+            fileName.substring(0, fileName.lastIndexOf('.')),
+            hash,
+            scripts ? "js" : "css");
+    Path bundle = output.resolve(ASSETS_DIR).resolve(name);
+    Files.createDirectories(bundle.getParent());
+    write(bundle, contents.toString());
+    String href = "/" + ASSETS_DIR + "/" + name;
+    return scripts
+        ? String.format("<script src=\"%s\"></script>", href)
+        : String.format("<link rel=\"stylesheet\" href=\"%s\">", href);
+  }
+
+  /**
+   * Returns js without comments, indentation, blank lines or repeated spaces. Strings, template
+   * literals and regular expressions are copied as they are.
+   */
+  public static String minifyJs(String js) {
+    StringBuilder minified = new StringBuilder();
+    // The brace depth in the code being copied, and that of each template literal it is within.
+    int braceDepth = 0;
+    Deque<Integer> templateDepths = new ArrayDeque<Integer>();
+    boolean inTemplate = false;
+    boolean pendingSpace = false;
+    boolean pendingNewline = false;
+    int i = 0;
+    while (i < js.length()) {
+      char c = js.charAt(i);
+      if (inTemplate) {
+        if (c == '\\') {
+          minified.append(js, i, Math.min(i + 2, js.length()));
+          i += 2;
+          continue;
+        }
+        minified.append(c);
+        i++;
+        if (c == '`') {
+          inTemplate = false;
+        } else if (c == '$' && i < js.length() && js.charAt(i) == '{') {
+          minified.append('{');
+          i++;
+          templateDepths.push(braceDepth);
+          braceDepth = 0;
+          inTemplate = false;
+        }
+        continue;
+      }
+      if (Character.isWhitespace(c)) {
+        pendingNewline |= c == '\n';
+        pendingSpace = true;
+        i++;
+        continue;
+      }
+      if (c == '/' && i + 1 < js.length() && js.charAt(i + 1) == '/') {
+        int end = js.indexOf('\n', i);
+        i = end < 0 ? js.length() : end;
+        continue;
+      }
+      if (c == '/' && i + 1 < js.length() && js.charAt(i + 1) == '*') {
+        int end = js.indexOf("*/", i + 2);
+        end = end < 0 ? js.length() : end + 2;
+        // A comment with a line break in it ends a statement just like the line break would.
+        pendingNewline |= js.substring(i, end).indexOf('\n') >= 0;
+        pendingSpace = true;
+        i = end;
+        continue;
+      }
+      if (pendingNewline || pendingSpace) {
+        if (minified.length() > 0 && minified.charAt(minified.length() - 1) != '\n') {
+          minified.append(pendingNewline ? '\n' : ' ');
+        }
+        pendingNewline = false;
+        pendingSpace = false;
+      }
+      if (c == '\'' || c == '"') {
+        i = copyQuoted(js, i, minified);
+      } else if (c == '/' && startsExpression(minified)) {
+        i = copyRegex(js, i, minified);
+      } else {
+        minified.append(c);
+        i++;
+        if (c == '`') {
+          inTemplate = true;
+        } else if (c == '{') {
+          braceDepth++;
+        } else if (c == '}') {
+          if (braceDepth == 0 && !templateDepths.isEmpty()) {
+            braceDepth = templateDepths.pop();
+            inTemplate = true;
+          } else {
+            braceDepth--;
+          }
+        }
+      }
+    }
+    return terminate(minified);
+  }
+
+  // Returns whether what has been copied so far ends where an expression, and so a regular
+  // expression rather than a division, can start.
+  private static boolean startsExpression(StringBuilder code) {
+    int end = code.length();
+    while (end > 0 && Character.isWhitespace(code.charAt(end - 1))) {
+      end--;
+    }
+    if (end == 0) {
+      return true;
+    }
+    char last = code.charAt(end - 1);
+    if (!Character.isJavaIdentifierPart(last)) {
+      return PUNCTUATION_BEFORE_EXPRESSION.indexOf(last) >= 0;
+    }
+    int start = end;
+    while (start > 0 && Character.isJavaIdentifierPart(code.charAt(start - 1))) {
+      start--;
+    }
+    return KEYWORDS_BEFORE_EXPRESSION.contains(code.substring(start, end));
+  }
+
+  // Copies the string starting at index start of text, and returns the index just after it.
+  private static int copyQuoted(String text, int start, StringBuilder copy) {
+    char quote = text.charAt(start);
+    int i = start + 1;
+    while (i < text.length() && text.charAt(i) != quote && text.charAt(i) != '\n') {
+      i += text.charAt(i) == '\\' ? 2 : 1;
+    }
+    int end = Math.min(i + 1, text.length());
+    copy.append(text, start, end);
+    return end;
+  }
+
+  // Copies the regular expression starting at index start of js, and returns the index just after
+  // its closing slash. Its flags are copied like any other identifier.
+  private static int copyRegex(String js, int start, StringBuilder copy) {
+    boolean inClass = false;
+    int i = start + 1;
+    while (i < js.length() && js.charAt(i) != '\n') {
+      char c = js.charAt(i);
+      if (c == '\\') {
+        i += 2;
+        continue;
+      }
+      i++;
+      if (c == '[') {
+        inClass = true;
+      } else if (c == ']') {
+        inClass = false;
+      } else if (c == '/' && !inClass) {
+        break;
+      }
+    }
+    int end = Math.min(i, js.length());
+    copy.append(js, start, end);
+    return end;
+  }
+
+  /**
+   * Returns css without comments, and with whitespace collapsed to single spaces and dropped next
+   * to braces, semicolons and commas. Strings are copied as they are.
+   */
+  public static String minifyCss(String css) {
+    StringBuilder minified = new StringBuilder();
+    boolean pendingSpace = false;
+    int i = 0;
+    while (i < css.length()) {
+      char c = css.charAt(i);
+      if (Character.isWhitespace(c)) {
+        pendingSpace = true;
+        i++;
+        continue;
+      }
+      if (c == '/' && i + 1 < css.length() && css.charAt(i + 1) == '*') {
+        int end = css.indexOf("*/", i + 2);
+        i = end < 0 ? css.length() : end + 2;
+        pendingSpace = true;
+        continue;
+      }
+      if (pendingSpace
+          && minified.length() > 0
+          && CSS_PUNCTUATION.indexOf(minified.charAt(minified.length() - 1)) < 0
+          && CSS_PUNCTUATION.indexOf(c) < 0) {
+        minified.append(' ');
+      }
+      pendingSpace = false;
+      if (c == '\'' || c == '"') {
+        i = copyQuoted(css, i, minified);
+      } else {
+        minified.append(c);
+        i++;
+      }
+    }
+    return terminate(minified);
+  }
+
+  // Returns text ending in exactly one line break, unless it is empty.
+  private static String terminate(StringBuilder text) {
+    if (text.length() > 0 && text.charAt(text.length() - 1) != '\n') {
+      text.append('\n');
+    }
+    return text.toString();
+  }
+
+  private static List<Path> listFiles(Path directory) throws IOException {
+    try (Stream<Path> files = Files.walk(directory)) {
+      return files.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+    }
+  }
+
+  private static void deleteRecursively(Path directory) throws IOException {
+    if (!Files.exists(directory)) {
+      return;
+    }
+    try (Stream<Path> paths = Files.walk(directory)) {
+      for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+        Files.delete(path);
+      }
+    }
+  }
+
+  private static String read(Path file) throws IOException {
+    return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+  }
+
+  private static void write(Path file, String contents) throws IOException {
+    Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -0,0 +1,95 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.appengine.tools.development.testing.LocalUserServiceTestConfig;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Measures building the availability table the user marks their free time in. */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+// The logged in user is kept per thread, so setup has to happen on the benchmark's own thread.
+@State(Scope.Thread)
+public class AvailabilityTimeSlotGeneratorBenchmark {
+  @Param({"100", "10000", "100000"})
+  public int interviewers;
+
+  private LocalServiceTestHelper helper;
+  private SyntheticPopulation population;
+  private Map<Instant, Availability> searcherWeek;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    helper =
+        new LocalServiceTestHelper(new LocalUserServiceTestConfig())
+            .setEnvIsLoggedIn(true)
+            .setEnvEmail(SyntheticPopulation.SEARCHER_EMAIL)
+            .setEnvAuthDomain("auth");
+    helper.setUp();
+    population = SyntheticPopulation.create(interviewers, /*seed=*/ 42);
+    searcherWeek = new HashMap<Instant, Availability>();
+    for (Availability avail :
+        population
+            .availabilityDao()
+            .getInRangeForUser(
+                SyntheticPopulation.SEARCHER_ID,
+                SyntheticPopulation.START,
+                SyntheticPopulation.START.plus(7, ChronoUnit.DAYS))) {
+      searcherWeek.put(avail.when().start(), avail);
+    }
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  @Benchmark
+  public List<List<AvailabilityTimeSlot>> timeSlotsForWeek() {
+    return AvailabilityTimeSlotGenerator.timeSlotsForWeek(
+        SyntheticPopulation.START,
+        /*timezoneOffsetMinutes=*/ -240,
+        SyntheticPopulation.SEARCHER_ID,
+        population.availabilityDao());
+  }
+
+  @Benchmark
+  public List<AvailabilityTimeSlot> timeSlotsForDay() {
+    return AvailabilityTimeSlotGenerator.timeSlotsForDay(
+        SyntheticPopulation.START, /*timezoneOffsetMinutes=*/ -240, searcherWeek);
+  }
+}
@@ -0,0 +1,187 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Fake Daos seeded with a reproducible population of interviewers for the benchmarks. Every
+ * interviewer has one block of availability somewhere in the four weeks after START, and one in
+ * ten of them has already been booked for an interview at the start of that block.
+ */
+public final class SyntheticPopulation {
+  /** The Monday, in UTC, that the four weeks of availability start on. */
+  public static final Instant START = Instant.parse("2020-07-06T00:00:00Z");
+  /** The email of the user doing the searching, who is logged in during the benchmarks. */
+  public static final String SEARCHER_EMAIL = "searcher@gmail.com";
+  /** The id LocalUserService users get, since they don't have userIds of their own. */
+  public static final String SEARCHER_ID = String.format("%d", SEARCHER_EMAIL.hashCode());
+
+  private static final int DAYS = 28;
+  private static final int SLOTS_PER_BLOCK = 6;
+  private static final String[] COMPANIES = {"Google", "Acme", "Initech", "Globex"};
+  private static final String[] JOBS = {"Software Engineer", "Product Manager", "Tester"};
+
+  private final FakeAvailabilityDao availabilityDao = new FakeAvailabilityDao();
+  private final FakePersonDao personDao = new FakePersonDao();
+  private final FakeScheduledInterviewDao scheduledInterviewDao = new FakeScheduledInterviewDao();
+  // How many unbooked interviewers can start an hour at each block start.
+  private final Map<Instant, Integer> freeHourCounts = new HashMap<Instant, Integer>();
+
+  private SyntheticPopulation() {}
+
+  /** Creates a population of the given number of interviewers, the same one for the same seed. */
+  public static SyntheticPopulation create(int interviewers, long seed) {
+    SyntheticPopulation population = new SyntheticPopulation();
+    Random random = new Random(seed);
+    population.personDao.create(
+        Person.create(
+            SEARCHER_ID,
+            SEARCHER_EMAIL,
+            "Searcher",
+            "Person",
+            "Google",
+            "Software Engineer",
+            "",
+            EnumSet.of(Job.SOFTWARE_ENGINEER),
+            true));
+    for (int i = 0; i < interviewers; i++) {
+      population.addInterviewer(i, interviewers, random);
+    }
+    population.addSearcherWeek();
+    return population;
+  }
+
+  private void addInterviewer(int index, int interviewers, Random random) {
+    String id = "interviewer" + index;
+    // Most interviewers can interview software engineers, so that position is the busiest.
+    EnumSet<Job> qualifiedJobs = EnumSet.noneOf(Job.class);
+    if (random.nextInt(10) < 6) {
+      qualifiedJobs.add(Job.SOFTWARE_ENGINEER);
+    }
+    qualifiedJobs.add(Job.values()[random.nextInt(Job.values().length)]);
+    personDao.create(
+        Person.create(
+            id,
+            id + "@gmail.com",
+            "First" + index,
+            "Last" + index,
+            COMPANIES[random.nextInt(COMPANIES.length)],
+            JOBS[random.nextInt(JOBS.length)],
+            "",
+            qualifiedJobs,
+            true));
+
+    // Blocks start on the quarter hour between 1pm and 11pm UTC.
+    Instant blockStart =
+        START
+            .plus(random.nextInt(DAYS), ChronoUnit.DAYS)
+            .plus(13 * 60 + 15 * random.nextInt(40), ChronoUnit.MINUTES);
+    boolean booked = index % 10 == 0;
+    List<Availability> block = new ArrayList<Availability>();
+    for (int slot = 0; slot < SLOTS_PER_BLOCK; slot++) {
+      Instant slotStart = blockStart.plus(15 * slot, ChronoUnit.MINUTES);
+      block.add(
+          Availability.create(
+              id,
+              new TimeRange(slotStart, slotStart.plus(15, ChronoUnit.MINUTES)),
+              /*id=*/ -1,
+              /*scheduled=*/ booked && slot < 4));
+    }
+    availabilityDao.createAll(block);
+    if (!booked) {
+      freeHourCounts.merge(blockStart, 1, Integer::sum);
+    } else {
+      // The next interviewer is the interviewee, so everyone involved has a Person.
+      scheduledInterviewDao.create(
+          ScheduledInterview.create(
+              -1,
+              new TimeRange(blockStart, blockStart.plus(1, ChronoUnit.HOURS)),
+              id,
+              "interviewer" + ((index + 1) % interviewers),
+              /*meetLink=*/ "",
+              Job.SOFTWARE_ENGINEER,
+              /*shadowId=*/ ""));
+    }
+  }
+
+  // The searcher is free from 9am to 5pm UTC every day of the first week, and already has an
+  // interview at noon on each weekday.
+  private void addSearcherWeek() {
+    List<Availability> week = new ArrayList<Availability>();
+    for (int day = 0; day < 7; day++) {
+      Instant dayStart = START.plus(day, ChronoUnit.DAYS).plus(9, ChronoUnit.HOURS);
+      for (int slot = 0; slot < 32; slot++) {
+        Instant slotStart = dayStart.plus(15 * slot, ChronoUnit.MINUTES);
+        week.add(
+            Availability.create(
+                SEARCHER_ID,
+                new TimeRange(slotStart, slotStart.plus(15, ChronoUnit.MINUTES)),
+                /*id=*/ -1,
+                /*scheduled=*/ day < 5 && slot >= 12 && slot < 16));
+      }
+      if (day < 5) {
+        Instant noon = START.plus(day, ChronoUnit.DAYS).plus(12, ChronoUnit.HOURS);
+        scheduledInterviewDao.create(
+            ScheduledInterview.create(
+                -1,
+                new TimeRange(noon, noon.plus(1, ChronoUnit.HOURS)),
+                "interviewer0",
+                SEARCHER_ID,
+                /*meetLink=*/ "",
+                Job.SOFTWARE_ENGINEER,
+                /*shadowId=*/ ""));
+      }
+    }
+    availabilityDao.createAll(week);
+  }
+
+  public FakeAvailabilityDao availabilityDao() {
+    return availabilityDao;
+  }
+
+  public FakePersonDao personDao() {
+    return personDao;
+  }
+
+  public FakeScheduledInterviewDao scheduledInterviewDao() {
+    return scheduledInterviewDao;
+  }
+
+  /** Returns the four weeks that interviews are searched for in. */
+  public TimeRange searchRange() {
+    return new TimeRange(START, START.plus(DAYS, ChronoUnit.DAYS));
+  }
+
+  /** Returns the hour that the most interviewers are free to start an interview at. */
+  public TimeRange busiestHour() {
+    Instant busiestStart = START;
+    int busiestCount = 0;
+    for (Map.Entry<Instant, Integer> freeHourCount : freeHourCounts.entrySet()) {
+      if (freeHourCount.getValue() > busiestCount) {
+        busiestStart = freeHourCount.getKey();
+        busiestCount = freeHourCount.getValue();
+      }
+    }
+    return new TimeRange(busiestStart, busiestStart.plus(1, ChronoUnit.HOURS));
+  }
+}
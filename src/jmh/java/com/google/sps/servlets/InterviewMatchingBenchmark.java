@@ -0,0 +1,133 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.appengine.tools.development.testing.LocalUserServiceTestConfig;
+import com.google.sps.data.BookableHourIndex;
+import com.google.sps.data.BookableSlots;
+import com.google.sps.data.CandidateCache;
+import com.google.sps.data.ComputedBookableHourIndex;
+import com.google.sps.data.Job;
+import com.google.sps.data.Person;
+import com.google.sps.data.PossibleInterviewSlot;
+import com.google.sps.data.ScheduledInterview;
+import com.google.sps.data.SyntheticPopulation;
+import com.google.sps.data.TimeRange;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures matching interviewees with interviewers and shadows with interviews, the work done by
+ * /load-interviews, /show-interviewers and /shadow-load-interviews.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+// The logged in user is kept per thread, so setup has to happen on the benchmark's own thread.
+@State(Scope.Thread)
+public class InterviewMatchingBenchmark {
+  @Param({"100", "10000", "100000"})
+  public int interviewers;
+
+  private LocalServiceTestHelper helper;
+  private SyntheticPopulation population;
+  private LoadInterviewsServlet loadInterviewsServlet;
+  private BookableHourIndex bookableHourIndex;
+  private TimeRange busiestHour;
+  private List<PossibleInterviewSlot> possibleInterviewSlots;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    helper =
+        new LocalServiceTestHelper(new LocalUserServiceTestConfig())
+            .setEnvIsLoggedIn(true)
+            .setEnvEmail(SyntheticPopulation.SEARCHER_EMAIL)
+            .setEnvAuthDomain("auth");
+    helper.setUp();
+    population = SyntheticPopulation.create(interviewers, /*seed=*/ 42);
+    bookableHourIndex = new ComputedBookableHourIndex(population.availabilityDao());
+    loadInterviewsServlet = new LoadInterviewsServlet();
+    // A cache that never holds anything, so that every call works the slots out again.
+    loadInterviewsServlet.init(
+        population.scheduledInterviewDao(),
+        population.personDao(),
+        bookableHourIndex,
+        new CandidateCache<BookableSlots>(0, Duration.ZERO),
+        Clock.fixed(SyntheticPopulation.START, ZoneOffset.UTC));
+    busiestHour = population.busiestHour();
+    possibleInterviewSlots = new ArrayList<PossibleInterviewSlot>(getPossibleInterviewSlots());
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  @Benchmark
+  public List<PossibleInterviewSlot> getPossibleInterviewSlots() {
+    return loadInterviewsServlet.getPossibleInterviewSlots(
+        Job.SOFTWARE_ENGINEER,
+        population.searchRange(),
+        ZoneOffset.ofHours(-4),
+        SyntheticPopulation.SEARCHER_ID);
+  }
+
+  @Benchmark
+  public List<ArrayList<PossibleInterviewSlot>> orderPossibleInterviewSlotsIntoDays() {
+    return LoadInterviewsServlet.orderPossibleInterviewSlotsIntoDays(possibleInterviewSlots);
+  }
+
+  @Benchmark
+  public List<Person> getPossiblePeople() {
+    return ShowInterviewersServlet.getPossiblePeople(
+        population.personDao(),
+        bookableHourIndex,
+        Job.SOFTWARE_ENGINEER,
+        busiestHour,
+        SyntheticPopulation.SEARCHER_ID);
+  }
+
+  @Benchmark
+  public List<ScheduledInterview> getPossibleInterviews() {
+    return ShadowLoadInterviewsServlet.getPossibleInterviews(
+        ShadowLoadInterviewsServlet.getShadowableInterviews(
+            population.scheduledInterviewDao(),
+            Job.SOFTWARE_ENGINEER,
+            population.searchRange(),
+            population.personDao()),
+        population.searchRange(),
+        SyntheticPopulation.SEARCHER_ID);
+  }
+}
@@ -15,8 +15,9 @@
 package com.google.sps.data;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -27,6 +28,17 @@ public interface AvailabilityDao {
   // to maxTime of a user.
   public List<Availability> getInRangeForUser(String userId, Instant minTime, Instant maxTime);
 
+  // Returns a sorted (by ascending start times) list of the Availabilities ranging from minTime
+  // to maxTime of a user that are not scheduled. Scheduled slots are left out by the storage
+  // rather than read and thrown away.
+  public List<Availability> getUnscheduledInRangeForUser(
+      String userId, Instant minTime, Instant maxTime);
+
+  // Returns the Availabilities ranging from minTime to maxTime of each of the users, keyed by
+  // userId and sorted by ascending start times. Users without any Availabilities are left out.
+  public Map<String, List<Availability>> getInRangeForUsers(
+      Collection<String> userIds, Instant minTime, Instant maxTime);
+
   // Returns all Availabilities across all users ranging from minTime to maxTime in a sorted
   // (by ascending start times) list.
   public List<Availability> getInRangeForAll(Instant minTime, Instant maxTime);
@@ -34,15 +46,32 @@ public interface AvailabilityDao {
   // Returns the ids of all users that have availabilities within the specified time range.
   public Set<String> getUsersAvailableInRange(Instant minTime, Instant maxTime);
 
-  // Returns the Availability entity with specified id.
-  public Optional<Availability> get(long id);
-
   // Adds an Availability object into storage.
   public void create(Availability availability);
 
   // Updates the specified id with the new availability.
   public void update(Availability availability);
 
+  // Adds all of the Availability objects into storage in as few calls as possible.
+  public void createAll(List<Availability> availabilities);
+
+  // Removes all of the Availability objects from storage in as few calls as possible.
+  public void deleteAll(List<Availability> availabilities);
+
   // Deletes all Availability entities for a user ranging from minTime to maxTime.
   public void deleteInRangeForUser(String userId, Instant minTime, Instant maxTime);
+
+  // Makes availabilities the only Availabilities of a user ranging from minTime to maxTime. Only
+  // the slots that differ from what is already stored are written or deleted.
+  public void replaceRange(
+      String userId, Instant minTime, Instant maxTime, List<Availability> availabilities);
+
+  // Marks every slot of a user within when as scheduled, if all of them are available and none
+  // is scheduled yet, and returns whether it did. The check and the write are atomic, so of
+  // several reservations of the same slots at once, only one succeeds.
+  public boolean reserve(String userId, TimeRange when);
+
+  // Undoes a successful reserve, marking every slot of a user within when as no longer
+  // scheduled. Returns false, changing nothing, if any of them isn't an available scheduled slot.
+  public boolean release(String userId, TimeRange when);
 }
@@ -0,0 +1,33 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.auto.value.AutoValue;
+import java.util.Optional;
+
+/** What one chunk of the move to AvailabilityDay entities migrated, and where the next starts. */
+@AutoValue
+public abstract class AvailabilityMigration {
+  // How many per-slot Availability entities this chunk moved.
+  public abstract int migrated();
+
+  // The cursor to pass to migrateFromSlotEntities for the next chunk, or empty if this was the
+  // last.
+  public abstract Optional<String> nextCursor();
+
+  public static AvailabilityMigration create(int migrated, Optional<String> nextCursor) {
+    return new AutoValue_AvailabilityMigration(migrated, nextCursor);
+  }
+}
@@ -14,55 +14,47 @@
 
 package com.google.sps.data;
 
-import com.google.appengine.api.users.UserService;
-import com.google.appengine.api.users.UserServiceFactory;
-import com.google.auto.value.AutoValue;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableList;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.time.ZoneId;
-import java.time.ZoneOffset;
-import java.time.ZonedDateTime;
+import java.time.LocalDate;
 import java.time.format.TextStyle;
+import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
-import java.time.format.DateTimeFormatter;
+import java.util.Map;
 
 /** A generator of a collection of AvailabilityTimeSlot Objects. */
 public class AvailabilityTimeSlotGenerator {
   private static final int EARLIEST_HOUR = 8;
   private static final int LATEST_HOUR = 19;
-  // A list of hours and minutes representing permitted time slots.
-  private static final ImmutableList<HoursAndMinutes> ALL_HOURS_AND_MINUTES = allHoursAndMinutes();
+  private static final int SLOTS_PER_HOUR = 4;
+  static final int SLOTS_PER_DAY = (LATEST_HOUR - EARLIEST_HOUR + 1) * SLOTS_PER_HOUR;
+  private static final long MILLIS_PER_MINUTE = 60 * 1000L;
+  private static final long MILLIS_PER_DAY = 24 * 60 * MILLIS_PER_MINUTE;
+  // How far the first permitted time slot starts after local midnight.
+  private static final long EARLIEST_SLOT_MILLIS = EARLIEST_HOUR * 60 * MILLIS_PER_MINUTE;
+  // How far apart the same time slot is on the first and second day of a week.
+  private static final int SLOTS_BETWEEN_DAYS = (int) (MILLIS_PER_DAY / SlotBitmap.SLOT_MILLIS);
+  // The readable start time of each permitted time slot, such as "8:15 AM". These are the same
+  // in every timezone, so they are only formatted once.
+  private static final ImmutableList<String> TIME_LABELS = timeLabels();
   private static final int maxTimezoneOffsetMinutes = 720;
   private static final int maxTimezoneOffsetHours = 12;
 
-  @AutoValue
-  abstract static class HoursAndMinutes {
-    abstract int hour();
-
-    abstract int minute();
-
-    static HoursAndMinutes create(int hour, int minute) {
-      return new AutoValue_AvailabilityTimeSlotGenerator_HoursAndMinutes(hour, minute);
-    }
-  }
-
-  private static ImmutableList<HoursAndMinutes> allHoursAndMinutes() {
-    ImmutableList.Builder<HoursAndMinutes> hoursAndMinutes = ImmutableList.builder();
-    for (int i = EARLIEST_HOUR; i <= LATEST_HOUR; i++) {
-      hoursAndMinutes.add(HoursAndMinutes.create(i, 0));
-      hoursAndMinutes.add(HoursAndMinutes.create(i, 15));
-      hoursAndMinutes.add(HoursAndMinutes.create(i, 30));
-      hoursAndMinutes.add(HoursAndMinutes.create(i, 45));
+  private static ImmutableList<String> timeLabels() {
+    ImmutableList.Builder<String> timeLabels = ImmutableList.builder();
+    for (int hour = EARLIEST_HOUR; hour <= LATEST_HOUR; hour++) {
+      int standardHour = hour;
+      if (hour > 12) {
+        standardHour = hour - 12;
+      }
+      for (int minute = 0; minute < 60; minute += 60 / SLOTS_PER_HOUR) {
+        timeLabels.add(String.format("%d:%02d %s", standardHour, minute, hour < 12 ? "AM" : "PM"));
+      }
     }
-    return hoursAndMinutes.build();
+    return timeLabels.build();
   }
 
   /**
@@ -73,74 +65,70 @@ public class AvailabilityTimeSlotGenerator {
    * @param timezoneOffsetMinutes An int that represents the difference between UTC and the user's
    *     current timezone. Example: A user in EST has a timezoneOffsetMinutes of -240 which means
    *     that EST is 240 minutes behind UTC.
+   * @param userId The id of the user whose selected Availabilities are marked.
    * @param availabilityDao The AvailabilityDao that is used to get the selected Availabilities for
    *     the week.
    * @throws IllegalArgumentException if the magnitude of timezoneOffsetMinutes is greater than 720.
    */
   public static List<List<AvailabilityTimeSlot>> timeSlotsForWeek(
-      Instant instant, int timezoneOffsetMinutes, AvailabilityDao availabilityDao) {
-    Preconditions.checkArgument(
-        Math.abs(timezoneOffsetMinutes) <= maxTimezoneOffsetMinutes,
-        "Offset greater than %d minutes (%d hours): %d",
-        maxTimezoneOffsetMinutes,
-        maxTimezoneOffsetHours,
-        timezoneOffsetMinutes);
-    List<Instant> startAndEndOfWeek = getStartAndEndOfWeek(instant, timezoneOffsetMinutes);
-    UserService userService = UserServiceFactory.getUserService();
-    String email = userService.getCurrentUser().getEmail();
-    String userId = userService.getCurrentUser().getUserId();
-    // Since Users returned from the LocalUserService (in tests) do not have userIds, here we set
-    // the userId equal to a hashcode.
-    if (userId == null) {
-      userId = String.format("%d", email.hashCode());
-    }
-
-    List<Availability> userAvailabilityForWeek =
-        availabilityDao.getInRangeForUser(
-            userId, startAndEndOfWeek.get(0), startAndEndOfWeek.get(1));
-    Map<Instant, Availability> availabilityMap = new HashMap<Instant, Availability>();
-    for (Availability avail : userAvailabilityForWeek) {
-      availabilityMap.put(avail.when().start(), avail);
-    }
+      Instant instant, int timezoneOffsetMinutes, String userId, AvailabilityDao availabilityDao) {
+    checkOffset(timezoneOffsetMinutes);
+    // The week runs from the first time slot of its first day to the end of the last time slot of
+    // its seventh day.
+    long offsetMillis = timezoneOffsetMinutes * MILLIS_PER_MINUTE;
+    long firstDay = localDay(instant, offsetMillis);
+    long startOfWeek = firstDay * MILLIS_PER_DAY - offsetMillis + EARLIEST_SLOT_MILLIS;
+    int slotsInWeek = 6 * SLOTS_BETWEEN_DAYS + SLOTS_PER_DAY;
+    long endOfWeek = startOfWeek + slotsInWeek * SlotBitmap.SLOT_MILLIS;
+    SlotStatuses statuses =
+        new SlotStatuses(
+            startOfWeek,
+            slotsInWeek,
+            availabilityDao.getInRangeForUser(
+                userId, Instant.ofEpochMilli(startOfWeek), Instant.ofEpochMilli(endOfWeek)));
     ImmutableList.Builder<List<AvailabilityTimeSlot>> weekList = ImmutableList.builder();
     for (int i = 0; i < 7; i++) {
-      weekList.add(
-          timeSlotsForDay(
-              instant.plus(i, ChronoUnit.DAYS), timezoneOffsetMinutes, availabilityMap));
+      weekList.add(timeSlotsForDay(firstDay + i, offsetMillis, statuses));
     }
     return weekList.build();
   }
 
-  // Creates longs of milliseconds for the start and end points of the specified week.
-  private static List<Instant> getStartAndEndOfWeek(Instant instant, int timezoneOffsetMinutes) {
-    ZonedDateTime firstDay = TimeUtils.generateDay(instant, timezoneOffsetMinutes);
-    Instant startOfWeek = getStartOrEndOfWeek(firstDay, true);
-    ZonedDateTime lastDay = firstDay.plus(6, ChronoUnit.DAYS);
-    Instant endOfWeek = getStartOrEndOfWeek(lastDay, false);
-    List<Instant> startAndEnd = new ArrayList<Instant>();
-    startAndEnd.add(startOfWeek);
-    startAndEnd.add(endOfWeek);
-    return startAndEnd;
-  }
-
-  // Returns either the start or end point of the specified week.
-  private static Instant getStartOrEndOfWeek(ZonedDateTime day, boolean start) {
-    ZoneId zoneId = day.getZone();
-    int year = day.getYear();
-    int month = day.getMonthValue();
-    int dayOfMonth = day.getDayOfMonth();
-    int hour = 0;
-    int minute = 0;
-    if (start) {
-      hour = ALL_HOURS_AND_MINUTES.get(0).hour();
-      minute = ALL_HOURS_AND_MINUTES.get(0).minute();
-    } else {
-      hour = ALL_HOURS_AND_MINUTES.get(ALL_HOURS_AND_MINUTES.size() - 1).hour() + 1;
-      minute = 0;
+  /**
+   * Constructs the AvailabilityWeek for the same week as timeSlotsForWeek, marking the slots
+   * userId has selected and is scheduled in.
+   *
+   * @param instant An Instant on the first day of the week.
+   * @param timezoneOffsetMinutes The difference between UTC and the user's current timezone, as
+   *     for timeSlotsForWeek.
+   * @param userId The id of the user whose availability is marked.
+   * @param availabilityDao The AvailabilityDao that is used to get the selected Availabilities for
+   *     the week.
+   * @throws IllegalArgumentException if the magnitude of timezoneOffsetMinutes is greater than 720.
+   */
+  public static AvailabilityWeek availabilityWeek(
+      Instant instant, int timezoneOffsetMinutes, String userId, AvailabilityDao availabilityDao) {
+    checkOffset(timezoneOffsetMinutes);
+    long offsetMillis = timezoneOffsetMinutes * MILLIS_PER_MINUTE;
+    AvailabilityWeek week =
+        new AvailabilityWeek(
+            localDay(instant, offsetMillis) * MILLIS_PER_DAY - offsetMillis + EARLIEST_SLOT_MILLIS);
+    long endOfWeek = week.getLastSlot() + SlotBitmap.SLOT_MILLIS;
+    for (Availability avail :
+        availabilityDao.getInRangeForUser(
+            userId, Instant.ofEpochMilli(week.getFirstSlot()), Instant.ofEpochMilli(endOfWeek))) {
+      long fromStart = avail.when().start().toEpochMilli() - week.getFirstSlot();
+      int day = (int) (fromStart / MILLIS_PER_DAY);
+      long fromStartOfDay = fromStart % MILLIS_PER_DAY;
+      // Only slots in the grid are sent, not those between its days.
+      if (fromStartOfDay % SlotBitmap.SLOT_MILLIS != 0
+          || fromStartOfDay / SlotBitmap.SLOT_MILLIS >= SLOTS_PER_DAY) {
+        continue;
+      }
+      int i = day * SLOTS_PER_DAY + (int) (fromStartOfDay / SlotBitmap.SLOT_MILLIS);
+      week.selected().set(i);
+      week.scheduled().set(i, avail.scheduled());
     }
-    LocalDateTime localTime = LocalDateTime.of(year, month, dayOfMonth, hour, minute);
-    ZonedDateTime utcTime = ZonedDateTime.of(localTime, zoneId).withZoneSameInstant(ZoneOffset.UTC);
-    return utcTime.toInstant();
+    return week;
   }
 
   /**
@@ -158,68 +146,100 @@ public class AvailabilityTimeSlotGenerator {
       Instant instant,
       int timezoneOffsetMinutes,
       Map<Instant, Availability> userAvailabilityForWeek) {
-    ZonedDateTime day = TimeUtils.generateDay(instant, timezoneOffsetMinutes);
-    ZoneId zoneId = day.getZone();
-    String dayOfWeek = day.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.US);
-    int year = day.getYear();
-    int month = day.getMonthValue();
-    int dayOfMonth = day.getDayOfMonth();
-
-    String formattedDate = formatDate(dayOfWeek, month, dayOfMonth);
+    checkOffset(timezoneOffsetMinutes);
+    long offsetMillis = timezoneOffsetMinutes * MILLIS_PER_MINUTE;
+    long day = localDay(instant, offsetMillis);
+    long startOfDay = day * MILLIS_PER_DAY - offsetMillis + EARLIEST_SLOT_MILLIS;
+    return timeSlotsForDay(
+        day,
+        offsetMillis,
+        new SlotStatuses(startOfDay, SLOTS_PER_DAY, userAvailabilityForWeek.values()));
+  }
 
+  // Builds the time slots of the given day since the epoch, in the user's timezone. Only epoch
+  // milliseconds are worked with, since with a fixed offset every time slot is a fixed distance
+  // from local midnight.
+  private static List<AvailabilityTimeSlot> timeSlotsForDay(
+      long day, long offsetMillis, SlotStatuses statuses) {
+    String formattedDate = formatDate(LocalDate.ofEpochDay(day));
+    long slotStart = day * MILLIS_PER_DAY - offsetMillis + EARLIEST_SLOT_MILLIS;
     ImmutableList.Builder<AvailabilityTimeSlot> timeSlots = ImmutableList.builder();
-    for (HoursAndMinutes hoursAndMinutes : ALL_HOURS_AND_MINUTES) {
-      int hour = hoursAndMinutes.hour();
-      int minute = hoursAndMinutes.minute();
-      LocalDateTime localTime = LocalDateTime.of(year, month, dayOfMonth, hour, minute);
-      ZonedDateTime utcTime =
-          ZonedDateTime.of(localTime, zoneId).withZoneSameInstant(ZoneOffset.UTC);
-      String formattedUTCTime = utcTime.format(DateTimeFormatter.ISO_INSTANT);
-
-      int standardHour = hour;
-      if (hour > 12) {
-        standardHour = hour - 12;
-      }
-      String formattedTime =
-          String.format("%d:%02d %s", standardHour, minute, hour < 12 ? "AM" : "PM");
+    for (int i = 0; i < SLOTS_PER_DAY; i++) {
       timeSlots.add(
           AvailabilityTimeSlot.create(
-              formattedUTCTime,
-              formattedTime,
+              Instant.ofEpochMilli(slotStart).toString(),
+              TIME_LABELS.get(i),
               formattedDate,
-              getSelectedStatus(formattedUTCTime, userAvailabilityForWeek),
-              getScheduledStatus(formattedUTCTime, userAvailabilityForWeek)));
+              statuses.isSelected(slotStart),
+              statuses.isScheduled(slotStart)));
+      slotStart += SlotBitmap.SLOT_MILLIS;
     }
-
     return timeSlots.build();
   }
 
+  private static void checkOffset(int timezoneOffsetMinutes) {
+    Preconditions.checkArgument(
+        Math.abs(timezoneOffsetMinutes) <= maxTimezoneOffsetMinutes,
+        "Offset greater than %d minutes (%d hours): %d",
+        maxTimezoneOffsetMinutes,
+        maxTimezoneOffsetHours,
+        timezoneOffsetMinutes);
+  }
+
+  // Returns the day since the epoch that instant falls on in the user's timezone.
+  private static long localDay(Instant instant, long offsetMillis) {
+    return Math.floorDiv(instant.toEpochMilli() + offsetMillis, MILLIS_PER_DAY);
+  }
+
   // Returns a readable date string such as "Tue 7/7".
-  private static String formatDate(String dayOfWeek, int month, int dayOfMonth) {
-    return String.format("%s %d/%d", dayOfWeek, month, dayOfMonth);
+  private static String formatDate(LocalDate date) {
+    return String.format(
+        "%s %d/%d",
+        date.getDayOfWeek().getDisplayName(TextStyle.SHORT, Locale.US),
+        date.getMonthValue(),
+        date.getDayOfMonth());
   }
 
-  // Tells whether or not a time slot has already been selected (Whether or not
-  // it is already in datastore).
-  private static boolean getSelectedStatus(
-      String utcEncoding, Map<Instant, Availability> userAvailabilityForWeek) {
-    Instant startTime = Instant.parse(utcEncoding);
-    if (userAvailabilityForWeek.get(startTime) == null) {
-      return false;
+  /**
+   * Whether each time slot in a span has been selected (is already in datastore) or scheduled
+   * over, looked up by the slot's start in epoch milliseconds rather than by Instant.
+   */
+  private static final class SlotStatuses {
+    private final long start;
+    private final SlotBitmap selected;
+    private final SlotBitmap scheduled;
+
+    SlotStatuses(long start, int size, Collection<Availability> availabilities) {
+      this.start = start;
+      this.selected = new SlotBitmap(size);
+      this.scheduled = new SlotBitmap(size);
+      for (Availability avail : availabilities) {
+        int i = indexOf(avail.when().start().toEpochMilli());
+        if (i >= 0) {
+          selected.set(i);
+          scheduled.set(i, avail.scheduled());
+        }
+      }
     }
-    return true;
-  }
 
-  // Tells whether or not a time slot has already been scheduled over.
-  private static boolean getScheduledStatus(
-      String utcEncoding, Map<Instant, Availability> userAvailabilityForWeek) {
-    if (!getSelectedStatus(utcEncoding, userAvailabilityForWeek)) {
-      return false;
+    boolean isSelected(long slotStart) {
+      int i = indexOf(slotStart);
+      return i >= 0 && selected.get(i);
     }
-    Instant startTime = Instant.parse(utcEncoding);
-    if (userAvailabilityForWeek.get(startTime).scheduled()) {
-      return true;
+
+    boolean isScheduled(long slotStart) {
+      int i = indexOf(slotStart);
+      return i >= 0 && scheduled.get(i);
+    }
+
+    // Returns the index of the slot starting at epochMillis, or -1 if no slot in the span does.
+    private int indexOf(long epochMillis) {
+      long fromStart = epochMillis - start;
+      if (fromStart < 0 || fromStart % SlotBitmap.SLOT_MILLIS != 0) {
+        return -1;
+      }
+      long i = fromStart / SlotBitmap.SLOT_MILLIS;
+      return i < selected.size() ? (int) i : -1;
     }
-    return false;
   }
 }
@@ -0,0 +1,112 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+
+/**
+ * The same fields as a PutAvailabilityRequest, with every slot already parsed to epoch
+ * milliseconds. It is read straight from the request's JSON or AvailabilityWeek, so the marked
+ * slots are never held as strings.
+ */
+public final class AvailabilityUpdate {
+  private final long firstSlot;
+  private final long lastSlot;
+  private final long[] markedSlots;
+
+  // Takes the first markedCount slots of markedSlots.
+  AvailabilityUpdate(long firstSlot, long lastSlot, long[] markedSlots, int markedCount) {
+    this.firstSlot = firstSlot;
+    this.lastSlot = lastSlot;
+    this.markedSlots = Arrays.copyOf(markedSlots, markedCount);
+  }
+
+  /**
+   * Reads a PutAvailabilityRequest's JSON object from reader.
+   *
+   * @throws JsonSyntaxException if the JSON is malformed, a field is missing, or a slot isn't an
+   *     ISO instant.
+   */
+  public static AvailabilityUpdate read(JsonReader reader) throws IOException {
+    Long firstSlot = null;
+    Long lastSlot = null;
+    long[] markedSlots = null;
+    int markedCount = 0;
+    try {
+      reader.beginObject();
+      while (reader.hasNext()) {
+        switch (reader.nextName()) {
+          case "firstSlot":
+            firstSlot = parseSlot(reader.nextString());
+            break;
+          case "lastSlot":
+            lastSlot = parseSlot(reader.nextString());
+            break;
+          case "markedSlots":
+            markedSlots = new long[64];
+            markedCount = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+              if (markedCount == markedSlots.length) {
+                markedSlots = Arrays.copyOf(markedSlots, markedCount * 2);
+              }
+              markedSlots[markedCount++] = parseSlot(reader.nextString());
+            }
+            reader.endArray();
+            break;
+          default:
+            reader.skipValue();
+        }
+      }
+      reader.endObject();
+    } catch (IllegalStateException | DateTimeParseException | ArithmeticException e) {
+      throw new JsonSyntaxException(e);
+    }
+    if (firstSlot == null || lastSlot == null || markedSlots == null) {
+      throw new JsonSyntaxException("Missing firstSlot, lastSlot or markedSlots");
+    }
+    return new AvailabilityUpdate(firstSlot, lastSlot, markedSlots, markedCount);
+  }
+
+  // Throws ArithmeticException if utc is too far from the epoch to fit in epoch milliseconds.
+  private static long parseSlot(String utc) {
+    return Instant.parse(utc).toEpochMilli();
+  }
+
+  /** Returns the start of the first slot of the week, in epoch milliseconds. */
+  public long getFirstSlot() {
+    return firstSlot;
+  }
+
+  /** Returns the start of the last slot of the week, in epoch milliseconds. */
+  public long getLastSlot() {
+    return lastSlot;
+  }
+
+  /** Returns how many slots the user marked. */
+  public int getMarkedSlotCount() {
+    return markedSlots.length;
+  }
+
+  /** Returns the start of marked slot i, in epoch milliseconds. */
+  public long getMarkedSlot(int i) {
+    return markedSlots[i];
+  }
+}
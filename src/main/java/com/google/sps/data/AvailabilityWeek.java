@@ -0,0 +1,158 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.base.Preconditions;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * The time slots of an availability grid's week, as a compact alternative to sending each slot as
+ * an ISO string. Slot i is row i % SLOTS_PER_DAY of day i / SLOTS_PER_DAY, so it starts that many
+ * days and 15 minute slots after the week's first slot.
+ *
+ * <p>A week is encoded as its first slot in epoch milliseconds (8 bytes, big-endian), followed by
+ * the bitmap of selected slots and then the bitmap of scheduled slots. Each bitmap is SLOTS / 8
+ * bytes, and slot i is bit i % 8 of byte i / 8.
+ */
+public final class AvailabilityWeek {
+  // The media type of an encoded week.
+  public static final String MEDIA_TYPE = "application/vnd.interviewme.week";
+  // The media type of an encoded week that has been base64 encoded.
+  public static final String BASE64_MEDIA_TYPE = MEDIA_TYPE + "+base64";
+  public static final int DAYS = 7;
+  public static final int SLOTS_PER_DAY = AvailabilityTimeSlotGenerator.SLOTS_PER_DAY;
+  public static final int SLOTS = DAYS * SLOTS_PER_DAY;
+  private static final int BITMAP_BYTES = (SLOTS + 7) / 8;
+  // The length of an encoded week, in bytes.
+  public static final int ENCODED_BYTES = Long.BYTES + 2 * BITMAP_BYTES;
+  private static final long MILLIS_PER_DAY = 24 * 60 * 60 * 1000L;
+  // How long after the first slot of a week its last slot starts, in milliseconds.
+  public static final long LAST_SLOT_OFFSET_MILLIS =
+      (DAYS - 1) * MILLIS_PER_DAY + (SLOTS_PER_DAY - 1) * SlotBitmap.SLOT_MILLIS;
+
+  private final long firstSlot;
+  private final SlotBitmap selected;
+  private final SlotBitmap scheduled;
+
+  /** Creates a week starting at firstSlot, in epoch milliseconds, with no slots marked. */
+  public AvailabilityWeek(long firstSlot) {
+    this(firstSlot, new SlotBitmap(SLOTS), new SlotBitmap(SLOTS));
+  }
+
+  private AvailabilityWeek(long firstSlot, SlotBitmap selected, SlotBitmap scheduled) {
+    this.firstSlot = firstSlot;
+    this.selected = selected;
+    this.scheduled = scheduled;
+  }
+
+  /** Returns the start of the first slot of the week, in epoch milliseconds. */
+  public long getFirstSlot() {
+    return firstSlot;
+  }
+
+  /** Returns the start of the last slot of the week, in epoch milliseconds. */
+  public long getLastSlot() {
+    return slotStart(SLOTS - 1);
+  }
+
+  /** Returns the start of slot i, in epoch milliseconds. */
+  public long slotStart(int i) {
+    Preconditions.checkElementIndex(i, SLOTS);
+    return firstSlot
+        + (i / SLOTS_PER_DAY) * MILLIS_PER_DAY
+        + (i % SLOTS_PER_DAY) * SlotBitmap.SLOT_MILLIS;
+  }
+
+  /** Returns the slots the user is available for, which callers may mark or unmark. */
+  public SlotBitmap selected() {
+    return selected;
+  }
+
+  /** Returns the slots the user has an interview in, which callers may mark or unmark. */
+  public SlotBitmap scheduled() {
+    return scheduled;
+  }
+
+  /**
+   * Returns the week as an AvailabilityUpdate. Scheduled slots are marked along with the selected
+   * ones, as the availability page does when it sends the week as JSON.
+   */
+  public AvailabilityUpdate toUpdate() {
+    long[] markedSlots = new long[SLOTS];
+    int markedCount = 0;
+    for (int i = 0; i < SLOTS; i++) {
+      if (selected.get(i) || scheduled.get(i)) {
+        markedSlots[markedCount++] = slotStart(i);
+      }
+    }
+    return new AvailabilityUpdate(firstSlot, getLastSlot(), markedSlots, markedCount);
+  }
+
+  /** Returns the week encoded as ENCODED_BYTES bytes. */
+  public byte[] encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES);
+    buffer.putLong(firstSlot);
+    putBitmap(buffer, selected);
+    putBitmap(buffer, scheduled);
+    return buffer.array();
+  }
+
+  /** Returns the week encoded as base64. */
+  public String encodeBase64() {
+    return Base64.getEncoder().encodeToString(encode());
+  }
+
+  /**
+   * Decodes a week returned by {@code encode}.
+   *
+   * @throws IllegalArgumentException if encoded is not ENCODED_BYTES long.
+   */
+  public static AvailabilityWeek decode(byte[] encoded) {
+    Preconditions.checkArgument(
+        encoded.length == ENCODED_BYTES,
+        "Expected %s bytes, got %s",
+        ENCODED_BYTES,
+        encoded.length);
+    ByteBuffer buffer = ByteBuffer.wrap(encoded);
+    long firstSlot = buffer.getLong();
+    return new AvailabilityWeek(firstSlot, getBitmap(buffer), getBitmap(buffer));
+  }
+
+  /**
+   * Decodes a week returned by {@code encodeBase64}.
+   *
+   * @throws IllegalArgumentException if encoded isn't base64 or doesn't decode to a week.
+   */
+  public static AvailabilityWeek decodeBase64(String encoded) {
+    return decode(Base64.getDecoder().decode(encoded.trim()));
+  }
+
+  // Writes the first SLOTS bits of bitmap, lowest slots first.
+  private static void putBitmap(ByteBuffer buffer, SlotBitmap bitmap) {
+    long[] words = bitmap.words();
+    for (int i = 0; i < BITMAP_BYTES; i++) {
+      buffer.put((byte) (words[i >>> 3] >>> ((i & 7) * 8)));
+    }
+  }
+
+  private static SlotBitmap getBitmap(ByteBuffer buffer) {
+    long[] words = new long[SlotBitmap.wordsFor(SLOTS)];
+    for (int i = 0; i < BITMAP_BYTES; i++) {
+      words[i >>> 3] |= (buffer.get() & 0xFFL) << ((i & 7) * 8);
+    }
+    return SlotBitmap.fromWords(SLOTS, words);
+  }
+}
@@ -0,0 +1,44 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * BookableHourIndex includes the basic methods anything tracking when interviewers can start a one
+ * hour interview must support. An hour is bookable for an interviewer if its four 15 minute slots
+ * are all selected and unscheduled.
+ */
+public interface BookableHourIndex {
+  // Recomputes the bookable hours of a user that lie entirely within minTime to maxTime from
+  // availabilities, the user's Availabilities in that range. Must be called whenever those
+  // Availabilities change.
+  public void update(
+      String userId, List<Availability> availabilities, Instant minTime, Instant maxTime);
+
+  // Refreshes the qualifications kept with the bookable hours of person. Must be called whenever
+  // the jobs person is qualified for change.
+  public void updateQualifications(Person person);
+
+  // Returns the interviewers who can start an interview for position at each start time from
+  // minTime to maxTime, in ascending order of start time. Only hours ending by maxTime are
+  // included. Qualifications are taken from when the interviewer's hours or qualifications were
+  // last updated, so callers should still confirm them.
+  public SortedMap<Instant, Set<String>> getInRange(
+      Job position, Instant minTime, Instant maxTime);
+}
@@ -0,0 +1,110 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * The hours that qualified interviewers can be booked for, formatted for one timezone, so that the
+ * same list can be shared by everyone looking for an interview for a position. Only what differs
+ * between interviewees is left to work out per request: their own interviews, and hours that only
+ * they could conduct. The hours are kept in ascending order of start time in parallel arrays.
+ */
+public final class BookableSlots {
+  private static final long HOUR_MILLIS = 60 * 60 * 1000L;
+
+  private final long[] startMillis;
+  // The only interviewer who can conduct each hour, or null if there are several.
+  private final String[] onlyInterviewers;
+  private final PossibleInterviewSlot[] slots;
+  // How many of the arrays' entries are hours that can be booked.
+  private final int count;
+
+  /**
+   * Initializes the fields for BookableSlots.
+   *
+   * @param interviewers The qualified interviewers who can start an interview at each hour. Hours
+   *     with none are left out.
+   * @param timezoneOffset The timezone the slots' dates and times are shown in.
+   */
+  public BookableSlots(SortedMap<Instant, Set<String>> interviewers, ZoneOffset timezoneOffset) {
+    startMillis = new long[interviewers.size()];
+    onlyInterviewers = new String[interviewers.size()];
+    slots = new PossibleInterviewSlot[interviewers.size()];
+    int count = 0;
+    for (Map.Entry<Instant, Set<String>> hour : interviewers.entrySet()) {
+      Set<String> hourInterviewers = hour.getValue();
+      if (hourInterviewers.isEmpty()) {
+        continue;
+      }
+      Instant start = hour.getKey();
+      startMillis[count] = start.toEpochMilli();
+      onlyInterviewers[count] =
+          hourInterviewers.size() == 1 ? hourInterviewers.iterator().next() : null;
+      slots[count] =
+          PossibleInterviewSlot.create(
+              start.toString(),
+              TimeUtils.getDate(start, timezoneOffset),
+              TimeUtils.getTime(start, timezoneOffset));
+      count++;
+    }
+    this.count = count;
+  }
+
+  /**
+   * Returns the slots userId can book within range, in ascending order of start time. A slot is
+   * left out if it starts while userId is already scheduled, or if userId is the only one who could
+   * conduct it.
+   *
+   * @param userScheduledTimes The times userId is already scheduled for, at least within range.
+   */
+  public List<PossibleInterviewSlot> forUser(
+      String userId, IntervalSet userScheduledTimes, TimeRange range) {
+    int from = firstStartingAtOrAfter(range.start().toEpochMilli());
+    int to = firstStartingAtOrAfter(range.end().toEpochMilli() - HOUR_MILLIS + 1);
+    if (from >= to) {
+      return new ArrayList<PossibleInterviewSlot>();
+    }
+    // The start times are in order, so this is a single pass over them and the user's interviews.
+    boolean[] userConflicts =
+        userScheduledTimes.containsAll(Arrays.copyOfRange(startMillis, from, to));
+    List<PossibleInterviewSlot> possibleInterviews = new ArrayList<PossibleInterviewSlot>();
+    for (int i = from; i < to; i++) {
+      if (userConflicts[i - from] || userId.equals(onlyInterviewers[i])) {
+        continue;
+      }
+      possibleInterviews.add(slots[i]);
+    }
+    return possibleInterviews;
+  }
+
+  /** Returns how many hours can be booked, by anyone. */
+  public int size() {
+    return count;
+  }
+
+  // Returns the index of the first hour starting at or after epochMillis, or count if none do.
+  private int firstStartingAtOrAfter(long epochMillis) {
+    int index = Arrays.binarySearch(startMillis, 0, count, epochMillis);
+    return index >= 0 ? index : -index - 1;
+  }
+}
@@ -0,0 +1,164 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A PersonDao that keeps recently read Persons in memory in front of another PersonDao. Entries
+ * expire a fixed time after they are loaded, and the least recently used are evicted once the cache
+ * is full. Writes made through this Dao invalidate the written Person right away; writes made on
+ * other instances are only seen once the cached copy expires. Ids with no Person aren't cached, so
+ * a user who registers on another instance is found straight away.
+ */
+public class CachingPersonDao implements PersonDao {
+  private static final long DEFAULT_MAXIMUM_SIZE = 10000;
+  private static final Duration DEFAULT_TTL = Duration.ofMinutes(5);
+
+  // @param delegate the PersonDao that cache misses and writes go to.
+  private final PersonDao delegate;
+  // @param cache the Persons read recently, keyed by id.
+  private final Cache<String, Person> cache;
+  // @param generation how many times a Person has been invalidated. A Person read in an earlier
+  // generation may have been read before a write, so it is taken back out of the cache.
+  private final AtomicLong generation = new AtomicLong();
+
+  /** Initializes the fields for CachingPersonDao. */
+  public CachingPersonDao(PersonDao delegate, long maximumSize, Duration ttl) {
+    this(delegate, maximumSize, ttl, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  CachingPersonDao(PersonDao delegate, long maximumSize, Duration ttl, Ticker ticker) {
+    this.delegate = delegate;
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+            .ticker(ticker)
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Returns the CachingPersonDao in front of Datastore that servlets share, so that a write made
+   * through any of them invalidates what the others have cached.
+   */
+  public static CachingPersonDao datastore() {
+    return DatastoreHolder.INSTANCE;
+  }
+
+  // Creates the shared instance the first time it is asked for.
+  private static class DatastoreHolder {
+    private static final CachingPersonDao INSTANCE =
+        new CachingPersonDao(
+            new TracingPersonDao(new DatastorePersonDao()), DEFAULT_MAXIMUM_SIZE, DEFAULT_TTL);
+  }
+
+  /** Returns the cached Person with the specified id, reading it from the delegate on a miss. */
+  @Override
+  public Optional<Person> get(String id) {
+    Person cached = cache.getIfPresent(id);
+    if (cached != null) {
+      return Optional.of(cached);
+    }
+    long current = generation.get();
+    Optional<Person> person = delegate.get(id);
+    if (person.isPresent()) {
+      cache.put(id, person.get());
+      dropIfInvalidated(id, person.get(), current);
+    }
+    return person;
+  }
+
+  /**
+   * Returns the cached Persons with the specified ids, reading all of the misses from the delegate
+   * in one call.
+   */
+  @Override
+  public Map<String, Person> getAll(Collection<String> ids) {
+    Map<String, Person> people = new HashMap<String, Person>(cache.getAllPresent(ids));
+    List<String> missing = new ArrayList<String>();
+    for (String id : ids) {
+      if (!people.containsKey(id)) {
+        missing.add(id);
+      }
+    }
+    if (missing.isEmpty()) {
+      return people;
+    }
+    long current = generation.get();
+    Map<String, Person> loaded = delegate.getAll(missing);
+    cache.putAll(loaded);
+    for (Map.Entry<String, Person> person : loaded.entrySet()) {
+      dropIfInvalidated(person.getKey(), person.getValue(), current);
+    }
+    people.putAll(loaded);
+    return people;
+  }
+
+  // Takes person back out of the cache if anything was invalidated since it was read in the
+  // generation loadedIn. A write may have invalidated the id after person was read but before it
+  // was cached, and it must not be served until it expires.
+  private void dropIfInvalidated(String id, Person person, long loadedIn) {
+    if (generation.get() != loadedIn) {
+      cache.asMap().remove(id, person);
+    }
+  }
+
+  /** Creates person in the delegate and drops any cached copy of it. */
+  @Override
+  public void create(Person person) {
+    delegate.create(person);
+    invalidate(person.id());
+  }
+
+  /** Updates person in the delegate and drops any cached copy of it. */
+  @Override
+  public void update(Person person) {
+    delegate.update(person);
+    invalidate(person.id());
+  }
+
+  /** Drops the cached copy of the Person with the specified id, if there is one. */
+  public void invalidate(String id) {
+    generation.incrementAndGet();
+    cache.invalidate(id);
+  }
+
+  /** Drops every cached Person. */
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  /** Returns the hit, miss and eviction counts of this cache since it was created. */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+}
@@ -24,4 +24,8 @@ public interface CalendarAccess {
   // event.
   public String getMeetLink(ScheduledInterview interview)
       throws IOException, GeneralSecurityException;
+
+  // Creates an event in the calendar CALENDAR_ID that isn't for any interview yet and returns the
+  // Meet Link associated with that event, so it can be handed out later.
+  public String reserveMeetLink() throws IOException, GeneralSecurityException;
 }
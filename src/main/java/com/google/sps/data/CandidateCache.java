@@ -0,0 +1,138 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the part of a page that is the same for every user in memory, such as the hours that can
+ * be booked for a position, so that a request only has to work out what is particular to its user.
+ * Entries expire a fixed time after they are loaded, and invalidateAll drops all of them, so every
+ * write that could change an entry must call it. As with CachingPersonDao, writes made on other
+ * instances are only seen once the entries expire.
+ */
+public class CandidateCache<V> {
+  private static final long DEFAULT_MAXIMUM_SIZE = 1000;
+  private static final Duration DEFAULT_TTL = Duration.ofMinutes(1);
+
+  // @param cache the loaded values, keyed by whatever the page's candidates depend on.
+  private final Cache<String, Loaded<V>> cache;
+  // @param generation how many times the cache has been invalidated. A value loaded in an earlier
+  // generation may have been read before a write, so it is never returned.
+  private final AtomicLong generation = new AtomicLong();
+
+  /** Initializes the fields for CandidateCache with the default size and time to live. */
+  public CandidateCache() {
+    this(DEFAULT_MAXIMUM_SIZE, DEFAULT_TTL);
+  }
+
+  /** Initializes the fields for CandidateCache. */
+  public CandidateCache(long maximumSize, Duration ttl) {
+    this(maximumSize, ttl, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  CandidateCache(long maximumSize, Duration ttl, Ticker ticker) {
+    this.cache =
+        CacheBuilder.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(ttl.toMillis(), TimeUnit.MILLISECONDS)
+            .ticker(ticker)
+            .recordStats()
+            .build();
+  }
+
+  /**
+   * Returns the cache of the hours that can be booked for each position that servlets share, so
+   * that a write made through any of them invalidates what the others have cached.
+   */
+  public static CandidateCache<BookableSlots> bookableSlots() {
+    return SharedHolder.BOOKABLE_SLOTS;
+  }
+
+  /**
+   * Returns the cache of the interviews that can be shadowed for each position that servlets
+   * share, so that a write made through any of them invalidates what the others have cached.
+   */
+  public static CandidateCache<ImmutableList<ScheduledInterview>> shadowableInterviews() {
+    return SharedHolder.SHADOWABLE_INTERVIEWS;
+  }
+
+  // Creates the shared instances the first time they are asked for.
+  private static class SharedHolder {
+    private static final CandidateCache<BookableSlots> BOOKABLE_SLOTS =
+        new CandidateCache<BookableSlots>();
+    private static final CandidateCache<ImmutableList<ScheduledInterview>> SHADOWABLE_INTERVIEWS =
+        new CandidateCache<ImmutableList<ScheduledInterview>>();
+  }
+
+  /**
+   * Returns the value cached for key, calling loader for it on a miss. Concurrent misses for the
+   * same key share one call to loader.
+   */
+  public V get(String key, Supplier<V> loader) {
+    long current = generation.get();
+    Loaded<V> loaded = load(key, current, loader);
+    if (loaded.generation < current) {
+      // It was loaded before the last invalidation, so it may be missing the write.
+      cache.asMap().remove(key, loaded);
+      loaded = load(key, current, loader);
+    }
+    return loaded.value;
+  }
+
+  private Loaded<V> load(String key, long current, Supplier<V> loader) {
+    try {
+      return cache.get(key, () -> new Loaded<V>(current, loader.get()));
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      Throwables.throwIfUnchecked(e.getCause());
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  /** Drops every cached value, including any being loaded right now. */
+  public void invalidateAll() {
+    generation.incrementAndGet();
+    cache.invalidateAll();
+  }
+
+  /** Returns the hit, miss and eviction counts of this cache since it was created. */
+  public CacheStats stats() {
+    return cache.stats();
+  }
+
+  // A value and the generation it was loaded in.
+  private static final class Loaded<V> {
+    final long generation;
+    final V value;
+
+    Loaded(long generation, V value) {
+      this.generation = generation;
+      this.value = value;
+    }
+  }
+}
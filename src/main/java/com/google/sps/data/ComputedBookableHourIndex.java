@@ -0,0 +1,84 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A BookableHourIndex that stores nothing and instead works out the bookable hours from an
+ * AvailabilityDao on every lookup. It doesn't know about qualifications, so every interviewer with
+ * a bookable hour is returned for any position.
+ */
+public class ComputedBookableHourIndex implements BookableHourIndex {
+  private final AvailabilityDao availabilityDao;
+
+  /** Initializes the fields for ComputedBookableHourIndex. */
+  public ComputedBookableHourIndex(AvailabilityDao availabilityDao) {
+    this.availabilityDao = availabilityDao;
+  }
+
+  // Nothing is stored, so there is nothing to update.
+  @Override
+  public void update(
+      String userId, List<Availability> availabilities, Instant minTime, Instant maxTime) {}
+
+  // Qualifications aren't stored either.
+  @Override
+  public void updateQualifications(Person person) {}
+
+  @Override
+  public SortedMap<Instant, Set<String>> getInRange(
+      Job position, Instant minTime, Instant maxTime) {
+    Set<String> userIds = availabilityDao.getUsersAvailableInRange(minTime, maxTime);
+    SortedMap<Instant, Set<String>> bookableHours = new TreeMap<Instant, Set<String>>();
+    for (Map.Entry<String, List<Availability>> userAvailability :
+        availabilityDao.getInRangeForUsers(userIds, minTime, maxTime).entrySet()) {
+      for (Instant start : hourStarts(userAvailability.getValue())) {
+        bookableHours
+            .computeIfAbsent(start, hour -> new TreeSet<String>())
+            .add(userAvailability.getKey());
+      }
+    }
+    return bookableHours;
+  }
+
+  // Returns the start of every hour of availabilities that is made up of four unscheduled slots.
+  // availabilities must be sorted by ascending start time.
+  static List<Instant> hourStarts(List<Availability> availabilities) {
+    List<Availability> unscheduled = new ArrayList<Availability>(availabilities);
+    unscheduled.removeIf(avail -> avail.scheduled());
+    List<Instant> starts = new ArrayList<Instant>();
+    // The current slot is the start of an hour of availability if the slot 3 after it starts 45
+    // minutes later.
+    int numberOfSlotsAfterFirstInAnHour = 3;
+    for (int i = 0; i + numberOfSlotsAfterFirstInAnHour < unscheduled.size(); i++) {
+      Instant start = unscheduled.get(i).when().start();
+      if (start
+          .plus(45, ChronoUnit.MINUTES)
+          .equals(unscheduled.get(i + numberOfSlotsAfterFirstInAnHour).when().start())) {
+        starts.add(start);
+      }
+    }
+    return starts;
+  }
+}
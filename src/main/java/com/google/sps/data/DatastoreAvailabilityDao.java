@@ -37,15 +37,24 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
 /** Accesses Datastore to support managing Availability entities. */
 public class DatastoreAvailabilityDao implements AvailabilityDao {
+  // The most entities Datastore accepts in a single batch put or delete.
+  private static final int MAX_BATCH_SIZE = 500;
+  // The most values Datastore accepts in a single IN filter.
+  private static final int MAX_IN_VALUES = 30;
+
   // @param datastore the DatastoreService we're using to interact with Datastore.
-  private DatastoreService datastore;
+  private final DatastoreService datastore;
 
   /** Initializes the fields for DatastoreAvailabilityDao. */
   public DatastoreAvailabilityDao() {
@@ -56,7 +65,6 @@ public class DatastoreAvailabilityDao implements AvailabilityDao {
    * Retrieve the availability from Datastore from its id and wrap it in an Optional. If the id
    * isn't in Datastore, the Optional is empty.
    */
-  @Override
   public Optional<Availability> get(long id) {
     Key key = KeyFactory.createKey("Availability", id);
     Entity availabilityEntity;
@@ -108,25 +116,124 @@ public class DatastoreAvailabilityDao implements AvailabilityDao {
         (boolean) availabilityEntity.getProperty("scheduled"));
   }
 
+  // Adds all of the Availability objects into Datastore using batch puts.
+  @Override
+  public void createAll(List<Availability> availabilities) {
+    List<Entity> entities = new ArrayList<>();
+    for (Availability avail : availabilities) {
+      entities.add(availabilityToNewEntity(avail));
+    }
+    putInBatches(entities);
+  }
+
+  // Deletes all of the Availability objects from Datastore, by id, using batch deletes.
+  @Override
+  public void deleteAll(List<Availability> availabilities) {
+    List<Key> keys = new ArrayList<>();
+    for (Availability avail : availabilities) {
+      keys.add(KeyFactory.createKey("Availability", avail.id()));
+    }
+    deleteInBatches(keys);
+  }
+
   // Deletes all Availability entities for a user ranging from minTime to maxTime.
   @Override
   public void deleteInRangeForUser(String userId, Instant minTime, Instant maxTime) {
     Filter userFilter = new FilterPredicate("userId", FilterOperator.EQUAL, userId);
-    List<Entity> entities = getEntitiesInRange(minTime, maxTime, Optional.of(userFilter));
     List<Key> keyList = new ArrayList<>();
-    for (Entity entity : entities) {
+    for (Entity entity : getEntitiesInRange(minTime, maxTime, Optional.of(userFilter))) {
       keyList.add(entity.getKey());
     }
-    // This iterative deletion avoids XG transactions, which max out at 25 root entities.
-    // We include the individual deletion transactions within a larger group transaction
-    // to avoid replacing Availabilities before they are deleted.
-    Transaction groupTxn = datastore.beginTransaction();
-    for (Key key : keyList) {
-      Transaction txn = datastore.beginTransaction();
-      datastore.delete(txn, key);
+    // Every Availability is its own root entity, so a transaction over all of them would be
+    // limited to 25 entity groups. Non-transactional batch deletes have no such limit.
+    deleteInBatches(keyList);
+  }
+
+  // Makes availabilities the only Availabilities of a user ranging from minTime to maxTime. Slots
+  // that are already stored with the same scheduled status are left untouched.
+  @Override
+  public void replaceRange(
+      String userId, Instant minTime, Instant maxTime, List<Availability> availabilities) {
+    Map<Instant, Availability> stored = new HashMap<>();
+    for (Availability avail : getInRangeForUser(userId, minTime, maxTime)) {
+      stored.put(avail.when().start(), avail);
+    }
+    List<Entity> toPut = new ArrayList<>();
+    for (Availability avail : availabilities) {
+      Availability storedAvail = stored.remove(avail.when().start());
+      if (storedAvail == null) {
+        toPut.add(availabilityToNewEntity(avail));
+      } else if (storedAvail.scheduled() != avail.scheduled()) {
+        toPut.add(availabilityToUpdatedEntity(storedAvail.withScheduled(avail.scheduled())));
+      }
+    }
+    List<Key> toDelete = new ArrayList<>();
+    for (Availability avail : stored.values()) {
+      toDelete.add(KeyFactory.createKey("Availability", avail.id()));
+    }
+    putInBatches(toPut);
+    deleteInBatches(toDelete);
+  }
+
+  private void putInBatches(List<Entity> entities) {
+    for (int i = 0; i < entities.size(); i += MAX_BATCH_SIZE) {
+      datastore.put(entities.subList(i, Math.min(entities.size(), i + MAX_BATCH_SIZE)));
+    }
+  }
+
+  private void deleteInBatches(List<Key> keys) {
+    for (int i = 0; i < keys.size(); i += MAX_BATCH_SIZE) {
+      datastore.delete(keys.subList(i, Math.min(keys.size(), i + MAX_BATCH_SIZE)));
+    }
+  }
+
+  // Marks every slot of a user within when as scheduled, if there is an Availability for each and
+  // none is scheduled yet. The slots are re-read and written in one transaction, so a concurrent
+  // reservation of any of them makes this one fail rather than double book.
+  @Override
+  public boolean reserve(String userId, TimeRange when) {
+    return setScheduledInTransaction(userId, when, true);
+  }
+
+  // Marks every slot of a user within when as no longer scheduled, if there is an Availability for
+  // each and all of them are scheduled.
+  @Override
+  public boolean release(String userId, TimeRange when) {
+    return setScheduledInTransaction(userId, when, false);
+  }
+
+  private boolean setScheduledInTransaction(String userId, TimeRange when, boolean scheduled) {
+    Filter userFilter = new FilterPredicate("userId", FilterOperator.EQUAL, userId);
+    List<Key> keys = new ArrayList<>();
+    for (Entity entity : getEntitiesInRange(when.start(), when.end(), Optional.of(userFilter))) {
+      keys.add(entity.getKey());
+    }
+    if (keys.size() != when.duration().toMillis() / SlotBitmap.SLOT_MILLIS) {
+      return false;
+    }
+    // Each slot is its own entity group, and an hour is well under the limit of 25 per transaction.
+    Transaction txn = datastore.beginTransaction(TransactionOptions.Builder.withXG(true));
+    try {
+      Map<Key, Entity> found = datastore.get(txn, keys);
+      List<Entity> changedSlots = new ArrayList<>();
+      for (Key key : keys) {
+        Entity slotEntity = found.get(key);
+        if (slotEntity == null || (boolean) slotEntity.getProperty("scheduled") == scheduled) {
+          return false;
+        }
+        slotEntity.setProperty("scheduled", scheduled);
+        changedSlots.add(slotEntity);
+      }
+      datastore.put(txn, changedSlots);
       txn.commit();
+      return true;
+    } catch (ConcurrentModificationException e) {
+      return false;
+    } finally {
+      if (txn.isActive()) {
+        txn.rollback();
+      }
     }
-    groupTxn.commit();
   }
 
   // Returns a sorted (by ascending start times) list of all Availabilities ranging from
@@ -142,6 +249,48 @@ public class DatastoreAvailabilityDao implements AvailabilityDao {
     return availability;
   }
 
+  // Returns the unscheduled Availabilities of a user ranging from minTime to maxTime. The
+  // scheduled filter is part of the query, which is served by the composite index on userId,
+  // scheduled and startTime in datastore-indexes.xml.
+  @Override
+  public List<Availability> getUnscheduledInRangeForUser(
+      String userId, Instant minTime, Instant maxTime) {
+    Filter userUnscheduledFilter =
+        CompositeFilterOperator.and(
+            new FilterPredicate("userId", FilterOperator.EQUAL, userId),
+            new FilterPredicate("scheduled", FilterOperator.EQUAL, false));
+    List<Entity> entities =
+        getEntitiesInRange(minTime, maxTime, Optional.of(userUnscheduledFilter));
+    List<Availability> availability = new ArrayList<Availability>();
+    for (Entity entity : entities) {
+      availability.add(entityToAvailability(entity));
+    }
+    return availability;
+  }
+
+  // Returns the Availabilities ranging from minTime to maxTime of each of the users, keyed by
+  // userId. The users are filtered on in chunks of IN queries, served by the index on userId and
+  // startTime, so only their slots are read rather than everyone's in the range.
+  @Override
+  public Map<String, List<Availability>> getInRangeForUsers(
+      Collection<String> userIds, Instant minTime, Instant maxTime) {
+    List<String> wantedUsers = new ArrayList<>(new HashSet<>(userIds));
+    Map<String, List<Availability>> availabilityByUser = new HashMap<>();
+    for (int i = 0; i < wantedUsers.size(); i += MAX_IN_VALUES) {
+      Filter usersFilter =
+          new FilterPredicate(
+              "userId",
+              FilterOperator.IN,
+              wantedUsers.subList(i, Math.min(wantedUsers.size(), i + MAX_IN_VALUES)));
+      for (Entity entity : getEntitiesInRange(minTime, maxTime, Optional.of(usersFilter))) {
+        availabilityByUser
+            .computeIfAbsent((String) entity.getProperty("userId"), id -> new ArrayList<>())
+            .add(entityToAvailability(entity));
+      }
+    }
+    return availabilityByUser;
+  }
+
   // Returns all Availabilities across all users ranging from minTime to maxTime in order
   // (by ascending start times).
   @Override
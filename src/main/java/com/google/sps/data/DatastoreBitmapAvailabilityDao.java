@@ -0,0 +1,643 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.Cursor;
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.EntityNotFoundException;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
+import com.google.appengine.api.datastore.Query.Filter;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import com.google.appengine.api.datastore.Query.SortDirection;
+import com.google.appengine.api.datastore.QueryResultList;
+import com.google.appengine.api.datastore.Transaction;
+import com.google.appengine.api.datastore.TransactionOptions;
+import com.google.common.base.Preconditions;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Accesses Datastore to support managing Availability entities. Instead of one entity per 15
+ * minute slot, each user has at most one AvailabilityDay entity per UTC day holding a bitmap of the
+ * selected slots and a parallel bitmap of the scheduled slots.
+ *
+ * <p>Availabilities read from this Dao have the start of their slot in epoch milliseconds as their
+ * id, which is only unique per user.
+ */
+public class DatastoreBitmapAvailabilityDao implements AvailabilityDao {
+  static final String KIND = "AvailabilityDay";
+  static final int SLOTS_PER_DAY = 96;
+  static final long MILLIS_PER_DAY = SLOTS_PER_DAY * SlotBitmap.SLOT_MILLIS;
+  // The most entities Datastore accepts in a single batch put or delete.
+  private static final int MAX_BATCH_SIZE = 500;
+  // How many times a reservation is tried when other transactions keep changing the same days.
+  private static final int MAX_TRANSACTION_ATTEMPTS = 3;
+
+  // @param datastore the DatastoreService we're using to interact with Datastore.
+  private final DatastoreService datastore;
+
+  /** Initializes the fields for DatastoreBitmapAvailabilityDao. */
+  public DatastoreBitmapAvailabilityDao() {
+    datastore = DatastoreServiceFactory.getDatastoreService();
+  }
+
+  // Marks the slot of avail as selected, and as scheduled if avail is scheduled.
+  @Override
+  public void create(Availability avail) {
+    writeSlot(avail);
+  }
+
+  // Updates the selected slot of avail with its scheduled status.
+  @Override
+  public void update(Availability avail) {
+    writeSlot(avail);
+  }
+
+  private void writeSlot(Availability avail) {
+    updateDayInTransaction(avail.userId(), epochDayOf(avail), day -> day.mark(avail));
+  }
+
+  // Marks every slot of availabilities as selected, keeping slots that are already scheduled
+  // scheduled. Each affected day is read and written once, in its own transaction.
+  @Override
+  public void createAll(List<Availability> availabilities) {
+    for (List<Availability> dayAvailabilities : groupByDay(availabilities).values()) {
+      Availability first = dayAvailabilities.get(0);
+      updateDayInTransaction(
+          first.userId(),
+          epochDayOf(first),
+          day -> {
+            for (Availability avail : dayAvailabilities) {
+              day.merge(avail);
+            }
+          });
+    }
+  }
+
+  // Unmarks every slot of availabilities. Each affected day is read and written once, in its own
+  // transaction.
+  @Override
+  public void deleteAll(List<Availability> availabilities) {
+    for (List<Availability> dayAvailabilities : groupByDay(availabilities).values()) {
+      Availability first = dayAvailabilities.get(0);
+      updateDayInTransaction(
+          first.userId(),
+          epochDayOf(first),
+          day -> {
+            for (Availability avail : dayAvailabilities) {
+              day.unmark(avail);
+            }
+          });
+    }
+  }
+
+  // Deletes all Availability entities for a user ranging from minTime to maxTime, scheduled or
+  // not.
+  @Override
+  public void deleteInRangeForUser(String userId, Instant minTime, Instant maxTime) {
+    long minMillis = minTime.toEpochMilli();
+    long maxMillis = maxTime.toEpochMilli();
+    for (long epochDay : epochDaysInRange(minMillis, maxMillis)) {
+      updateDayInTransaction(userId, epochDay, day -> day.clearRange(minMillis, maxMillis));
+    }
+  }
+
+  // Makes availabilities the only selected slots of a user ranging from minTime to maxTime. The
+  // scheduled status of each slot is kept as stored rather than taken from availabilities, and
+  // scheduled slots stay selected, so a save racing a reservation can't undo it. Each day is read
+  // and written in its own transaction, and only if its bitmaps change.
+  @Override
+  public void replaceRange(
+      String userId, Instant minTime, Instant maxTime, List<Availability> availabilities) {
+    long minMillis = minTime.toEpochMilli();
+    long maxMillis = maxTime.toEpochMilli();
+    Map<Long, List<Availability>> availabilitiesByDay = new TreeMap<>();
+    for (long epochDay : epochDaysInRange(minMillis, maxMillis)) {
+      availabilitiesByDay.put(epochDay, new ArrayList<Availability>());
+    }
+    for (Availability avail : availabilities) {
+      Preconditions.checkArgument(
+          avail.userId().equals(userId), "Availability of another user: %s", avail);
+      availabilitiesByDay
+          .computeIfAbsent(epochDayOf(avail), epochDay -> new ArrayList<Availability>())
+          .add(avail);
+    }
+    for (Map.Entry<Long, List<Availability>> dayAvailabilities : availabilitiesByDay.entrySet()) {
+      updateDayInTransaction(
+          userId,
+          dayAvailabilities.getKey(),
+          day -> day.reselectRange(minMillis, maxMillis, dayAvailabilities.getValue()));
+    }
+  }
+
+  // Applies change to the day of a user in a transaction, putting the day if its bitmaps changed
+  // and deleting it once no slot is selected. The change is retried if another transaction, such
+  // as a reservation, changed the day first.
+  private void updateDayInTransaction(String userId, long epochDay, Consumer<DayBitmaps> change) {
+    Key key = dayKey(userId, epochDay);
+    for (int attempt = 1; ; attempt++) {
+      Transaction txn = datastore.beginTransaction();
+      try {
+        Entity dayEntity;
+        try {
+          dayEntity = datastore.get(txn, key);
+        } catch (EntityNotFoundException e) {
+          dayEntity = newDayEntity(userId, epochDay);
+        }
+        DayBitmaps day = new DayBitmaps(dayEntity);
+        change.accept(day);
+        if (!day.changed()) {
+          return;
+        }
+        if (day.selected.isEmpty()) {
+          datastore.delete(txn, key);
+        } else {
+          datastore.put(txn, day.toEntity());
+        }
+        txn.commit();
+        return;
+      } catch (ConcurrentModificationException e) {
+        if (attempt == MAX_TRANSACTION_ATTEMPTS) {
+          throw e;
+        }
+      } finally {
+        if (txn.isActive()) {
+          txn.rollback();
+        }
+      }
+    }
+  }
+
+  // Marks every slot of a user within when as scheduled, if all of them are selected and none is
+  // scheduled yet. The days holding the slots are read and written in one transaction, so a
+  // concurrent reservation of any of them makes this one fail rather than double book.
+  @Override
+  public boolean reserve(String userId, TimeRange when) {
+    return setScheduledInTransaction(userId, when, true);
+  }
+
+  // Marks every slot of a user within when as no longer scheduled, if all of them are selected and
+  // scheduled.
+  @Override
+  public boolean release(String userId, TimeRange when) {
+    return setScheduledInTransaction(userId, when, false);
+  }
+
+  // Sets the scheduled status of every slot within when, if each is selected and has the other
+  // status, retrying if another transaction changed the same days first.
+  private boolean setScheduledInTransaction(String userId, TimeRange when, boolean scheduled) {
+    long minMillis = when.start().toEpochMilli();
+    long maxMillis = when.end().toEpochMilli();
+    List<Key> keys = dayKeysForUser(userId, minMillis, maxMillis);
+    for (int attempt = 1; ; attempt++) {
+      // A range crossing midnight UTC spans two days, which are separate entity groups.
+      Transaction txn =
+          datastore.beginTransaction(TransactionOptions.Builder.withXG(keys.size() > 1));
+      try {
+        Map<Key, Entity> found = datastore.get(txn, keys);
+        List<Entity> changedDays = new ArrayList<>();
+        for (Key key : keys) {
+          Entity dayEntity = found.get(key);
+          if (dayEntity == null) {
+            return false;
+          }
+          DayBitmaps day = new DayBitmaps(dayEntity);
+          if (!day.setScheduledInRange(minMillis, maxMillis, scheduled)) {
+            return false;
+          }
+          changedDays.add(day.toEntity());
+        }
+        datastore.put(txn, changedDays);
+        txn.commit();
+        return true;
+      } catch (ConcurrentModificationException e) {
+        if (attempt == MAX_TRANSACTION_ATTEMPTS) {
+          return false;
+        }
+      } finally {
+        if (txn.isActive()) {
+          txn.rollback();
+        }
+      }
+    }
+  }
+
+  // Returns a sorted (by ascending start times) list of all Availabilities ranging from
+  // minTime to maxTime of a user.
+  @Override
+  public List<Availability> getInRangeForUser(String userId, Instant minTime, Instant maxTime) {
+    long minMillis = minTime.toEpochMilli();
+    long maxMillis = maxTime.toEpochMilli();
+    List<Availability> availability = new ArrayList<Availability>();
+    for (Entity dayEntity : getDaysForUser(userId, minMillis, maxMillis)) {
+      new DayBitmaps(dayEntity).addSlotsInRange(minMillis, maxMillis, availability);
+    }
+    return availability;
+  }
+
+  // Returns the unscheduled Availabilities of a user ranging from minTime to maxTime. Scheduled
+  // slots are masked out of each day's bitmap before any Availabilities are created.
+  @Override
+  public List<Availability> getUnscheduledInRangeForUser(
+      String userId, Instant minTime, Instant maxTime) {
+    long minMillis = minTime.toEpochMilli();
+    long maxMillis = maxTime.toEpochMilli();
+    List<Availability> availability = new ArrayList<Availability>();
+    for (Entity dayEntity : getDaysForUser(userId, minMillis, maxMillis)) {
+      new DayBitmaps(dayEntity).addUnscheduledSlotsInRange(minMillis, maxMillis, availability);
+    }
+    return availability;
+  }
+
+  // Returns the Availabilities ranging from minTime to maxTime of each of the users, keyed by
+  // userId. Every user's days are fetched together in a single batch get.
+  @Override
+  public Map<String, List<Availability>> getInRangeForUsers(
+      Collection<String> userIds, Instant minTime, Instant maxTime) {
+    long minMillis = minTime.toEpochMilli();
+    long maxMillis = maxTime.toEpochMilli();
+    List<Key> keys = new ArrayList<>();
+    for (String userId : new LinkedHashSet<>(userIds)) {
+      keys.addAll(dayKeysForUser(userId, minMillis, maxMillis));
+    }
+    Map<Key, Entity> found = getInBatches(keys);
+    Map<String, List<Availability>> availabilityByUser = new HashMap<>();
+    for (Key key : keys) {
+      Entity dayEntity = found.get(key);
+      if (dayEntity == null) {
+        continue;
+      }
+      DayBitmaps day = new DayBitmaps(dayEntity);
+      List<Availability> userAvailability =
+          availabilityByUser.computeIfAbsent(day.userId(), id -> new ArrayList<Availability>());
+      day.addSlotsInRange(minMillis, maxMillis, userAvailability);
+    }
+    availabilityByUser.values().removeIf(List::isEmpty);
+    return availabilityByUser;
+  }
+
+  // Returns all Availabilities across all users ranging from minTime to maxTime in order
+  // (by ascending start times).
+  @Override
+  public List<Availability> getInRangeForAll(Instant minTime, Instant maxTime) {
+    long minMillis = minTime.toEpochMilli();
+    long maxMillis = maxTime.toEpochMilli();
+    List<Availability> availability = new ArrayList<Availability>();
+    for (Entity dayEntity : getDaysForAll(minMillis, maxMillis)) {
+      new DayBitmaps(dayEntity).addSlotsInRange(minMillis, maxMillis, availability);
+    }
+    availability.sort((a1, a2) -> a1.when().start().compareTo(a2.when().start()));
+    return availability;
+  }
+
+  // Returns the ids of all users that have availabilities within the specified time range.
+  @Override
+  public Set<String> getUsersAvailableInRange(Instant minTime, Instant maxTime) {
+    long minMillis = minTime.toEpochMilli();
+    long maxMillis = maxTime.toEpochMilli();
+    Set<String> userIds = new HashSet<String>();
+    for (Entity dayEntity : getDaysForAll(minMillis, maxMillis)) {
+      DayBitmaps day = new DayBitmaps(dayEntity);
+      int slot = day.selected.nextSetBit(firstSlotInRange(day.start(), minMillis));
+      if (slot != -1 && slot <= lastSlotInRange(day.start(), maxMillis)) {
+        userIds.add(day.userId());
+      }
+    }
+    return userIds;
+  }
+
+  /**
+   * Moves the next limit per-slot Availability entities written by DatastoreAvailabilityDao into
+   * AvailabilityDay entities, merging with any days that already exist, and deletes the old
+   * entities. cursor is empty for the first chunk, and otherwise the nextCursor of the previous
+   * one, so that a migration too big for one request can be spread over several. Throws
+   * IllegalArgumentException if cursor wasn't returned by this method.
+   */
+  public AvailabilityMigration migrateFromSlotEntities(int limit, Optional<String> cursor) {
+    FetchOptions fetchOptions = FetchOptions.Builder.withLimit(limit);
+    if (cursor.isPresent()) {
+      fetchOptions.startCursor(Cursor.fromWebSafeString(cursor.get()));
+    }
+    QueryResultList<Entity> slotEntities =
+        datastore.prepare(new Query("Availability")).asQueryResultList(fetchOptions);
+    List<Availability> slots = new ArrayList<>();
+    List<Key> migratedKeys = new ArrayList<>();
+    for (Entity slotEntity : slotEntities) {
+      slots.add(DatastoreAvailabilityDao.entityToAvailability(slotEntity));
+      migratedKeys.add(slotEntity.getKey());
+    }
+    // The new entities are written before the old ones are removed so that an interrupted
+    // migration can simply be run again. Merging keeps any reservation made in the meantime.
+    createAll(slots);
+    deleteInBatches(migratedKeys);
+    // A full chunk may have been the last one, in which case the next chunk is empty.
+    Optional<String> nextCursor =
+        slotEntities.size() < limit
+            ? Optional.empty()
+            : Optional.of(slotEntities.getCursor().toWebSafeString());
+    return AvailabilityMigration.create(migratedKeys.size(), nextCursor);
+  }
+
+  // Returns the AvailabilityDay entities of a user that overlap minMillis to maxMillis, in
+  // ascending order. Since day keys are deterministic this is one batch get rather than a query.
+  private List<Entity> getDaysForUser(String userId, long minMillis, long maxMillis) {
+    List<Key> keys = dayKeysForUser(userId, minMillis, maxMillis);
+    Map<Key, Entity> found = getInBatches(keys);
+    List<Entity> days = new ArrayList<>();
+    for (Key key : keys) {
+      if (found.containsKey(key)) {
+        days.add(found.get(key));
+      }
+    }
+    return days;
+  }
+
+  // Returns the keys, in ascending order, of the days of a user that overlap minMillis to
+  // maxMillis.
+  private static List<Key> dayKeysForUser(String userId, long minMillis, long maxMillis) {
+    List<Key> keys = new ArrayList<>();
+    for (long day : epochDaysInRange(minMillis, maxMillis)) {
+      keys.add(dayKey(userId, day));
+    }
+    return keys;
+  }
+
+  // Returns the days, in ascending order, that overlap minMillis to maxMillis.
+  private static List<Long> epochDaysInRange(long minMillis, long maxMillis) {
+    List<Long> days = new ArrayList<>();
+    long lastDay = Math.floorDiv(maxMillis - 1, MILLIS_PER_DAY);
+    for (long day = Math.floorDiv(minMillis, MILLIS_PER_DAY); day <= lastDay; day++) {
+      days.add(day);
+    }
+    return days;
+  }
+
+  // Returns availabilities grouped by the day of their user they fall on.
+  private static Map<Key, List<Availability>> groupByDay(List<Availability> availabilities) {
+    Map<Key, List<Availability>> availabilitiesByDay = new LinkedHashMap<>();
+    for (Availability avail : availabilities) {
+      availabilitiesByDay
+          .computeIfAbsent(dayKey(avail), key -> new ArrayList<Availability>())
+          .add(avail);
+    }
+    return availabilitiesByDay;
+  }
+
+  // Returns the AvailabilityDay entities of all users that overlap minMillis to maxMillis.
+  private List<Entity> getDaysForAll(long minMillis, long maxMillis) {
+    Filter firstDayFilter =
+        new FilterPredicate(
+            "epochDay",
+            FilterOperator.GREATER_THAN_OR_EQUAL,
+            Math.floorDiv(minMillis, MILLIS_PER_DAY));
+    Filter lastDayFilter =
+        new FilterPredicate(
+            "epochDay",
+            FilterOperator.LESS_THAN_OR_EQUAL,
+            Math.floorDiv(maxMillis - 1, MILLIS_PER_DAY));
+    Query dayQuery =
+        new Query(KIND)
+            .setFilter(CompositeFilterOperator.and(firstDayFilter, lastDayFilter))
+            .addSort("epochDay", SortDirection.ASCENDING);
+    return datastore.prepare(dayQuery).asList(FetchOptions.Builder.withDefaults());
+  }
+
+  // Returns the first slot of the day starting at dayStart that starts at or after minMillis.
+  private static int firstSlotInRange(long dayStart, long minMillis) {
+    if (minMillis <= dayStart) {
+      return 0;
+    }
+    return (int)
+        Math.min(
+            SLOTS_PER_DAY,
+            (minMillis - dayStart + SlotBitmap.SLOT_MILLIS - 1) / SlotBitmap.SLOT_MILLIS);
+  }
+
+  // Returns the last slot of the day starting at dayStart that ends at or before maxMillis.
+  private static int lastSlotInRange(long dayStart, long maxMillis) {
+    if (maxMillis < dayStart) {
+      return -1;
+    }
+    return (int) Math.min(SLOTS_PER_DAY, (maxMillis - dayStart) / SlotBitmap.SLOT_MILLIS) - 1;
+  }
+
+  private static long epochDayOf(Availability avail) {
+    return Math.floorDiv(avail.when().start().toEpochMilli(), MILLIS_PER_DAY);
+  }
+
+  private static Key dayKey(Availability avail) {
+    return dayKey(avail.userId(), epochDayOf(avail));
+  }
+
+  static Key dayKey(String userId, long epochDay) {
+    return KeyFactory.createKey(KIND, String.format("%s:%d", userId, epochDay));
+  }
+
+  private static Entity newDayEntity(String userId, long epochDay) {
+    Entity dayEntity = new Entity(dayKey(userId, epochDay));
+    dayEntity.setProperty("userId", userId);
+    dayEntity.setProperty("epochDay", epochDay);
+    return dayEntity;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static SlotBitmap getBitmap(Entity dayEntity, String property) {
+    List<Long> storedWords = (List<Long>) dayEntity.getProperty(property);
+    long[] words = new long[SlotBitmap.wordsFor(SLOTS_PER_DAY)];
+    if (storedWords != null) {
+      for (int i = 0; i < words.length && i < storedWords.size(); i++) {
+        words[i] = storedWords.get(i);
+      }
+    }
+    return SlotBitmap.fromWords(SLOTS_PER_DAY, words);
+  }
+
+  private static List<Long> toList(long[] words) {
+    List<Long> list = new ArrayList<>(words.length);
+    for (long word : words) {
+      list.add(word);
+    }
+    return list;
+  }
+
+  private Map<Key, Entity> getInBatches(Collection<Key> keys) {
+    List<Key> keyList = new ArrayList<>(keys);
+    Map<Key, Entity> found = new LinkedHashMap<>();
+    for (int i = 0; i < keyList.size(); i += MAX_BATCH_SIZE) {
+      found.putAll(datastore.get(keyList.subList(i, Math.min(keyList.size(), i + MAX_BATCH_SIZE))));
+    }
+    return found;
+  }
+
+  private void deleteInBatches(List<Key> keys) {
+    for (int i = 0; i < keys.size(); i += MAX_BATCH_SIZE) {
+      datastore.delete(keys.subList(i, Math.min(keys.size(), i + MAX_BATCH_SIZE)));
+    }
+  }
+
+  /** The decoded bitmaps of one AvailabilityDay entity, along with what was originally stored. */
+  private static class DayBitmaps {
+    private final Entity entity;
+    private final SlotBitmap selected;
+    private final SlotBitmap scheduled;
+    private final SlotBitmap storedSelected;
+    private final SlotBitmap storedScheduled;
+
+    DayBitmaps(Entity entity) {
+      this.entity = entity;
+      this.storedSelected = getBitmap(entity, "selected");
+      this.storedScheduled = getBitmap(entity, "scheduled");
+      this.selected = SlotBitmap.fromWords(SLOTS_PER_DAY, storedSelected.words());
+      this.scheduled = SlotBitmap.fromWords(SLOTS_PER_DAY, storedScheduled.words());
+    }
+
+    String userId() {
+      return (String) entity.getProperty("userId");
+    }
+
+    long start() {
+      return (long) entity.getProperty("epochDay") * MILLIS_PER_DAY;
+    }
+
+    // Marks the slot of avail as selected and sets its scheduled status.
+    void mark(Availability avail) {
+      int slot = slotOf(avail);
+      selected.set(slot);
+      scheduled.set(slot, avail.scheduled());
+    }
+
+    // Marks the slot of avail as selected, keeping it scheduled if it already was.
+    void merge(Availability avail) {
+      int slot = slotOf(avail);
+      selected.set(slot);
+      scheduled.set(slot, scheduled.get(slot) || avail.scheduled());
+    }
+
+    void unmark(Availability avail) {
+      int slot = slotOf(avail);
+      selected.clear(slot);
+      scheduled.clear(slot);
+    }
+
+    // Makes the slots of avails the only selected slots lying within minMillis to maxMillis,
+    // besides the scheduled ones, which stay selected. Scheduled statuses are left as they are.
+    void reselectRange(long minMillis, long maxMillis, List<Availability> avails) {
+      int fromSlot = firstSlotInRange(start(), minMillis);
+      int toSlot = lastSlotInRange(start(), maxMillis) + 1;
+      for (int slot = fromSlot; slot < toSlot; slot++) {
+        selected.set(slot, scheduled.get(slot));
+      }
+      for (Availability avail : avails) {
+        selected.set(slotOf(avail));
+      }
+    }
+
+    // Unmarks every slot lying within minMillis to maxMillis.
+    void clearRange(long minMillis, long maxMillis) {
+      int fromSlot = firstSlotInRange(start(), minMillis);
+      int toSlot = lastSlotInRange(start(), maxMillis) + 1;
+      selected.clear(fromSlot, toSlot);
+      scheduled.clear(fromSlot, toSlot);
+    }
+
+    // Sets the scheduled status of every slot lying within minMillis to maxMillis, if each is
+    // selected and has the other status. Returns false, changing nothing, otherwise.
+    boolean setScheduledInRange(long minMillis, long maxMillis, boolean value) {
+      int fromSlot = firstSlotInRange(start(), minMillis);
+      int toSlot = lastSlotInRange(start(), maxMillis) + 1;
+      for (int slot = fromSlot; slot < toSlot; slot++) {
+        if (!selected.get(slot) || scheduled.get(slot) == value) {
+          return false;
+        }
+      }
+      for (int slot = fromSlot; slot < toSlot; slot++) {
+        scheduled.set(slot, value);
+      }
+      return true;
+    }
+
+    boolean changed() {
+      return !selected.equals(storedSelected) || !scheduled.equals(storedScheduled);
+    }
+
+    // Adds an Availability to availability for every selected slot lying within minMillis to
+    // maxMillis.
+    void addSlotsInRange(long minMillis, long maxMillis, List<Availability> availability) {
+      addSlotsInRange(selected, minMillis, maxMillis, availability);
+    }
+
+    // Adds an Availability to availability for every selected slot lying within minMillis to
+    // maxMillis that isn't scheduled.
+    void addUnscheduledSlotsInRange(
+        long minMillis, long maxMillis, List<Availability> availability) {
+      addSlotsInRange(selected.andNot(scheduled), minMillis, maxMillis, availability);
+    }
+
+    private void addSlotsInRange(
+        SlotBitmap slots, long minMillis, long maxMillis, List<Availability> availability) {
+      String userId = userId();
+      long dayStart = start();
+      int lastSlot = lastSlotInRange(dayStart, maxMillis);
+      for (int slot = slots.nextSetBit(firstSlotInRange(dayStart, minMillis));
+          slot != -1 && slot <= lastSlot;
+          slot = slots.nextSetBit(slot + 1)) {
+        long slotStart = dayStart + slot * SlotBitmap.SLOT_MILLIS;
+        availability.add(
+            Availability.create(
+                userId,
+                new TimeRange(
+                    Instant.ofEpochMilli(slotStart),
+                    Instant.ofEpochMilli(slotStart + SlotBitmap.SLOT_MILLIS)),
+                slotStart,
+                scheduled.get(slot)));
+      }
+    }
+
+    Entity toEntity() {
+      // The bitmaps are never queried, so they are unindexed to keep writes cheap.
+      entity.setUnindexedProperty("selected", toList(selected.words()));
+      entity.setUnindexedProperty("scheduled", toList(scheduled.words()));
+      return entity;
+    }
+
+    private int slotOf(Availability avail) {
+      long startMillis = avail.when().start().toEpochMilli();
+      Preconditions.checkArgument(
+          startMillis % SlotBitmap.SLOT_MILLIS == 0,
+          "Availability does not start on a 15 minute boundary: %s",
+          avail);
+      return (int) ((startMillis - start()) / SlotBitmap.SLOT_MILLIS);
+    }
+  }
+}
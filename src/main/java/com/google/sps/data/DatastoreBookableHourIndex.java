@@ -0,0 +1,234 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.Entity;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Key;
+import com.google.appengine.api.datastore.KeyFactory;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
+import com.google.appengine.api.datastore.Query.FilterOperator;
+import com.google.appengine.api.datastore.Query.FilterPredicate;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Keeps the bookable hours of each interviewer in Datastore, so that finding who can interview for
+ * a position over a range of time is a single query rather than a pass over everyone's
+ * availability. Each user has at most one BookableHours entity per UTC day, holding a bitmap of
+ * the 15 minute slots an hour can start at along with the jobs the user is qualified for, which is
+ * indexed alongside the day. Days are kept while the user has no qualifications, so that they are
+ * found again as soon as the user gains one.
+ */
+public class DatastoreBookableHourIndex implements BookableHourIndex {
+  static final String KIND = "BookableHours";
+  private static final int SLOTS_PER_DAY = DatastoreBitmapAvailabilityDao.SLOTS_PER_DAY;
+  private static final long MILLIS_PER_DAY = DatastoreBitmapAvailabilityDao.MILLIS_PER_DAY;
+  private static final int SLOTS_PER_HOUR = 4;
+  private static final long MILLIS_PER_HOUR = SLOTS_PER_HOUR * SlotBitmap.SLOT_MILLIS;
+
+  // @param datastore the DatastoreService we're using to interact with Datastore.
+  private final DatastoreService datastore;
+  // @param personDao the PersonDao the qualifications of users are read from.
+  private final PersonDao personDao;
+
+  /** Initializes the fields for DatastoreBookableHourIndex. */
+  public DatastoreBookableHourIndex(PersonDao personDao) {
+    datastore = DatastoreServiceFactory.getDatastoreService();
+    this.personDao = personDao;
+  }
+
+  // Recomputes the bookable hours of a user lying within minTime to maxTime, writing only the days
+  // that change. The user's qualifications are refreshed on every day that is touched.
+  @Override
+  public void update(
+      String userId, List<Availability> availabilities, Instant minTime, Instant maxTime) {
+    long minMillis = minTime.toEpochMilli();
+    long maxMillis = maxTime.toEpochMilli();
+    long firstDay = Math.floorDiv(minMillis, MILLIS_PER_DAY);
+    long lastDay = Math.floorDiv(maxMillis - 1, MILLIS_PER_DAY);
+    long rangeStart = firstDay * MILLIS_PER_DAY;
+    // An hour starting late in the last day runs into the next one, so one extra day of slots is
+    // kept.
+    SlotBitmap free = new SlotBitmap((int) (lastDay - firstDay + 2) * SLOTS_PER_DAY);
+    for (Availability avail : availabilities) {
+      long slot = (avail.when().start().toEpochMilli() - rangeStart) / SlotBitmap.SLOT_MILLIS;
+      if (!avail.scheduled() && slot >= 0 && slot < free.size()) {
+        free.set((int) slot);
+      }
+    }
+    List<String> jobs =
+        personDao
+            .get(userId)
+            .map(person -> jobNames(person.qualifiedJobs()))
+            .orElse(new ArrayList<String>());
+
+    List<Key> keys = new ArrayList<Key>();
+    for (long day = firstDay; day <= lastDay; day++) {
+      keys.add(dayKey(userId, day));
+    }
+    Map<Key, Entity> found = datastore.get(keys);
+    List<Entity> toPut = new ArrayList<Entity>();
+    List<Key> toDelete = new ArrayList<Key>();
+    for (long day = firstDay; day <= lastDay; day++) {
+      Key key = dayKey(userId, day);
+      Entity dayEntity = found.get(key);
+      if (dayEntity == null) {
+        dayEntity = new Entity(key);
+        dayEntity.setProperty("userId", userId);
+        dayEntity.setProperty("epochDay", day);
+      }
+      SlotBitmap storedStarts = getStarts(dayEntity);
+      SlotBitmap starts = SlotBitmap.fromWords(SLOTS_PER_DAY, storedStarts.words());
+      long dayStart = day * MILLIS_PER_DAY;
+      for (int slot = 0; slot < SLOTS_PER_DAY; slot++) {
+        long start = dayStart + slot * SlotBitmap.SLOT_MILLIS;
+        if (start >= minMillis && start + MILLIS_PER_HOUR <= maxMillis) {
+          starts.set(slot, isFreeHour(free, (int) ((start - rangeStart) / SlotBitmap.SLOT_MILLIS)));
+        }
+      }
+      if (starts.isEmpty()) {
+        if (found.containsKey(key)) {
+          toDelete.add(key);
+        }
+      } else if (!starts.equals(storedStarts) || !jobs.equals(getJobs(dayEntity))) {
+        dayEntity.setProperty("jobs", jobs);
+        // The bitmap is never queried, so it is unindexed to keep writes cheap.
+        dayEntity.setUnindexedProperty("starts", toList(starts.words()));
+        toPut.add(dayEntity);
+      }
+    }
+    datastore.put(toPut);
+    datastore.delete(toDelete);
+  }
+
+  // Rewrites the jobs kept with each of person's days that doesn't already have them. Past days
+  // are rewritten too, since telling them apart would need another index for little gain.
+  @Override
+  public void updateQualifications(Person person) {
+    List<String> jobs = jobNames(person.qualifiedJobs());
+    Query dayQuery =
+        new Query(KIND).setFilter(new FilterPredicate("userId", FilterOperator.EQUAL, person.id()));
+    List<Entity> toPut = new ArrayList<Entity>();
+    for (Entity dayEntity :
+        datastore.prepare(dayQuery).asIterable(FetchOptions.Builder.withDefaults())) {
+      if (!jobs.equals(getJobs(dayEntity))) {
+        dayEntity.setProperty("jobs", jobs);
+        toPut.add(dayEntity);
+      }
+    }
+    datastore.put(toPut);
+  }
+
+  // Returns the interviewers indexed as qualified for position who can start an hour at each start
+  // time from minTime to maxTime, using a single query over the days in range.
+  @Override
+  public SortedMap<Instant, Set<String>> getInRange(
+      Job position, Instant minTime, Instant maxTime) {
+    long minMillis = minTime.toEpochMilli();
+    long maxMillis = maxTime.toEpochMilli();
+    Query dayQuery =
+        new Query(KIND)
+            .setFilter(
+                CompositeFilterOperator.and(
+                    new FilterPredicate("jobs", FilterOperator.EQUAL, position.name()),
+                    new FilterPredicate(
+                        "epochDay",
+                        FilterOperator.GREATER_THAN_OR_EQUAL,
+                        Math.floorDiv(minMillis, MILLIS_PER_DAY)),
+                    new FilterPredicate(
+                        "epochDay",
+                        FilterOperator.LESS_THAN_OR_EQUAL,
+                        Math.floorDiv(maxMillis - 1, MILLIS_PER_DAY))));
+    SortedMap<Instant, Set<String>> bookableHours = new TreeMap<Instant, Set<String>>();
+    for (Entity dayEntity :
+        datastore.prepare(dayQuery).asIterable(FetchOptions.Builder.withDefaults())) {
+      String userId = (String) dayEntity.getProperty("userId");
+      long dayStart = (long) dayEntity.getProperty("epochDay") * MILLIS_PER_DAY;
+      SlotBitmap starts = getStarts(dayEntity);
+      for (int slot = starts.nextSetBit(0); slot != -1; slot = starts.nextSetBit(slot + 1)) {
+        long start = dayStart + slot * SlotBitmap.SLOT_MILLIS;
+        if (start >= minMillis && start + MILLIS_PER_HOUR <= maxMillis) {
+          bookableHours
+              .computeIfAbsent(Instant.ofEpochMilli(start), hour -> new TreeSet<String>())
+              .add(userId);
+        }
+      }
+    }
+    return bookableHours;
+  }
+
+  // Returns whether the hour starting at slot of free is made up of four free slots.
+  private static boolean isFreeHour(SlotBitmap free, int slot) {
+    if (slot < 0 || slot + SLOTS_PER_HOUR > free.size()) {
+      return false;
+    }
+    for (int i = slot; i < slot + SLOTS_PER_HOUR; i++) {
+      if (!free.get(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  static Key dayKey(String userId, long epochDay) {
+    return KeyFactory.createKey(KIND, String.format("%s:%d", userId, epochDay));
+  }
+
+  private static List<String> jobNames(Set<Job> qualifiedJobs) {
+    List<String> jobs = new ArrayList<String>();
+    for (Job job : qualifiedJobs) {
+      jobs.add(job.name());
+    }
+    return jobs;
+  }
+
+  // Returns the jobs kept with dayEntity. Datastore doesn't store empty lists, so a day of a user
+  // without qualifications has none.
+  @SuppressWarnings("unchecked")
+  private static List<String> getJobs(Entity dayEntity) {
+    List<String> jobs = (List<String>) dayEntity.getProperty("jobs");
+    return jobs == null ? new ArrayList<String>() : jobs;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static SlotBitmap getStarts(Entity dayEntity) {
+    List<Long> storedWords = (List<Long>) dayEntity.getProperty("starts");
+    long[] words = new long[SlotBitmap.wordsFor(SLOTS_PER_DAY)];
+    if (storedWords != null) {
+      for (int i = 0; i < words.length && i < storedWords.size(); i++) {
+        words[i] = storedWords.get(i);
+      }
+    }
+    return SlotBitmap.fromWords(SLOTS_PER_DAY, words);
+  }
+
+  private static List<Long> toList(long[] words) {
+    List<Long> list = new ArrayList<Long>(words.length);
+    for (long word : words) {
+      list.add(word);
+    }
+    return list;
+  }
+}
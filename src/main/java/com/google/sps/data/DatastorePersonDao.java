@@ -29,14 +29,17 @@ import com.google.appengine.api.datastore.Query.FilterOperator;
 import com.google.appengine.api.datastore.Query.FilterPredicate;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /** Accesses Datastore to support managing Person entities. */
 public class DatastorePersonDao implements PersonDao {
   // @param datastore the DatastoreService we're using to interact with Datastore.
-  private DatastoreService datastore;
+  private final DatastoreService datastore;
 
   /** Initializes the fields for PersonDatastoreDAO. */
   public DatastorePersonDao() {
@@ -71,6 +74,24 @@ public class DatastorePersonDao implements PersonDao {
     return Optional.of(entityToPerson(personEntity));
   }
 
+  /**
+   * Retrieves all of the people with the specified ids from Datastore in one batch get. People who
+   * aren't in Datastore are left out of the returned map.
+   */
+  @Override
+  public Map<String, Person> getAll(Collection<String> ids) {
+    List<Key> keys = new ArrayList<>();
+    for (String id : ids) {
+      keys.add(KeyFactory.createKey("Person", id));
+    }
+    Map<String, Person> people = new HashMap<>();
+    for (Entity personEntity : datastore.get(keys).values()) {
+      Person person = entityToPerson(personEntity);
+      people.put(person.id(), person);
+    }
+    return people;
+  }
+
   // Returns the job qualification booleans in personEntity as an EnumSet.
   private static EnumSet<Job> entityBooleansToEnumSet(Entity personEntity) {
     List<Job> qualifiedJobs = new ArrayList<>();
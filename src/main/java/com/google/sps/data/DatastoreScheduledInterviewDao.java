@@ -14,6 +14,7 @@
 
 package com.google.sps.data;
 
+import com.google.appengine.api.datastore.Cursor;
 import com.google.appengine.api.datastore.DatastoreService;
 import com.google.appengine.api.datastore.DatastoreServiceFactory;
 import com.google.appengine.api.datastore.Entity;
@@ -21,6 +22,7 @@ import com.google.appengine.api.datastore.FetchOptions;
 import com.google.appengine.api.datastore.Key;
 import com.google.appengine.api.datastore.KeyFactory;
 import com.google.appengine.api.datastore.PreparedQuery;
+import com.google.appengine.api.datastore.PropertyProjection;
 import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Query.CompositeFilter;
 import com.google.appengine.api.datastore.Query.CompositeFilterOperator;
@@ -28,16 +30,29 @@ import com.google.appengine.api.datastore.Query.Filter;
 import com.google.appengine.api.datastore.Query.FilterOperator;
 import com.google.appengine.api.datastore.Query.FilterPredicate;
 import com.google.appengine.api.datastore.Query.SortDirection;
+import com.google.appengine.api.datastore.QueryResultIterator;
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Optional;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /** Accesses Datastore to support managing ScheduledInterview entities. */
 public class DatastoreScheduledInterviewDao implements ScheduledInterviewDao {
+  // The properties a user can be found in, one per role they can have in an interview.
+  private static final String[] ROLE_PROPERTIES = {"interviewer", "interviewee", "shadow"};
+  // Separates the roles' cursors in a page cursor. Web-safe cursors never contain it.
+  private static final String CURSOR_SEPARATOR = ".";
+  // Stands in for the cursor of a role that has no interviews left.
+  private static final String EXHAUSTED_CURSOR = "*";
+
   // @param datastore The DatastoreService we're using to interact with Datastore.
-  private DatastoreService datastore;
+  private final DatastoreService datastore;
 
   /** Initializes the fields for ScheduledInterviewDatastoreDAO. */
   public DatastoreScheduledInterviewDao() {
@@ -117,6 +132,131 @@ public class DatastoreScheduledInterviewDao implements ScheduledInterviewDao {
     return relevantInterviews;
   }
 
+  /**
+   * Returns a page of the scheduledInterview entities that involve a particular user and start at
+   * or after from, in the order in which they occur. Datastore cursors can't be used with an OR
+   * filter, so each role is queried separately and the results merged, with the page cursor made
+   * up of one cursor per role. The queries only project startTime, and just the entities that make
+   * it onto the page are fetched, so the cost of a page doesn't grow with the user's history.
+   */
+  @Override
+  public ScheduledInterviewPage getForPerson(
+      String userId, Instant from, int limit, Optional<String> cursor) {
+    String[] roleCursors = new String[ROLE_PROPERTIES.length];
+    if (cursor.isPresent()) {
+      List<String> parts = Splitter.on(CURSOR_SEPARATOR).splitToList(cursor.get());
+      if (parts.size() != ROLE_PROPERTIES.length) {
+        throw new IllegalArgumentException("Invalid cursor: " + cursor.get());
+      }
+      roleCursors = parts.toArray(roleCursors);
+    }
+    // One more than limit is read for each role, so it is known whether there is another page.
+    List<List<RoleResult>> roleResults = new ArrayList<List<RoleResult>>();
+    for (int role = 0; role < ROLE_PROPERTIES.length; role++) {
+      roleResults.add(
+          getRoleResults(ROLE_PROPERTIES[role], userId, from, limit + 1, roleCursors[role]));
+    }
+    int[] taken = new int[ROLE_PROPERTIES.length];
+    List<Key> pageKeys = new ArrayList<Key>();
+    Set<Key> seen = new HashSet<Key>();
+    while (pageKeys.size() < limit) {
+      int earliestRole = -1;
+      for (int role = 0; role < ROLE_PROPERTIES.length; role++) {
+        if (taken[role] < roleResults.get(role).size()
+            && (earliestRole == -1
+                || roleResults.get(role).get(taken[role]).startTime
+                    < roleResults.get(earliestRole).get(taken[earliestRole]).startTime)) {
+          earliestRole = role;
+        }
+      }
+      if (earliestRole == -1) {
+        break;
+      }
+      RoleResult result = roleResults.get(earliestRole).get(taken[earliestRole]++);
+      // An interview is only listed once even if the user has two roles in it.
+      if (seen.add(result.key)) {
+        pageKeys.add(result.key);
+      }
+    }
+    boolean hasNextPage = false;
+    String[] nextCursors = new String[ROLE_PROPERTIES.length];
+    for (int role = 0; role < ROLE_PROPERTIES.length; role++) {
+      List<RoleResult> results = roleResults.get(role);
+      // The query returned fewer than it was asked for, and all of them have been taken.
+      if (taken[role] == results.size() && results.size() <= limit) {
+        nextCursors[role] = EXHAUSTED_CURSOR;
+        continue;
+      }
+      hasNextPage = true;
+      if (taken[role] == 0) {
+        nextCursors[role] = roleCursors[role] == null ? "" : roleCursors[role];
+      } else {
+        nextCursors[role] = results.get(taken[role] - 1).cursorAfter;
+      }
+    }
+    Map<Key, Entity> entities = datastore.get(pageKeys);
+    List<ScheduledInterview> interviews = new ArrayList<ScheduledInterview>();
+    for (Key key : pageKeys) {
+      Entity entity = entities.get(key);
+      // It may have been deleted since the query ran.
+      if (entity != null) {
+        interviews.add(entityToScheduledInterview(entity));
+      }
+    }
+    return ScheduledInterviewPage.create(
+        interviews,
+        hasNextPage
+            ? Optional.of(Joiner.on(CURSOR_SEPARATOR).join(nextCursors))
+            : Optional.empty());
+  }
+
+  // Returns up to limit of the interviews in which userId is roleProperty that start at or after
+  // from, starting at roleCursor, with the cursor after each.
+  private List<RoleResult> getRoleResults(
+      String roleProperty, String userId, Instant from, int limit, String roleCursor) {
+    List<RoleResult> results = new ArrayList<RoleResult>();
+    if (EXHAUSTED_CURSOR.equals(roleCursor)) {
+      return results;
+    }
+    FetchOptions fetchOptions = FetchOptions.Builder.withLimit(limit);
+    if (roleCursor != null && !roleCursor.isEmpty()) {
+      fetchOptions.startCursor(Cursor.fromWebSafeString(roleCursor));
+    }
+    Query query =
+        new Query("ScheduledInterview")
+            .setFilter(
+                CompositeFilterOperator.and(
+                    new FilterPredicate(roleProperty, FilterOperator.EQUAL, userId),
+                    new FilterPredicate(
+                        "startTime", FilterOperator.GREATER_THAN_OR_EQUAL, from.toEpochMilli())))
+            .addSort("startTime", SortDirection.ASCENDING)
+            .addProjection(new PropertyProjection("startTime", Long.class));
+    QueryResultIterator<Entity> iterator =
+        datastore.prepare(query).asQueryResultIterator(fetchOptions);
+    while (iterator.hasNext()) {
+      Entity entity = iterator.next();
+      results.add(
+          new RoleResult(
+              entity.getKey(),
+              (long) entity.getProperty("startTime"),
+              iterator.getCursor().toWebSafeString()));
+    }
+    return results;
+  }
+
+  // An interview found by a role's query, and where that query continues after it.
+  private static final class RoleResult {
+    final Key key;
+    final long startTime;
+    final String cursorAfter;
+
+    RoleResult(Key key, long startTime, String cursorAfter) {
+      this.key = key;
+      this.startTime = startTime;
+      this.cursorAfter = cursorAfter;
+    }
+  }
+
   // Returns a filter checking if userId is any role in a ScheduledInterview.
   private CompositeFilter getUserFilter(String userId) {
     Filter interviewerFilter = new FilterPredicate("interviewer", FilterOperator.EQUAL, userId);
@@ -139,10 +279,14 @@ public class DatastoreScheduledInterviewDao implements ScheduledInterviewDao {
     return scheduledInterviews;
   }
 
-  /** Creates a ScheduledInterview Entity and stores it in Datastore. */
+  /**
+   * Creates a ScheduledInterview Entity and stores it in Datastore. Returns it with the id
+   * Datastore generated for it, so it doesn't have to be queried for.
+   */
   @Override
-  public void create(ScheduledInterview scheduledInterview) {
-    datastore.put(scheduledInterviewToEntity(scheduledInterview));
+  public ScheduledInterview create(ScheduledInterview scheduledInterview) {
+    Key key = datastore.put(scheduledInterviewToEntity(scheduledInterview));
+    return scheduledInterview.withId(key.getId());
   }
 
   /** Updates an entity in datastore. */
@@ -17,17 +17,19 @@ package com.google.sps.data;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 import java.util.Random;
 import java.util.Set;
 
 /** Mimics accessing Datastore to support managing Availability entities. */
 public class FakeAvailabilityDao implements AvailabilityDao {
   // storedObjects is the fake database.
-  private LinkedHashMap<Long, Availability> storedObjects;
+  private final LinkedHashMap<Long, Availability> storedObjects;
 
   /** Initializes the fields for FakeAvailabilityDao. */
   public FakeAvailabilityDao() {
@@ -36,7 +38,7 @@ public class FakeAvailabilityDao implements AvailabilityDao {
 
   /** Puts an Availability object into storedObjects with a randomly generated long as its id. */
   @Override
-  public void create(Availability avail) {
+  public synchronized void create(Availability avail) {
     long id = new Random().nextLong();
     Availability toStoreAvail = avail.withId(id);
     storedObjects.put(id, toStoreAvail);
@@ -44,30 +46,92 @@ public class FakeAvailabilityDao implements AvailabilityDao {
 
   /** Updates an Availability in storedObjects based on its id. */
   @Override
-  public void update(Availability avail) {
+  public synchronized void update(Availability avail) {
     storedObjects.put(avail.id(), avail);
   }
 
+  /** Deletes all Availability entities for a user ranging from minTime to maxTime. */
+  @Override
+  public synchronized void deleteInRangeForUser(String userId, Instant minTime, Instant maxTime) {
+    List<Availability> userAvailability = getForUser(userId);
+    List<Availability> userAvailabilityInRange = getInRange(userAvailability, minTime, maxTime);
+    for (Availability avail : userAvailabilityInRange) {
+      storedObjects.remove(avail.id());
+    }
+  }
+
+  /** Puts each Availability into storedObjects with a randomly generated long as its id. */
+  @Override
+  public synchronized void createAll(List<Availability> availabilities) {
+    for (Availability avail : availabilities) {
+      create(avail);
+    }
+  }
+
+  /** Removes each Availability from storedObjects based on its id. */
+  @Override
+  public synchronized void deleteAll(List<Availability> availabilities) {
+    for (Availability avail : availabilities) {
+      storedObjects.remove(avail.id());
+    }
+  }
+
   /**
-   * Retrieves the Availability from storedObjects from the given id and wraps it in an Optional. If
-   * the Availability does not exist in storedObjects, the Optional is empty.
+   * Makes availabilities the only Availabilities of the specified user within the specified time
+   * range, leaving stored slots with the same start time and scheduled status untouched.
    */
   @Override
-  public Optional<Availability> get(long id) {
-    if (storedObjects.containsKey(id)) {
-      return Optional.of(storedObjects.get(id));
+  public synchronized void replaceRange(
+      String userId, Instant minTime, Instant maxTime, List<Availability> availabilities) {
+    Map<Instant, Availability> stored = new HashMap<Instant, Availability>();
+    for (Availability avail : getInRangeForUser(userId, minTime, maxTime)) {
+      stored.put(avail.when().start(), avail);
+    }
+    for (Availability avail : availabilities) {
+      Availability storedAvail = stored.remove(avail.when().start());
+      if (storedAvail == null) {
+        create(avail);
+      } else if (storedAvail.scheduled() != avail.scheduled()) {
+        update(storedAvail.withScheduled(avail.scheduled()));
+      }
+    }
+    for (Availability avail : stored.values()) {
+      storedObjects.remove(avail.id());
     }
-    return Optional.empty();
   }
 
-  /** Deletes all Availability entities for a user ranging from minTime to maxTime. */
+  /**
+   * Marks the specified user's Availabilities within when as scheduled, if there is one for every
+   * slot of when and none of them are scheduled yet.
+   */
   @Override
-  public void deleteInRangeForUser(String userId, Instant minTime, Instant maxTime) {
-    List<Availability> userAvailability = getForUser(userId);
-    List<Availability> userAvailabilityInRange = getInRange(userAvailability, minTime, maxTime);
-    for (Availability avail : userAvailabilityInRange) {
-      storedObjects.remove(avail.id());
+  public synchronized boolean reserve(String userId, TimeRange when) {
+    return setScheduled(userId, when, true);
+  }
+
+  /**
+   * Marks the specified user's Availabilities within when as no longer scheduled, if there is one
+   * for every slot of when and all of them are scheduled.
+   */
+  @Override
+  public synchronized boolean release(String userId, TimeRange when) {
+    return setScheduled(userId, when, false);
+  }
+
+  private boolean setScheduled(String userId, TimeRange when, boolean scheduled) {
+    List<Availability> slots = getInRangeForUser(userId, when.start(), when.end());
+    if (slots.size() != when.duration().toMillis() / SlotBitmap.SLOT_MILLIS) {
+      return false;
+    }
+    for (Availability avail : slots) {
+      if (avail.scheduled() == scheduled) {
+        return false;
+      }
+    }
+    for (Availability avail : slots) {
+      update(avail.withScheduled(scheduled));
     }
+    return true;
   }
 
   /**
@@ -75,11 +139,48 @@ public class FakeAvailabilityDao implements AvailabilityDao {
    * them in order (by ascending start times).
    */
   @Override
-  public List<Availability> getInRangeForUser(String userId, Instant minTime, Instant maxTime) {
+  public synchronized List<Availability> getInRangeForUser(
+      String userId, Instant minTime, Instant maxTime) {
     List<Availability> userAvailability = getForUser(userId);
     return getInRange(userAvailability, minTime, maxTime);
   }
 
+  /**
+   * Collects the Availabilities of the specified user within the specified time range that are
+   * not scheduled, in order (by ascending start times).
+   */
+  @Override
+  public synchronized List<Availability> getUnscheduledInRangeForUser(
+      String userId, Instant minTime, Instant maxTime) {
+    List<Availability> unscheduled = getInRangeForUser(userId, minTime, maxTime);
+    unscheduled.removeIf(avail -> avail.scheduled());
+    return unscheduled;
+  }
+
+  /**
+   * Collects the Availabilities of each of the specified users within the specified time range,
+   * keyed by userId and in order (by ascending start times). storedObjects is only scanned once.
+   */
+  @Override
+  public synchronized Map<String, List<Availability>> getInRangeForUsers(
+      Collection<String> userIds, Instant minTime, Instant maxTime) {
+    Set<String> wantedUsers = new HashSet<String>(userIds);
+    List<Availability> wantedAvailability = new ArrayList<Availability>();
+    for (Availability avail : storedObjects.values()) {
+      if (wantedUsers.contains(avail.userId())) {
+        wantedAvailability.add(avail);
+      }
+    }
+    Map<String, List<Availability>> availabilityByUser =
+        new HashMap<String, List<Availability>>();
+    for (Availability avail : getInRange(wantedAvailability, minTime, maxTime)) {
+      availabilityByUser
+          .computeIfAbsent(avail.userId(), userId -> new ArrayList<Availability>())
+          .add(avail);
+    }
+    return availabilityByUser;
+  }
+
   private List<Availability> getForUser(String userId) {
     List<Availability> allAvailability = new ArrayList<Availability>(storedObjects.values());
     List<Availability> userAvailability = new ArrayList<Availability>();
@@ -96,7 +197,7 @@ public class FakeAvailabilityDao implements AvailabilityDao {
    * ascending start times).
    */
   @Override
-  public List<Availability> getInRangeForAll(Instant minTime, Instant maxTime) {
+  public synchronized List<Availability> getInRangeForAll(Instant minTime, Instant maxTime) {
     return getInRange(new ArrayList<Availability>(storedObjects.values()), minTime, maxTime);
   }
 
@@ -123,7 +224,7 @@ public class FakeAvailabilityDao implements AvailabilityDao {
   }
 
   /** Returns the ids of all users that have availabilities within the specified time range. */
-  public Set<String> getUsersAvailableInRange(Instant minTime, Instant maxTime) {
+  public synchronized Set<String> getUsersAvailableInRange(Instant minTime, Instant maxTime) {
     Set<String> userIds = new HashSet<String>();
     TimeRange range = new TimeRange(minTime, maxTime);
     List<Availability> allAvailability = new ArrayList<Availability>(storedObjects.values());
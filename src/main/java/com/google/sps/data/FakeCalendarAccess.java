@@ -19,6 +19,8 @@ import java.security.GeneralSecurityException;
 
 // A stub of CalendarAccess.
 public class FakeCalendarAccess implements CalendarAccess {
+  private int reservedLinks = 0;
+
   // Creates an event in the calendar CALENDAR_ID and returns the Meet Link associated with that
   // event.
   public String getMeetLink(ScheduledInterview interview)
@@ -26,4 +28,10 @@ public class FakeCalendarAccess implements CalendarAccess {
     // ID is a unique identifier for an interview.
     return String.valueOf(interview.id());
   }
+
+  // Returns a new made up Meet Link each time.
+  public synchronized String reserveMeetLink() throws IOException, GeneralSecurityException {
+    reservedLinks++;
+    return "reserved_" + reservedLinks;
+  }
 }
@@ -15,14 +15,16 @@
 package com.google.sps.data;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
 
 /** Mimics accessing Datastore to support managing Person entities. */
 public class FakePersonDao implements PersonDao {
-  private HashMap<String, Person> storedObjects;
+  private final HashMap<String, Person> storedObjects;
 
   /** Initializes the fields for PersonDatastoreDAO. */
   public FakePersonDao() {
@@ -31,13 +33,13 @@ public class FakePersonDao implements PersonDao {
 
   /** We put person into storedObjects . */
   @Override
-  public void create(Person person) {
+  public synchronized void create(Person person) {
     storedObjects.put(person.id(), person);
   }
 
   /** We update person in storedObjects. */
   @Override
-  public void update(Person person) {
+  public synchronized void update(Person person) {
     storedObjects.put(person.id(), person);
   }
 
@@ -46,10 +48,22 @@ public class FakePersonDao implements PersonDao {
    * in datastore, the Optional is empty.
    */
   @Override
-  public Optional<Person> get(String id) {
+  public synchronized Optional<Person> get(String id) {
     if (storedObjects.containsKey(id)) {
       return Optional.of(storedObjects.get(id));
     }
     return Optional.empty();
   }
+
+  /** Retrieves all of the people with the specified ids that are in storedObjects. */
+  @Override
+  public synchronized Map<String, Person> getAll(Collection<String> ids) {
+    Map<String, Person> people = new HashMap<String, Person>();
+    for (String id : ids) {
+      if (storedObjects.containsKey(id)) {
+        people.put(id, storedObjects.get(id));
+      }
+    }
+    return people;
+  }
 }
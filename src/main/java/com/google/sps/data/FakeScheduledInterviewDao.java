@@ -40,7 +40,7 @@ import java.util.Set;
 /** Mimics accessing Datastore to support managing ScheduledInterview entities. */
 public class FakeScheduledInterviewDao implements ScheduledInterviewDao {
   // data is the fake database
-  public Map<Long, ScheduledInterview> data;
+  public final Map<Long, ScheduledInterview> data;
 
   /** Initializes the fields for ScheduledInterviewDatastoreDAO. */
   public FakeScheduledInterviewDao() {
@@ -52,7 +52,7 @@ public class FakeScheduledInterviewDao implements ScheduledInterviewDao {
    * object.
    */
   @Override
-  public Optional<ScheduledInterview> get(long id) {
+  public synchronized Optional<ScheduledInterview> get(long id) {
     if (data.containsKey(id)) {
       return Optional.of(data.get(id));
     }
@@ -63,7 +63,7 @@ public class FakeScheduledInterviewDao implements ScheduledInterviewDao {
    * Returns a list, sorted by start time, of all scheduled ScheduledInterview objects whose
    * startTime is between minTime and maxTime.
    */
-  public List<ScheduledInterview> getInRange(Instant minTime, Instant maxTime) {
+  public synchronized List<ScheduledInterview> getInRange(Instant minTime, Instant maxTime) {
     TimeRange range = new TimeRange(minTime, maxTime);
     List<ScheduledInterview> scheduledInterviewsInRange = new ArrayList<>();
     List<ScheduledInterview> scheduledInterviews = new ArrayList<ScheduledInterview>(data.values());
@@ -89,7 +89,7 @@ public class FakeScheduledInterviewDao implements ScheduledInterviewDao {
    * Returns a list, sorted by start time, of all ScheduledInterview objects ranging from minTime to
    * maxTime that are for the selected position and do not already have a shadow.
    */
-  public List<ScheduledInterview> getForPositionWithoutShadowInRange(
+  public synchronized List<ScheduledInterview> getForPositionWithoutShadowInRange(
       Job position, Instant minTime, Instant maxTime) {
     List<ScheduledInterview> interviewsInRange = getInRange(minTime, maxTime);
     Set<ScheduledInterview> notValidInterviews = new HashSet<ScheduledInterview>();
@@ -107,7 +107,7 @@ public class FakeScheduledInterviewDao implements ScheduledInterviewDao {
    * returns them as a list of ScheduledInterview objects in the order in which they occur.
    */
   @Override
-  public List<ScheduledInterview> getForPerson(String userId) {
+  public synchronized List<ScheduledInterview> getForPerson(String userId) {
     List<ScheduledInterview> relevantInterviews = new ArrayList<>();
     List<ScheduledInterview> scheduledInterviews = new ArrayList<ScheduledInterview>(data.values());
     scheduledInterviews.sort(
@@ -131,12 +131,42 @@ public class FakeScheduledInterviewDao implements ScheduledInterviewDao {
     return relevantInterviews;
   }
 
+  /**
+   * Returns a page of the scheduledInterviews of a user that start at or after from, in the order
+   * in which they occur. The cursor is the number of those interviews on earlier pages.
+   */
+  @Override
+  public synchronized ScheduledInterviewPage getForPerson(
+      String userId, Instant from, int limit, Optional<String> cursor) {
+    List<ScheduledInterview> fromInterviews = new ArrayList<ScheduledInterview>();
+    for (ScheduledInterview scheduledInterview : getForPerson(userId)) {
+      if (!scheduledInterview.when().start().isBefore(from)) {
+        fromInterviews.add(scheduledInterview);
+      }
+    }
+    int offset = 0;
+    if (cursor.isPresent()) {
+      try {
+        offset = Integer.parseInt(cursor.get());
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException("Invalid cursor: " + cursor.get(), e);
+      }
+    }
+    int end = Math.min(fromInterviews.size(), offset + limit);
+    if (offset < 0 || offset > end) {
+      throw new IllegalArgumentException("Invalid cursor: " + cursor.get());
+    }
+    Optional<String> nextCursor =
+        end < fromInterviews.size() ? Optional.of(Integer.toString(end)) : Optional.empty();
+    return ScheduledInterviewPage.create(fromInterviews.subList(offset, end), nextCursor);
+  }
+
   /**
    * Returns a list of all scheduledInterviews ranging from minTime to maxTime of a user in the
    * order in which they occur.
    */
   @Override
-  public List<ScheduledInterview> getScheduledInterviewsInRangeForUser(
+  public synchronized List<ScheduledInterview> getScheduledInterviewsInRangeForUser(
       String userId, Instant minTime, Instant maxTime) {
     TimeRange range = new TimeRange(minTime, maxTime);
     List<ScheduledInterview> scheduledInterviews = getForPerson(userId);
@@ -149,9 +179,9 @@ public class FakeScheduledInterviewDao implements ScheduledInterviewDao {
     return scheduledInterviewsInRange;
   }
 
-  /** Creates a ScheduledInterview Entity and stores it. */
+  /** Creates a ScheduledInterview Entity and stores it, returning it with its generated id. */
   @Override
-  public void create(ScheduledInterview scheduledInterview) {
+  public synchronized ScheduledInterview create(ScheduledInterview scheduledInterview) {
     long generatedId = new Random().nextLong();
     ScheduledInterview storedScheduledInterview =
         ScheduledInterview.create(
@@ -163,17 +193,18 @@ public class FakeScheduledInterviewDao implements ScheduledInterviewDao {
             scheduledInterview.position(),
             scheduledInterview.shadowId());
     data.put(generatedId, storedScheduledInterview);
+    return storedScheduledInterview;
   }
 
   /** Updates an entity. */
   @Override
-  public void update(ScheduledInterview scheduledInterview) {
+  public synchronized void update(ScheduledInterview scheduledInterview) {
     data.put(scheduledInterview.id(), scheduledInterview);
   }
 
   /** Deletes an entity. */
   @Override
-  public void delete(long id) {
+  public synchronized void delete(long id) {
     data.remove(id);
   }
 }
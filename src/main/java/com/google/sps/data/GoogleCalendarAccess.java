@@ -35,12 +35,20 @@ import java.io.InputStream;
 import java.io.IOException;
 import java.net.URISyntaxException;
 import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collections;
+import java.util.UUID;
 
 // Handles all things Google Calendar (for now just getting a Meet link).
 public class GoogleCalendarAccess implements CalendarAccess {
-  private Calendar service;
+  private final Calendar service;
   private static final String CALENDAR_ID = "info@jqed.dev";
+  // The transport every Calendar service is built on, so their connections are kept alive and
+  // reused between requests instead of each service opening its own. Guarded by the class.
+  private static HttpTransport transport;
+  // The Calendar service returned by sharedCalendar. Guarded by the class.
+  private static Calendar sharedCalendar;
 
   // TODO: remember to write tests in the code that calls CalendarAccess() that handle what happens
   // per each exception
@@ -51,22 +59,28 @@ public class GoogleCalendarAccess implements CalendarAccess {
   // Defines an event.
   @VisibleForTesting
   static Event makeEvent(ScheduledInterview interview) {
+    return makeEvent(interview.when(), String.valueOf(interview.id()));
+  }
+
+  // Defines an event at the time when, whose Meet link is created with requestId. Conference
+  // creation requests with the same requestId get the same link.
+  private static Event makeEvent(TimeRange when, String requestId) {
     Event event =
         new Event()
             .setSummary("Interview")
             .setDescription(
                 "This event won't be shown to users, just used to \"reserve\" a Meet link.");
 
-    DateTime startDateTime = new DateTime(interview.when().start().toString());
+    DateTime startDateTime = new DateTime(when.start().toString());
     EventDateTime start = new EventDateTime().setDateTime(startDateTime);
     event.setStart(start);
 
-    DateTime endDateTime = new DateTime(interview.when().end().toString());
+    DateTime endDateTime = new DateTime(when.end().toString());
     EventDateTime end = new EventDateTime().setDateTime(endDateTime);
     event.setEnd(end);
 
     CreateConferenceRequest createRequest = new CreateConferenceRequest();
-    createRequest.setRequestId(String.valueOf(interview.id()));
+    createRequest.setRequestId(requestId);
     createRequest.setConferenceSolutionKey(new ConferenceSolutionKey().setType("hangoutsMeet"));
     event.setConferenceData(new ConferenceData().setCreateRequest(createRequest));
     return event;
@@ -77,21 +91,53 @@ public class GoogleCalendarAccess implements CalendarAccess {
   @Override
   public String getMeetLink(ScheduledInterview interview)
       throws IOException, GeneralSecurityException {
-    Event event = makeEvent(interview);
+    return insertEvent(makeEvent(interview));
+  }
+
+  // Creates an event in the calendar CALENDAR_ID for the coming hour, with a Meet link that has a
+  // fresh requestId, and returns that link. The link stays usable after the event is over.
+  @Override
+  public String reserveMeetLink() throws IOException, GeneralSecurityException {
+    Instant start = Instant.now().truncatedTo(ChronoUnit.HOURS).plus(1, ChronoUnit.HOURS);
+    return insertEvent(
+        makeEvent(
+            new TimeRange(start, start.plus(1, ChronoUnit.HOURS)), UUID.randomUUID().toString()));
+  }
+
+  // Inserts event into the calendar CALENDAR_ID and returns the Meet Link created for it.
+  private String insertEvent(Event event) throws IOException {
     event = service.events().insert(CALENDAR_ID, event).setConferenceDataVersion(1).execute();
     return event.getConferenceData().getEntryPoints().get(0).getUri();
   }
 
+  // Returns a Calendar service that is made the first time it's asked for and shared from then on,
+  // so the secret is fetched and the service built once per instance.
+  public static synchronized Calendar sharedCalendar(SecretFetcher secretFetcher)
+      throws GeneralSecurityException, IOException {
+    if (sharedCalendar == null) {
+      sharedCalendar = MakeCalendar(secretFetcher);
+    }
+    return sharedCalendar;
+  }
+
   // Makes a Calendar service.
   public static Calendar MakeCalendar(SecretFetcher secretFetcher)
       throws GeneralSecurityException, IOException {
     String key = secretFetcher.getSecretValue("SERVICE_ACCT_KEY");
     return new Calendar.Builder(
-            GoogleNetHttpTransport.newTrustedTransport(),
+            sharedTransport(),
             JacksonFactory.getDefaultInstance(),
             GoogleCredential.fromStream(new ByteArrayInputStream(key.getBytes()))
                 .createScoped(Collections.singletonList(CalendarScopes.CALENDAR)))
         .setApplicationName("Interview Me CalendarAccess")
         .build();
   }
+
+  private static synchronized HttpTransport sharedTransport()
+      throws GeneralSecurityException, IOException {
+    if (transport == null) {
+      transport = GoogleNetHttpTransport.newTrustedTransport();
+    }
+    return transport;
+  }
 }
@@ -0,0 +1,270 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * An immutable set of instants made up of disjoint, non-adjacent spans of time, each including its
+ * start but not its end like a {@code TimeRange}. The spans are kept sorted in parallel arrays of
+ * epoch milliseconds, so point and range lookups are binary searches and combining two sets is a
+ * single linear merge.
+ */
+public final class IntervalSet {
+  private static final IntervalSet EMPTY = new IntervalSet(new long[0], new long[0]);
+
+  private final long[] starts;
+  private final long[] ends;
+
+  private IntervalSet(long[] starts, long[] ends) {
+    this.starts = starts;
+    this.ends = ends;
+  }
+
+  /** Returns a set containing no instants. */
+  public static IntervalSet empty() {
+    return EMPTY;
+  }
+
+  /**
+   * Returns the set of instants covered by any of ranges. Overlapping and adjacent ranges are
+   * merged, and ranges with no duration are ignored.
+   */
+  public static IntervalSet of(Collection<TimeRange> ranges) {
+    long[][] spans = new long[ranges.size()][];
+    int count = 0;
+    for (TimeRange range : ranges) {
+      long start = range.start().toEpochMilli();
+      long end = range.end().toEpochMilli();
+      if (start < end) {
+        spans[count++] = new long[] {start, end};
+      }
+    }
+    Arrays.sort(spans, 0, count, (a, b) -> Long.compare(a[0], b[0]));
+    Builder builder = new Builder(count);
+    for (int i = 0; i < count; i++) {
+      builder.add(spans[i][0], spans[i][1]);
+    }
+    return builder.build();
+  }
+
+  /** Returns the set of instants during any of the interviews. */
+  public static IntervalSet ofInterviews(Collection<ScheduledInterview> interviews) {
+    List<TimeRange> ranges = new ArrayList<TimeRange>(interviews.size());
+    for (ScheduledInterview interview : interviews) {
+      ranges.add(interview.when());
+    }
+    return of(ranges);
+  }
+
+  /** Returns the number of disjoint spans in this set. */
+  public int size() {
+    return starts.length;
+  }
+
+  /** Returns true if this set contains no instants. */
+  public boolean isEmpty() {
+    return starts.length == 0;
+  }
+
+  /** Returns the disjoint spans of this set in ascending order. */
+  public List<TimeRange> toTimeRanges() {
+    List<TimeRange> ranges = new ArrayList<TimeRange>(starts.length);
+    for (int i = 0; i < starts.length; i++) {
+      ranges.add(new TimeRange(Instant.ofEpochMilli(starts[i]), Instant.ofEpochMilli(ends[i])));
+    }
+    return ranges;
+  }
+
+  /** Checks if this set contains a certain instant. */
+  public boolean contains(Instant point) {
+    return contains(point.toEpochMilli());
+  }
+
+  /** Checks if this set contains the instant epochMillis milliseconds after the epoch. */
+  public boolean contains(long epochMillis) {
+    int i = spanStartingAtOrBefore(epochMillis);
+    return i >= 0 && epochMillis < ends[i];
+  }
+
+  /**
+   * Checks if every instant of range is in this set. A range with no duration is never contained.
+   */
+  public boolean contains(TimeRange range) {
+    long start = range.start().toEpochMilli();
+    long end = range.end().toEpochMilli();
+    if (start >= end) {
+      return false;
+    }
+    int i = spanStartingAtOrBefore(start);
+    return i >= 0 && end <= ends[i];
+  }
+
+  /** Checks if any instant of range is in this set. */
+  public boolean overlaps(TimeRange range) {
+    long start = range.start().toEpochMilli();
+    long end = range.end().toEpochMilli();
+    if (start >= end) {
+      return false;
+    }
+    // Only the last span starting before end can reach past start, since spans are disjoint and
+    // sorted.
+    int i = spanStartingAtOrBefore(end - 1);
+    return i >= 0 && ends[i] > start;
+  }
+
+  /**
+   * Returns, for each of sortedMillis, whether this set contains it. sortedMillis must be in
+   * ascending order, which lets the lookups be a single pass over both.
+   */
+  public boolean[] containsAll(long[] sortedMillis) {
+    boolean[] contained = new boolean[sortedMillis.length];
+    int span = 0;
+    for (int i = 0; i < sortedMillis.length; i++) {
+      if (i > 0 && sortedMillis[i] < sortedMillis[i - 1]) {
+        throw new IllegalArgumentException("Points are not in ascending order.");
+      }
+      while (span < starts.length && ends[span] <= sortedMillis[i]) {
+        span++;
+      }
+      contained[i] = span < starts.length && starts[span] <= sortedMillis[i];
+    }
+    return contained;
+  }
+
+  /** Returns the set of instants in this set or in other. */
+  public IntervalSet union(IntervalSet other) {
+    Builder builder = new Builder(starts.length + other.starts.length);
+    int i = 0;
+    int j = 0;
+    while (i < starts.length || j < other.starts.length) {
+      if (j == other.starts.length || (i < starts.length && starts[i] <= other.starts[j])) {
+        builder.add(starts[i], ends[i]);
+        i++;
+      } else {
+        builder.add(other.starts[j], other.ends[j]);
+        j++;
+      }
+    }
+    return builder.build();
+  }
+
+  /** Returns the set of instants in both this set and other. */
+  public IntervalSet intersect(IntervalSet other) {
+    Builder builder = new Builder(Math.min(starts.length, other.starts.length));
+    int i = 0;
+    int j = 0;
+    while (i < starts.length && j < other.starts.length) {
+      long start = Math.max(starts[i], other.starts[j]);
+      long end = Math.min(ends[i], other.ends[j]);
+      if (start < end) {
+        builder.add(start, end);
+      }
+      // Whichever span ends first can't overlap anything further along in the other set.
+      if (ends[i] < other.ends[j]) {
+        i++;
+      } else {
+        j++;
+      }
+    }
+    return builder.build();
+  }
+
+  /** Returns the set of instants in this set but not in other. */
+  public IntervalSet subtract(IntervalSet other) {
+    Builder builder = new Builder(starts.length + other.starts.length);
+    int j = 0;
+    for (int i = 0; i < starts.length; i++) {
+      long start = starts[i];
+      long end = ends[i];
+      // Skip the spans of other that end before this span begins.
+      while (j < other.starts.length && other.ends[j] <= start) {
+        j++;
+      }
+      int k = j;
+      while (start < end && k < other.starts.length && other.starts[k] < end) {
+        if (other.starts[k] > start) {
+          builder.add(start, other.starts[k]);
+        }
+        start = Math.max(start, other.ends[k]);
+        k++;
+      }
+      if (start < end) {
+        builder.add(start, end);
+      }
+    }
+    return builder.build();
+  }
+
+  // Returns the index of the last span starting at or before epochMillis, or -1 if there is none.
+  private int spanStartingAtOrBefore(long epochMillis) {
+    int i = Arrays.binarySearch(starts, epochMillis);
+    return i >= 0 ? i : -i - 2;
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof IntervalSet
+        && Arrays.equals(starts, ((IntervalSet) other).starts)
+        && Arrays.equals(ends, ((IntervalSet) other).ends);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(starts) + Arrays.hashCode(ends);
+  }
+
+  @Override
+  public String toString() {
+    return toTimeRanges().toString();
+  }
+
+  /** Collects spans in ascending order of start, merging any that overlap or touch. */
+  private static class Builder {
+    private long[] starts;
+    private long[] ends;
+    private int size = 0;
+
+    Builder(int expectedSize) {
+      starts = new long[Math.max(expectedSize, 1)];
+      ends = new long[Math.max(expectedSize, 1)];
+    }
+
+    void add(long start, long end) {
+      if (size > 0 && start <= ends[size - 1]) {
+        ends[size - 1] = Math.max(ends[size - 1], end);
+        return;
+      }
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        ends = Arrays.copyOf(ends, size * 2);
+      }
+      starts[size] = start;
+      ends[size] = end;
+      size++;
+    }
+
+    IntervalSet build() {
+      if (size == 0) {
+        return EMPTY;
+      }
+      return new IntervalSet(Arrays.copyOf(starts, size), Arrays.copyOf(ends, size));
+    }
+  }
+}
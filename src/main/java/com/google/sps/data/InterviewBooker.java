@@ -0,0 +1,96 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Books interviews without double booking interviewers. An interviewer's slots are reserved with
+ * AvailabilityDao.reserve before the interview is stored, so when several interviewees book the
+ * same interviewer at once only one of them gets the interviewer, and the others move on to their
+ * next candidate.
+ */
+public class InterviewBooker {
+  private final ScheduledInterviewDao scheduledInterviewDao;
+  private final AvailabilityDao availabilityDao;
+
+  /** Initializes the fields for InterviewBooker. */
+  public InterviewBooker(
+      ScheduledInterviewDao scheduledInterviewDao, AvailabilityDao availabilityDao) {
+    this.scheduledInterviewDao = scheduledInterviewDao;
+    this.availabilityDao = availabilityDao;
+  }
+
+  /**
+   * Books interview with the first of interviewerIds who is still free for all of it. Only the
+   * interviewer's slots are reserved; the interviewee's are left to the caller.
+   *
+   * @param interview The interview to book. Its interviewer is replaced by the one booked.
+   * @param interviewerIds The interviewers to try, in order of preference.
+   * @return The stored interview with its generated id, or empty if every interviewer has been
+   *     booked by someone else.
+   */
+  public Optional<ScheduledInterview> book(
+      ScheduledInterview interview, List<String> interviewerIds) {
+    for (String interviewerId : interviewerIds) {
+      Optional<ScheduledInterview> booked = tryBook(interview, interviewerId);
+      if (booked.isPresent()) {
+        return booked;
+      }
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Books interview with the interviewer strategy selects from interviewerIds. If they have been
+   * booked by someone else, strategy selects again from the interviewers that are left.
+   *
+   * @return The stored interview with its generated id, or empty if every interviewer has been
+   *     booked by someone else.
+   */
+  public Optional<ScheduledInterview> book(
+      ScheduledInterview interview,
+      List<String> interviewerIds,
+      InterviewerSelectionStrategy strategy) {
+    List<String> candidates = new ArrayList<String>(interviewerIds);
+    while (!candidates.isEmpty()) {
+      int selected = strategy.select(candidates);
+      String interviewerId = candidates.get(selected);
+      // Moves the last candidate into the selected one's place, so removing it is O(1).
+      candidates.set(selected, candidates.get(candidates.size() - 1));
+      candidates.remove(candidates.size() - 1);
+      Optional<ScheduledInterview> booked = tryBook(interview, interviewerId);
+      if (booked.isPresent()) {
+        return booked;
+      }
+    }
+    return Optional.empty();
+  }
+
+  private Optional<ScheduledInterview> tryBook(ScheduledInterview interview, String interviewerId) {
+    if (!availabilityDao.reserve(interviewerId, interview.when())) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(scheduledInterviewDao.create(interview.withInterviewer(interviewerId)));
+    } catch (RuntimeException e) {
+      // The interview wasn't stored, so the interviewer shouldn't stay booked for it.
+      availabilityDao.release(interviewerId, interview.when());
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,121 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Counts how many upcoming interviews each interviewer has, in memory, so interviewers can be
+ * compared by load without a query. Interviews stop counting once they have ended.
+ *
+ * <p>The counts only reflect the interviews this tracker has been told about, so on App Engine
+ * each instance sees the interviews that were upcoming when it started plus those it has written
+ * itself since. That is close enough for spreading load, which is all the counts are used for.
+ */
+public class InterviewLoadTracker {
+  private final Clock clock;
+  // The number of upcoming interviews of each interviewer that has any, read without locking.
+  private final ConcurrentHashMap<String, Integer> counts = new ConcurrentHashMap<>();
+  // The tracked interviews by id. Guarded by this.
+  private final Map<Long, Tracked> interviews = new HashMap<>();
+  // The tracked interviews ordered by when they end, so ended ones can be dropped. Replaced and
+  // untracked interviews are left in until they reach the front. Guarded by this.
+  private final PriorityQueue<Tracked> byEnd =
+      new PriorityQueue<>((a, b) -> Long.compare(a.endMillis, b.endMillis));
+  // When the first tracked interview ends, so that most reads don't need the lock.
+  private volatile long nextEndMillis = Long.MAX_VALUE;
+
+  /** Initializes the fields for InterviewLoadTracker. */
+  public InterviewLoadTracker() {
+    this(Clock.systemUTC());
+  }
+
+  @VisibleForTesting
+  InterviewLoadTracker(Clock clock) {
+    this.clock = clock;
+  }
+
+  /** Counts each of interviews that hasn't ended yet, replacing any with the same id. */
+  public synchronized void trackAll(Collection<ScheduledInterview> interviews) {
+    for (ScheduledInterview interview : interviews) {
+      track(interview);
+    }
+  }
+
+  /** Counts interview if it hasn't ended yet, replacing any interview with the same id. */
+  public synchronized void track(ScheduledInterview interview) {
+    untrack(interview.id());
+    long endMillis = interview.when().end().toEpochMilli();
+    if (endMillis <= clock.millis()) {
+      return;
+    }
+    Tracked tracked = new Tracked(interview.id(), interview.interviewerId(), endMillis);
+    interviews.put(tracked.id, tracked);
+    byEnd.add(tracked);
+    counts.merge(tracked.interviewerId, 1, Integer::sum);
+    nextEndMillis = byEnd.peek().endMillis;
+  }
+
+  /** Stops counting the interview with the given id. */
+  public synchronized void untrack(long id) {
+    Tracked tracked = interviews.remove(id);
+    if (tracked != null) {
+      decrement(tracked.interviewerId);
+    }
+  }
+
+  /** Returns how many interviews interviewerId is booked to conduct that haven't ended yet. */
+  public int upcomingInterviews(String interviewerId) {
+    if (nextEndMillis <= clock.millis()) {
+      dropEnded();
+    }
+    return counts.getOrDefault(interviewerId, 0);
+  }
+
+  private synchronized void dropEnded() {
+    long now = clock.millis();
+    while (!byEnd.isEmpty() && byEnd.peek().endMillis <= now) {
+      Tracked tracked = byEnd.poll();
+      // Only drop it if it hasn't since been replaced or untracked.
+      if (interviews.remove(tracked.id, tracked)) {
+        decrement(tracked.interviewerId);
+      }
+    }
+    nextEndMillis = byEnd.isEmpty() ? Long.MAX_VALUE : byEnd.peek().endMillis;
+  }
+
+  private void decrement(String interviewerId) {
+    counts.computeIfPresent(interviewerId, (id, count) -> count == 1 ? null : count - 1);
+  }
+
+  // An interview being counted.
+  private static final class Tracked {
+    final long id;
+    final String interviewerId;
+    final long endMillis;
+
+    Tracked(long id, String interviewerId, long endMillis) {
+      this.id = id;
+      this.interviewerId = interviewerId;
+      this.endMillis = endMillis;
+    }
+  }
+}
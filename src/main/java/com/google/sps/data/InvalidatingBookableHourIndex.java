@@ -0,0 +1,57 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * A BookableHourIndex that drops everything cached from a CandidateCache whenever bookable hours
+ * or qualifications are updated through it, so pages built from the index don't keep offering
+ * hours that are gone or leave out interviewers who have just become qualified.
+ */
+public class InvalidatingBookableHourIndex implements BookableHourIndex {
+  private final BookableHourIndex delegate;
+  private final CandidateCache<?> cache;
+
+  /** Initializes the fields for InvalidatingBookableHourIndex. */
+  public InvalidatingBookableHourIndex(BookableHourIndex delegate, CandidateCache<?> cache) {
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  // Updates the user's bookable hours, then invalidates the cache.
+  @Override
+  public void update(
+      String userId, List<Availability> availabilities, Instant minTime, Instant maxTime) {
+    delegate.update(userId, availabilities, minTime, maxTime);
+    cache.invalidateAll();
+  }
+
+  // Updates the user's qualifications, then invalidates the cache.
+  @Override
+  public void updateQualifications(Person person) {
+    delegate.updateQualifications(person);
+    cache.invalidateAll();
+  }
+
+  @Override
+  public SortedMap<Instant, Set<String>> getInRange(
+      Job position, Instant minTime, Instant maxTime) {
+    return delegate.getInRange(position, minTime, maxTime);
+  }
+}
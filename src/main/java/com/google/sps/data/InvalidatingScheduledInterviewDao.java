@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A ScheduledInterviewDao that drops everything cached from a CandidateCache whenever an interview
+ * is written through it, so pages built from the interviews don't keep offering stale ones. Reads
+ * go straight to the delegate.
+ */
+public class InvalidatingScheduledInterviewDao implements ScheduledInterviewDao {
+  private final ScheduledInterviewDao delegate;
+  private final CandidateCache<?> cache;
+
+  /** Initializes the fields for InvalidatingScheduledInterviewDao. */
+  public InvalidatingScheduledInterviewDao(
+      ScheduledInterviewDao delegate, CandidateCache<?> cache) {
+    this.delegate = delegate;
+    this.cache = cache;
+  }
+
+  @Override
+  public Optional<ScheduledInterview> get(long id) {
+    return delegate.get(id);
+  }
+
+  @Override
+  public List<ScheduledInterview> getInRange(Instant minTime, Instant maxTime) {
+    return delegate.getInRange(minTime, maxTime);
+  }
+
+  @Override
+  public List<ScheduledInterview> getForPositionWithoutShadowInRange(
+      Job position, Instant minTime, Instant maxTime) {
+    return delegate.getForPositionWithoutShadowInRange(position, minTime, maxTime);
+  }
+
+  @Override
+  public List<ScheduledInterview> getForPerson(String userId) {
+    return delegate.getForPerson(userId);
+  }
+
+  @Override
+  public ScheduledInterviewPage getForPerson(
+      String userId, Instant from, int limit, Optional<String> cursor) {
+    return delegate.getForPerson(userId, from, limit, cursor);
+  }
+
+  @Override
+  public List<ScheduledInterview> getScheduledInterviewsInRangeForUser(
+      String userId, Instant minTime, Instant maxTime) {
+    return delegate.getScheduledInterviewsInRangeForUser(userId, minTime, maxTime);
+  }
+
+  // Creates the interview, then invalidates the cache.
+  @Override
+  public ScheduledInterview create(ScheduledInterview scheduledInterview) {
+    ScheduledInterview created = delegate.create(scheduledInterview);
+    cache.invalidateAll();
+    return created;
+  }
+
+  // Updates the interview, then invalidates the cache.
+  @Override
+  public void update(ScheduledInterview scheduledInterview) {
+    delegate.update(scheduledInterview);
+    cache.invalidateAll();
+  }
+
+  // Deletes the interview, then invalidates the cache.
+  @Override
+  public void delete(long id) {
+    delegate.delete(id);
+    cache.invalidateAll();
+  }
+}
@@ -0,0 +1,140 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies that many threads can record into at once without locking or
+ * allocating. Latencies are counted to the microsecond in buckets that widen as they grow, as in an
+ * HDR histogram: each power of two is split into SUB_BUCKETS equal buckets, so a quantile read back
+ * is at most an eighth above the true one. Latencies of 2^MAX_EXPONENT microseconds (about 19
+ * hours) or more are all counted in the last bucket.
+ */
+public final class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int MAX_EXPONENT = 36;
+  static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+  // Striped counters, so that threads recording the same latency at once don't contend.
+  private final LongAdder[] counts = new LongAdder[BUCKETS];
+  private final LongAdder sumNanos = new LongAdder();
+
+  /** Initializes the fields for LatencyHistogram. */
+  public LatencyHistogram() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts[i] = new LongAdder();
+    }
+  }
+
+  /** Counts a latency of nanos nanoseconds. */
+  public void record(long nanos) {
+    long micros = Math.max(nanos, 0) / 1000;
+    counts[bucket(micros)].increment();
+    sumNanos.add(Math.max(nanos, 0));
+  }
+
+  /**
+   * Returns the latencies counted so far. Latencies recorded while this runs may or may not be
+   * included.
+   */
+  public Snapshot snapshot() {
+    long[] snapshotCounts = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshotCounts[i] = counts[i].sum();
+    }
+    return new Snapshot(snapshotCounts, sumNanos.sum());
+  }
+
+  // Returns the index of the bucket micros is counted in.
+  static int bucket(long micros) {
+    if (micros < 2 * SUB_BUCKETS) {
+      return (int) micros;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(micros);
+    if (exponent >= MAX_EXPONENT) {
+      return BUCKETS - 1;
+    }
+    int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  // Returns the smallest latency, in microseconds, counted in the bucket at index. Passing BUCKETS
+  // gives the end of the last bucket.
+  static long lowerBoundMicros(int index) {
+    if (index < 2 * SUB_BUCKETS) {
+      return index;
+    }
+    int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    int subBucket = index % SUB_BUCKETS;
+    return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  /** The latencies counted by a LatencyHistogram at one point in time. */
+  public static final class Snapshot {
+    private final long[] counts;
+    private final long count;
+    private final long sumNanos;
+
+    private Snapshot(long[] counts, long sumNanos) {
+      this.counts = counts;
+      long count = 0;
+      for (long bucketCount : counts) {
+        count += bucketCount;
+      }
+      this.count = count;
+      this.sumNanos = sumNanos;
+    }
+
+    /** Returns how many latencies were counted. */
+    public long count() {
+      return count;
+    }
+
+    /** Returns the sum of the latencies counted, in seconds. */
+    public double sumSeconds() {
+      return sumNanos / 1e9;
+    }
+
+    /** Returns how many of the latencies counted were under micros microseconds. */
+    public long countUnderMicros(long micros) {
+      long under = 0;
+      for (int i = 0; i < BUCKETS && lowerBoundMicros(i + 1) <= micros; i++) {
+        under += counts[i];
+      }
+      return under;
+    }
+
+    /**
+     * Returns the latency, in seconds, that the fraction quantile of the latencies counted are at
+     * or under, rounded up to the end of its bucket. Returns NaN if nothing was counted.
+     */
+    public double quantileSeconds(double quantile) {
+      if (count == 0) {
+        return Double.NaN;
+      }
+      long rank = Math.max(1, (long) Math.ceil(quantile * count));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return lowerBoundMicros(i + 1) / 1e6;
+        }
+      }
+      return lowerBoundMicros(BUCKETS) / 1e6;
+    }
+  }
+}
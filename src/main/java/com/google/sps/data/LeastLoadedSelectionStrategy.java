@@ -0,0 +1,51 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.data;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Books the interviewer with the fewest upcoming interviews, choosing at random between those tied
+ * for fewest. This looks at the load of every candidate.
+ */
+public class LeastLoadedSelectionStrategy implements InterviewerSelectionStrategy {
+  private final InterviewLoadTracker loadTracker;
+
+  /** Initializes the fields for LeastLoadedSelectionStrategy. */
+  public LeastLoadedSelectionStrategy(InterviewLoadTracker loadTracker) {
+    this.loadTracker = loadTracker;
+  }
+
+  @Override
+  public int select(List<String> interviewerIds) {
+    Random random = ThreadLocalRandom.current();
+    int selected = 0;
+    int leastLoad = Integer.MAX_VALUE;
+    int ties = 0;
+    for (int i = 0; i < interviewerIds.size(); i++) {
+      int load = loadTracker.upcomingInterviews(interviewerIds.get(i));
+      if (load < leastLoad) {
+        selected = i;
+        leastLoad = load;
+        ties = 1;
+      } else if (load == leastLoad && random.nextInt(++ties) == 0) {
+        // Each of the tied interviewers ends up selected with equal chance.
+        selected = i;
+      }
+    }
+    return selected;
+  }
+}
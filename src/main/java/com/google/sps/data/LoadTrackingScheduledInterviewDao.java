@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A ScheduledInterviewDao that keeps an InterviewLoadTracker in step with every interview written
+ * through it. Reads go straight to the delegate.
+ */
+public class LoadTrackingScheduledInterviewDao implements ScheduledInterviewDao {
+  // Interviews can be booked at most four weeks ahead, so none start later than this.
+  private static final long BOOKING_HORIZON_DAYS = 35;
+
+  private final ScheduledInterviewDao delegate;
+  private final InterviewLoadTracker loadTracker;
+
+  /**
+   * Initializes the fields for LoadTrackingScheduledInterviewDao, and starts loadTracker off with
+   * the interviews in delegate that haven't happened yet.
+   */
+  public LoadTrackingScheduledInterviewDao(
+      ScheduledInterviewDao delegate, InterviewLoadTracker loadTracker) {
+    this.delegate = delegate;
+    this.loadTracker = loadTracker;
+    Instant now = Instant.now();
+    loadTracker.trackAll(
+        delegate.getInRange(
+            now.truncatedTo(ChronoUnit.DAYS),
+            now.truncatedTo(ChronoUnit.DAYS).plus(BOOKING_HORIZON_DAYS, ChronoUnit.DAYS)));
+  }
+
+  /** Returns the tracker of the interviews written through this Dao. */
+  public InterviewLoadTracker loadTracker() {
+    return loadTracker;
+  }
+
+  @Override
+  public Optional<ScheduledInterview> get(long id) {
+    return delegate.get(id);
+  }
+
+  @Override
+  public List<ScheduledInterview> getInRange(Instant minTime, Instant maxTime) {
+    return delegate.getInRange(minTime, maxTime);
+  }
+
+  @Override
+  public List<ScheduledInterview> getForPositionWithoutShadowInRange(
+      Job position, Instant minTime, Instant maxTime) {
+    return delegate.getForPositionWithoutShadowInRange(position, minTime, maxTime);
+  }
+
+  @Override
+  public List<ScheduledInterview> getForPerson(String userId) {
+    return delegate.getForPerson(userId);
+  }
+
+  @Override
+  public ScheduledInterviewPage getForPerson(
+      String userId, Instant from, int limit, Optional<String> cursor) {
+    return delegate.getForPerson(userId, from, limit, cursor);
+  }
+
+  @Override
+  public List<ScheduledInterview> getScheduledInterviewsInRangeForUser(
+      String userId, Instant minTime, Instant maxTime) {
+    return delegate.getScheduledInterviewsInRangeForUser(userId, minTime, maxTime);
+  }
+
+  // Creates the interview and counts it towards its interviewer's load.
+  @Override
+  public ScheduledInterview create(ScheduledInterview scheduledInterview) {
+    ScheduledInterview created = delegate.create(scheduledInterview);
+    loadTracker.track(created);
+    return created;
+  }
+
+  // Updates the interview, moving it to its new interviewer's load if that changed.
+  @Override
+  public void update(ScheduledInterview scheduledInterview) {
+    delegate.update(scheduledInterview);
+    loadTracker.track(scheduledInterview);
+  }
+
+  // Deletes the interview and stops counting it.
+  @Override
+  public void delete(long id) {
+    delegate.delete(id);
+    loadTracker.untrack(id);
+  }
+}
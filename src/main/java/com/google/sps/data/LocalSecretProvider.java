@@ -0,0 +1,63 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Looks secrets up in a fixed map, such as the environment variables or a properties file, for
+ * running locally and in tests without SecretManager.
+ */
+public class LocalSecretProvider implements SecretProvider {
+  private final ImmutableMap<String, String> secrets;
+
+  public LocalSecretProvider(Map<String, String> secrets) {
+    this.secrets = ImmutableMap.copyOf(secrets);
+  }
+
+  /** Returns a provider whose secrets are the environment variables of the same name. */
+  public static LocalSecretProvider fromEnvironment() {
+    return new LocalSecretProvider(System.getenv());
+  }
+
+  /** Returns a provider whose secrets are the properties in the file at path. */
+  public static LocalSecretProvider fromPropertiesFile(Path path) throws IOException {
+    Properties properties = new Properties();
+    try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+      properties.load(reader);
+    }
+    ImmutableMap.Builder<String, String> secrets = ImmutableMap.builder();
+    for (String name : properties.stringPropertyNames()) {
+      secrets.put(name, properties.getProperty(name));
+    }
+    return new LocalSecretProvider(secrets.build());
+  }
+
+  @Override
+  public String fetch(String secretId) throws IOException {
+    String value = secrets.get(secretId);
+    if (value == null) {
+      throw new IOException("No local secret named " + secretId);
+    }
+    return value;
+  }
+}
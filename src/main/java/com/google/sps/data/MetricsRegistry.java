@@ -0,0 +1,285 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts and latencies of the requests the app handles and the calls it makes to storage and other
+ * services, written out in the Prometheus text format. Looking a metric up by names the caller
+ * already has, and recording into it, doesn't allocate, so both can be done on every request.
+ */
+public final class MetricsRegistry {
+  private static final MetricsRegistry SHARED = new MetricsRegistry();
+  // The quantiles of each latency histogram that are written out.
+  private static final double[] QUANTILES = {0.5, 0.95, 0.99};
+  // The bucket bounds written out for each latency histogram: every power of two from 64
+  // microseconds to about a minute.
+  private static final int MIN_BOUND_EXPONENT = 6;
+  private static final int MAX_BOUND_EXPONENT = 26;
+
+  // The requests handled, by endpoint and then HTTP method. Sorted so they're written in order.
+  private final ConcurrentMap<String, ConcurrentMap<String, RequestMetrics>> requests =
+      new ConcurrentSkipListMap<String, ConcurrentMap<String, RequestMetrics>>();
+  // The calls made, by the name of the method called.
+  private final ConcurrentMap<String, CallMetrics> calls =
+      new ConcurrentSkipListMap<String, CallMetrics>();
+  // The counters registered, by name.
+  private final ConcurrentMap<String, CounterFamily> counters =
+      new ConcurrentSkipListMap<String, CounterFamily>();
+
+  /** Returns the MetricsRegistry that everything in the app records into. */
+  public static MetricsRegistry shared() {
+    return SHARED;
+  }
+
+  /** Returns the metrics of the requests to endpoint made with an HTTP method. */
+  public RequestMetrics request(String endpoint, String method) {
+    ConcurrentMap<String, RequestMetrics> methods = requests.get(endpoint);
+    if (methods == null) {
+      methods =
+          requests.computeIfAbsent(
+              endpoint, e -> new ConcurrentSkipListMap<String, RequestMetrics>());
+    }
+    RequestMetrics metrics = methods.get(method);
+    return metrics != null ? metrics : methods.computeIfAbsent(method, m -> new RequestMetrics());
+  }
+
+  /** Returns the metrics of the calls to method, named as in RequestTrace. */
+  public CallMetrics call(String method) {
+    CallMetrics metrics = calls.get(method);
+    return metrics != null ? metrics : calls.computeIfAbsent(method, m -> new CallMetrics());
+  }
+
+  /**
+   * Returns the counter with the given name and label. Counters are meant to be looked up once and
+   * kept, so help is only read the first time a name is used.
+   */
+  public LongAdder counter(String name, String help, String labelName, String labelValue) {
+    CounterFamily family =
+        counters.computeIfAbsent(name, n -> new CounterFamily(name, help, labelName));
+    return family.values.computeIfAbsent(labelValue, v -> new LongAdder());
+  }
+
+  /** The requests handled for one endpoint and HTTP method. */
+  public static final class RequestMetrics {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    // How many responses had each class of status code, indexed by the code's first digit.
+    private final LongAdder[] statusClasses = new LongAdder[6];
+
+    private RequestMetrics() {
+      for (int i = 1; i < statusClasses.length; i++) {
+        statusClasses[i] = new LongAdder();
+      }
+    }
+
+    /** Counts a request that took nanos nanoseconds and was answered with status. */
+    public void record(long nanos, int status) {
+      latency.record(nanos);
+      int statusClass = status / 100;
+      if (statusClass >= 1 && statusClass < statusClasses.length) {
+        statusClasses[statusClass].increment();
+      }
+    }
+  }
+
+  /** The calls made to one method. */
+  public static final class CallMetrics {
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder results = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    private CallMetrics() {}
+
+    /**
+     * Counts a call that took nanos nanoseconds and returned results results, or threw if it
+     * failed.
+     */
+    public void record(long nanos, int results, boolean failed) {
+      latency.record(nanos);
+      this.results.add(results);
+      if (failed) {
+        errors.increment();
+      }
+    }
+  }
+
+  // The counters that share a name, by their label's value.
+  private static final class CounterFamily {
+    private final String name;
+    private final String help;
+    private final String labelName;
+    private final ConcurrentMap<String, LongAdder> values =
+        new ConcurrentSkipListMap<String, LongAdder>();
+
+    CounterFamily(String name, String help, String labelName) {
+      this.name = name;
+      this.help = help;
+      this.labelName = labelName;
+    }
+  }
+
+  /** Writes out every metric recorded so far in the Prometheus text format. */
+  public void write(StringBuilder out) {
+    writeHeader(
+        out,
+        "interviewme_http_requests_total",
+        "Requests handled, by endpoint, HTTP method and status code class.",
+        "counter");
+    for (Map.Entry<String, ConcurrentMap<String, RequestMetrics>> endpoint : requests.entrySet()) {
+      for (Map.Entry<String, RequestMetrics> method : endpoint.getValue().entrySet()) {
+        String labels = requestLabels(endpoint.getKey(), method.getKey());
+        LongAdder[] statusClasses = method.getValue().statusClasses;
+        for (int i = 1; i < statusClasses.length; i++) {
+          writeSample(
+              out,
+              "interviewme_http_requests_total",
+              labels + "," + label("code", i + "xx"),
+              statusClasses[i].sum());
+        }
+      }
+    }
+    writeLatencies(
+        out,
+        "interviewme_http_request_duration_seconds",
+        "Time taken to handle requests, by endpoint and HTTP method.",
+        requestSnapshots());
+
+    Map<String, LatencyHistogram.Snapshot> callLatencies =
+        new ConcurrentSkipListMap<String, LatencyHistogram.Snapshot>();
+    for (Map.Entry<String, CallMetrics> call : calls.entrySet()) {
+      callLatencies.put(label("method", call.getKey()), call.getValue().latency.snapshot());
+    }
+    writeLatencies(
+        out,
+        "interviewme_call_duration_seconds",
+        "Time taken by calls to storage and other services, by method.",
+        callLatencies);
+    writeHeader(
+        out,
+        "interviewme_call_results_total",
+        "Results returned by calls to storage and other services, by method.",
+        "counter");
+    for (Map.Entry<String, CallMetrics> call : calls.entrySet()) {
+      writeSample(
+          out,
+          "interviewme_call_results_total",
+          label("method", call.getKey()),
+          call.getValue().results.sum());
+    }
+    writeHeader(
+        out,
+        "interviewme_call_errors_total",
+        "Calls to storage and other services that threw, by method.",
+        "counter");
+    for (Map.Entry<String, CallMetrics> call : calls.entrySet()) {
+      writeSample(
+          out,
+          "interviewme_call_errors_total",
+          label("method", call.getKey()),
+          call.getValue().errors.sum());
+    }
+
+    for (CounterFamily family : counters.values()) {
+      writeHeader(out, family.name, family.help, "counter");
+      for (Map.Entry<String, LongAdder> value : family.values.entrySet()) {
+        writeSample(
+            out, family.name, label(family.labelName, value.getKey()), value.getValue().sum());
+      }
+    }
+  }
+
+  // Returns a snapshot of each endpoint and method's latencies, keyed by their labels.
+  private Map<String, LatencyHistogram.Snapshot> requestSnapshots() {
+    Map<String, LatencyHistogram.Snapshot> snapshots =
+        new ConcurrentSkipListMap<String, LatencyHistogram.Snapshot>();
+    for (Map.Entry<String, ConcurrentMap<String, RequestMetrics>> endpoint : requests.entrySet()) {
+      for (Map.Entry<String, RequestMetrics> method : endpoint.getValue().entrySet()) {
+        String labels = requestLabels(endpoint.getKey(), method.getKey());
+        snapshots.put(labels, method.getValue().latency.snapshot());
+      }
+    }
+    return snapshots;
+  }
+
+  private static String requestLabels(String endpoint, String method) {
+    return label("endpoint", endpoint) + "," + label("method", method);
+  }
+
+  // Writes out a histogram of the latencies, with a bucket for each power of two bound, and a
+  // gauge of their quantiles alongside it.
+  private static void writeLatencies(
+      StringBuilder out, String name, String help, Map<String, LatencyHistogram.Snapshot> series) {
+    writeHeader(out, name, help, "histogram");
+    for (Map.Entry<String, LatencyHistogram.Snapshot> entry : series.entrySet()) {
+      String labels = entry.getKey();
+      LatencyHistogram.Snapshot snapshot = entry.getValue();
+      for (int exponent = MIN_BOUND_EXPONENT; exponent <= MAX_BOUND_EXPONENT; exponent++) {
+        long boundMicros = 1L << exponent;
+        writeSample(
+            out,
+            name + "_bucket",
+            labels + "," + label("le", Double.toString(boundMicros / 1e6)),
+            snapshot.countUnderMicros(boundMicros));
+      }
+      writeSample(out, name + "_bucket", labels + "," + label("le", "+Inf"), snapshot.count());
+      writeSample(out, name + "_sum", labels, snapshot.sumSeconds());
+      writeSample(out, name + "_count", labels, snapshot.count());
+    }
+    String quantileName = name.replace("_seconds", "_quantile_seconds");
+    writeHeader(out, quantileName, help + " Quantiles of the same latencies.", "gauge");
+    for (Map.Entry<String, LatencyHistogram.Snapshot> entry : series.entrySet()) {
+      for (double quantile : QUANTILES) {
+        writeSample(
+            out,
+            quantileName,
+            entry.getKey() + "," + label("quantile", Double.toString(quantile)),
+            entry.getValue().quantileSeconds(quantile));
+      }
+    }
+  }
+
+  /** Writes the HELP and TYPE lines that start a metric family. */
+  public static void writeHeader(StringBuilder out, String name, String help, String type) {
+    out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+    out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+  }
+
+  /** Writes one sample of a metric, with labels already formatted by label. */
+  public static void writeSample(StringBuilder out, String name, String labels, double value) {
+    out.append(name);
+    if (!labels.isEmpty()) {
+      out.append('{').append(labels).append('}');
+    }
+    out.append(' ');
+    if (value == Math.rint(value) && !Double.isInfinite(value)) {
+      out.append((long) value);
+    } else {
+      out.append(Double.isNaN(value) ? "NaN" : Double.toString(value));
+    }
+    out.append('\n');
+  }
+
+  /** Returns a label for a sample, with its value escaped. */
+  public static String label(String name, String value) {
+    return name
+        + "=\""
+        + value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n")
+        + "\"";
+  }
+}
@@ -14,6 +14,8 @@
 
 package com.google.sps.data;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 /** PersonDao includes the basic methods anything managing Person entities must support. */
@@ -21,6 +23,10 @@ public interface PersonDao {
   // Returns a Person object from storage, with the specified id.
   public Optional<Person> get(String id);
 
+  // Returns the Person objects in storage with the specified ids, keyed by id. Ids that aren't in
+  // storage are left out.
+  public Map<String, Person> getAll(Collection<String> ids);
+
   // Adds a Person object into storage.
   public void create(Person person);
 
@@ -0,0 +1,148 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.base.Preconditions;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A CalendarAccess that reserves Meet links ahead of demand and hands them out without a remote
+ * call. Whenever a link is taken, the pool is topped back up in the background. If the pool has run
+ * dry, the link is made on the caller's thread as before.
+ */
+public class PooledMeetLinkCalendarAccess implements CalendarAccess {
+  private static final Logger logger =
+      Logger.getLogger(PooledMeetLinkCalendarAccess.class.getName());
+  // Where the links handed out came from, so the pool's hit ratio can be watched.
+  private static final LongAdder pooledLinks = linkCounter("pool");
+  private static final LongAdder calendarLinks = linkCounter("calendar");
+
+  private final CalendarAccess delegate;
+  private final BlockingQueue<String> reservedLinks;
+  private final Executor refillExecutor;
+  // Whether a refill is waiting to run or running, so at most one is at a time.
+  private final AtomicBoolean refilling = new AtomicBoolean(false);
+
+  /**
+   * Initializes the fields for PooledMeetLinkCalendarAccess and starts filling the pool on a
+   * background thread.
+   */
+  public PooledMeetLinkCalendarAccess(CalendarAccess delegate, int poolSize) {
+    this(
+        delegate,
+        poolSize,
+        Executors.newSingleThreadExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "meet-link-pool");
+              thread.setDaemon(true);
+              return thread;
+            }));
+  }
+
+  /**
+   * Initializes the fields for PooledMeetLinkCalendarAccess and starts filling the pool with
+   * refillExecutor.
+   *
+   * @param delegate The CalendarAccess that links are reserved and, when the pool is empty, made
+   *     through.
+   * @param poolSize How many reserved links to keep ready.
+   * @param refillExecutor Runs the refills of the pool.
+   */
+  public PooledMeetLinkCalendarAccess(
+      CalendarAccess delegate, int poolSize, Executor refillExecutor) {
+    Preconditions.checkArgument(poolSize > 0, "Pool size must be positive: %s", poolSize);
+    this.delegate = delegate;
+    this.reservedLinks = new ArrayBlockingQueue<String>(poolSize);
+    this.refillExecutor = refillExecutor;
+    refill();
+  }
+
+  // Returns a reserved Meet Link, or creates one for interview if none are left.
+  @Override
+  public String getMeetLink(ScheduledInterview interview)
+      throws IOException, GeneralSecurityException {
+    String link = reservedLinks.poll();
+    refill();
+    if (link != null) {
+      pooledLinks.increment();
+      return link;
+    }
+    calendarLinks.increment();
+    return delegate.getMeetLink(interview);
+  }
+
+  // Returns a reserved Meet Link, or reserves one now if none are left.
+  @Override
+  public String reserveMeetLink() throws IOException, GeneralSecurityException {
+    String link = reservedLinks.poll();
+    refill();
+    if (link != null) {
+      pooledLinks.increment();
+      return link;
+    }
+    calendarLinks.increment();
+    return delegate.reserveMeetLink();
+  }
+
+  /** Returns how many reserved links are ready to be handed out. */
+  public int available() {
+    return reservedLinks.size();
+  }
+
+  private static LongAdder linkCounter(String source) {
+    return MetricsRegistry.shared()
+        .counter(
+            "interviewme_meet_links_total",
+            "Meet links handed out, by whether they came from the pool or the calendar.",
+            "source",
+            source);
+  }
+
+  // Starts topping the pool up, unless that is already happening.
+  private void refill() {
+    if (reservedLinks.remainingCapacity() == 0 || !refilling.compareAndSet(false, true)) {
+      return;
+    }
+    refillExecutor.execute(
+        () -> {
+          try {
+            while (reservedLinks.remainingCapacity() > 0) {
+              reservedLinks.offer(delegate.reserveMeetLink());
+            }
+          } catch (IOException | GeneralSecurityException | RuntimeException e) {
+            // The next link taken tries again.
+            logger.log(Level.WARNING, "Could not reserve a Meet link", e);
+            MetricsRegistry.shared()
+                .counter(
+                    "interviewme_meet_link_refill_errors_total",
+                    "Refills of the Meet link pool that failed, by the type of error.",
+                    "error",
+                    e.getClass().getSimpleName())
+                .increment();
+          } finally {
+            refilling.set(false);
+          }
+        });
+  }
+}
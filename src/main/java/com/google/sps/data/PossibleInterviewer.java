@@ -15,6 +15,8 @@
 package com.google.sps.data;
 
 import com.google.auto.value.AutoValue;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * A PossibleInterviewer has a company and a job, and nothing else. This class is used for frontend
@@ -30,6 +32,19 @@ public abstract class PossibleInterviewer {
     return builder().setCompany(company).setJob(job).build();
   }
 
+  /** Returns the company and job of the people qualified for position, keyed by their ids. */
+  public static Map<String, PossibleInterviewer> ofQualified(
+      Job position, Map<String, Person> people) {
+    Map<String, PossibleInterviewer> interviewers = new HashMap<String, PossibleInterviewer>();
+    for (Map.Entry<String, Person> person : people.entrySet()) {
+      if (person.getValue().qualifiedJobs().contains(position)) {
+        interviewers.put(
+            person.getKey(), create(person.getValue().company(), person.getValue().job()));
+      }
+    }
+    return interviewers;
+  }
+
   static Builder builder() {
     return new AutoValue_PossibleInterviewer.Builder();
   }
@@ -0,0 +1,60 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.data;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks two of the interviewers at random and books whichever has fewer upcoming interviews. This
+ * only looks at two loads however many candidates there are, yet keeps the busiest interviewer
+ * close to the average, and unlike always booking the least loaded it doesn't send every
+ * concurrent booking to the same person.
+ */
+public class PowerOfTwoChoicesSelectionStrategy implements InterviewerSelectionStrategy {
+  private final InterviewLoadTracker loadTracker;
+  private final Random random;
+
+  /** Initializes the fields for PowerOfTwoChoicesSelectionStrategy. */
+  public PowerOfTwoChoicesSelectionStrategy(InterviewLoadTracker loadTracker) {
+    this(loadTracker, null);
+  }
+
+  // Uses random instead of the calling thread's ThreadLocalRandom if it isn't null.
+  @VisibleForTesting
+  PowerOfTwoChoicesSelectionStrategy(InterviewLoadTracker loadTracker, Random random) {
+    this.loadTracker = loadTracker;
+    this.random = random;
+  }
+
+  @Override
+  public int select(List<String> interviewerIds) {
+    int size = interviewerIds.size();
+    if (size == 1) {
+      return 0;
+    }
+    Random random = this.random == null ? ThreadLocalRandom.current() : this.random;
+    int first = random.nextInt(size);
+    // Picks a different second interviewer by skipping over the first.
+    int second = random.nextInt(size - 1);
+    if (second >= first) {
+      second++;
+    }
+    int firstLoad = loadTracker.upcomingInterviews(interviewerIds.get(first));
+    int secondLoad = loadTracker.upcomingInterviews(interviewerIds.get(second));
+    return secondLoad < firstLoad ? second : first;
+  }
+}
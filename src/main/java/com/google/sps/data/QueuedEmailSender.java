@@ -0,0 +1,330 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.base.Preconditions;
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An EmailSender that returns as soon as an email is queued and sends it on a pool of worker
+ * threads, so requests never wait on the mail provider. Each worker sends whatever has queued up in
+ * batches. An email that fails with an IOException or a 429 or 5xx status is retried with
+ * exponential backoff; one that fails with any other status, or runs out of attempts, is moved to a
+ * bounded dead-letter list and logged. If the queue is full, the email is sent on the caller's
+ * thread instead, so bursts slow requests down rather than drop mail.
+ */
+public class QueuedEmailSender implements EmailSender {
+  /** The status returned for an email that has been queued rather than sent. */
+  public static final int ACCEPTED = 202;
+
+  private static final Logger logger = Logger.getLogger(QueuedEmailSender.class.getName());
+  private static final int DEFAULT_CAPACITY = 1000;
+  private static final int DEFAULT_WORKERS = 2;
+  private static final int DEFAULT_BATCH_SIZE = 20;
+  private static final int DEFAULT_MAX_ATTEMPTS = 5;
+  private static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofSeconds(1);
+  private static final Duration MAX_BACKOFF = Duration.ofMinutes(5);
+  private static final int DEAD_LETTER_CAPACITY = 1000;
+  // Every attempt to send an email ends in one of these, and every email in sentEmails or
+  // deadLetteredEmails.
+  private static final LongAdder sentAttempts = attemptCounter("sent");
+  private static final LongAdder rejectedAttempts = attemptCounter("rejected");
+  private static final LongAdder failedAttempts = attemptCounter("error");
+  private static final LongAdder sentEmails = emailCounter("sent");
+  private static final LongAdder deadLetteredEmails = emailCounter("dead_lettered");
+  // The senders returned by sendgrid, by the address they send from. Guarded by the class.
+  private static final Map<String, QueuedEmailSender> sendgridSenders =
+      new HashMap<String, QueuedEmailSender>();
+
+  private final EmailSender delegate;
+  private final int batchSize;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+  private final BlockingQueue<QueuedEmail> queue;
+  private final ExecutorService workers;
+  private final ScheduledExecutorService retries;
+  // The most recent emails that could not be sent, oldest first. Guarded by itself.
+  private final Deque<DeadLetter> deadLetters = new ArrayDeque<DeadLetter>();
+  // How many emails have been accepted but not yet sent or dead-lettered. Guarded by this.
+  private int outstanding = 0;
+
+  /** Initializes the fields for QueuedEmailSender with the default limits. */
+  public QueuedEmailSender(EmailSender delegate) {
+    this(
+        delegate,
+        DEFAULT_CAPACITY,
+        DEFAULT_WORKERS,
+        DEFAULT_BATCH_SIZE,
+        DEFAULT_MAX_ATTEMPTS,
+        DEFAULT_INITIAL_BACKOFF);
+  }
+
+  /**
+   * Initializes the fields for QueuedEmailSender.
+   *
+   * @param delegate The EmailSender that actually sends the emails.
+   * @param capacity How many emails can wait to be sent before callers send their own.
+   * @param workers How many threads send emails.
+   * @param batchSize How many queued emails a worker takes at once.
+   * @param maxAttempts How many times an email is tried before it is dead-lettered.
+   * @param initialBackoff How long to wait before the first retry. Each retry waits twice as long
+   *     as the one before, up to five minutes.
+   */
+  public QueuedEmailSender(
+      EmailSender delegate,
+      int capacity,
+      int workers,
+      int batchSize,
+      int maxAttempts,
+      Duration initialBackoff) {
+    Preconditions.checkArgument(workers > 0, "Need at least one worker: %s", workers);
+    Preconditions.checkArgument(batchSize > 0, "Batch size must be positive: %s", batchSize);
+    Preconditions.checkArgument(maxAttempts > 0, "Need at least one attempt: %s", maxAttempts);
+    this.delegate = delegate;
+    this.batchSize = batchSize;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+    this.queue = new ArrayBlockingQueue<QueuedEmail>(capacity);
+    this.workers = Executors.newFixedThreadPool(workers, daemonThreads("email-sender"));
+    this.retries = Executors.newSingleThreadScheduledExecutor(daemonThreads("email-retry"));
+    for (int i = 0; i < workers; i++) {
+      this.workers.execute(this::drainQueue);
+    }
+  }
+
+  /**
+   * Returns a QueuedEmailSender that sends from sender through SendGrid. It is made the first time
+   * it's asked for and shared from then on, so all the servlets on an instance use one queue, one
+   * set of workers and one SendGrid client.
+   */
+  public static synchronized QueuedEmailSender sendgrid(Email sender) throws IOException {
+    QueuedEmailSender shared = sendgridSenders.get(sender.getEmail());
+    if (shared == null) {
+      shared = new QueuedEmailSender(new SendgridEmailSender(sender));
+      sendgridSenders.put(sender.getEmail(), shared);
+    }
+    return shared;
+  }
+
+  /**
+   * Queues an email to the "recipient" Email, with specified subject and content, and returns
+   * ACCEPTED without waiting for it to be sent.
+   */
+  @Override
+  public int sendEmail(Email recipient, String subject, Content content) {
+    QueuedEmail email = new QueuedEmail(recipient, subject, content);
+    synchronized (this) {
+      outstanding++;
+    }
+    if (!queue.offer(email)) {
+      attempt(email);
+    }
+    return ACCEPTED;
+  }
+
+  /** Returns the emails that could not be sent, oldest first. */
+  public List<DeadLetter> deadLetters() {
+    synchronized (deadLetters) {
+      return new ArrayList<DeadLetter>(deadLetters);
+    }
+  }
+
+  /**
+   * Waits until every email accepted so far has been sent or dead-lettered, or until timeout has
+   * passed. Returns whether everything was handled.
+   */
+  public synchronized boolean awaitIdle(Duration timeout) throws InterruptedException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    while (outstanding > 0) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        return false;
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    return true;
+  }
+
+  /** Stops the workers. Emails still queued or waiting to be retried are not sent. */
+  public void shutdown() {
+    workers.shutdownNow();
+    retries.shutdownNow();
+  }
+
+  // Takes emails off the queue, up to batchSize at a time, and sends them until interrupted.
+  private void drainQueue() {
+    List<QueuedEmail> batch = new ArrayList<QueuedEmail>(batchSize);
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        batch.add(queue.take());
+        queue.drainTo(batch, batchSize - 1);
+        for (QueuedEmail email : batch) {
+          attempt(email);
+        }
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  // Tries to send email once, then either finishes it, schedules a retry, or dead-letters it.
+  private void attempt(QueuedEmail email) {
+    email.attempts++;
+    String error;
+    boolean retryable;
+    try {
+      int status = delegate.sendEmail(email.recipient, email.subject, email.content);
+      if (status < 400) {
+        sentAttempts.increment();
+        sentEmails.increment();
+        finish();
+        return;
+      }
+      rejectedAttempts.increment();
+      error = String.format("Status %d", status);
+      retryable = status == 429 || status >= 500;
+    } catch (Exception e) {
+      failedAttempts.increment();
+      error = e.toString();
+      retryable = true;
+    }
+    if (!retryable || email.attempts >= maxAttempts) {
+      deadLetter(email, error);
+      return;
+    }
+    try {
+      retries.schedule(() -> requeue(email), backoff(email.attempts), TimeUnit.MILLISECONDS);
+    } catch (RuntimeException e) {
+      // The retry executor has been shut down.
+      deadLetter(email, error);
+    }
+  }
+
+  private void requeue(QueuedEmail email) {
+    if (!queue.offer(email)) {
+      attempt(email);
+    }
+  }
+
+  // Returns how many milliseconds to wait before trying again after the given number of attempts.
+  private long backoff(int attempts) {
+    long backoff = initialBackoff.toMillis() << Math.min(attempts - 1, 30);
+    return Math.min(backoff, MAX_BACKOFF.toMillis());
+  }
+
+  private void deadLetter(QueuedEmail email, String error) {
+    deadLetteredEmails.increment();
+    logger.log(
+        Level.WARNING,
+        "Giving up on email \"{0}\" after {1} attempts: {2}",
+        new Object[] {email.subject, email.attempts, error});
+    synchronized (deadLetters) {
+      if (deadLetters.size() == DEAD_LETTER_CAPACITY) {
+        deadLetters.removeFirst();
+      }
+      deadLetters.addLast(
+          DeadLetter.create(email.recipient, email.subject, email.content, email.attempts, error));
+    }
+    finish();
+  }
+
+  private synchronized void finish() {
+    outstanding--;
+    if (outstanding == 0) {
+      notifyAll();
+    }
+  }
+
+  private static LongAdder attemptCounter(String outcome) {
+    return MetricsRegistry.shared()
+        .counter(
+            "interviewme_email_attempts_total",
+            "Attempts to send an email, by whether it was sent, rejected or failed with an error.",
+            "outcome",
+            outcome);
+  }
+
+  private static LongAdder emailCounter(String outcome) {
+    return MetricsRegistry.shared()
+        .counter(
+            "interviewme_emails_total",
+            "Emails that were sent or given up on.",
+            "outcome",
+            outcome);
+  }
+
+  private static ThreadFactory daemonThreads(String name) {
+    return runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  // An email waiting to be sent, and how many times sending it has been tried.
+  private static class QueuedEmail {
+    final Email recipient;
+    final String subject;
+    final Content content;
+    int attempts = 0;
+
+    QueuedEmail(Email recipient, String subject, Content content) {
+      this.recipient = recipient;
+      this.subject = subject;
+      this.content = content;
+    }
+  }
+
+  /** An email that could not be sent, and the error from the last attempt to send it. */
+  @AutoValue
+  public abstract static class DeadLetter {
+    public abstract Email recipient();
+
+    public abstract String subject();
+
+    public abstract Content content();
+
+    public abstract int attempts();
+
+    public abstract String error();
+
+    static DeadLetter create(
+        Email recipient, String subject, Content content, int attempts, String error) {
+      return new AutoValue_QueuedEmailSender_DeadLetter(
+          recipient, subject, content, attempts, error);
+    }
+  }
+}
@@ -0,0 +1,171 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToIntFunction;
+
+/**
+ * What one request spent on calls to storage and other services: how many calls it made to each
+ * method, how long they took in all and how many results they returned. A request's trace is kept
+ * on the thread handling it from begin until end. Calls made on other threads, or outside of any
+ * request, aren't traced, but like every call they are still counted in the shared
+ * MetricsRegistry.
+ */
+public final class RequestTrace {
+  private static final ThreadLocal<RequestTrace> current = new ThreadLocal<RequestTrace>();
+
+  private final long startNanos;
+  // The calls made so far, keyed by the name of the method called, in the order first made. Only
+  // touched by the thread handling the request.
+  private final Map<String, MethodStats> methods = new LinkedHashMap<String, MethodStats>();
+
+  private RequestTrace(long startNanos) {
+    this.startNanos = startNanos;
+  }
+
+  /** A call to trace, which may throw E. */
+  public interface Call<T, E extends Exception> {
+    public T call() throws E;
+  }
+
+  /** The calls a request made to one method. */
+  public static final class MethodStats {
+    private int calls = 0;
+    private long nanos = 0;
+    private long results = 0;
+
+    /** Returns how many times the method was called. */
+    public int calls() {
+      return calls;
+    }
+
+    /** Returns how long the calls took in all, in nanoseconds. */
+    public long nanos() {
+      return nanos;
+    }
+
+    /** Returns how many results the calls returned in all. */
+    public long results() {
+      return results;
+    }
+  }
+
+  /** Starts a trace for the request handled by the current thread, and returns it. */
+  public static RequestTrace begin() {
+    RequestTrace trace = new RequestTrace(System.nanoTime());
+    current.set(trace);
+    return trace;
+  }
+
+  /** Stops recording calls made by the current thread. */
+  public static void end() {
+    current.remove();
+  }
+
+  /** Returns the trace of the request handled by the current thread, if there is one. */
+  public static Optional<RequestTrace> current() {
+    return Optional.ofNullable(current.get());
+  }
+
+  /**
+   * Makes call, recording it against method in the current request's trace along with how long it
+   * took and the number of results that results counts in what it returned. A call that throws is
+   * recorded with no results.
+   */
+  public static <T, E extends Exception> T time(
+      String method, Call<T, E> call, ToIntFunction<? super T> results) throws E {
+    long start = System.nanoTime();
+    T result = null;
+    boolean failed = true;
+    try {
+      result = call.call();
+      failed = false;
+      return result;
+    } finally {
+      record(method, start, failed ? 0 : results.applyAsInt(result), failed);
+    }
+  }
+
+  /**
+   * Makes call, recording it against method in the current request's trace along with how long it
+   * took.
+   */
+  public static void time(String method, Runnable call) {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      call.run();
+      failed = false;
+    } finally {
+      record(method, start, 0, failed);
+    }
+  }
+
+  /**
+   * Records a call to method that started at startNanos, as read from System.nanoTime, and just
+   * returned results results or threw if it failed, in the current request's trace.
+   */
+  public static void record(String method, long startNanos, int results, boolean failed) {
+    long nanos = System.nanoTime() - startNanos;
+    MetricsRegistry.shared().call(method).record(nanos, results, failed);
+    RequestTrace trace = current.get();
+    if (trace != null) {
+      trace.add(method, nanos, results);
+    }
+  }
+
+  private void add(String method, long nanos, int results) {
+    MethodStats stats = methods.get(method);
+    if (stats == null) {
+      stats = new MethodStats();
+      methods.put(method, stats);
+    }
+    stats.calls++;
+    stats.nanos += nanos;
+    stats.results += results;
+  }
+
+  /** Returns the calls made so far, keyed by the name of the method, in the order first made. */
+  public Map<String, MethodStats> methods() {
+    return Collections.unmodifiableMap(methods);
+  }
+
+  /** Returns how many calls have been made so far, to any method. */
+  public int calls() {
+    int calls = 0;
+    for (MethodStats stats : methods.values()) {
+      calls += stats.calls;
+    }
+    return calls;
+  }
+
+  /** Returns how long the calls made so far took in all, in nanoseconds. */
+  public long callNanos() {
+    long nanos = 0;
+    for (MethodStats stats : methods.values()) {
+      nanos += stats.nanos;
+    }
+    return nanos;
+  }
+
+  /** Returns how long it has been since the trace began, in nanoseconds. */
+  public long elapsedNanos() {
+    return System.nanoTime() - startNanos;
+  }
+}
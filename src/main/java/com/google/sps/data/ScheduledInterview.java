@@ -66,6 +66,16 @@ public abstract class ScheduledInterview {
     return toBuilder().setShadowId(shadowId).build();
   }
 
+  // Returns a new ScheduledInterview with the old information and the given id.
+  public ScheduledInterview withId(long id) {
+    return toBuilder().setId(id).build();
+  }
+
+  // Returns a new ScheduledInterview with the old information and a different interviewer.
+  public ScheduledInterview withInterviewer(String interviewerId) {
+    return toBuilder().setInterviewerId(interviewerId).build();
+  }
+
   // Returns a new ScheduledInterview with the old information plus an added meetlink.
   public ScheduledInterview withMeetLink(String meetLink) {
     return toBuilder().setMeetLink(meetLink).build();
@@ -38,13 +38,20 @@ public interface ScheduledInterviewDao {
   // Returns a list of the ScheduledInterview objects that the user participates in.
   public List<ScheduledInterview> getForPerson(String userId);
 
+  // Returns a page of at most limit of the ScheduledInterview objects that the user participates
+  // in that start at or after from, sorted by start time. cursor is empty for the first page, and
+  // otherwise the nextCursor of the previous page, fetched with the same userId and from.
+  // Throws IllegalArgumentException if cursor wasn't returned by this Dao.
+  public ScheduledInterviewPage getForPerson(
+      String userId, Instant from, int limit, Optional<String> cursor);
+
   // Returns a list of all ScheduledInterview objects ranging from minTime to maxTime of a
   // user.
   public List<ScheduledInterview> getScheduledInterviewsInRangeForUser(
       String userId, Instant minTime, Instant maxTime);
 
-  // Creates a ScheduledInterview entity.
-  public void create(ScheduledInterview scheduledInterview);
+  // Creates a ScheduledInterview entity and returns it with its generated id.
+  public ScheduledInterview create(ScheduledInterview scheduledInterview);
 
   // Updates a ScheduledInterview.
   public void update(ScheduledInterview scheduledInterview);
@@ -0,0 +1,35 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.auto.value.AutoValue;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Optional;
+
+/** One page of a user's scheduled interviews, and where the next page starts. */
+@AutoValue
+public abstract class ScheduledInterviewPage {
+  // The interviews on this page, sorted by start time.
+  public abstract ImmutableList<ScheduledInterview> interviews();
+
+  // The cursor to pass to getForPerson for the next page, or empty if this is the last page.
+  public abstract Optional<String> nextCursor();
+
+  public static ScheduledInterviewPage create(
+      List<ScheduledInterview> interviews, Optional<String> nextCursor) {
+    return new AutoValue_ScheduledInterviewPage(ImmutableList.copyOf(interviews), nextCursor);
+  }
+}
@@ -14,36 +14,167 @@
 
 package com.google.sps.data;
 
-import com.google.cloud.secretmanager.v1.AccessSecretVersionRequest;
-import com.google.cloud.secretmanager.v1.AccessSecretVersionResponse;
-import com.google.cloud.secretmanager.v1.SecretManagerServiceClient;
-import com.google.cloud.secretmanager.v1.SecretVersionName;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
-// Handles getting secrets we define in our GCP's SecretManager.
+// Handles getting secrets we define in our GCP's SecretManager. Secrets are kept in memory once
+// fetched. A secret used after three quarters of its time to live is refreshed in the background
+// while the cached value is still returned, and one used after its time to live is fetched again
+// before returning.
 public class SecretFetcher {
-  // The ID of the project secrets are being fetched from.
-  private final String projectId;
+  // The environment variable that can name a properties file to read secrets from instead of
+  // SecretManager, for running locally.
+  public static final String LOCAL_SECRETS_FILE = "INTERVIEWME_SECRETS_FILE";
 
-  public SecretFetcher(String projectId) {
-    this.projectId = projectId;
+  private static final Logger logger = Logger.getLogger(SecretFetcher.class.getName());
+  private static final Duration DEFAULT_TTL = Duration.ofHours(1);
+  // The fetcher shared by everything that uses each project's secrets.
+  private static final ConcurrentHashMap<String, SecretFetcher> sharedFetchers =
+      new ConcurrentHashMap<String, SecretFetcher>();
+  // Runs prewarming and background refreshes for the shared fetchers.
+  private static final Executor sharedExecutor =
+      Executors.newCachedThreadPool(
+          runnable -> {
+            Thread thread = new Thread(runnable, "secret-fetcher");
+            thread.setDaemon(true);
+            return thread;
+          });
+
+  private final SecretProvider provider;
+  private final long ttlNanos;
+  private final long refreshNanos;
+  private final Ticker ticker;
+  private final Executor executor;
+  private final ConcurrentHashMap<String, CachedSecret> secrets =
+      new ConcurrentHashMap<String, CachedSecret>();
+  // Held while a secret is fetched, so concurrent misses on it make one request.
+  private final ConcurrentHashMap<String, Object> fetchLocks =
+      new ConcurrentHashMap<String, Object>();
+
+  /** Initializes the fields for SecretFetcher. */
+  public SecretFetcher(SecretProvider provider, Duration ttl, Executor executor) {
+    this(provider, ttl, executor, Ticker.systemTicker());
+  }
+
+  @VisibleForTesting
+  SecretFetcher(SecretProvider provider, Duration ttl, Executor executor, Ticker ticker) {
+    this.provider = provider;
+    this.ttlNanos = ttl.toNanos();
+    this.refreshNanos = ttlNanos / 4 * 3;
+    this.executor = executor;
+    this.ticker = ticker;
+  }
+
+  /**
+   * Returns the SecretFetcher shared by everything on this instance that uses projectId's secrets.
+   * It reads from SecretManager, unless the LOCAL_SECRETS_FILE environment variable names a
+   * properties file to read from instead.
+   */
+  public static SecretFetcher forProject(String projectId) {
+    return sharedFetchers.computeIfAbsent(
+        projectId, id -> new SecretFetcher(defaultProvider(id), DEFAULT_TTL, sharedExecutor));
+  }
+
+  private static SecretProvider defaultProvider(String projectId) {
+    String localSecretsFile = System.getenv(LOCAL_SECRETS_FILE);
+    if (localSecretsFile == null) {
+      return new SecretManagerSecretProvider(projectId);
+    }
+    try {
+      return LocalSecretProvider.fromPropertiesFile(Paths.get(localSecretsFile));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
   }
 
   public String getSecretValue(String secretId) throws IOException {
-    // Initialize client that will be used to send requests. This client only needs to be created
-    // once, and can be reused for multiple requests. After completing all of your requests, call
-    // the "close" method on the client to safely clean up any remaining background resources.
-    try (SecretManagerServiceClient client = SecretManagerServiceClient.create()) {
-      SecretVersionName name = SecretVersionName.of(projectId, secretId, "latest");
-      AccessSecretVersionRequest request =
-          AccessSecretVersionRequest.newBuilder().setName(name.toString()).build();
-      AccessSecretVersionResponse response = client.accessSecretVersion(request);
-
-      // WARNING: Do not print the secret in a production environment - this
-      // snippet is showing how to access the secret material.
-      String data = response.getPayload().getData().toStringUtf8();
-      client.close();
-      return data;
+    CachedSecret cached = secrets.get(secretId);
+    if (cached != null) {
+      long age = ticker.read() - cached.fetchedNanos;
+      if (age < ttlNanos) {
+        if (age >= refreshNanos) {
+          refreshInBackground(secretId, cached);
+        }
+        return cached.value;
+      }
+    }
+    return fetch(secretId);
+  }
+
+  /**
+   * Starts fetching each of secretIds at the same time, and returns a future that completes once
+   * they are all cached. The future completes exceptionally if any of them couldn't be fetched.
+   */
+  public CompletableFuture<Void> prewarm(Collection<String> secretIds) {
+    List<CompletableFuture<Void>> fetches = new ArrayList<CompletableFuture<Void>>();
+    for (String secretId : secretIds) {
+      fetches.add(
+          CompletableFuture.runAsync(
+              () -> {
+                try {
+                  getSecretValue(secretId);
+                } catch (IOException e) {
+                  throw new UncheckedIOException(e);
+                }
+              },
+              executor));
+    }
+    return CompletableFuture.allOf(fetches.toArray(new CompletableFuture<?>[0]));
+  }
+
+  // Fetches secretId from the provider and caches it, unless another thread fetched it first.
+  private String fetch(String secretId) throws IOException {
+    synchronized (fetchLocks.computeIfAbsent(secretId, id -> new Object())) {
+      CachedSecret cached = secrets.get(secretId);
+      if (cached != null && ticker.read() - cached.fetchedNanos < ttlNanos) {
+        return cached.value;
+      }
+      String value = provider.fetch(secretId);
+      secrets.put(secretId, new CachedSecret(value, ticker.read()));
+      return value;
+    }
+  }
+
+  private void refreshInBackground(String secretId, CachedSecret cached) {
+    if (!cached.refreshing.compareAndSet(false, true)) {
+      return;
+    }
+    executor.execute(
+        () -> {
+          try {
+            String value = provider.fetch(secretId);
+            secrets.put(secretId, new CachedSecret(value, ticker.read()));
+          } catch (IOException | RuntimeException e) {
+            // The cached value is still good for now, so the next use tries again.
+            logger.log(Level.WARNING, "Could not refresh secret " + secretId, e);
+            cached.refreshing.set(false);
+          }
+        });
+  }
+
+  // A secret's value, when it was fetched and whether it is being refreshed.
+  private static class CachedSecret {
+    final String value;
+    final long fetchedNanos;
+    final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+    CachedSecret(String value, long fetchedNanos) {
+      this.value = value;
+      this.fetchedNanos = fetchedNanos;
     }
   }
 }
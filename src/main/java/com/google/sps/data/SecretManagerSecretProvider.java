@@ -0,0 +1,52 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.cloud.secretmanager.v1.AccessSecretVersionRequest;
+import com.google.cloud.secretmanager.v1.AccessSecretVersionResponse;
+import com.google.cloud.secretmanager.v1.SecretManagerServiceClient;
+import com.google.cloud.secretmanager.v1.SecretVersionName;
+import java.io.IOException;
+
+/**
+ * Gets the latest versions of secrets we define in our GCP's SecretManager. The client, and the
+ * gRPC channel behind it, is created on first use and kept open for the life of the instance.
+ */
+public class SecretManagerSecretProvider implements SecretProvider {
+  // The ID of the project secrets are being fetched from.
+  private final String projectId;
+  // Guarded by this.
+  private SecretManagerServiceClient client;
+
+  public SecretManagerSecretProvider(String projectId) {
+    this.projectId = projectId;
+  }
+
+  @Override
+  public String fetch(String secretId) throws IOException {
+    SecretVersionName name = SecretVersionName.of(projectId, secretId, "latest");
+    AccessSecretVersionRequest request =
+        AccessSecretVersionRequest.newBuilder().setName(name.toString()).build();
+    AccessSecretVersionResponse response = client().accessSecretVersion(request);
+    return response.getPayload().getData().toStringUtf8();
+  }
+
+  private synchronized SecretManagerServiceClient client() throws IOException {
+    if (client == null) {
+      client = SecretManagerServiceClient.create();
+    }
+    return client;
+  }
+}
@@ -0,0 +1,176 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.base.Preconditions;
+import java.util.Arrays;
+
+/**
+ * A fixed number of consecutive 15 minute slots packed into longs, one bit per slot. Bit i is set
+ * if slot i is marked.
+ */
+public final class SlotBitmap {
+  public static final long SLOT_MILLIS = 15 * 60 * 1000L;
+
+  private final int size;
+  private final long[] words;
+
+  /** Creates an empty bitmap that can hold size slots. */
+  public SlotBitmap(int size) {
+    Preconditions.checkArgument(size >= 0, "Negative size: %s", size);
+    this.size = size;
+    this.words = new long[wordsFor(size)];
+  }
+
+  private SlotBitmap(int size, long[] words) {
+    this.size = size;
+    this.words = words;
+  }
+
+  /** Creates a bitmap of size slots from packed words, such as those returned by {@code words}. */
+  public static SlotBitmap fromWords(int size, long[] words) {
+    Preconditions.checkArgument(
+        words.length == wordsFor(size), "Expected %s words, got %s", wordsFor(size), words.length);
+    return new SlotBitmap(size, words.clone());
+  }
+
+  // Returns the number of longs needed to hold size bits.
+  static int wordsFor(int size) {
+    return (size + 63) >>> 6;
+  }
+
+  /** Returns the number of slots this bitmap holds. */
+  public int size() {
+    return size;
+  }
+
+  /** Returns whether slot i is marked. */
+  public boolean get(int i) {
+    checkIndex(i);
+    return (words[i >>> 6] & (1L << i)) != 0;
+  }
+
+  /** Marks slot i. */
+  public void set(int i) {
+    checkIndex(i);
+    words[i >>> 6] |= 1L << i;
+  }
+
+  /** Unmarks slot i. */
+  public void clear(int i) {
+    checkIndex(i);
+    words[i >>> 6] &= ~(1L << i);
+  }
+
+  /** Marks or unmarks slot i. */
+  public void set(int i, boolean value) {
+    if (value) {
+      set(i);
+    } else {
+      clear(i);
+    }
+  }
+
+  /** Unmarks every slot from fromIndex (inclusive) to toIndex (exclusive). */
+  public void clear(int fromIndex, int toIndex) {
+    for (int i = Math.max(0, fromIndex); i < Math.min(size, toIndex); i++) {
+      clear(i);
+    }
+  }
+
+  /** Returns the index of the first marked slot at or after fromIndex, or -1 if there is none. */
+  public int nextSetBit(int fromIndex) {
+    if (fromIndex < 0) {
+      fromIndex = 0;
+    }
+    if (fromIndex >= size) {
+      return -1;
+    }
+    int wordIndex = fromIndex >>> 6;
+    long word = words[wordIndex] & (-1L << fromIndex);
+    while (true) {
+      if (word != 0) {
+        int index = (wordIndex << 6) + Long.numberOfTrailingZeros(word);
+        return index < size ? index : -1;
+      }
+      if (++wordIndex == words.length) {
+        return -1;
+      }
+      word = words[wordIndex];
+    }
+  }
+
+  /** Returns a bitmap of the same size with the slots marked here that aren't marked in other. */
+  public SlotBitmap andNot(SlotBitmap other) {
+    Preconditions.checkArgument(
+        other.size == size, "Expected a bitmap of %s slots, got %s", size, other.size);
+    long[] result = new long[words.length];
+    for (int i = 0; i < words.length; i++) {
+      result[i] = words[i] & ~other.words[i];
+    }
+    return new SlotBitmap(size, result);
+  }
+
+  /** Returns true if no slot is marked. */
+  public boolean isEmpty() {
+    for (long word : words) {
+      if (word != 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Returns the number of marked slots. */
+  public int cardinality() {
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /** Returns a copy of the packed words backing this bitmap. */
+  public long[] words() {
+    return words.clone();
+  }
+
+  private void checkIndex(int i) {
+    if (i < 0 || i >= size) {
+      throw new IndexOutOfBoundsException(String.format("Slot %d of %d", i, size));
+    }
+  }
+
+  @Override
+  public boolean equals(Object other) {
+    return other instanceof SlotBitmap
+        && size == ((SlotBitmap) other).size
+        && Arrays.equals(words, ((SlotBitmap) other).words);
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * size + Arrays.hashCode(words);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder(size);
+    for (int i = 0; i < size; i++) {
+      builder.append(get(i) ? '1' : '0');
+    }
+    return builder.toString();
+  }
+}
@@ -0,0 +1,136 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An AvailabilityDao that records every call made through it in the current request's
+ * RequestTrace, along with how long it took and how many Availabilities or users it returned.
+ */
+public class TracingAvailabilityDao implements AvailabilityDao {
+  private final AvailabilityDao delegate;
+
+  /** Initializes the fields for TracingAvailabilityDao. */
+  public TracingAvailabilityDao(AvailabilityDao delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public List<Availability> getInRangeForUser(String userId, Instant minTime, Instant maxTime) {
+    return RequestTrace.time(
+        "AvailabilityDao.getInRangeForUser",
+        () -> delegate.getInRangeForUser(userId, minTime, maxTime),
+        List::size);
+  }
+
+  @Override
+  public List<Availability> getUnscheduledInRangeForUser(
+      String userId, Instant minTime, Instant maxTime) {
+    return RequestTrace.time(
+        "AvailabilityDao.getUnscheduledInRangeForUser",
+        () -> delegate.getUnscheduledInRangeForUser(userId, minTime, maxTime),
+        List::size);
+  }
+
+  @Override
+  public Map<String, List<Availability>> getInRangeForUsers(
+      Collection<String> userIds, Instant minTime, Instant maxTime) {
+    return RequestTrace.time(
+        "AvailabilityDao.getInRangeForUsers",
+        () -> delegate.getInRangeForUsers(userIds, minTime, maxTime),
+        TracingAvailabilityDao::countAvailabilities);
+  }
+
+  @Override
+  public List<Availability> getInRangeForAll(Instant minTime, Instant maxTime) {
+    return RequestTrace.time(
+        "AvailabilityDao.getInRangeForAll",
+        () -> delegate.getInRangeForAll(minTime, maxTime),
+        List::size);
+  }
+
+  @Override
+  public Set<String> getUsersAvailableInRange(Instant minTime, Instant maxTime) {
+    return RequestTrace.time(
+        "AvailabilityDao.getUsersAvailableInRange",
+        () -> delegate.getUsersAvailableInRange(minTime, maxTime),
+        Set::size);
+  }
+
+  @Override
+  public void create(Availability availability) {
+    RequestTrace.time("AvailabilityDao.create", () -> delegate.create(availability));
+  }
+
+  @Override
+  public void update(Availability availability) {
+    RequestTrace.time("AvailabilityDao.update", () -> delegate.update(availability));
+  }
+
+  @Override
+  public void createAll(List<Availability> availabilities) {
+    RequestTrace.time("AvailabilityDao.createAll", () -> delegate.createAll(availabilities));
+  }
+
+  @Override
+  public void deleteAll(List<Availability> availabilities) {
+    RequestTrace.time("AvailabilityDao.deleteAll", () -> delegate.deleteAll(availabilities));
+  }
+
+  @Override
+  public void deleteInRangeForUser(String userId, Instant minTime, Instant maxTime) {
+    RequestTrace.time(
+        "AvailabilityDao.deleteInRangeForUser",
+        () -> delegate.deleteInRangeForUser(userId, minTime, maxTime));
+  }
+
+  @Override
+  public void replaceRange(
+      String userId, Instant minTime, Instant maxTime, List<Availability> availabilities) {
+    RequestTrace.time(
+        "AvailabilityDao.replaceRange",
+        () -> delegate.replaceRange(userId, minTime, maxTime, availabilities));
+  }
+
+  @Override
+  public boolean reserve(String userId, TimeRange when) {
+    return RequestTrace.time(
+        "AvailabilityDao.reserve",
+        () -> delegate.reserve(userId, when),
+        reserved -> reserved ? 1 : 0);
+  }
+
+  @Override
+  public boolean release(String userId, TimeRange when) {
+    return RequestTrace.time(
+        "AvailabilityDao.release",
+        () -> delegate.release(userId, when),
+        released -> released ? 1 : 0);
+  }
+
+  // Returns how many Availabilities there are across all of the users.
+  private static int countAvailabilities(Map<String, List<Availability>> availabilities) {
+    int count = 0;
+    for (List<Availability> userAvailabilities : availabilities.values()) {
+      count += userAvailabilities.size();
+    }
+    return count;
+  }
+}
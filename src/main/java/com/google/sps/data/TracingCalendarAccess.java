@@ -0,0 +1,60 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.io.IOException;
+import java.security.GeneralSecurityException;
+
+/**
+ * A CalendarAccess that records every Meet link handed out through it in the current request's
+ * RequestTrace, along with how long the request waited for it.
+ */
+public class TracingCalendarAccess implements CalendarAccess {
+  private final CalendarAccess delegate;
+
+  /** Initializes the fields for TracingCalendarAccess. */
+  public TracingCalendarAccess(CalendarAccess delegate) {
+    this.delegate = delegate;
+  }
+
+  // These can throw two kinds of exception, so they are timed here rather than by
+  // RequestTrace.time.
+  @Override
+  public String getMeetLink(ScheduledInterview interview)
+      throws IOException, GeneralSecurityException {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      String meetLink = delegate.getMeetLink(interview);
+      failed = false;
+      return meetLink;
+    } finally {
+      RequestTrace.record("CalendarAccess.getMeetLink", start, failed ? 0 : 1, failed);
+    }
+  }
+
+  @Override
+  public String reserveMeetLink() throws IOException, GeneralSecurityException {
+    long start = System.nanoTime();
+    boolean failed = true;
+    try {
+      String meetLink = delegate.reserveMeetLink();
+      failed = false;
+      return meetLink;
+    } finally {
+      RequestTrace.record("CalendarAccess.reserveMeetLink", start, failed ? 0 : 1, failed);
+    }
+  }
+}
@@ -0,0 +1,40 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+import java.io.IOException;
+
+/**
+ * An EmailSender that records every email sent through it in the current request's RequestTrace,
+ * along with how long the request waited for it.
+ */
+public class TracingEmailSender implements EmailSender {
+  private final EmailSender delegate;
+
+  /** Initializes the fields for TracingEmailSender. */
+  public TracingEmailSender(EmailSender delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public int sendEmail(Email recipient, String subject, Content content) throws IOException {
+    return RequestTrace.time(
+        "EmailSender.sendEmail",
+        () -> delegate.sendEmail(recipient, subject, content),
+        status -> 1);
+  }
+}
@@ -0,0 +1,53 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A PersonDao that records every call made through it in the current request's RequestTrace,
+ * along with how long it took and how many Persons it returned.
+ */
+public class TracingPersonDao implements PersonDao {
+  private final PersonDao delegate;
+
+  /** Initializes the fields for TracingPersonDao. */
+  public TracingPersonDao(PersonDao delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Optional<Person> get(String id) {
+    return RequestTrace.time(
+        "PersonDao.get", () -> delegate.get(id), person -> person.isPresent() ? 1 : 0);
+  }
+
+  @Override
+  public Map<String, Person> getAll(Collection<String> ids) {
+    return RequestTrace.time("PersonDao.getAll", () -> delegate.getAll(ids), Map::size);
+  }
+
+  @Override
+  public void create(Person person) {
+    RequestTrace.time("PersonDao.create", () -> delegate.create(person));
+  }
+
+  @Override
+  public void update(Person person) {
+    RequestTrace.time("PersonDao.update", () -> delegate.update(person));
+  }
+}
@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A ScheduledInterviewDao that records every call made through it in the current request's
+ * RequestTrace, along with how long it took and how many ScheduledInterviews it returned.
+ */
+public class TracingScheduledInterviewDao implements ScheduledInterviewDao {
+  private final ScheduledInterviewDao delegate;
+
+  /** Initializes the fields for TracingScheduledInterviewDao. */
+  public TracingScheduledInterviewDao(ScheduledInterviewDao delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public Optional<ScheduledInterview> get(long id) {
+    return RequestTrace.time(
+        "ScheduledInterviewDao.get",
+        () -> delegate.get(id),
+        interview -> interview.isPresent() ? 1 : 0);
+  }
+
+  @Override
+  public List<ScheduledInterview> getInRange(Instant minTime, Instant maxTime) {
+    return RequestTrace.time(
+        "ScheduledInterviewDao.getInRange",
+        () -> delegate.getInRange(minTime, maxTime),
+        List::size);
+  }
+
+  @Override
+  public List<ScheduledInterview> getForPositionWithoutShadowInRange(
+      Job position, Instant minTime, Instant maxTime) {
+    return RequestTrace.time(
+        "ScheduledInterviewDao.getForPositionWithoutShadowInRange",
+        () -> delegate.getForPositionWithoutShadowInRange(position, minTime, maxTime),
+        List::size);
+  }
+
+  @Override
+  public List<ScheduledInterview> getForPerson(String userId) {
+    return RequestTrace.time(
+        "ScheduledInterviewDao.getForPerson", () -> delegate.getForPerson(userId), List::size);
+  }
+
+  @Override
+  public ScheduledInterviewPage getForPerson(
+      String userId, Instant from, int limit, Optional<String> cursor) {
+    return RequestTrace.time(
+        "ScheduledInterviewDao.getForPersonPage",
+        () -> delegate.getForPerson(userId, from, limit, cursor),
+        page -> page.interviews().size());
+  }
+
+  @Override
+  public List<ScheduledInterview> getScheduledInterviewsInRangeForUser(
+      String userId, Instant minTime, Instant maxTime) {
+    return RequestTrace.time(
+        "ScheduledInterviewDao.getScheduledInterviewsInRangeForUser",
+        () -> delegate.getScheduledInterviewsInRangeForUser(userId, minTime, maxTime),
+        List::size);
+  }
+
+  @Override
+  public ScheduledInterview create(ScheduledInterview scheduledInterview) {
+    return RequestTrace.time(
+        "ScheduledInterviewDao.create",
+        () -> delegate.create(scheduledInterview),
+        interview -> 1);
+  }
+
+  @Override
+  public void update(ScheduledInterview scheduledInterview) {
+    RequestTrace.time("ScheduledInterviewDao.update", () -> delegate.update(scheduledInterview));
+  }
+
+  @Override
+  public void delete(long id) {
+    RequestTrace.time("ScheduledInterviewDao.delete", () -> delegate.delete(id));
+  }
+}
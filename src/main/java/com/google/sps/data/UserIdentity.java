@@ -0,0 +1,41 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.data;
+
+import com.google.appengine.api.users.User;
+import com.google.auto.value.AutoValue;
+
+/** Who a request is made by: the signed in user's id and email. */
+@AutoValue
+public abstract class UserIdentity {
+  public abstract String id();
+
+  public abstract String email();
+
+  public static UserIdentity create(String id, String email) {
+    return new AutoValue_UserIdentity(id, email);
+  }
+
+  /**
+   * Returns the identity of user. Users returned from the LocalUserService (in tests) do not have
+   * userIds, so theirs is made from a hashcode of their email instead.
+   */
+  public static UserIdentity of(User user) {
+    String id = user.getUserId();
+    if (id == null) {
+      id = String.format("%d", user.getEmail().hashCode());
+    }
+    return create(id, user.getEmail());
+  }
+}
@@ -0,0 +1,65 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.data;
+
+import com.google.common.base.Preconditions;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Takes turns between interviewers, giving each turns in proportion to how many more interviews
+ * they have room for. An interviewer's weight is capacity minus their upcoming interviews, and
+ * never less than one. Turns are handed out smoothly: every selection adds each candidate's weight
+ * to their credit, books the candidate with the most credit, and takes the total weight of the
+ * candidates from theirs.
+ */
+public class WeightedRoundRobinSelectionStrategy implements InterviewerSelectionStrategy {
+  private final InterviewLoadTracker loadTracker;
+  private final int capacity;
+  // Each interviewer's credit. Guarded by this.
+  private final Map<String, Long> credits = new HashMap<String, Long>();
+
+  /**
+   * Initializes the fields for WeightedRoundRobinSelectionStrategy.
+   *
+   * @param loadTracker Counts the upcoming interviews of each interviewer.
+   * @param capacity How many upcoming interviews an interviewer is expected to take on at most.
+   */
+  public WeightedRoundRobinSelectionStrategy(InterviewLoadTracker loadTracker, int capacity) {
+    Preconditions.checkArgument(capacity > 0, "Capacity must be positive: %s", capacity);
+    this.loadTracker = loadTracker;
+    this.capacity = capacity;
+  }
+
+  @Override
+  public synchronized int select(List<String> interviewerIds) {
+    int selected = 0;
+    long selectedCredit = Long.MIN_VALUE;
+    long totalWeight = 0;
+    for (int i = 0; i < interviewerIds.size(); i++) {
+      String interviewerId = interviewerIds.get(i);
+      long weight = Math.max(1, capacity - loadTracker.upcomingInterviews(interviewerId));
+      long credit = credits.getOrDefault(interviewerId, 0L) + weight;
+      credits.put(interviewerId, credit);
+      totalWeight += weight;
+      if (credit > selectedCredit) {
+        selected = i;
+        selectedCredit = credit;
+      }
+    }
+    credits.put(interviewerIds.get(selected), selectedCredit - totalWeight);
+    return selected;
+  }
+}
@@ -14,21 +14,32 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.users.UserService;
-import com.google.appengine.api.users.UserServiceFactory;
 import com.google.common.base.Preconditions;
-import com.google.gson.Gson;
+import com.google.common.io.ByteStreams;
 import com.google.gson.JsonSyntaxException;
 import com.google.sps.data.Availability;
 import com.google.sps.data.AvailabilityDao;
-import com.google.sps.data.DatastoreAvailabilityDao;
+import com.google.sps.data.AvailabilityTimeSlot;
+import com.google.sps.data.AvailabilityTimeSlotGenerator;
+import com.google.sps.data.AvailabilityUpdate;
+import com.google.sps.data.AvailabilityWeek;
+import com.google.sps.data.BookableHourIndex;
+import com.google.sps.data.CachingPersonDao;
+import com.google.sps.data.CandidateCache;
+import com.google.sps.data.ComputedBookableHourIndex;
+import com.google.sps.data.DatastoreBitmapAvailabilityDao;
+import com.google.sps.data.DatastoreBookableHourIndex;
 import com.google.sps.data.DatastoreScheduledInterviewDao;
-import com.google.sps.data.PutAvailabilityRequest;
-import com.google.sps.data.ScheduledInterview;
+import com.google.sps.data.IntervalSet;
+import com.google.sps.data.InvalidatingBookableHourIndex;
 import com.google.sps.data.ScheduledInterviewDao;
+import com.google.sps.data.SlotBitmap;
 import com.google.sps.data.TimeRange;
-import java.io.BufferedReader;
+import com.google.sps.data.TracingAvailabilityDao;
+import com.google.sps.data.TracingScheduledInterviewDao;
+import com.google.sps.utils.JsonUtils;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
@@ -42,69 +53,190 @@ import javax.servlet.http.HttpServletResponse;
 public class AvailabilityServlet extends HttpServlet {
   private AvailabilityDao availabilityDao;
   private ScheduledInterviewDao scheduledInterviewDao;
+  private BookableHourIndex bookableHourIndex;
 
   @Override
   public void init() {
-    init(new DatastoreAvailabilityDao(), new DatastoreScheduledInterviewDao());
+    init(
+        new TracingAvailabilityDao(new DatastoreBitmapAvailabilityDao()),
+        new TracingScheduledInterviewDao(new DatastoreScheduledInterviewDao()),
+        new InvalidatingBookableHourIndex(
+            new DatastoreBookableHourIndex(CachingPersonDao.datastore()),
+            CandidateCache.bookableSlots()));
   }
 
+  // Works out the bookable hours from availabilityDao on every request instead of keeping an
+  // index.
   public void init(AvailabilityDao availabilityDao, ScheduledInterviewDao scheduledInterviewDao) {
+    init(availabilityDao, scheduledInterviewDao, new ComputedBookableHourIndex(availabilityDao));
+  }
+
+  public void init(
+      AvailabilityDao availabilityDao,
+      ScheduledInterviewDao scheduledInterviewDao,
+      BookableHourIndex bookableHourIndex) {
     this.availabilityDao = availabilityDao;
     this.scheduledInterviewDao = scheduledInterviewDao;
+    this.bookableHourIndex = bookableHourIndex;
   }
 
+  // Sends the current user's availability for the week that is page weeks from now, as an
+  // AvailabilityWeek if the Accept header asks for one, and as the grid's time slots in JSON
+  // otherwise.
   @Override
-  public void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    BufferedReader reader = request.getReader();
-    StringBuffer buffer = new StringBuffer();
-    String payloadLine = null;
-
-    while ((payloadLine = reader.readLine()) != null) buffer.append(payloadLine);
-    String jsonString = buffer.toString();
-
-    PutAvailabilityRequest utcEncodings;
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    int timezoneOffsetMinutes;
+    int page;
     try {
-      utcEncodings = new Gson().fromJson(jsonString, PutAvailabilityRequest.class);
-    } catch (JsonSyntaxException jse) {
+      timezoneOffsetMinutes = Integer.parseInt(request.getParameter("timeZoneOffset"));
+      page = Integer.parseInt(request.getParameter("page"));
+    } catch (NumberFormatException nfe) {
       response.sendError(400);
       return;
     }
-    if (!utcEncodings.allFieldsPopulated()) {
+    Instant instant = Instant.now().plus(page * 7, ChronoUnit.DAYS);
+    String userId = IdentityFilter.currentUser(request).id();
+    String accept = request.getHeader("Accept");
+    try {
+      if (acceptsMediaType(accept, AvailabilityWeek.BASE64_MEDIA_TYPE)) {
+        response.setContentType(AvailabilityWeek.BASE64_MEDIA_TYPE);
+        response
+            .getWriter()
+            .print(availabilityWeek(instant, timezoneOffsetMinutes, userId).encodeBase64());
+      } else if (acceptsMediaType(accept, AvailabilityWeek.MEDIA_TYPE)) {
+        byte[] encoded = availabilityWeek(instant, timezoneOffsetMinutes, userId).encode();
+        response.setContentType(AvailabilityWeek.MEDIA_TYPE);
+        response.setContentLength(encoded.length);
+        response.getOutputStream().write(encoded);
+      } else {
+        List<List<AvailabilityTimeSlot>> week =
+            AvailabilityTimeSlotGenerator.timeSlotsForWeek(
+                instant, timezoneOffsetMinutes, userId, availabilityDao);
+        response.setContentType("application/json;");
+        response.getWriter().println(JsonUtils.gson().toJson(week));
+      }
+    } catch (IllegalArgumentException iae) {
       response.sendError(400);
-      return;
     }
+  }
 
-    UserService userService = UserServiceFactory.getUserService();
-    String email = userService.getCurrentUser().getEmail();
-    String userId = userService.getCurrentUser().getUserId();
-    // Since Users returned from the LocalUserService (in tests) do not have userIds, here we set
-    // the userId equal to a hashcode.
-    if (userId == null) {
-      userId = String.format("%d", email.hashCode());
+  private AvailabilityWeek availabilityWeek(
+      Instant instant, int timezoneOffsetMinutes, String userId) {
+    return AvailabilityTimeSlotGenerator.availabilityWeek(
+        instant, timezoneOffsetMinutes, userId, availabilityDao);
+  }
+
+  // Saves the current user's availability for a week, sent as an AvailabilityWeek or its base64
+  // encoding if the Content-Type says so, and as a PutAvailabilityRequest's JSON otherwise.
+  @Override
+  public void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    AvailabilityUpdate update;
+    try {
+      update = readUpdate(request);
+      checkUpdate(update);
+    } catch (JsonSyntaxException | IllegalArgumentException e) {
+      response.sendError(400);
+      return;
     }
 
-    Instant minTime = Instant.parse(utcEncodings.getFirstSlot());
+    String userId = IdentityFilter.currentUser(request).id();
+    Instant minTime = Instant.ofEpochMilli(update.getFirstSlot());
     // The last slot for the week starts 15 minutes before the true end of the week.
-    Instant maxTime = Instant.parse(utcEncodings.getLastSlot()).plus(15, ChronoUnit.MINUTES);
-    availabilityDao.deleteInRangeForUser(userId, minTime, maxTime);
-    List<ScheduledInterview> scheduledInterviewsForUser =
-        scheduledInterviewDao.getScheduledInterviewsInRangeForUser(userId, minTime, maxTime);
-    for (String markedSlot : utcEncodings.getMarkedSlots()) {
-      createAndStoreAvailability(markedSlot, userId, scheduledInterviewsForUser);
+    Instant maxTime = Instant.ofEpochMilli(update.getLastSlot()).plus(15, ChronoUnit.MINUTES);
+    IntervalSet scheduledTimesForUser =
+        IntervalSet.ofInterviews(
+            scheduledInterviewDao.getScheduledInterviewsInRangeForUser(userId, minTime, maxTime));
+    List<Availability> markedAvailability =
+        new ArrayList<Availability>(update.getMarkedSlotCount());
+    for (int i = 0; i < update.getMarkedSlotCount(); i++) {
+      markedAvailability.add(
+          createAvailability(update.getMarkedSlot(i), userId, scheduledTimesForUser));
     }
+    // Only the slots that changed since the last save are written. Slots reserved since
+    // scheduledTimesForUser was read stay reserved, since the Dao keeps what it has stored.
+    availabilityDao.replaceRange(userId, minTime, maxTime, markedAvailability);
+    bookableHourIndex.update(userId, markedAvailability, minTime, maxTime);
   }
 
-  private void createAndStoreAvailability(
-      String utc, String userId, List<ScheduledInterview> scheduledInterviews) {
-    TimeRange when =
-        new TimeRange(Instant.parse(utc), Instant.parse(utc).plus(15, ChronoUnit.MINUTES));
-    boolean scheduled = false;
-    for (ScheduledInterview interview : scheduledInterviews) {
-      if (interview.when().contains(Instant.parse(utc))) {
-        scheduled = true;
+  // Throws IllegalArgumentException unless update spans at most one week of the grid and it and
+  // each of its marked slots start on a 15 minute boundary within it. This is checked before
+  // anything is read or written, since each day of the range is written in its own transaction.
+  private static void checkUpdate(AvailabilityUpdate update) {
+    long firstSlot = update.getFirstSlot();
+    long lastSlot = update.getLastSlot();
+    Preconditions.checkArgument(
+        isSlotStart(firstSlot) && firstSlot <= lastSlot,
+        "Invalid first slot %s for last slot %s",
+        firstSlot,
+        lastSlot);
+    // firstSlot is at most lastSlot, so if the sum overflows to a negative number this fails too.
+    Preconditions.checkArgument(
+        lastSlot <= firstSlot + AvailabilityWeek.LAST_SLOT_OFFSET_MILLIS,
+        "Slots from %s to %s span more than a week",
+        firstSlot,
+        lastSlot);
+    for (int i = 0; i < update.getMarkedSlotCount(); i++) {
+      long markedSlot = update.getMarkedSlot(i);
+      Preconditions.checkArgument(
+          isSlotStart(markedSlot) && markedSlot >= firstSlot && markedSlot <= lastSlot,
+          "Marked slot %s is not a slot from %s to %s",
+          markedSlot,
+          firstSlot,
+          lastSlot);
+    }
+  }
+
+  private static boolean isSlotStart(long millis) {
+    return Math.floorMod(millis, SlotBitmap.SLOT_MILLIS) == 0;
+  }
+
+  // Reads the body of request in the format named by its Content-Type.
+  private static AvailabilityUpdate readUpdate(HttpServletRequest request) throws IOException {
+    String contentType = mediaType(request.getContentType());
+    if (AvailabilityWeek.MEDIA_TYPE.equals(contentType)) {
+      return AvailabilityWeek.decode(readBody(request, AvailabilityWeek.ENCODED_BYTES))
+          .toUpdate();
+    }
+    if (AvailabilityWeek.BASE64_MEDIA_TYPE.equals(contentType)) {
+      // Base64 takes 4 characters for every 3 bytes, plus room for a trailing newline.
+      byte[] body = readBody(request, (AvailabilityWeek.ENCODED_BYTES + 2) / 3 * 4 + 2);
+      return AvailabilityWeek.decodeBase64(new String(body, StandardCharsets.US_ASCII)).toUpdate();
+    }
+    return JsonUtils.availabilityUpdateFromRequest(request);
+  }
+
+  // Reads up to maxLength bytes of request's body. A longer body is cut short, and so fails to
+  // decode.
+  private static byte[] readBody(HttpServletRequest request, int maxLength) throws IOException {
+    return ByteStreams.toByteArray(ByteStreams.limit(request.getInputStream(), maxLength + 1));
+  }
+
+  // Returns whether the Accept header lists mediaType.
+  private static boolean acceptsMediaType(String accept, String mediaType) {
+    if (accept == null) {
+      return false;
+    }
+    for (String accepted : accept.split(",")) {
+      if (mediaType.equals(mediaType(accepted))) {
+        return true;
       }
     }
-    Availability avail = Availability.create(userId, when, -1, scheduled);
-    availabilityDao.create(avail);
+    return false;
+  }
+
+  // Returns the media type of a Content-Type or Accept entry, without its parameters.
+  private static String mediaType(String header) {
+    if (header == null) {
+      return null;
+    }
+    int parameters = header.indexOf(';');
+    return (parameters < 0 ? header : header.substring(0, parameters)).trim().toLowerCase();
+  }
+
+  private Availability createAvailability(
+      long startMillis, String userId, IntervalSet scheduledTimes) {
+    Instant start = Instant.ofEpochMilli(startMillis);
+    TimeRange when = new TimeRange(start, start.plus(15, ChronoUnit.MINUTES));
+    return Availability.create(userId, when, -1, scheduledTimes.contains(startMillis));
   }
 }
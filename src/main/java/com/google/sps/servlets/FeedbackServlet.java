@@ -18,6 +18,7 @@ import com.google.sps.data.DatastoreScheduledInterviewDao;
 import com.google.sps.data.ScheduledInterview;
 import com.google.sps.data.ScheduledInterviewDao;
 import com.google.sps.data.TimeRange;
+import com.google.sps.data.TracingScheduledInterviewDao;
 import java.io.IOException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -36,7 +37,7 @@ public class FeedbackServlet extends HttpServlet {
 
   @Override
   public void init() {
-    init(new DatastoreScheduledInterviewDao());
+    init(new TracingScheduledInterviewDao(new DatastoreScheduledInterviewDao()));
   }
 
   public void init(ScheduledInterviewDao scheduledInterviewDao) {
@@ -0,0 +1,76 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.servlets;
+
+import com.google.appengine.api.users.User;
+import com.google.appengine.api.users.UserServiceFactory;
+import com.google.common.base.Preconditions;
+import com.google.sps.data.UserIdentity;
+import java.io.IOException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+
+// Works out who each request is made by once, before any servlet or JSP handles it, and keeps it
+// on the request. Nothing is kept between requests, so the app doesn't need HTTP sessions.
+@WebFilter("/*")
+public class IdentityFilter implements Filter {
+  // The request attribute the identity is kept in.
+  private static final String ATTRIBUTE = UserIdentity.class.getName();
+
+  @Override
+  public void init(FilterConfig config) {}
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    if (request instanceof HttpServletRequest) {
+      resolve((HttpServletRequest) request);
+    }
+    chain.doFilter(request, response);
+  }
+
+  @Override
+  public void destroy() {}
+
+  /**
+   * Returns who request is made by. A request that didn't pass through the filter, as in tests,
+   * has its identity worked out the first time this is called instead.
+   *
+   * @throws IllegalStateException if nobody is signed in.
+   */
+  public static UserIdentity currentUser(HttpServletRequest request) {
+    UserIdentity identity = resolve(request);
+    Preconditions.checkState(identity != null, "Nobody is signed in");
+    return identity;
+  }
+
+  // Returns who request is made by, or null if nobody is signed in, keeping it on the request.
+  private static UserIdentity resolve(HttpServletRequest request) {
+    UserIdentity identity = (UserIdentity) request.getAttribute(ATTRIBUTE);
+    if (identity == null) {
+      User user = UserServiceFactory.getUserService().getCurrentUser();
+      if (user != null) {
+        identity = UserIdentity.of(user);
+        request.setAttribute(ATTRIBUTE, identity);
+      }
+    }
+    return identity;
+  }
+}
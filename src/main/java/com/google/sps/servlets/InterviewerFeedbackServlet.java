@@ -14,22 +14,20 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.users.UserService;
-import com.google.appengine.api.users.UserServiceFactory;
-import com.google.sps.data.DatastorePersonDao;
+import com.google.sps.data.CachingPersonDao;
 import com.google.sps.data.DatastoreScheduledInterviewDao;
 import com.google.sps.data.EmailSender;
 import com.google.sps.data.Person;
 import com.google.sps.data.PersonDao;
+import com.google.sps.data.QueuedEmailSender;
 import com.google.sps.data.ScheduledInterview;
 import com.google.sps.data.ScheduledInterviewDao;
-import com.google.sps.data.SendgridEmailSender;
+import com.google.sps.data.TracingEmailSender;
+import com.google.sps.data.TracingScheduledInterviewDao;
 import com.google.sps.utils.EmailUtils;
 import com.sendgrid.helpers.mail.Mail;
 import com.sendgrid.helpers.mail.objects.Content;
 import com.sendgrid.helpers.mail.objects.Email;
-import java.nio.file.Paths;
-import java.nio.file.Path;
 import java.io.IOException;
 import java.time.Instant;
 import java.util.ArrayList;
@@ -50,19 +48,19 @@ public class InterviewerFeedbackServlet extends HttpServlet {
   private PersonDao personDao;
   private EmailSender emailSender;
   static final Email sender = new Email("interviewme.business@gmail.com");
-  private Path emailsPath =
-      Paths.get(
-          System.getProperty("user.home") + "/InterviewMe/src/main/resources/templates/email");
 
   @Override
   public void init() {
     EmailSender emailSender;
     try {
-      emailSender = new SendgridEmailSender(sender);
+      emailSender = new TracingEmailSender(QueuedEmailSender.sendgrid(sender));
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
-    init(new DatastoreScheduledInterviewDao(), new DatastorePersonDao(), emailSender);
+    init(
+        new TracingScheduledInterviewDao(new DatastoreScheduledInterviewDao()),
+        CachingPersonDao.datastore(),
+        emailSender);
   }
 
   public void init(
@@ -83,13 +81,7 @@ public class InterviewerFeedbackServlet extends HttpServlet {
       answers.put(template, request.getParameter(param));
     }
 
-    String userEmail = UserServiceFactory.getUserService().getCurrentUser().getEmail();
-    String userId = UserServiceFactory.getUserService().getCurrentUser().getUserId();
-    // Since Users returned from the LocalUserService (in tests) do not have userIds, here we set
-    // the userId equal to a hashcode.
-    if (userId == null) {
-      userId = String.format("%d", userEmail.hashCode());
-    }
+    String userId = IdentityFilter.currentUser(request).id();
 
     Optional<ScheduledInterview> scheduledInterviewOpt =
         scheduledInterviewDao.get(scheduledInterviewId);
@@ -136,9 +128,8 @@ public class InterviewerFeedbackServlet extends HttpServlet {
       throws IOException {
     String subject = "Your Interviewee has submitted feedback for your interview!";
     Email recipient = new Email(interviewerEmail);
-    String contentString =
-        EmailUtils.fileContentToString(emailsPath + "/feedbackToInterviewer.txt");
-    Content content = new Content("text/plain", EmailUtils.replaceAllPairs(answers, contentString));
+    Content content =
+        new Content("text/plain", EmailUtils.renderTemplate("feedbackToInterviewer.txt", answers));
     emailSender.sendEmail(recipient, subject, content);
   }
 }
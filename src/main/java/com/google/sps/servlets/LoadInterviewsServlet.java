@@ -14,26 +14,31 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.users.UserService;
-import com.google.appengine.api.users.UserServiceFactory;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.base.Preconditions;
 import com.google.gson.Gson;
-import com.google.sps.data.Availability;
 import com.google.sps.data.AvailabilityDao;
-import com.google.sps.data.DatastoreAvailabilityDao;
-import com.google.sps.data.DatastorePersonDao;
+import com.google.sps.data.BookableHourIndex;
+import com.google.sps.data.BookableSlots;
+import com.google.sps.data.CachingPersonDao;
+import com.google.sps.data.CandidateCache;
+import com.google.sps.data.ComputedBookableHourIndex;
+import com.google.sps.data.DatastoreBookableHourIndex;
 import com.google.sps.data.DatastoreScheduledInterviewDao;
+import com.google.sps.data.IntervalSet;
 import com.google.sps.data.Job;
+import com.google.sps.data.Person;
 import com.google.sps.data.PersonDao;
 import com.google.sps.data.PossibleInterviewSlot;
-import com.google.sps.data.ScheduledInterview;
 import com.google.sps.data.ScheduledInterviewDao;
 import com.google.sps.data.TimeRange;
 import com.google.sps.data.TimeUtils;
+import com.google.sps.data.TracingScheduledInterviewDao;
 import java.io.IOException;
 import java.io.BufferedReader;
 import java.lang.Integer;
+import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.time.ZoneId;
@@ -43,9 +48,13 @@ import java.time.format.TextStyle;
 import java.util.EnumSet;
 import java.util.Locale;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -58,31 +67,66 @@ import java.util.Optional;
 @WebServlet("/load-interviews")
 public class LoadInterviewsServlet extends HttpServlet {
 
-  private AvailabilityDao availabilityDao;
   private ScheduledInterviewDao scheduledInterviewDao;
   private PersonDao personDao;
-  private Instant currentTime;
+  private BookableHourIndex bookableHourIndex;
+  private CandidateCache<BookableSlots> bookableSlotsCache;
+  // Read on every request, since the servlet outlives any one day.
+  private Clock clock;
   private final int maxTimezoneOffsetMinutes = 720;
   private final int maxTimezoneOffsetHours = 12;
+  private static final long DAY_MILLIS = 24 * 60 * 60 * 1000L;
 
   @Override
   public void init() {
+    PersonDao personDao = CachingPersonDao.datastore();
     init(
-        new DatastoreAvailabilityDao(),
-        new DatastoreScheduledInterviewDao(),
-        new DatastorePersonDao(),
-        Instant.now());
+        new TracingScheduledInterviewDao(new DatastoreScheduledInterviewDao()),
+        personDao,
+        new DatastoreBookableHourIndex(personDao),
+        CandidateCache.bookableSlots(),
+        Clock.systemUTC());
   }
 
+  // Works out the bookable hours from availabilityDao on every request instead of keeping an
+  // index.
   public void init(
       AvailabilityDao availabilityDao,
       ScheduledInterviewDao scheduledInterviewDao,
       PersonDao personDao,
-      Instant currentTime) {
-    this.availabilityDao = availabilityDao;
+      Clock clock) {
+    init(
+        scheduledInterviewDao,
+        personDao,
+        new ComputedBookableHourIndex(availabilityDao),
+        clock);
+  }
+
+  // Caches the bookable hours in a cache of this servlet's own, which nothing else invalidates.
+  public void init(
+      ScheduledInterviewDao scheduledInterviewDao,
+      PersonDao personDao,
+      BookableHourIndex bookableHourIndex,
+      Clock clock) {
+    init(
+        scheduledInterviewDao,
+        personDao,
+        bookableHourIndex,
+        new CandidateCache<BookableSlots>(),
+        clock);
+  }
+
+  public void init(
+      ScheduledInterviewDao scheduledInterviewDao,
+      PersonDao personDao,
+      BookableHourIndex bookableHourIndex,
+      CandidateCache<BookableSlots> bookableSlotsCache,
+      Clock clock) {
     this.scheduledInterviewDao = scheduledInterviewDao;
     this.personDao = personDao;
-    this.currentTime = currentTime;
+    this.bookableHourIndex = bookableHourIndex;
+    this.bookableSlotsCache = bookableSlotsCache;
+    this.clock = clock;
   }
 
   @Override
@@ -95,7 +139,7 @@ public class LoadInterviewsServlet extends HttpServlet {
         maxTimezoneOffsetHours,
         timezoneOffsetMinutes);
     ZoneOffset timezoneOffset = TimeUtils.convertIntToOffset(timezoneOffsetMinutes);
-    ZonedDateTime day = TimeUtils.generateDay(currentTime, timezoneOffsetMinutes);
+    ZonedDateTime day = TimeUtils.generateDay(clock.instant(), timezoneOffsetMinutes);
     ZonedDateTime utcTime = day.withZoneSameInstant(ZoneOffset.UTC);
     // The user will be shown available interview times for the next four weeks, starting from the
     // current time.
@@ -104,7 +148,11 @@ public class LoadInterviewsServlet extends HttpServlet {
     String position = request.getParameter("position");
     Job selectedPosition = Job.valueOf(Job.class, position);
     List<PossibleInterviewSlot> possibleInterviews =
-        getPossibleInterviewSlots(selectedPosition, interviewSearchTimeRange, timezoneOffset);
+        getPossibleInterviewSlots(
+            selectedPosition,
+            interviewSearchTimeRange,
+            timezoneOffset,
+            IdentityFilter.currentUser(request).id());
     List<ArrayList<PossibleInterviewSlot>> possibleInterviewsForMonth =
         orderPossibleInterviewSlotsIntoDays(possibleInterviews);
     request.setAttribute("monthList", possibleInterviewsForMonth);
@@ -116,95 +164,75 @@ public class LoadInterviewsServlet extends HttpServlet {
     }
   }
 
-  private List<PossibleInterviewSlot> getPossibleInterviewSlots(
-      Job position, TimeRange range, ZoneOffset timezoneOffset) {
-    Set<String> interviewers = availabilityDao.getUsersAvailableInRange(range.start(), range.end());
-    Set<PossibleInterviewSlot> possibleInterviews = new HashSet<PossibleInterviewSlot>();
-    // We don't want to schedule an interview for a user with themself, so we are removing
-    // the current user's id from the list.
-    UserService userService = UserServiceFactory.getUserService();
-    String userEmail = userService.getCurrentUser().getEmail();
-    String userId = userService.getCurrentUser().getUserId();
-    // Since Users returned from the LocalUserService (in tests) do not have userIds, here we set
-    // the userId equal to a hashcode.
-    if (userId == null) {
-      userId = String.format("%d", userEmail.hashCode());
-    }
-    interviewers.remove(userId);
-    // We need to check that the interviewers are qualified to give an interview for the specified
-    // position.
-    interviewers.removeIf(
-        interviewer -> !personDao.get(interviewer).get().qualifiedJobs().contains(position));
-    for (String interviewer : interviewers) {
-      possibleInterviews.addAll(
-          getPossibleInterviewSlotsForPerson(interviewer, range, timezoneOffset));
-    }
+  @VisibleForTesting
+  List<PossibleInterviewSlot> getPossibleInterviewSlots(
+      Job position, TimeRange range, ZoneOffset timezoneOffset, String userId) {
+    // The hours are the same for everyone who looks at the position on the same day, so they are
+    // shared, and only userId's own interviews need to be read here.
+    TimeRange days = dayBucket(range, timezoneOffset);
+    BookableSlots bookableSlots =
+        bookableSlotsCache.get(
+            cacheKey(position, days, timezoneOffset),
+            () -> getBookableSlots(position, days, timezoneOffset));
     // We need to check that the person looking to schedule is not already scheduled during any of
-    // the proposed times.
-    List<ScheduledInterview> userScheduledInterviews =
-        scheduledInterviewDao.getScheduledInterviewsInRangeForUser(
-            userId, range.start(), range.end());
-    Set<PossibleInterviewSlot> conflictingInterviews = new HashSet<PossibleInterviewSlot>();
-    for (PossibleInterviewSlot slot : possibleInterviews) {
-      for (ScheduledInterview userInterview : userScheduledInterviews) {
-        if (userInterview.when().contains(Instant.parse(slot.utcEncoding()))) {
-          conflictingInterviews.add(slot);
-        }
-      }
-    }
-    possibleInterviews.removeAll(conflictingInterviews);
-    List<PossibleInterviewSlot> possibleInterviewList =
-        new ArrayList<PossibleInterviewSlot>(possibleInterviews);
-    sortInterviews(possibleInterviewList);
-    return possibleInterviewList;
+    // the proposed times, and we don't want to schedule an interview for a user with themself.
+    IntervalSet userScheduledTimes =
+        IntervalSet.ofInterviews(
+            scheduledInterviewDao.getScheduledInterviewsInRangeForUser(
+                userId, range.start(), range.end()));
+    return bookableSlots.forUser(userId, userScheduledTimes, range);
   }
 
-  private List<PossibleInterviewSlot> getPossibleInterviewSlotsForPerson(
-      String userId, TimeRange range, ZoneOffset timezoneOffset) {
-    List<Availability> availabilities =
-        availabilityDao.getInRangeForUser(userId, range.start(), range.end());
-    availabilities.removeIf(avail -> avail.scheduled());
-    List<PossibleInterviewSlot> possibleInterviewSlotsForPerson =
-        new ArrayList<PossibleInterviewSlot>();
-    int numberOfSlotsAfterFirstInAnHour = 3;
-    int lastFirstSlotOfAnHour = availabilities.size() - numberOfSlotsAfterFirstInAnHour;
-    for (int i = 0; i < lastFirstSlotOfAnHour; i++) {
-      if (isAnHourWorthOfSlots(availabilities, i, numberOfSlotsAfterFirstInAnHour)) {
-        possibleInterviewSlotsForPerson.add(
-            PossibleInterviewSlot.create(
-                availabilities.get(i).when().start().toString(),
-                TimeUtils.getDate(availabilities.get(i).when().start(), timezoneOffset),
-                TimeUtils.getTime(availabilities.get(i).when().start(), timezoneOffset)));
-      }
+  // Returns the hours in range that qualified interviewers can be booked for.
+  private BookableSlots getBookableSlots(Job position, TimeRange range, ZoneOffset timezoneOffset) {
+    // The index already knows which interviewers can start an hour at each time, so this is a
+    // single range scan rather than a pass over every interviewer's availability.
+    SortedMap<Instant, Set<String>> bookableHours =
+        bookableHourIndex.getInRange(position, range.start(), range.end());
+    Set<String> interviewers = new HashSet<String>();
+    for (Set<String> hourInterviewers : bookableHours.values()) {
+      interviewers.addAll(hourInterviewers);
+    }
+    // We need to check that the interviewers are qualified to give an interview for the specified
+    // position. All of the candidates are looked up together rather than one at a time.
+    Map<String, Person> people = personDao.getAll(interviewers);
+    interviewers.removeIf(
+        interviewer ->
+            !people.containsKey(interviewer)
+                || !people.get(interviewer).qualifiedJobs().contains(position));
+    SortedMap<Instant, Set<String>> qualifiedInterviewers = new TreeMap<Instant, Set<String>>();
+    for (Map.Entry<Instant, Set<String>> bookableHour : bookableHours.entrySet()) {
+      Set<String> hourInterviewers = new HashSet<String>(bookableHour.getValue());
+      hourInterviewers.retainAll(interviewers);
+      qualifiedInterviewers.put(bookableHour.getKey(), hourInterviewers);
     }
-    return possibleInterviewSlotsForPerson;
+    return new BookableSlots(qualifiedInterviewers, timezoneOffset);
   }
 
-  // The current indexed slot is the start of an hour of availability if there are 3 other
-  // slots right after the current slot.
-  private boolean isAnHourWorthOfSlots(
-      List<Availability> availabilities, int index, int numberOfSlotsAfterFirstInAnHour) {
-    return availabilities
-        .get(index)
-        .when()
-        .start()
-        .plus(45, ChronoUnit.MINUTES)
-        .equals(availabilities.get(index + numberOfSlotsAfterFirstInAnHour).when().start());
+  /**
+   * Returns the whole days, in the timezone of timezoneOffset, that cover range. Requests made on
+   * the same day share these days, so caching by them lets those requests share an entry.
+   */
+  static TimeRange dayBucket(TimeRange range, ZoneOffset timezoneOffset) {
+    Instant start =
+        range
+            .start()
+            .atOffset(timezoneOffset)
+            .toLocalDate()
+            .atStartOfDay(timezoneOffset)
+            .toInstant();
+    long days = (ChronoUnit.MILLIS.between(start, range.end()) + DAY_MILLIS - 1) / DAY_MILLIS;
+    return new TimeRange(start, start.plus(days, ChronoUnit.DAYS));
   }
 
-  private void sortInterviews(List<PossibleInterviewSlot> possibleInterviewSlots) {
-    possibleInterviewSlots.sort(
-        (PossibleInterviewSlot p1, PossibleInterviewSlot p2) -> {
-          Instant p1Instant = Instant.parse(p1.utcEncoding());
-          Instant p2Instant = Instant.parse(p2.utcEncoding());
-          if (p1Instant.equals(p2Instant)) {
-            return 0;
-          }
-          if (p1Instant.isBefore(p2Instant)) {
-            return -1;
-          }
-          return 1;
-        });
+  /** Returns the key candidates for position in days, shown in timezoneOffset, are cached by. */
+  static String cacheKey(Job position, TimeRange days, ZoneOffset timezoneOffset) {
+    return String.format(
+        "%s/%d/%d/%d",
+        position.name(),
+        timezoneOffset.getTotalSeconds(),
+        days.start().toEpochMilli(),
+        days.end().toEpochMilli());
   }
 
   static List<ArrayList<PossibleInterviewSlot>> orderPossibleInterviewSlotsIntoDays(
@@ -0,0 +1,115 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.users.UserService;
+import com.google.appengine.api.users.UserServiceFactory;
+import com.google.common.cache.CacheStats;
+import com.google.sps.data.CachingPersonDao;
+import com.google.sps.data.CandidateCache;
+import com.google.sps.data.MetricsRegistry;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Reports the app's metrics in the Prometheus text format, for a Prometheus server to scrape: how
+// many requests each page handled and how long they took, the same for each call to storage and
+// other services, how emails and Meet links fared, and how often each cache is hit. Only admins
+// can read them.
+@WebServlet("/metrics")
+public class MetricsServlet extends HttpServlet {
+  static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+  private MetricsRegistry registry;
+  // The stats of each cache, by the name it is reported under.
+  private Map<String, Supplier<CacheStats>> caches;
+
+  @Override
+  public void init() {
+    Map<String, Supplier<CacheStats>> caches = new LinkedHashMap<String, Supplier<CacheStats>>();
+    caches.put("bookable_slots", CandidateCache.bookableSlots()::stats);
+    caches.put("person", CachingPersonDao.datastore()::stats);
+    caches.put("shadowable_interviews", CandidateCache.shadowableInterviews()::stats);
+    init(MetricsRegistry.shared(), caches);
+  }
+
+  public void init(MetricsRegistry registry, Map<String, Supplier<CacheStats>> caches) {
+    this.registry = registry;
+    this.caches = caches;
+  }
+
+  @Override
+  public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    UserService userService = UserServiceFactory.getUserService();
+    if (!userService.isUserLoggedIn() || !userService.isUserAdmin()) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    StringBuilder out = new StringBuilder();
+    registry.write(out);
+    writeCaches(out);
+    response.setContentType(CONTENT_TYPE);
+    response.getWriter().print(out);
+  }
+
+  // Writes how many lookups of each cache were hits and misses, and the ratio of the two.
+  private void writeCaches(StringBuilder out) {
+    MetricsRegistry.writeHeader(
+        out, "interviewme_cache_requests_total", "Cache lookups, by cache and result.", "counter");
+    Map<String, CacheStats> stats = new LinkedHashMap<String, CacheStats>();
+    for (Map.Entry<String, Supplier<CacheStats>> cache : caches.entrySet()) {
+      stats.put(cache.getKey(), cache.getValue().get());
+    }
+    for (Map.Entry<String, CacheStats> cache : stats.entrySet()) {
+      String labels = MetricsRegistry.label("cache", cache.getKey());
+      MetricsRegistry.writeSample(
+          out,
+          "interviewme_cache_requests_total",
+          labels + "," + MetricsRegistry.label("result", "hit"),
+          cache.getValue().hitCount());
+      MetricsRegistry.writeSample(
+          out,
+          "interviewme_cache_requests_total",
+          labels + "," + MetricsRegistry.label("result", "miss"),
+          cache.getValue().missCount());
+    }
+    MetricsRegistry.writeHeader(
+        out,
+        "interviewme_cache_hit_ratio",
+        "The fraction of cache lookups that were hits, by cache.",
+        "gauge");
+    for (Map.Entry<String, CacheStats> cache : stats.entrySet()) {
+      MetricsRegistry.writeSample(
+          out,
+          "interviewme_cache_hit_ratio",
+          MetricsRegistry.label("cache", cache.getKey()),
+          cache.getValue().hitRate());
+    }
+    MetricsRegistry.writeHeader(
+        out, "interviewme_cache_evictions_total", "Cache entries evicted, by cache.", "counter");
+    for (Map.Entry<String, CacheStats> cache : stats.entrySet()) {
+      MetricsRegistry.writeSample(
+          out,
+          "interviewme_cache_evictions_total",
+          MetricsRegistry.label("cache", cache.getKey()),
+          cache.getValue().evictionCount());
+    }
+  }
+}
@@ -0,0 +1,107 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.api.users.UserService;
+import com.google.appengine.api.users.UserServiceFactory;
+import com.google.sps.data.Availability;
+import com.google.sps.data.AvailabilityMigration;
+import com.google.sps.data.BookableHourIndex;
+import com.google.sps.data.CachingPersonDao;
+import com.google.sps.data.CandidateCache;
+import com.google.sps.data.DatastoreBitmapAvailabilityDao;
+import com.google.sps.data.DatastoreBookableHourIndex;
+import com.google.sps.data.InvalidatingBookableHourIndex;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Servlet that moves per-slot Availability entities into the bitmap-backed AvailabilityDay
+ * entities, then fills in the bookable hours of everyone with upcoming availability. Each request
+ * migrates one chunk of slots and prints the cursor to POST back as the cursor parameter for the
+ * next, so that no request runs out of memory or time; the hours are indexed once the last chunk is
+ * done. Only admins may run it, and running it more than once is harmless.
+ */
+@WebServlet("/migrate-availability")
+public class MigrateAvailabilityServlet extends HttpServlet {
+  // How many slots each request migrates, which is one Datastore batch.
+  private static final int SLOTS_PER_REQUEST = 500;
+
+  private DatastoreBitmapAvailabilityDao availabilityDao;
+  private BookableHourIndex bookableHourIndex;
+
+  // The migration calls migrateFromSlotEntities, which only DatastoreBitmapAvailabilityDao has, so
+  // its Dao isn't traced. It is run once by an admin, not by users' requests.
+  @Override
+  public void init() {
+    init(
+        new DatastoreBitmapAvailabilityDao(),
+        new InvalidatingBookableHourIndex(
+            new DatastoreBookableHourIndex(CachingPersonDao.datastore()),
+            CandidateCache.bookableSlots()));
+  }
+
+  public void init(
+      DatastoreBitmapAvailabilityDao availabilityDao, BookableHourIndex bookableHourIndex) {
+    this.availabilityDao = availabilityDao;
+    this.bookableHourIndex = bookableHourIndex;
+  }
+
+  @Override
+  public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
+    UserService userService = UserServiceFactory.getUserService();
+    if (!userService.isUserLoggedIn() || !userService.isUserAdmin()) {
+      response.sendError(HttpServletResponse.SC_FORBIDDEN);
+      return;
+    }
+    AvailabilityMigration migration =
+        availabilityDao.migrateFromSlotEntities(
+            SLOTS_PER_REQUEST, Optional.ofNullable(request.getParameter("cursor")));
+    response.setContentType("text/plain;");
+    response
+        .getWriter()
+        .println(String.format("Migrated %d availability slots.", migration.migrated()));
+    if (migration.nextCursor().isPresent()) {
+      response
+          .getWriter()
+          .println(
+              String.format(
+                  "More slots remain. POST again with cursor=%s", migration.nextCursor().get()));
+      return;
+    }
+    // Interviews are only offered for the next four weeks, so only those need to be indexed.
+    Instant minTime = Instant.now().truncatedTo(ChronoUnit.DAYS);
+    Instant maxTime = minTime.plus(28, ChronoUnit.DAYS);
+    Map<String, List<Availability>> availabilityByUser =
+        availabilityDao.getInRangeForUsers(
+            availabilityDao.getUsersAvailableInRange(minTime, maxTime), minTime, maxTime);
+    for (Map.Entry<String, List<Availability>> userAvailability : availabilityByUser.entrySet()) {
+      bookableHourIndex.update(
+          userAvailability.getKey(), userAvailability.getValue(), minTime, maxTime);
+    }
+    response
+        .getWriter()
+        .println(
+            String.format("Indexed the bookable hours of %d users.", availabilityByUser.size()));
+  }
+}
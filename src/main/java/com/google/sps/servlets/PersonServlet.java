@@ -14,17 +14,19 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.users.UserService;
-import com.google.appengine.api.users.UserServiceFactory;
 import com.google.common.base.Preconditions;
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
-import com.google.sps.data.DatastorePersonDao;
+import com.google.sps.data.BookableHourIndex;
+import com.google.sps.data.CachingPersonDao;
+import com.google.sps.data.CandidateCache;
+import com.google.sps.data.DatastoreBookableHourIndex;
+import com.google.sps.data.InvalidatingBookableHourIndex;
 import com.google.sps.data.Person;
 import com.google.sps.data.PersonDao;
 import com.google.sps.data.PersonRequest;
+import com.google.sps.data.UserIdentity;
+import com.google.sps.utils.JsonUtils;
 import java.io.IOException;
-import java.io.BufferedReader;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
@@ -35,15 +37,20 @@ import java.util.Optional;
 public class PersonServlet extends HttpServlet {
 
   private PersonDao personDao;
-  private final UserService userService = UserServiceFactory.getUserService();
+  private BookableHourIndex bookableHourIndex;
 
   @Override
   public void init() {
-    init(new DatastorePersonDao());
+    PersonDao personDao = CachingPersonDao.datastore();
+    init(
+        personDao,
+        new InvalidatingBookableHourIndex(
+            new DatastoreBookableHourIndex(personDao), CandidateCache.bookableSlots()));
   }
 
-  public void init(PersonDao personDao) {
+  public void init(PersonDao personDao, BookableHourIndex bookableHourIndex) {
     this.personDao = personDao;
+    this.bookableHourIndex = bookableHourIndex;
   }
 
   // Sends the request's contents to Datastore in the form of a new Person. Sends a 400 error if
@@ -52,14 +59,16 @@ public class PersonServlet extends HttpServlet {
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
     PersonRequest personRequest;
     try {
-      personRequest = new Gson().fromJson(getJsonString(request), PersonRequest.class);
+      personRequest = JsonUtils.fromRequest(request, PersonRequest.class);
     } catch (JsonSyntaxException jse) {
       response.sendError(400);
       return;
     }
-    String email = userService.getCurrentUser().getEmail();
-    String userId = getUserId();
-    personDao.create(Person.createFromRequest(userId, email, personRequest));
+    UserIdentity user = IdentityFilter.currentUser(request);
+    Person person = Person.createFromRequest(user.id(), user.email(), personRequest);
+    personDao.create(person);
+    // The user may have saved availability before registering.
+    bookableHourIndex.updateQualifications(person);
   }
 
   // Updates Datastore with the Person information in request. Sends a 400 error if
@@ -68,47 +77,29 @@ public class PersonServlet extends HttpServlet {
   public void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
     PersonRequest personRequest;
     try {
-      personRequest = new Gson().fromJson(getJsonString(request), PersonRequest.class);
+      personRequest = JsonUtils.fromRequest(request, PersonRequest.class);
     } catch (JsonSyntaxException jse) {
       response.sendError(400);
       return;
     }
-    String email = userService.getCurrentUser().getEmail();
-    String userId = getUserId();
-    personDao.update(Person.createFromRequest(userId, email, personRequest));
-  }
-
-  // Get Json from request body.
-  private static String getJsonString(HttpServletRequest request) throws IOException {
-    BufferedReader reader = request.getReader();
-    StringBuffer buffer = new StringBuffer();
-    String payloadLine = null;
-
-    while ((payloadLine = reader.readLine()) != null) buffer.append(payloadLine);
-    return buffer.toString();
+    UserIdentity user = IdentityFilter.currentUser(request);
+    Person person = Person.createFromRequest(user.id(), user.email(), personRequest);
+    personDao.update(person);
+    // Their bookable hours are only offered for the positions they are qualified for.
+    bookableHourIndex.updateQualifications(person);
   }
 
   // Returns the person currently logged in. If they aren't in Datastore, redirects to
   // registration page.
   @Override
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    String userId = getUserId();
+    String userId = IdentityFilter.currentUser(request).id();
     Optional<Person> personOpt = personDao.get(userId);
     if (!personOpt.isPresent()) {
       response.sendRedirect("/register.html");
       return;
     }
     response.setContentType("application/json;");
-    response.getWriter().println(new Gson().toJson(personOpt.get()));
-  }
-
-  private String getUserId() {
-    String userId = userService.getCurrentUser().getUserId();
-    // Since Users returned from the LocalUserService (in tests) do not have userIds, here we set
-    // the userId equal to a hashcode.
-    if (userId == null) {
-      userId = String.format("%d", userService.getCurrentUser().getEmail().hashCode());
-    }
-    return userId;
+    response.getWriter().println(JsonUtils.gson().toJson(personOpt.get()));
   }
 }
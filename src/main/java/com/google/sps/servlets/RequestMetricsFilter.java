@@ -0,0 +1,91 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.sps.data.MetricsRegistry;
+import java.io.IOException;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Counts the requests to the pages interviewees and interviewers spend their time on, and how long
+// they take, for /metrics. Only the paths listed here and the usual HTTP methods are measured
+// separately, so the number of metrics stays fixed whatever clients ask for.
+@WebFilter({
+  "/availability",
+  "/feedback",
+  "/interviewee-feedback",
+  "/interviewer-feedback",
+  "/load-interviews",
+  "/scheduled-interviews",
+  "/shadow-load-interviews",
+  "/shadow-show-interviewers",
+  "/show-interviewers"
+})
+public class RequestMetricsFilter implements Filter {
+  private static final ImmutableSet<String> MEASURED_METHODS =
+      ImmutableSet.of("GET", "POST", "PUT", "DELETE");
+
+  private MetricsRegistry registry;
+
+  @Override
+  public void init(FilterConfig config) {
+    init(MetricsRegistry.shared());
+  }
+
+  public void init(MetricsRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    if (!(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)) {
+      chain.doFilter(request, response);
+      return;
+    }
+    HttpServletRequest httpRequest = (HttpServletRequest) request;
+    StatusRecordingResponse recordedResponse =
+        new StatusRecordingResponse((HttpServletResponse) response);
+    long start = System.nanoTime();
+    // A request that throws is answered with a server error, whatever status was set before.
+    int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+    try {
+      chain.doFilter(request, recordedResponse);
+      status = recordedResponse.status();
+    } finally {
+      registry
+          .request(httpRequest.getServletPath(), method(httpRequest))
+          .record(System.nanoTime() - start, status);
+    }
+  }
+
+  // Returns the request's HTTP method, or "other" for any the pages don't handle. Clients can send
+  // any method they like, so they aren't all measured separately.
+  private static String method(HttpServletRequest request) {
+    String method = request.getMethod();
+    return MEASURED_METHODS.contains(method) ? method : "other";
+  }
+
+  @Override
+  public void destroy() {}
+}
@@ -0,0 +1,192 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.gson.JsonObject;
+import com.google.sps.data.RequestTrace;
+import com.google.sps.utils.JsonUtils;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.annotation.WebFilter;
+import javax.servlet.annotation.WebInitParam;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+// Traces the calls each request makes to storage and other services through the Tracing Daos and
+// senders. The totals for each method are sent back in a Server-Timing header, so they show up in
+// the browser's developer tools, and requests slower than slowRequestMillis are logged with them
+// as a JSON line.
+@WebFilter(
+    urlPatterns = "/*",
+    initParams = @WebInitParam(name = "slowRequestMillis", value = "1000"))
+public class RequestTracingFilter implements Filter {
+  private static final Logger logger = Logger.getLogger(RequestTracingFilter.class.getName());
+  private static final long DEFAULT_SLOW_REQUEST_MILLIS = 1000;
+
+  private long slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SLOW_REQUEST_MILLIS);
+
+  @Override
+  public void init(FilterConfig config) {
+    String slowRequestMillis = config.getInitParameter("slowRequestMillis");
+    if (slowRequestMillis != null) {
+      slowRequestNanos = TimeUnit.MILLISECONDS.toNanos(Long.parseLong(slowRequestMillis));
+    }
+  }
+
+  @Override
+  public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+      throws IOException, ServletException {
+    if (!(request instanceof HttpServletRequest) || !(response instanceof HttpServletResponse)) {
+      chain.doFilter(request, response);
+      return;
+    }
+    RequestTrace trace = RequestTrace.begin();
+    ServerTimingResponse tracedResponse =
+        new ServerTimingResponse((HttpServletResponse) response, trace);
+    try {
+      chain.doFilter(request, tracedResponse);
+    } finally {
+      RequestTrace.end();
+      tracedResponse.addServerTiming();
+      if (trace.elapsedNanos() >= slowRequestNanos) {
+        logger.warning(
+            slowRequestLog((HttpServletRequest) request, tracedResponse.status(), trace));
+      }
+    }
+  }
+
+  @Override
+  public void destroy() {}
+
+  /**
+   * Returns the Server-Timing header value for trace: an entry for each method called, with how
+   * long its calls took in all and how many calls and results there were, and one for the whole
+   * request so far.
+   */
+  @VisibleForTesting
+  static String serverTiming(RequestTrace trace) {
+    StringBuilder header = new StringBuilder();
+    for (Map.Entry<String, RequestTrace.MethodStats> method : trace.methods().entrySet()) {
+      RequestTrace.MethodStats stats = method.getValue();
+      header.append(
+          String.format(
+              Locale.ROOT,
+              "%s;dur=%.1f;desc=\"%d calls, %d results\", ",
+              method.getKey(),
+              millis(stats.nanos()),
+              stats.calls(),
+              stats.results()));
+    }
+    header.append(String.format(Locale.ROOT, "total;dur=%.1f", millis(trace.elapsedNanos())));
+    return header.toString();
+  }
+
+  // Returns the log line for a slow request: a JSON object with what was asked for, how long it
+  // took and what its calls were.
+  private static String slowRequestLog(HttpServletRequest request, int status, RequestTrace trace) {
+    JsonObject log = new JsonObject();
+    log.addProperty("message", "Slow request");
+    log.addProperty("method", request.getMethod());
+    log.addProperty("path", request.getRequestURI());
+    log.addProperty("status", status);
+    log.addProperty("millis", millis(trace.elapsedNanos()));
+    log.addProperty("calls", trace.calls());
+    log.addProperty("callMillis", millis(trace.callNanos()));
+    JsonObject methods = new JsonObject();
+    for (Map.Entry<String, RequestTrace.MethodStats> method : trace.methods().entrySet()) {
+      RequestTrace.MethodStats stats = method.getValue();
+      JsonObject methodLog = new JsonObject();
+      methodLog.addProperty("calls", stats.calls());
+      methodLog.addProperty("millis", millis(stats.nanos()));
+      methodLog.addProperty("results", stats.results());
+      methods.add(method.getKey(), methodLog);
+    }
+    log.add("methods", methods);
+    return JsonUtils.gson().toJson(log);
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1e6;
+  }
+
+  // Adds the Server-Timing header just before anything is written, since headers can't be added
+  // once the response is committed. Pages forward to a JSP once their calls are done, so the
+  // header still covers nearly all of them.
+  private static class ServerTimingResponse extends StatusRecordingResponse {
+    private final RequestTrace trace;
+    private boolean added = false;
+
+    ServerTimingResponse(HttpServletResponse response, RequestTrace trace) {
+      super(response);
+      this.trace = trace;
+    }
+
+    // Adds the header, unless it has been already or it's too late to.
+    void addServerTiming() {
+      if (!added && !isCommitted()) {
+        setHeader("Server-Timing", serverTiming(trace));
+      }
+      added = true;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      addServerTiming();
+      return super.getWriter();
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      addServerTiming();
+      return super.getOutputStream();
+    }
+
+    @Override
+    public void flushBuffer() throws IOException {
+      addServerTiming();
+      super.flushBuffer();
+    }
+
+    @Override
+    public void sendError(int status) throws IOException {
+      addServerTiming();
+      super.sendError(status);
+    }
+
+    @Override
+    public void sendError(int status, String message) throws IOException {
+      addServerTiming();
+      super.sendError(status, message);
+    }
+
+    @Override
+    public void sendRedirect(String location) throws IOException {
+      addServerTiming();
+      super.sendRedirect(location);
+    }
+  }
+}
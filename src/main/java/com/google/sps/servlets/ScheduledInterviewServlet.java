@@ -15,29 +15,45 @@
 package com.google.sps.servlets;
 
 import com.google.api.services.calendar.Calendar;
-import com.google.appengine.api.users.UserService;
-import com.google.appengine.api.users.UserServiceFactory;
-import com.google.gson.Gson;
 import com.google.gson.JsonSyntaxException;
 import com.google.sps.data.Availability;
 import com.google.sps.data.AvailabilityDao;
+import com.google.sps.data.BookableHourIndex;
+import com.google.sps.data.CachingPersonDao;
 import com.google.sps.data.CalendarAccess;
-import com.google.sps.data.DatastoreAvailabilityDao;
-import com.google.sps.data.DatastorePersonDao;
+import com.google.sps.data.CandidateCache;
+import com.google.sps.data.ComputedBookableHourIndex;
+import com.google.sps.data.DatastoreBitmapAvailabilityDao;
+import com.google.sps.data.DatastoreBookableHourIndex;
 import com.google.sps.data.DatastoreScheduledInterviewDao;
 import com.google.sps.data.EmailSender;
 import com.google.sps.data.GoogleCalendarAccess;
+import com.google.sps.data.InterviewBooker;
+import com.google.sps.data.InterviewLoadTracker;
 import com.google.sps.data.InterviewPostOrPutRequest;
+import com.google.sps.data.InterviewerSelectionStrategy;
+import com.google.sps.data.InvalidatingBookableHourIndex;
+import com.google.sps.data.InvalidatingScheduledInterviewDao;
 import com.google.sps.data.Job;
+import com.google.sps.data.LoadTrackingScheduledInterviewDao;
 import com.google.sps.data.Person;
 import com.google.sps.data.PersonDao;
+import com.google.sps.data.PooledMeetLinkCalendarAccess;
+import com.google.sps.data.PowerOfTwoChoicesSelectionStrategy;
+import com.google.sps.data.QueuedEmailSender;
 import com.google.sps.data.ScheduledInterview;
 import com.google.sps.data.ScheduledInterviewDao;
+import com.google.sps.data.ScheduledInterviewPage;
 import com.google.sps.data.ScheduledInterviewRequest;
 import com.google.sps.data.SecretFetcher;
-import com.google.sps.data.SendgridEmailSender;
 import com.google.sps.data.TimeRange;
+import com.google.sps.data.TracingAvailabilityDao;
+import com.google.sps.data.TracingCalendarAccess;
+import com.google.sps.data.TracingEmailSender;
+import com.google.sps.data.TracingScheduledInterviewDao;
+import com.google.sps.data.UserIdentity;
 import com.google.sps.utils.EmailUtils;
+import com.google.sps.utils.JsonUtils;
 import com.sendgrid.Response;
 import com.sendgrid.SendGrid;
 import com.sendgrid.helpers.mail.Mail;
@@ -46,7 +62,6 @@ import com.sendgrid.helpers.mail.objects.Email;
 import java.nio.file.Paths;
 import java.nio.file.Path;
 import java.io.IOException;
-import java.io.BufferedReader;
 import java.security.GeneralSecurityException;
 import java.time.temporal.ChronoUnit;
 import java.time.format.DateTimeFormatter;
@@ -61,6 +76,7 @@ import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import javax.servlet.annotation.WebServlet;
@@ -77,51 +93,108 @@ public class ScheduledInterviewServlet extends HttpServlet {
   private ScheduledInterviewDao scheduledInterviewDao;
   private AvailabilityDao availabilityDao;
   private PersonDao personDao;
+  private BookableHourIndex bookableHourIndex;
   private EmailSender emailSender;
   private CalendarAccess calendarAccess;
-  private Calendar service;
-  private final UserService userService = UserServiceFactory.getUserService();
+  private InterviewBooker interviewBooker;
+  private InterviewerSelectionStrategy selectionStrategy;
   static final Email sender = new Email("interviewme.business@gmail.com");
+  // How many Meet links are reserved ahead of bookings.
+  private static final int MEET_LINK_POOL_SIZE = 5;
+  // How many interviews are shown per page of the scheduled interviews page.
+  private static final int INTERVIEWS_PER_PAGE = 20;
 
   @Override
   public void init() {
     EmailSender emailSender;
     try {
-      emailSender = new SendgridEmailSender(sender);
+      emailSender = new TracingEmailSender(QueuedEmailSender.sendgrid(sender));
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
 
     CalendarAccess calendar;
     try {
+      Calendar calendarService =
+          GoogleCalendarAccess.sharedCalendar(SecretFetcher.forProject("interview-me-step-2020"));
       calendar =
-          new GoogleCalendarAccess(
-              GoogleCalendarAccess.MakeCalendar(new SecretFetcher("interview-me-step-2020")));
+          new TracingCalendarAccess(
+              new PooledMeetLinkCalendarAccess(
+                  new GoogleCalendarAccess(calendarService), MEET_LINK_POOL_SIZE));
     } catch (GeneralSecurityException e) {
       throw new RuntimeException(e);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
 
+    // Booking changes both the hours that can be booked and the interviews that can be shadowed,
+    // so each invalidates what the pages offering them have cached.
+    PersonDao personDao = CachingPersonDao.datastore();
     init(
-        new DatastoreScheduledInterviewDao(),
-        new DatastoreAvailabilityDao(),
-        new DatastorePersonDao(),
+        new InvalidatingScheduledInterviewDao(
+            new TracingScheduledInterviewDao(new DatastoreScheduledInterviewDao()),
+            CandidateCache.shadowableInterviews()),
+        new TracingAvailabilityDao(new DatastoreBitmapAvailabilityDao()),
+        personDao,
+        new InvalidatingBookableHourIndex(
+            new DatastoreBookableHourIndex(personDao), CandidateCache.bookableSlots()),
         calendar,
         emailSender);
   }
 
+  // Works out the bookable hours from availabilityDao on every request instead of keeping an
+  // index.
   public void init(
       ScheduledInterviewDao scheduledInterviewDao,
       AvailabilityDao availabilityDao,
       PersonDao personDao,
       CalendarAccess calendarAccess,
       EmailSender emailSender) {
+    init(
+        scheduledInterviewDao,
+        availabilityDao,
+        personDao,
+        new ComputedBookableHourIndex(availabilityDao),
+        calendarAccess,
+        emailSender);
+  }
+
+  // Books whichever of two random interviewers has fewer upcoming interviews, counting the
+  // interviews written through scheduledInterviewDao.
+  public void init(
+      ScheduledInterviewDao scheduledInterviewDao,
+      AvailabilityDao availabilityDao,
+      PersonDao personDao,
+      BookableHourIndex bookableHourIndex,
+      CalendarAccess calendarAccess,
+      EmailSender emailSender) {
+    InterviewLoadTracker loadTracker = new InterviewLoadTracker();
+    init(
+        new LoadTrackingScheduledInterviewDao(scheduledInterviewDao, loadTracker),
+        availabilityDao,
+        personDao,
+        bookableHourIndex,
+        calendarAccess,
+        emailSender,
+        new PowerOfTwoChoicesSelectionStrategy(loadTracker));
+  }
+
+  public void init(
+      ScheduledInterviewDao scheduledInterviewDao,
+      AvailabilityDao availabilityDao,
+      PersonDao personDao,
+      BookableHourIndex bookableHourIndex,
+      CalendarAccess calendarAccess,
+      EmailSender emailSender,
+      InterviewerSelectionStrategy selectionStrategy) {
     this.scheduledInterviewDao = scheduledInterviewDao;
     this.availabilityDao = availabilityDao;
     this.personDao = personDao;
+    this.bookableHourIndex = bookableHourIndex;
     this.calendarAccess = calendarAccess;
     this.emailSender = emailSender;
+    this.interviewBooker = new InterviewBooker(scheduledInterviewDao, availabilityDao);
+    this.selectionStrategy = selectionStrategy;
   }
 
   // Gets the current user's email and returns the ScheduledInterviews for that person.
@@ -129,12 +202,30 @@ public class ScheduledInterviewServlet extends HttpServlet {
   public void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
     String timeZoneId = request.getParameter("timeZone");
     String userTime = request.getParameter("userTime");
-    String userEmail = userService.getCurrentUser().getEmail();
-    String userId = getUserId();
+    String userId = IdentityFilter.currentUser(request).id();
+    // Interviews are listed from the start of the user's history, or with upcoming=true from the
+    // ones that may still be going on. Later pages pass on the first page's from, since a cursor
+    // is only valid for the query it came from.
+    Instant from = Instant.EPOCH;
+    Optional<String> cursor = Optional.ofNullable(request.getParameter("cursor"));
+    ScheduledInterviewPage page;
+    try {
+      if (request.getParameter("from") != null) {
+        from = Instant.parse(request.getParameter("from"));
+      } else if (Boolean.parseBoolean(request.getParameter("upcoming"))) {
+        from = Instant.now().minus(1, ChronoUnit.HOURS);
+      }
+      page = scheduledInterviewDao.getForPerson(userId, from, INTERVIEWS_PER_PAGE, cursor);
+    } catch (DateTimeParseException | IllegalArgumentException e) {
+      response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+      return;
+    }
     List<ScheduledInterviewRequest> scheduledInterviews =
-        scheduledInterviewsToRequestObjects(
-            scheduledInterviewDao.getForPerson(userId), timeZoneId, userTime);
+        scheduledInterviewsToRequestObjects(page.interviews(), timeZoneId, userTime, userId);
     request.setAttribute("scheduledInterviews", scheduledInterviews);
+    request.setAttribute("firstPage", !cursor.isPresent());
+    request.setAttribute("from", from.toString());
+    request.setAttribute("nextCursor", page.nextCursor().orElse(""));
     RequestDispatcher rd = request.getRequestDispatcher("/scheduled-interviews.jsp");
     try {
       rd.forward(request, response);
@@ -146,11 +237,12 @@ public class ScheduledInterviewServlet extends HttpServlet {
   // Send the request's contents to Datastore in the form of a new ScheduledInterview object.
   @Override
   public void doPost(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    String intervieweeEmail = userService.getCurrentUser().getEmail();
-    String intervieweeId = getUserId();
+    UserIdentity interviewee = IdentityFilter.currentUser(request);
+    String intervieweeEmail = interviewee.email();
+    String intervieweeId = interviewee.id();
     InterviewPostOrPutRequest postRequest;
     try {
-      postRequest = new Gson().fromJson(getJsonString(request), InterviewPostOrPutRequest.class);
+      postRequest = JsonUtils.fromRequest(request, InterviewPostOrPutRequest.class);
     } catch (JsonSyntaxException jse) {
       response.sendError(HttpServletResponse.SC_BAD_REQUEST);
       return;
@@ -173,31 +265,40 @@ public class ScheduledInterviewServlet extends HttpServlet {
     Job selectedPosition = Job.valueOf(Job.class, position);
     List<Person> allAvailableInterviewers =
         ShowInterviewersServlet.getPossiblePeople(
-            personDao, availabilityDao, selectedPosition, interviewRange);
+            personDao, bookableHourIndex, selectedPosition, interviewRange, intervieweeId);
     String interviewerCompany = postRequest.getCompany();
     String interviewerJob = postRequest.getJob();
     List<String> possibleInterviewers =
         getPossibleInterviewerIds(allAvailableInterviewers, interviewerCompany, interviewerJob);
-    int randomNumber = (int) (Math.random() * possibleInterviewers.size());
-    String interviewerId = possibleInterviewers.get(randomNumber);
     // Shadow is empty because when an interview is first made, only interviewee and
-    // interviewer are involved.
-    scheduledInterviewDao.create(
-        ScheduledInterview.create(
-            -1,
-            interviewRange,
-            interviewerId,
-            intervieweeId,
-            /*meetLink*/ "",
-            selectedPosition,
-            /*shadowId=*/ ""));
+    // interviewer are involved. The interviewer is filled in by interviewBooker.
+    Optional<ScheduledInterview> booked =
+        interviewBooker.book(
+            ScheduledInterview.create(
+                -1,
+                interviewRange,
+                /*interviewerId=*/ "",
+                intervieweeId,
+                /*meetLink*/ "",
+                selectedPosition,
+                /*shadowId=*/ ""),
+            possibleInterviewers,
+            selectionStrategy);
+    if (!booked.isPresent()) {
+      // Every matching interviewer was booked by someone else since the times were loaded.
+      response.sendError(HttpServletResponse.SC_CONFLICT);
+      return;
+    }
+    ScheduledInterview scheduledInterview = booked.get();
+    String interviewerId = scheduledInterview.interviewerId();
+    // Since an interview was scheduled, both parties' availabilities must be updated. The
+    // interviewer's slots were already reserved, so only their bookable hours change. This is done
+    // before the Meet link and emails, so that if either fails the interviewee still can't be
+    // booked for the hour of an interview that has been stored.
+    markScheduled(intervieweeId, interviewRange);
+    markScheduled(interviewerId, interviewRange);
 
     HashMap<String, String> emailedDetails = new HashMap<String, String>();
-    ScheduledInterview scheduledInterview =
-        scheduledInterviewDao
-            .getScheduledInterviewsInRangeForUser(
-                intervieweeId, interviewRange.start(), interviewRange.end())
-            .get(0);
     String interviewId = String.valueOf(scheduledInterview.id());
     String intervieweeFeedbackLink =
         String.format(
@@ -208,8 +309,9 @@ public class ScheduledInterviewServlet extends HttpServlet {
             "http://interview-me-step-2020.appspot.com/feedback.html?interview=%s&role=interviewer",
             interviewId);
     try {
-      scheduledInterviewDao.update(
-          scheduledInterview.withMeetLink(calendarAccess.getMeetLink(scheduledInterview)));
+      scheduledInterview =
+          scheduledInterview.withMeetLink(calendarAccess.getMeetLink(scheduledInterview));
+      scheduledInterviewDao.update(scheduledInterview);
     } catch (GeneralSecurityException e) {
       response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
       return;
@@ -229,31 +331,18 @@ public class ScheduledInterviewServlet extends HttpServlet {
       response.sendError(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
       return;
     }
-
-    // Since an interview was scheduled, both parties' availabilities must be updated.
-    List<Availability> affectedAvailability = new ArrayList<Availability>();
-    List<Availability> intervieweeAffectedAvailability =
-        availabilityDao.getInRangeForUser(
-            intervieweeId, interviewRange.start(), interviewRange.end());
-    List<Availability> interviewerAffectedAvailability =
-        availabilityDao.getInRangeForUser(
-            interviewerId, interviewRange.start(), interviewRange.end());
-    affectedAvailability.addAll(intervieweeAffectedAvailability);
-    affectedAvailability.addAll(interviewerAffectedAvailability);
-    for (Availability avail : affectedAvailability) {
-      availabilityDao.update(avail.withScheduled(true));
-    }
   }
 
   // Send the request's contents to Datastore in the form of an updated ScheduledInterview object.
   // Adds the current user as a shadow.
   @Override
   public void doPut(HttpServletRequest request, HttpServletResponse response) throws IOException {
-    String shadowEmail = userService.getCurrentUser().getEmail();
-    String shadowId = getUserId();
+    UserIdentity shadow = IdentityFilter.currentUser(request);
+    String shadowEmail = shadow.email();
+    String shadowId = shadow.id();
     InterviewPostOrPutRequest putRequest;
     try {
-      putRequest = new Gson().fromJson(getJsonString(request), InterviewPostOrPutRequest.class);
+      putRequest = JsonUtils.fromRequest(request, InterviewPostOrPutRequest.class);
     } catch (JsonSyntaxException jse) {
       response.sendError(400);
       return;
@@ -276,7 +365,10 @@ public class ScheduledInterviewServlet extends HttpServlet {
     Job selectedPosition = Job.valueOf(Job.class, position);
     List<ScheduledInterview> possibleInterviews =
         ShadowLoadInterviewsServlet.getPossibleInterviews(
-            scheduledInterviewDao, selectedPosition, interviewRange, personDao, shadowId);
+            ShadowLoadInterviewsServlet.getShadowableInterviews(
+                scheduledInterviewDao, selectedPosition, interviewRange, personDao),
+            interviewRange,
+            shadowId);
     Set<ScheduledInterview> notValidInterviews = new HashSet<ScheduledInterview>();
     // We want to remove all interviews where the company or job does not match that
     // specified in the request.
@@ -289,15 +381,20 @@ public class ScheduledInterviewServlet extends HttpServlet {
       }
     }
     possibleInterviews.removeAll(notValidInterviews);
-    int randomNumber = (int) (Math.random() * possibleInterviews.size());
-    ScheduledInterview selectedInterview = possibleInterviews.get(randomNumber);
+    if (possibleInterviews.isEmpty()) {
+      response.sendError(HttpServletResponse.SC_CONFLICT);
+      return;
+    }
+    // Shadows are spread across interviewers the same way interviews are.
+    List<String> possibleInterviewers = new ArrayList<String>();
+    for (ScheduledInterview interview : possibleInterviews) {
+      possibleInterviewers.add(interview.interviewerId());
+    }
+    ScheduledInterview selectedInterview =
+        possibleInterviews.get(selectionStrategy.select(possibleInterviewers));
     scheduledInterviewDao.update(selectedInterview.withShadow(shadowId));
     // Since the shadow commited to this interview, their availabilities must be updated
-    List<Availability> affectedAvailability =
-        availabilityDao.getInRangeForUser(shadowId, interviewRange.start(), interviewRange.end());
-    for (Availability avail : affectedAvailability) {
-      availabilityDao.update(avail.withScheduled(true));
-    }
+    markScheduled(shadowId, interviewRange);
     ScheduledInterview scheduledInterview = scheduledInterviewDao.get(selectedInterview.id()).get();
     HashMap<String, String> emailedDetails = new HashMap<String, String>();
     emailedDetails.put("{{formatted_date}}", getEmailDateString(interviewRange));
@@ -313,14 +410,23 @@ public class ScheduledInterviewServlet extends HttpServlet {
     }
   }
 
-  // Get Json from request body.
-  private static String getJsonString(HttpServletRequest request) throws IOException {
-    BufferedReader reader = request.getReader();
-    StringBuffer buffer = new StringBuffer();
-    String payloadLine = null;
-
-    while ((payloadLine = reader.readLine()) != null) buffer.append(payloadLine);
-    return buffer.toString();
+  // Marks the availabilities of a user during interviewRange as scheduled, and updates the hours
+  // they can be booked for. Every hour that overlaps the interview starts less than 45 minutes
+  // before or after it, so only those are recomputed. Scheduled slots can't be part of a bookable
+  // hour, so only the unscheduled ones are read and passed on to the index.
+  private void markScheduled(String userId, TimeRange interviewRange) {
+    Instant minTime = interviewRange.start().minus(45, ChronoUnit.MINUTES);
+    Instant maxTime = interviewRange.end().plus(45, ChronoUnit.MINUTES);
+    List<Availability> availabilities = new ArrayList<Availability>();
+    for (Availability avail :
+        availabilityDao.getUnscheduledInRangeForUser(userId, minTime, maxTime)) {
+      if (interviewRange.contains(avail.when())) {
+        availabilityDao.update(avail.withScheduled(true));
+      } else {
+        availabilities.add(avail);
+      }
+    }
+    bookableHourIndex.update(userId, availabilities, minTime, maxTime);
   }
 
   List<String> getPossibleInterviewerIds(List<Person> availablePeople, String company, String job) {
@@ -336,12 +442,25 @@ public class ScheduledInterviewServlet extends HttpServlet {
   public List<ScheduledInterviewRequest> scheduledInterviewsToRequestObjects(
       List<ScheduledInterview> scheduledInterviews,
       String timeZoneIdString,
-      String userTimeString) {
+      String userTimeString,
+      String userId) {
     ZoneId timeZoneId = ZoneId.of(timeZoneIdString);
     Instant userTime = Instant.parse(userTimeString);
+    // Everyone taking part in the interviews is looked up together rather than one at a time.
+    Set<String> participantIds = new HashSet<String>();
+    for (ScheduledInterview scheduledInterview : scheduledInterviews) {
+      participantIds.add(scheduledInterview.interviewerId());
+      participantIds.add(scheduledInterview.intervieweeId());
+      if (!scheduledInterview.shadowId().equals("")) {
+        participantIds.add(scheduledInterview.shadowId());
+      }
+    }
+    Map<String, Person> participants = personDao.getAll(participantIds);
     List<ScheduledInterviewRequest> requestObjects = new ArrayList<ScheduledInterviewRequest>();
     for (ScheduledInterview scheduledInterview : scheduledInterviews) {
-      requestObjects.add(makeScheduledInterviewRequest(scheduledInterview, timeZoneId, userTime));
+      requestObjects.add(
+          makeScheduledInterviewRequest(
+              scheduledInterview, userId, participants, timeZoneId, userTime));
     }
     return requestObjects;
   }
@@ -357,19 +476,21 @@ public class ScheduledInterviewServlet extends HttpServlet {
   }
 
   private ScheduledInterviewRequest makeScheduledInterviewRequest(
-      ScheduledInterview scheduledInterview, ZoneId timeZoneId, Instant userTime) {
-    String userEmail = userService.getCurrentUser().getEmail();
-    String userId = getUserId();
+      ScheduledInterview scheduledInterview,
+      String userId,
+      Map<String, Person> participants,
+      ZoneId timeZoneId,
+      Instant userTime) {
     String date = getDateString(scheduledInterview.when(), timeZoneId);
-    String interviewer = getFirstName(scheduledInterview.interviewerId());
-    String interviewee = getFirstName(scheduledInterview.intervieweeId());
+    String interviewer = getFirstName(participants, scheduledInterview.interviewerId());
+    String interviewee = getFirstName(participants, scheduledInterview.intervieweeId());
     String shadowId = scheduledInterview.shadowId();
     // When an interview is first scheduled, the shadowId is set to an empty string. Since this
     // behaviour is expected, here we prevent a null or empty name exception with creating keys
     // in datastore.
     String shadow = "None";
     if (!scheduledInterview.shadowId().equals("")) {
-      shadow = getFirstName(scheduledInterview.shadowId());
+      shadow = getFirstName(participants, scheduledInterview.shadowId());
     }
     String role = getUserRole(scheduledInterview, userId);
     boolean hasStarted =
@@ -401,16 +522,6 @@ public class ScheduledInterviewServlet extends HttpServlet {
     return "unknown";
   }
 
-  private String getUserId() {
-    String userId = userService.getCurrentUser().getUserId();
-    // Since Users returned from the LocalUserService (in tests) do not have userIds, here we set
-    // the userId equal to a hashcode.
-    if (userId == null) {
-      userId = String.format("%d", userService.getCurrentUser().getEmail().hashCode());
-    }
-    return userId;
-  }
-
   // Gets formatted date for the string that is used in the email sent to users
   private String getEmailDateString(TimeRange when) {
     LocalDateTime start = LocalDateTime.ofInstant(when.start(), ZoneId.systemDefault());
@@ -427,6 +538,11 @@ public class ScheduledInterviewServlet extends HttpServlet {
     return personDao.get(participantId).map(Person::firstName).orElse("None");
   }
 
+  private static String getFirstName(Map<String, Person> participants, String participantId) {
+    Person participant = participants.get(participantId);
+    return participant == null ? "None" : participant.firstName();
+  }
+
   private void sendParticipantEmail(
       ScheduledInterview scheduledInterview,
       String participantId,
@@ -439,21 +555,21 @@ public class ScheduledInterviewServlet extends HttpServlet {
     }
 
     String subject = "You have been requested to conduct a mock interview!";
-    String contentString = EmailUtils.fileContentToString("NewInterview_Interviewer.txt");
+    String template = "NewInterview_Interviewer.txt";
 
     if (participantId.equals(scheduledInterview.intervieweeId())) {
       subject = "You have been registered for a mock interview!";
-      contentString = EmailUtils.fileContentToString("NewInterview_Interviewee.txt");
+      template = "NewInterview_Interviewee.txt";
     }
 
     if (participantId.equals(scheduledInterview.shadowId())) {
       subject = "You have been registered for a mock interview!";
-      contentString = EmailUtils.fileContentToString("NewInterview_Shadow.txt");
+      template = "NewInterview_Shadow.txt";
     }
 
     Email recipient = new Email(recipientEmail);
     Content content =
-        new Content("text/plain", EmailUtils.replaceAllPairs(emailedDetails, contentString));
+        new Content("text/plain", EmailUtils.renderTemplate(template, emailedDetails));
     emailSender.sendEmail(recipient, subject, content);
   }
   // Formats the position string that is sent in an email. For example SOFTWARE_ENGINEER -> Software
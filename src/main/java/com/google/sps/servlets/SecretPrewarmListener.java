@@ -0,0 +1,47 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.common.collect.ImmutableList;
+import com.google.sps.data.SecretFetcher;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.servlet.ServletContextEvent;
+import javax.servlet.ServletContextListener;
+import javax.servlet.annotation.WebListener;
+
+// Starts fetching the secrets the servlets need as soon as the instance starts, in parallel, so
+// they are usually cached by the time the first servlet is initialized.
+@WebListener
+public class SecretPrewarmListener implements ServletContextListener {
+  private static final Logger logger = Logger.getLogger(SecretPrewarmListener.class.getName());
+  private static final ImmutableList<String> SECRETS =
+      ImmutableList.of("SENDGRID_API_KEY", "SERVICE_ACCT_KEY");
+
+  @Override
+  public void contextInitialized(ServletContextEvent event) {
+    SecretFetcher.forProject("interview-me-step-2020")
+        .prewarm(SECRETS)
+        .exceptionally(
+            e -> {
+              // Whatever wasn't fetched is fetched again when a servlet first needs it.
+              logger.log(Level.WARNING, "Could not prewarm secrets", e);
+              return null;
+            });
+  }
+
+  @Override
+  public void contextDestroyed(ServletContextEvent event) {}
+}
@@ -14,26 +14,28 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.users.UserService;
-import com.google.appengine.api.users.UserServiceFactory;
 import com.google.common.collect.ImmutableList;
 import com.google.common.base.Preconditions;
 import com.google.gson.Gson;
 import com.google.sps.data.Availability;
 import com.google.sps.data.AvailabilityDao;
+import com.google.sps.data.CachingPersonDao;
+import com.google.sps.data.CandidateCache;
 import com.google.sps.data.DatastoreAvailabilityDao;
-import com.google.sps.data.DatastorePersonDao;
 import com.google.sps.data.DatastoreScheduledInterviewDao;
 import com.google.sps.data.Job;
+import com.google.sps.data.Person;
 import com.google.sps.data.PersonDao;
 import com.google.sps.data.PossibleInterviewSlot;
 import com.google.sps.data.ScheduledInterview;
 import com.google.sps.data.ScheduledInterviewDao;
 import com.google.sps.data.TimeRange;
 import com.google.sps.data.TimeUtils;
+import com.google.sps.data.TracingScheduledInterviewDao;
 import java.io.IOException;
 import java.io.BufferedReader;
 import java.lang.Integer;
+import java.time.Clock;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.time.ZoneId;
@@ -45,6 +47,7 @@ import java.util.Locale;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -59,20 +62,40 @@ import java.util.Optional;
 public class ShadowLoadInterviewsServlet extends HttpServlet {
   private ScheduledInterviewDao scheduledInterviewDao;
   private PersonDao personDao;
-  private Instant currentTime;
+  private CandidateCache<ImmutableList<ScheduledInterview>> shadowableInterviewsCache;
+  // Where each request gets the current time from.
+  private Clock clock;
   private final int maxTimezoneOffsetMinutes = 720;
   private final int maxTimezoneOffsetHours = 12;
 
   @Override
   public void init() {
-    init(new DatastoreScheduledInterviewDao(), new DatastorePersonDao(), Instant.now());
+    init(
+        new TracingScheduledInterviewDao(new DatastoreScheduledInterviewDao()),
+        CachingPersonDao.datastore(),
+        CandidateCache.shadowableInterviews(),
+        Clock.systemUTC());
   }
 
+  // Caches the interviews in a cache of this servlet's own, which nothing else invalidates.
   public void init(
-      ScheduledInterviewDao scheduledInterviewDao, PersonDao personDao, Instant currentTime) {
+      ScheduledInterviewDao scheduledInterviewDao, PersonDao personDao, Clock clock) {
+    init(
+        scheduledInterviewDao,
+        personDao,
+        new CandidateCache<ImmutableList<ScheduledInterview>>(),
+        clock);
+  }
+
+  public void init(
+      ScheduledInterviewDao scheduledInterviewDao,
+      PersonDao personDao,
+      CandidateCache<ImmutableList<ScheduledInterview>> shadowableInterviewsCache,
+      Clock clock) {
     this.scheduledInterviewDao = scheduledInterviewDao;
     this.personDao = personDao;
-    this.currentTime = currentTime;
+    this.shadowableInterviewsCache = shadowableInterviewsCache;
+    this.clock = clock;
   }
 
   @Override
@@ -86,25 +109,26 @@ public class ShadowLoadInterviewsServlet extends HttpServlet {
         timezoneOffsetMinutes);
     ZoneOffset timezoneOffset = TimeUtils.convertIntToOffset(timezoneOffsetMinutes);
     ZonedDateTime utcTime =
-        TimeUtils.generateDay(currentTime, timezoneOffsetMinutes)
+        TimeUtils.generateDay(clock.instant(), timezoneOffsetMinutes)
             .withZoneSameInstant(ZoneOffset.UTC);
     // The user will be shown available interview times for the next four weeks, starting from the
     // current time.
     TimeRange interviewSearchTimeRange =
         new TimeRange(utcTime.toInstant(), utcTime.toInstant().plus(27, ChronoUnit.DAYS));
-    UserService userService = UserServiceFactory.getUserService();
-    String userEmail = userService.getCurrentUser().getEmail();
-    String userId = userService.getCurrentUser().getUserId();
-    // Since Users returned from the LocalUserService (in tests) do not have userIds, here we set
-    // the userId equal to a hashcode.
-    if (userId == null) {
-      userId = String.format("%d", userEmail.hashCode());
-    }
+    String userId = IdentityFilter.currentUser(request).id();
     String position = request.getParameter("position");
     Job selectedPosition = Job.valueOf(Job.class, position);
+    // The interviews are the same for everyone who looks at the position on the same day, so they
+    // are shared, and only the current user's own interviews need to be left out here.
+    TimeRange days = LoadInterviewsServlet.dayBucket(interviewSearchTimeRange, timezoneOffset);
+    List<ScheduledInterview> shadowableInterviews =
+        shadowableInterviewsCache.get(
+            LoadInterviewsServlet.cacheKey(selectedPosition, days, timezoneOffset),
+            () ->
+                getShadowableInterviews(
+                    scheduledInterviewDao, selectedPosition, days, personDao));
     List<ScheduledInterview> possibleInterviews =
-        getPossibleInterviews(
-            scheduledInterviewDao, selectedPosition, interviewSearchTimeRange, personDao, userId);
+        getPossibleInterviews(shadowableInterviews, interviewSearchTimeRange, userId);
     List<PossibleInterviewSlot> possibleInterviewSlots =
         scheduledInterviewsToPossibleInterviewSlots(possibleInterviews, timezoneOffset);
     List<ArrayList<PossibleInterviewSlot>> possibleInterviewsForMonth =
@@ -118,28 +142,50 @@ public class ShadowLoadInterviewsServlet extends HttpServlet {
     }
   }
 
-  static List<ScheduledInterview> getPossibleInterviews(
+  // Returns the interviews for position in range that don't have a shadow yet and whose
+  // participants are both ok with having one.
+  static ImmutableList<ScheduledInterview> getShadowableInterviews(
       ScheduledInterviewDao scheduledInterviewDao,
       Job position,
       TimeRange range,
-      PersonDao personDao,
-      String userId) {
-    List<ScheduledInterview> possibleInterviews =
+      PersonDao personDao) {
+    List<ScheduledInterview> interviews =
         scheduledInterviewDao.getForPositionWithoutShadowInRange(
             position, range.start(), range.end());
-    Set<ScheduledInterview> notValidInterviews = new HashSet<ScheduledInterview>();
-    // We want to remove all interviews that the proposed shadow is already involved in or
-    // where either party does not want a shadow.
-    for (ScheduledInterview interview : possibleInterviews) {
-      if (interview.interviewerId().equals(userId)
-          || interview.intervieweeId().equals(userId)
-          || interview.shadowId().equals(userId)
-          || !personDao.get(interview.intervieweeId()).get().okShadow()
-          || !personDao.get(interview.interviewerId()).get().okShadow()) {
-        notValidInterviews.add(interview);
+    // All of the participants are looked up together rather than two per interview.
+    Set<String> participants = new HashSet<String>();
+    for (ScheduledInterview interview : interviews) {
+      participants.add(interview.interviewerId());
+      participants.add(interview.intervieweeId());
+    }
+    Map<String, Person> people = personDao.getAll(participants);
+    ImmutableList.Builder<ScheduledInterview> shadowableInterviews = ImmutableList.builder();
+    for (ScheduledInterview interview : interviews) {
+      Person interviewer = people.get(interview.interviewerId());
+      Person interviewee = people.get(interview.intervieweeId());
+      if (interviewer != null
+          && interviewer.okShadow()
+          && interviewee != null
+          && interviewee.okShadow()) {
+        shadowableInterviews.add(interview);
+      }
+    }
+    return shadowableInterviews.build();
+  }
+
+  // Returns the shadowable interviews that lie within range and that userId isn't already
+  // involved in.
+  static List<ScheduledInterview> getPossibleInterviews(
+      List<ScheduledInterview> shadowableInterviews, TimeRange range, String userId) {
+    List<ScheduledInterview> possibleInterviews = new ArrayList<ScheduledInterview>();
+    for (ScheduledInterview interview : shadowableInterviews) {
+      if (range.contains(interview.when())
+          && !interview.interviewerId().equals(userId)
+          && !interview.intervieweeId().equals(userId)
+          && !interview.shadowId().equals(userId)) {
+        possibleInterviews.add(interview);
       }
     }
-    possibleInterviews.removeAll(notValidInterviews);
     return possibleInterviews;
   }
 
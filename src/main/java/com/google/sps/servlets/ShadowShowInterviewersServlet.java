@@ -14,14 +14,12 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.users.UserService;
-import com.google.appengine.api.users.UserServiceFactory;
 import com.google.common.base.Preconditions;
 import com.google.gson.Gson;
 import com.google.sps.data.Availability;
 import com.google.sps.data.AvailabilityDao;
+import com.google.sps.data.CachingPersonDao;
 import com.google.sps.data.DatastoreAvailabilityDao;
-import com.google.sps.data.DatastorePersonDao;
 import com.google.sps.data.DatastoreScheduledInterviewDao;
 import com.google.sps.data.Job;
 import com.google.sps.data.Person;
@@ -30,6 +28,7 @@ import com.google.sps.data.PossibleInterviewer;
 import com.google.sps.data.ScheduledInterview;
 import com.google.sps.data.ScheduledInterviewDao;
 import com.google.sps.data.TimeRange;
+import com.google.sps.data.TracingScheduledInterviewDao;
 import java.io.IOException;
 import java.io.BufferedReader;
 import java.lang.Integer;
@@ -60,7 +59,9 @@ public class ShadowShowInterviewersServlet extends HttpServlet {
 
   @Override
   public void init() {
-    init(new DatastoreScheduledInterviewDao(), new DatastorePersonDao());
+    init(
+        new TracingScheduledInterviewDao(new DatastoreScheduledInterviewDao()),
+        CachingPersonDao.datastore());
   }
 
   public void init(ScheduledInterviewDao scheduledInterviewDao, PersonDao personDao) {
@@ -74,19 +75,15 @@ public class ShadowShowInterviewersServlet extends HttpServlet {
     TimeRange interviewTimeRange =
         new TimeRange(
             Instant.parse(utcStartTime), Instant.parse(utcStartTime).plus(1, ChronoUnit.HOURS));
-    UserService userService = UserServiceFactory.getUserService();
-    String userEmail = userService.getCurrentUser().getEmail();
-    String userId = userService.getCurrentUser().getUserId();
-    // Since Users returned from the LocalUserService (in tests) do not have userIds, here we set
-    // the userId equal to a hashcode.
-    if (userId == null) {
-      userId = String.format("%d", userEmail.hashCode());
-    }
+    String userId = IdentityFilter.currentUser(request).id();
     String position = request.getParameter("position");
     Job selectedPosition = Job.valueOf(Job.class, position);
     List<ScheduledInterview> possibleInterviews =
         ShadowLoadInterviewsServlet.getPossibleInterviews(
-            scheduledInterviewDao, selectedPosition, interviewTimeRange, personDao, userId);
+            ShadowLoadInterviewsServlet.getShadowableInterviews(
+                scheduledInterviewDao, selectedPosition, interviewTimeRange, personDao),
+            interviewTimeRange,
+            userId);
     Set<PossibleInterviewer> possibleInterviewers = new HashSet<PossibleInterviewer>();
     for (ScheduledInterview interview : possibleInterviews) {
       String company = personDao.get(interview.interviewerId()).get().company();
@@ -14,14 +14,13 @@
 
 package com.google.sps.servlets;
 
-import com.google.appengine.api.users.UserService;
-import com.google.appengine.api.users.UserServiceFactory;
 import com.google.common.base.Preconditions;
 import com.google.gson.Gson;
-import com.google.sps.data.Availability;
 import com.google.sps.data.AvailabilityDao;
-import com.google.sps.data.DatastoreAvailabilityDao;
-import com.google.sps.data.DatastorePersonDao;
+import com.google.sps.data.BookableHourIndex;
+import com.google.sps.data.CachingPersonDao;
+import com.google.sps.data.ComputedBookableHourIndex;
+import com.google.sps.data.DatastoreBookableHourIndex;
 import com.google.sps.data.DatastoreScheduledInterviewDao;
 import com.google.sps.data.Job;
 import com.google.sps.data.Person;
@@ -44,6 +43,7 @@ import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 import javax.servlet.annotation.WebServlet;
 import javax.servlet.http.HttpServlet;
@@ -56,17 +56,24 @@ import java.util.Optional;
 @WebServlet("/show-interviewers")
 public class ShowInterviewersServlet extends HttpServlet {
 
-  private AvailabilityDao availabilityDao;
   private PersonDao personDao;
+  private BookableHourIndex bookableHourIndex;
 
   @Override
   public void init() {
-    init(new DatastoreAvailabilityDao(), new DatastorePersonDao());
+    PersonDao personDao = CachingPersonDao.datastore();
+    init(personDao, new DatastoreBookableHourIndex(personDao));
   }
 
+  // Works out the bookable hours from availabilityDao on every request instead of keeping an
+  // index.
   public void init(AvailabilityDao availabilityDao, PersonDao personDao) {
-    this.availabilityDao = availabilityDao;
+    init(personDao, new ComputedBookableHourIndex(availabilityDao));
+  }
+
+  public void init(PersonDao personDao, BookableHourIndex bookableHourIndex) {
     this.personDao = personDao;
+    this.bookableHourIndex = bookableHourIndex;
   }
 
   @Override
@@ -77,9 +84,13 @@ public class ShowInterviewersServlet extends HttpServlet {
             Instant.parse(utcStartTime), Instant.parse(utcStartTime).plus(1, ChronoUnit.HOURS));
     String position = request.getParameter("position");
     Job selectedPosition = Job.valueOf(Job.class, position);
-    List<Person> possiblePeople =
-        getPossiblePeople(personDao, availabilityDao, selectedPosition, interviewTimeRange);
-    Set<PossibleInterviewer> possibleInterviewers = peopleToPossibleInterviewers(possiblePeople);
+    Set<PossibleInterviewer> possibleInterviewers =
+        getPossibleInterviewers(
+            personDao,
+            bookableHourIndex,
+            selectedPosition,
+            interviewTimeRange,
+            IdentityFilter.currentUser(request).id());
     request.setAttribute("interviewers", possibleInterviewers);
     RequestDispatcher rd = request.getRequestDispatcher("/possibleInterviewers.jsp");
     try {
@@ -90,52 +101,52 @@ public class ShowInterviewersServlet extends HttpServlet {
   }
 
   static List<Person> getPossiblePeople(
-      PersonDao personDao, AvailabilityDao availabilityDao, Job position, TimeRange range) {
+      PersonDao personDao,
+      BookableHourIndex bookableHourIndex,
+      Job position,
+      TimeRange range,
+      String userId) {
     Set<String> allInterviewers =
-        availabilityDao.getUsersAvailableInRange(range.start(), range.end());
-    // We don't want to schedule an interview for a user with themself, so we are removing
-    // the current user's id from the list.
-    UserService userService = UserServiceFactory.getUserService();
-    String userEmail = userService.getCurrentUser().getEmail();
-    String userId = userService.getCurrentUser().getUserId();
-    // Since Users returned from the LocalUserService (in tests) do not have userIds, here we set
-    // the userId equal to a hashcode.
-    if (userId == null) {
-      userId = String.format("%d", userEmail.hashCode());
-    }
-    allInterviewers.remove(userId);
+        getAvailableInterviewerIds(bookableHourIndex, position, range, userId);
     // We need to check that the interviewers are qualified to give an interview for the specified
     // position
-    allInterviewers.removeIf(
-        interviewer -> !personDao.get(interviewer).get().qualifiedJobs().contains(position));
+    Map<String, Person> people = personDao.getAll(allInterviewers);
     List<Person> possibleInterviewers = new ArrayList<Person>();
     for (String interviewer : allInterviewers) {
-      if (personHasPossibleInterviewSlot(availabilityDao, interviewer, range)) {
-        possibleInterviewers.add(personDao.get(interviewer).get());
+      Person person = people.get(interviewer);
+      if (person != null && person.qualifiedJobs().contains(position)) {
+        possibleInterviewers.add(person);
       }
     }
     return possibleInterviewers;
   }
 
-  private Set<PossibleInterviewer> peopleToPossibleInterviewers(List<Person> possiblePeople) {
-    Set<PossibleInterviewer> possibleInterviewers = new HashSet<PossibleInterviewer>();
-    for (Person person : possiblePeople) {
-      possibleInterviewers.add(personToPossibleInterviewer(person));
-    }
-    return possibleInterviewers;
-  }
-
-  static boolean personHasPossibleInterviewSlot(
-      AvailabilityDao availabilityDao, String userId, TimeRange range) {
-    List<Availability> availabilities =
-        availabilityDao.getInRangeForUser(userId, range.start(), range.end());
-    availabilities.removeIf(avail -> avail.scheduled());
-    // If they have 4 unscheduled availabilities during the hour-long range, then they have
-    // a possible interview slot.
-    return availabilities.size() == 4;
+  // Returns the company and job of everyone other than userId who can interview for position
+  // during range. Their Persons are read in one batch, since the index doesn't keep qualifications
+  // current.
+  static Set<PossibleInterviewer> getPossibleInterviewers(
+      PersonDao personDao,
+      BookableHourIndex bookableHourIndex,
+      Job position,
+      TimeRange range,
+      String userId) {
+    Map<String, Person> people =
+        personDao.getAll(getAvailableInterviewerIds(bookableHourIndex, position, range, userId));
+    return new HashSet<PossibleInterviewer>(
+        PossibleInterviewer.ofQualified(position, people).values());
   }
 
-  private PossibleInterviewer personToPossibleInterviewer(Person person) {
-    return PossibleInterviewer.create(person.company(), person.job());
+  // Returns the ids of everyone other than userId who is free for all of range.
+  private static Set<String> getAvailableInterviewerIds(
+      BookableHourIndex bookableHourIndex, Job position, TimeRange range, String userId) {
+    Set<String> allInterviewers =
+        new HashSet<String>(
+            bookableHourIndex
+                .getInRange(position, range.start(), range.end())
+                .getOrDefault(range.start(), new HashSet<String>()));
+    // We don't want to schedule an interview for a user with themself, so we are removing
+    // their id from the list.
+    allInterviewers.remove(userId);
+    return allInterviewers;
   }
 }
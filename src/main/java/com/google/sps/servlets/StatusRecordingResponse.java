@@ -0,0 +1,65 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import java.io.IOException;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+// Remembers the status a response is given. The servlet API on the classpath (2.5) can't read a
+// response's status back, so filters that need it wrap the response in one of these.
+class StatusRecordingResponse extends HttpServletResponseWrapper {
+  private int status = HttpServletResponse.SC_OK;
+
+  StatusRecordingResponse(HttpServletResponse response) {
+    super(response);
+  }
+
+  // Returns the status the response was given, or 200 if it wasn't given one.
+  int status() {
+    return status;
+  }
+
+  @Override
+  public void setStatus(int status) {
+    this.status = status;
+    super.setStatus(status);
+  }
+
+  @Override
+  @SuppressWarnings("deprecation")
+  public void setStatus(int status, String message) {
+    this.status = status;
+    super.setStatus(status, message);
+  }
+
+  @Override
+  public void sendError(int status) throws IOException {
+    this.status = status;
+    super.sendError(status);
+  }
+
+  @Override
+  public void sendError(int status, String message) throws IOException {
+    this.status = status;
+    super.sendError(status, message);
+  }
+
+  @Override
+  public void sendRedirect(String location) throws IOException {
+    this.status = HttpServletResponse.SC_MOVED_TEMPORARILY;
+    super.sendRedirect(location);
+  }
+}
@@ -14,35 +14,49 @@
 
 package com.google.sps.utils;
 
-// using SendGrid's Java Library
-// https://github.com/sendgrid/sendgrid-java
-import com.sendgrid.Method;
-import com.sendgrid.Request;
-import com.sendgrid.Response;
-import com.sendgrid.SendGrid;
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Paths;
-import java.util.stream.Stream;
-import java.util.Map;
+import com.google.common.collect.ImmutableList;
 import java.util.HashMap;
-import java.lang.ClassLoader;
-import java.net.URI;
-import java.net.URL;
-import java.net.URISyntaxException;
+import java.util.Map;
 
 // Used to format contents of an email
 public class EmailUtils {
+  // The email templates in src/main/resources/templates/email.
+  private static final ImmutableList<String> EMAIL_TEMPLATES =
+      ImmutableList.of(
+          "NewInterview_Interviewee.txt",
+          "NewInterview_Interviewer.txt",
+          "NewInterview_Shadow.txt",
+          "TechnicalQuestions_Interviewee.txt",
+          "TechnicalQuestions_Interviewer.txt",
+          "feedbackToInterviewee.txt",
+          "feedbackToInterviewer.txt");
+
+  // Loads every email template the first time one is used.
+  private static class TemplatesHolder {
+    private static final TemplateEngine TEMPLATES =
+        TemplateEngine.load("/templates/email/", EMAIL_TEMPLATES);
+  }
 
-  // Returns the contents of the file specified at filePath as a String. Useful for converting
-  // predefined email templates to text.
-  public static String fileContentToString(String fileName) throws IOException {
-    StringBuilder contentBuilder = new StringBuilder();
-    Stream<String> stream =
-        Files.lines(Paths.get(getEmailTemplateResource(fileName)), StandardCharsets.UTF_8);
-    stream.forEach(s -> contentBuilder.append(s).append("\n"));
-    return contentBuilder.toString();
+  /** Returns the engine holding every email template, loading them if they haven't been yet. */
+  public static TemplateEngine templates() {
+    return TemplatesHolder.TEMPLATES;
+  }
+
+  // Returns the contents of the email template fileName as a String.
+  public static String fileContentToString(String fileName) {
+    return templates().source(fileName);
+  }
+
+  /**
+   * Returns the email template fileName with each of its placeholders replaced by its value in
+   * values.
+   */
+  // Ex. the template is "You will be mock interviewing {{interviewee_full_name}} on
+  // {{formatted_date}}."
+  // values = { ("{{interviewee_full_name}}","Tess"), ("{{formatted_date}}", "June 6, 2022") }
+  // Returned: "You will be mock interviewing Tess on June 6, 2022."
+  public static String renderTemplate(String fileName, Map<String, String> values) {
+    return templates().render(fileName, values);
   }
 
   /**
@@ -53,20 +67,6 @@ public class EmailUtils {
   // toReplace = { ("{{interviewee_full_name}}","Tess"), ("{{formatted_date}}", "June 6, 2022") }
   // Returned: "You will be mock interviewing Tess on June 6, 2022."
   public static String replaceAllPairs(HashMap<String, String> toReplace, String str) {
-    for (Map.Entry<String, String> entry : toReplace.entrySet()) {
-      str = str.replace(entry.getKey(), entry.getValue());
-    }
-    return str;
-  }
-
-  private static URI getEmailTemplateResource(String fileName) {
-    URL resource = EmailUtils.class.getResource("/templates/email/" + fileName);
-    URI result;
-    try {
-      result = resource.toURI();
-    } catch (URISyntaxException e) {
-      throw new RuntimeException(e);
-    }
-    return result;
+    return TemplateEngine.Template.compile(str).render(toReplace);
   }
 }
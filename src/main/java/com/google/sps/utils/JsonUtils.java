@@ -0,0 +1,63 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+import com.google.sps.data.AvailabilityUpdate;
+import java.io.EOFException;
+import java.io.IOException;
+import javax.servlet.http.HttpServletRequest;
+
+// Used to decode JSON request bodies and encode JSON responses. Bodies are read straight from the
+// request's reader, rather than being copied into a String first.
+public class JsonUtils {
+  // Gson instances are thread-safe, so one is shared by every servlet.
+  private static final Gson GSON = new Gson();
+
+  /** Returns the Gson instance shared by every servlet. */
+  public static Gson gson() {
+    return GSON;
+  }
+
+  /**
+   * Decodes the JSON body of request into an object of type.
+   *
+   * @throws JsonSyntaxException if the body is empty or isn't valid JSON for type.
+   */
+  public static <T> T fromRequest(HttpServletRequest request, Class<T> type) throws IOException {
+    T decoded = GSON.fromJson(new JsonReader(request.getReader()), type);
+    if (decoded == null) {
+      throw new JsonSyntaxException("Empty request body");
+    }
+    return decoded;
+  }
+
+  /**
+   * Decodes the JSON body of an availability PUT, parsing the slots as they are read.
+   *
+   * @throws JsonSyntaxException if the body is empty, isn't valid JSON, or is missing a field.
+   */
+  public static AvailabilityUpdate availabilityUpdateFromRequest(HttpServletRequest request)
+      throws IOException {
+    try {
+      return AvailabilityUpdate.read(new JsonReader(request.getReader()));
+    } catch (EOFException | MalformedJsonException e) {
+      throw new JsonSyntaxException(e);
+    }
+  }
+}
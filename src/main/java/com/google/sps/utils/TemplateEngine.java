@@ -0,0 +1,169 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utils;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders text templates containing {{placeholders}}. Templates are read from the classpath once,
+ * when the engine is created, and split into literal and placeholder segments, so rendering does no
+ * I/O and is a single pass over the segments.
+ */
+public final class TemplateEngine {
+  private static final String OPEN = "{{";
+  private static final String CLOSE = "}}";
+  // Rendering reuses one builder per thread instead of allocating a new one for every email.
+  private static final ThreadLocal<StringBuilder> BUILDER =
+      ThreadLocal.withInitial(() -> new StringBuilder(4096));
+
+  private final ImmutableMap<String, Template> templates;
+
+  private TemplateEngine(ImmutableMap<String, Template> templates) {
+    this.templates = templates;
+  }
+
+  /**
+   * Loads and compiles each of the named templates from the classpath directory.
+   *
+   * @param directory The classpath directory the templates are in, such as "/templates/email/".
+   * @param names The file names of the templates in directory.
+   * @throws UncheckedIOException if a template is missing or can't be read.
+   */
+  public static TemplateEngine load(String directory, Collection<String> names) {
+    ImmutableMap.Builder<String, Template> templates = ImmutableMap.builder();
+    for (String name : names) {
+      templates.put(name, Template.compile(read(directory + name)));
+    }
+    return new TemplateEngine(templates.build());
+  }
+
+  /** Returns the text of the named template, with its placeholders left in. */
+  public String source(String name) {
+    return get(name).render(ImmutableMap.of());
+  }
+
+  /**
+   * Returns the named template with each placeholder replaced by its value in values. Values are
+   * keyed by the whole placeholder, such as "{{formatted_date}}". Placeholders with no value are
+   * left as they are.
+   *
+   * @throws IllegalArgumentException if there is no template called name.
+   */
+  public String render(String name, Map<String, String> values) {
+    return get(name).render(values);
+  }
+
+  private Template get(String name) {
+    Template template = templates.get(name);
+    if (template == null) {
+      throw new IllegalArgumentException("No template named " + name);
+    }
+    return template;
+  }
+
+  // Reads the classpath resource at path, ending every line with "\n".
+  private static String read(String path) {
+    InputStream stream = TemplateEngine.class.getResourceAsStream(path);
+    if (stream == null) {
+      throw new UncheckedIOException(new IOException("Missing template " + path));
+    }
+    StringBuilder contents = new StringBuilder();
+    try (BufferedReader reader =
+        new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        contents.append(line).append("\n");
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return contents.toString();
+  }
+
+  /**
+   * A template split into segments. Segment i is a literal if placeholder[i] is false, and the
+   * name of a placeholder, braces included, if it is true.
+   */
+  static final class Template {
+    private final String[] segments;
+    private final boolean[] placeholder;
+    private final int literalLength;
+
+    private Template(String[] segments, boolean[] placeholder, int literalLength) {
+      this.segments = segments;
+      this.placeholder = placeholder;
+      this.literalLength = literalLength;
+    }
+
+    static Template compile(String text) {
+      List<String> segments = new ArrayList<String>();
+      List<Boolean> placeholder = new ArrayList<Boolean>();
+      int literalLength = 0;
+      int literalStart = 0;
+      int open = text.indexOf(OPEN);
+      while (open >= 0) {
+        int close = text.indexOf(CLOSE, open + OPEN.length());
+        if (close < 0) {
+          break;
+        }
+        if (open > literalStart) {
+          segments.add(text.substring(literalStart, open));
+          placeholder.add(false);
+          literalLength += open - literalStart;
+        }
+        literalStart = close + CLOSE.length();
+        segments.add(text.substring(open, literalStart));
+        placeholder.add(true);
+        open = text.indexOf(OPEN, literalStart);
+      }
+      if (literalStart < text.length()) {
+        segments.add(text.substring(literalStart));
+        placeholder.add(false);
+        literalLength += text.length() - literalStart;
+      }
+      boolean[] isPlaceholder = new boolean[placeholder.size()];
+      for (int i = 0; i < isPlaceholder.length; i++) {
+        isPlaceholder[i] = placeholder.get(i);
+      }
+      return new Template(segments.toArray(new String[0]), isPlaceholder, literalLength);
+    }
+
+    String render(Map<String, String> values) {
+      StringBuilder builder = BUILDER.get();
+      builder.setLength(0);
+      builder.ensureCapacity(literalLength);
+      for (int i = 0; i < segments.length; i++) {
+        String segment = segments[i];
+        if (placeholder[i]) {
+          String value = values.get(segment);
+          builder.append(value == null ? segment : value);
+        } else {
+          builder.append(segment);
+        }
+      }
+      return builder.toString();
+    }
+  }
+}
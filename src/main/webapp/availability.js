@@ -58,21 +58,46 @@ function availabilityTableDiv() {
   return document.getElementById('table-container');
 }
 
+// The week is sent as an AvailabilityWeek: the first slot in epoch milliseconds, then a bitmap of
+// the selected slots and one of the scheduled slots. Slot i is row i % slotsPerDay of day
+// i / slotsPerDay, and is bit i % 8 of byte i / 8 of a bitmap.
+const weekMediaType = 'application/vnd.interviewme.week+base64';
+const slotsPerDay = 48;
+const daysPerWeek = 7;
+
+function encodeAvailabilityWeek() {
+  const rows = document.getElementsByTagName('tbody').item(0).children;
+  const bitmapBytes = slotsPerDay * daysPerWeek / 8;
+  const bytes = new Uint8Array(8 + 2 * bitmapBytes);
+  const firstSlot = Date.parse(
+    rows.item(0).firstElementChild.nextElementSibling.getAttribute('data-utc'));
+  const view = new DataView(bytes.buffer);
+  view.setUint32(0, Math.floor(firstSlot / 2 ** 32));
+  view.setUint32(4, firstSlot % 2 ** 32);
+  for (let row = 0; row < rows.length; row++) {
+    const cells = rows.item(row).children;
+    // The first cell of each row is its time label.
+    for (let day = 0; day < cells.length - 1; day++) {
+      const classList = cells.item(day + 1).classList;
+      const slot = day * slotsPerDay + row;
+      const bit = 1 << (slot % 8);
+      if (classList.contains('selected-time-slot')) {
+        bytes[8 + (slot >> 3)] |= bit;
+      }
+      if (classList.contains('scheduled-time-slot')) {
+        bytes[8 + bitmapBytes + (slot >> 3)] |= bit;
+      }
+    }
+  }
+  return btoa(String.fromCharCode(...bytes));
+}
+
 function updateAvailability(reload) {
-  let selectedSlots = document.getElementsByClassName('selected-time-slot');
-  let scheduledSlots = document.getElementsByClassName('scheduled-time-slot');
-  let markedSlots = Array.from(selectedSlots).concat(Array.from(scheduledSlots));
-  let firstSlot = document.getElementsByTagName('tbody').item(0)
-    .firstElementChild.firstElementChild.nextElementSibling.getAttribute('data-utc');
-  let lastSlot = document.getElementsByTagName('tbody').item(0)
-    .lastElementChild.lastElementChild.getAttribute('data-utc');
-  let requestObject = {
-    firstSlot: firstSlot,
-    lastSlot: lastSlot,
-    markedSlots: markedSlots.map(s => s.getAttribute('data-utc')),
-  };
-  let requestBody = JSON.stringify(requestObject);
-  let request = new Request('/availability', {method: 'PUT', body: requestBody});
+  let request = new Request('/availability', {
+    method: 'PUT',
+    headers: {'Content-Type': weekMediaType},
+    body: encodeAvailabilityWeek(),
+  });
   fetch(request)
     .then(() => {
       if (reload) {
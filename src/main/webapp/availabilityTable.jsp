@@ -1,8 +1,11 @@
+<%@ page session="false" %>
 <%@ page import="com.google.sps.data.AvailabilityTimeSlotGenerator" %>
 <%@ page import="com.google.sps.data.AvailabilityTimeSlot" %>
 <%@ page import="java.util.List" %>
 <%@ page import="java.time.Instant" %>
-<%@ page import="com.google.sps.data.DatastoreAvailabilityDao" %>
+<%@ page import="com.google.sps.data.DatastoreBitmapAvailabilityDao" %>
+<%@ page import="com.google.sps.data.TracingAvailabilityDao" %>
+<%@ page import="com.google.sps.servlets.IdentityFilter" %>
 <%@ page import="java.time.temporal.ChronoUnit" %>
 <%@ page import="java.lang.Integer" %>
 <%
@@ -12,7 +15,8 @@
       AvailabilityTimeSlotGenerator.timeSlotsForWeek(
           Instant.now().plus(daysOffset, ChronoUnit.DAYS), 
           timeZoneOffset, 
-          new DatastoreAvailabilityDao());
+          IdentityFilter.currentUser(request).id(),
+          new TracingAvailabilityDao(new DatastoreBitmapAvailabilityDao()));
   pageContext.setAttribute("list", list);
 %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
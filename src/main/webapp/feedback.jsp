@@ -1,3 +1,4 @@
+<%@ page session="false" %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 <%
   boolean canOpen = (boolean) request.getAttribute("feedbackOpen");
@@ -1,3 +1,4 @@
+<%@ page session="false" %>
 <%@ page import="java.util.List" %>
 <%@ page import="com.google.sps.data.PossibleInterviewSlot" %>
 <%
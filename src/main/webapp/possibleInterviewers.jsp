@@ -1,3 +1,4 @@
+<%@ page session="false" %>
 <%@ page import="java.util.Set" %>
 <%@ page import="com.google.sps.data.PossibleInterviewer" %>
 <%
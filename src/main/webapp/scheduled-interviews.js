@@ -26,3 +26,20 @@ function loadScheduledInterviewCards() {
       document.getElementById('scheduled-interviews-cards').innerHTML = listOfCards;
     });
 }
+
+// Replaces the Show More button with the next page of cards, which ends with its own button if
+// there are more after it.
+function loadMoreScheduledInterviewCards(button) {
+  const params = new URLSearchParams({
+    timeZone: getBrowserTimeZone(),
+    userTime: getCurrentTime(),
+    from: button.dataset.from,
+    cursor: button.dataset.cursor,
+  });
+  button.disabled = true;
+  fetch(`/scheduled-interviews?${params}`)
+    .then(response => response.text())
+    .then(listOfCards => {
+      document.getElementById('more-scheduled-interviews').outerHTML = listOfCards;
+    });
+}
@@ -1,14 +1,18 @@
+<%@ page session="false" %>
 <%@page import="java.util.ArrayList"%>
 <%@page import="java.util.List"%>
 <%@ page import="com.google.sps.data.ScheduledInterviewRequest" %>
 <%
   List<ScheduledInterviewRequest> scheduledInterviews = (List<ScheduledInterviewRequest>) request.getAttribute("scheduledInterviews");
   pageContext.setAttribute("scheduledInterviews", scheduledInterviews);
+  pageContext.setAttribute("firstPage", request.getAttribute("firstPage"));
+  pageContext.setAttribute("from", request.getAttribute("from"));
+  pageContext.setAttribute("nextCursor", request.getAttribute("nextCursor"));
 %>
 <%@ taglib uri="http://java.sun.com/jsp/jstl/core" prefix="c" %>
 
 <c:choose>
-  <c:when test= "${empty scheduledInterviews}">
+  <c:when test= "${empty scheduledInterviews && firstPage}">
     <h2 style="text-align: center">No Scheduled Interviews</h2>
   </c:when>
   <c:otherwise>
@@ -47,4 +51,12 @@
       </div>
     </c:forEach>
   </c:otherwise>
-</c:choose>
\ No newline at end of file
+</c:choose>
+<c:if test="${not empty nextCursor}">
+  <div class="row" id="more-scheduled-interviews">
+    <button class="btn btn-secondary" type="button" data-from="${from}" data-cursor="${nextCursor}"
+        onclick="loadMoreScheduledInterviewCards(this)">
+      Show More
+    </button>
+  </div>
+</c:if>
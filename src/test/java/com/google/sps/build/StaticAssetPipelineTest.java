@@ -0,0 +1,239 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.build;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class StaticAssetPipelineTest {
+  private Path source;
+  private Path output;
+
+  @Before
+  public void setUp() throws IOException {
+    source = Files.createTempDirectory("webapp");
+    output = Files.createTempDirectory("processed-webapp");
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    for (Path directory : new Path[] {source, output}) {
+      try (Stream<Path> paths = Files.walk(directory)) {
+        for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+          Files.delete(path);
+        }
+      }
+    }
+  }
+
+  private void writeSource(String name, String contents) throws IOException {
+    Path file = source.resolve(name);
+    Files.createDirectories(file.getParent());
+    Files.write(file, contents.getBytes(StandardCharsets.UTF_8));
+  }
+
+  private String readOutput(String name) throws IOException {
+    return new String(Files.readAllBytes(output.resolve(name)), StandardCharsets.UTF_8);
+  }
+
+  // Checks that comments, indentation and blank lines are dropped but line breaks are kept.
+  @Test
+  public void minifyJsDropsCommentsAndWhitespace() {
+    String js =
+        "// Loads the page.\n"
+            + "function onLoad() {\n"
+            + "  /* Says hello. */\n"
+            + "  let greeting =   'hello'\n"
+            + "\n"
+            + "  updateAvailability(/*reload=*/ false);\n"
+            + "  return greeting\n"
+            + "}\n";
+
+    Assert.assertEquals(
+        "function onLoad() {\n"
+            + "let greeting = 'hello'\n"
+            + "updateAvailability( false);\n"
+            + "return greeting\n"
+            + "}\n",
+        StaticAssetPipeline.minifyJs(js));
+  }
+
+  // Checks that strings, template literals and regular expressions that look like comments or
+  // whitespace are copied as they are.
+  @Test
+  public void minifyJsKeepsLiterals() {
+    String js =
+        "const url = 'http://example.com/*';\n"
+            + "const html = `<div>\n"
+            + "    ${names.map(name => `<p>  ${name} // </p>`).join('')}\n"
+            + "  </div>`;\n"
+            + "const slashes = text.replace(/\\/\\/+/g, '/') / 2;\n"
+            + "const quote = \"it's \\\"//\\\"\";\n";
+
+    Assert.assertEquals(js, StaticAssetPipeline.minifyJs(js));
+  }
+
+  // Checks that comments are dropped and whitespace is collapsed, except inside strings.
+  @Test
+  public void minifyCssDropsCommentsAndWhitespace() {
+    String css =
+        "/* Buttons. */\n"
+            + ".nav-link,\n"
+            + "div :hover {\n"
+            + "  margin: 0 auto;\n"
+            + "  font-family: \"Open  Sans\", sans-serif;\n"
+            + "}\n";
+
+    Assert.assertEquals(
+        ".nav-link,div :hover{margin: 0 auto;font-family: \"Open  Sans\",sans-serif;}\n",
+        StaticAssetPipeline.minifyCss(css));
+  }
+
+  // Checks that local scripts and stylesheets loaded one after another are bundled into files
+  // named after their contents, and that other tags are left alone.
+  @Test
+  public void bundlesLocalAssets() throws IOException {
+    writeSource(
+        "index.html",
+        "<head>\n"
+            + "  <link rel=\"stylesheet\" href=\"https://cdn.example.com/bootstrap.css\">\n"
+            + "  <link rel=\"stylesheet\" href=\"global.css\">\n"
+            + "  <link rel=\"stylesheet\" href=\"style.css\">\n"
+            + "  <script src=\"https://cdn.example.com/jquery.js\"></script>\n"
+            + "  <script src=\"script.js\"></script>\n"
+            + "  <script src=\"/authentication.js\"></script>\n"
+            + "</head>\n");
+    writeSource("global.css", "body {\n  margin: 0;\n}\n");
+    writeSource("style.css", "p {\n  color: red;\n}\n");
+    writeSource("script.js", "// Says hello.\nfunction hello() {\n  alert('hello')\n}\n");
+    writeSource("authentication.js", "(function() {})()\n");
+    writeSource("WEB-INF/appengine-web.xml", "<appengine-web-app/>\n");
+
+    new StaticAssetPipeline(source, output).run();
+
+    String page = readOutput("index.html");
+    Matcher stylesheet =
+        Pattern.compile("  <link rel=\"stylesheet\" href=\"/assets/(index\\.\\w{10}\\.css)\">")
+            .matcher(page);
+    Matcher script =
+        Pattern.compile("  <script src=\"/assets/(index\\.\\w{10}\\.js)\"></script>").matcher(page);
+    Assert.assertTrue(page, stylesheet.find());
+    Assert.assertTrue(page, script.find());
+    Assert.assertEquals(
+        "<head>\n"
+            + "  <link rel=\"stylesheet\" href=\"https://cdn.example.com/bootstrap.css\">\n"
+            + stylesheet.group()
+            + "\n"
+            + "  <script src=\"https://cdn.example.com/jquery.js\"></script>\n"
+            + script.group()
+            + "\n"
+            + "</head>\n",
+        page);
+    Assert.assertEquals(
+        "body{margin: 0;}\np{color: red;}\n", readOutput("assets/" + stylesheet.group(1)));
+    Assert.assertEquals(
+        "function hello() {\nalert('hello')\n}\n;\n(function() {})()\n",
+        readOutput("assets/" + script.group(1)));
+    Assert.assertEquals("function hello() {\nalert('hello')\n}\n", readOutput("script.js"));
+    Assert.assertEquals("<appengine-web-app/>\n", readOutput("WEB-INF/appengine-web.xml"));
+  }
+
+  // Checks that a file loaded by more than one page is written once on its own, named after
+  // itself, and left out of the pages' own bundles.
+  @Test
+  public void sharedAssetsGetTheirOwnFile() throws IOException {
+    writeSource(
+        "index.html",
+        "<link rel=\"stylesheet\" href=\"global.css\">\n"
+            + "<script src=\"index.js\"></script>\n"
+            + "<script src=\"/authentication.js\"></script>\n");
+    writeSource(
+        "pages/profile.html",
+        "<link rel=\"stylesheet\" href=\"/global.css\">\n"
+            + "<script src=\"/authentication.js\"></script>\n"
+            + "<script src=\"profile.js\"></script>\n");
+    writeSource("global.css", "body {\n  margin: 0;\n}\n");
+    writeSource("index.js", "index()\n");
+    writeSource("pages/profile.js", "profile()\n");
+    writeSource("authentication.js", "authenticate()\n");
+
+    new StaticAssetPipeline(source, output).run();
+
+    String index = readOutput("index.html");
+    String profile = readOutput("pages/profile.html");
+    Matcher indexTags =
+        Pattern.compile(
+                "<link rel=\"stylesheet\" href=\"/assets/(global\\.\\w{10}\\.css)\">\n"
+                    + "<script src=\"/assets/(index\\.\\w{10}\\.js)\"></script>\n"
+                    + "<script src=\"/assets/(authentication\\.\\w{10}\\.js)\"></script>\n")
+            .matcher(index);
+    Matcher profileTags =
+        Pattern.compile(
+                "<link rel=\"stylesheet\" href=\"/assets/(global\\.\\w{10}\\.css)\">\n"
+                    + "<script src=\"/assets/(authentication\\.\\w{10}\\.js)\"></script>\n"
+                    + "<script src=\"/assets/(profile\\.\\w{10}\\.js)\"></script>\n")
+            .matcher(profile);
+    Assert.assertTrue(index, indexTags.matches());
+    Assert.assertTrue(profile, profileTags.matches());
+    Assert.assertEquals(indexTags.group(1), profileTags.group(1));
+    Assert.assertEquals(indexTags.group(3), profileTags.group(2));
+    Assert.assertEquals("authenticate()\n", readOutput("assets/" + indexTags.group(3)));
+    Assert.assertEquals("index()\n", readOutput("assets/" + indexTags.group(2)));
+    Assert.assertEquals("profile()\n", readOutput("assets/" + profileTags.group(3)));
+  }
+
+  // Checks that a bundle gets a new name when one of its files changes.
+  @Test
+  public void changedBundleGetsNewName() throws IOException {
+    writeSource("index.html", "<script src=\"script.js\"></script>\n");
+    writeSource("script.js", "hello()\n");
+    new StaticAssetPipeline(source, output).run();
+    String before = readOutput("index.html");
+
+    writeSource("script.js", "goodbye()\n");
+    new StaticAssetPipeline(source, output).run();
+
+    String after = readOutput("index.html");
+    Assert.assertNotEquals(before, after);
+    try (Stream<Path> assets = Files.list(output.resolve(StaticAssetPipeline.ASSETS_DIR))) {
+      List<Path> bundles = assets.collect(Collectors.toList());
+      Assert.assertEquals(1, bundles.size());
+      Assert.assertTrue(after.contains(bundles.get(0).getFileName().toString()));
+    }
+  }
+
+  // Checks that a page loading a file that doesn't exist fails the build.
+  @Test(expected = IllegalStateException.class)
+  public void missingAssetFails() throws IOException {
+    writeSource("index.html", "<script src=\"missing.js\"></script>\n");
+
+    new StaticAssetPipeline(source, output).run();
+  }
+}
@@ -799,7 +799,7 @@ public final class AvailabilityTimeSlotGeneratorTest {
         IllegalArgumentException.class,
         () -> {
           AvailabilityTimeSlotGenerator.timeSlotsForWeek(
-              Instant.now(), 740, new FakeAvailabilityDao());
+              Instant.now(), 740, "userId", new FakeAvailabilityDao());
         });
   }
 
@@ -809,7 +809,7 @@ public final class AvailabilityTimeSlotGeneratorTest {
         IllegalArgumentException.class,
         () -> {
           AvailabilityTimeSlotGenerator.timeSlotsForWeek(
-              Instant.now(), -740, new FakeAvailabilityDao());
+              Instant.now(), -740, "userId", new FakeAvailabilityDao());
         });
   }
 
@@ -819,11 +819,10 @@ public final class AvailabilityTimeSlotGeneratorTest {
         ZonedDateTime.of(2020, 7, 7, 10, 0, 0, 0, ZoneId.ofOffset("UTC", ZoneOffset.ofHours(-4)));
     Instant instant = day.toInstant();
     int timezoneOffsetMinutes = -240;
-    // This is necessary for accessing the current user's Availability for the week.
-    helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
+    String userId = String.format("%d", "user@gmail.com".hashCode());
     List<List<AvailabilityTimeSlot>> actual =
         AvailabilityTimeSlotGenerator.timeSlotsForWeek(
-            instant, timezoneOffsetMinutes, new FakeAvailabilityDao());
+            instant, timezoneOffsetMinutes, userId, new FakeAvailabilityDao());
 
     List<AvailabilityTimeSlot> actualFirstSlotsOfEachDay = new ArrayList<AvailabilityTimeSlot>();
     for (int i = 0; i < 7; i++) {
@@ -855,10 +854,7 @@ public final class AvailabilityTimeSlotGeneratorTest {
         ZonedDateTime.of(2020, 7, 7, 10, 0, 0, 0, ZoneId.ofOffset("UTC", ZoneOffset.ofHours(-4)));
     Instant instant = day.toInstant();
     int timezoneOffsetMinutes = -240;
-    // This is necessary for accessing the current user's Availability for the week.
-
     String email = "user@gmail.com";
-    helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
     FakeAvailabilityDao dao = new FakeAvailabilityDao();
     String userId = String.format("%d", email.hashCode());
 
@@ -877,7 +873,7 @@ public final class AvailabilityTimeSlotGeneratorTest {
             /*id=*/ -1,
             /*scheduled=*/ false));
     List<List<AvailabilityTimeSlot>> actual =
-        AvailabilityTimeSlotGenerator.timeSlotsForWeek(instant, timezoneOffsetMinutes, dao);
+        AvailabilityTimeSlotGenerator.timeSlotsForWeek(instant, timezoneOffsetMinutes, userId, dao);
 
     List<AvailabilityTimeSlot> actualFirstSlotsOfEachDay = new ArrayList<AvailabilityTimeSlot>();
     for (int i = 0; i < 7; i++) {
@@ -0,0 +1,59 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import java.io.StringReader;
+import java.time.Instant;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class AvailabilityUpdateTest {
+  private static AvailabilityUpdate read(String json) throws Exception {
+    return AvailabilityUpdate.read(new JsonReader(new StringReader(json)));
+  }
+
+  // Checks that every field is parsed to epoch milliseconds and unknown fields are skipped.
+  @Test
+  public void readsFields() throws Exception {
+    AvailabilityUpdate update =
+        read(
+            "{\"firstSlot\":\"2020-07-06T08:00:00Z\",\"extra\":[1,2],"
+                + "\"markedSlots\":[\"2020-07-06T09:00:00Z\",\"2020-07-06T09:15:00Z\"],"
+                + "\"lastSlot\":\"2020-07-12T23:45:00Z\"}");
+    Assert.assertEquals(
+        Instant.parse("2020-07-06T08:00:00Z").toEpochMilli(), update.getFirstSlot());
+    Assert.assertEquals(Instant.parse("2020-07-12T23:45:00Z").toEpochMilli(), update.getLastSlot());
+    Assert.assertEquals(2, update.getMarkedSlotCount());
+    Assert.assertEquals(
+        Instant.parse("2020-07-06T09:15:00Z").toEpochMilli(), update.getMarkedSlot(1));
+  }
+
+  // Checks that a body without markedSlots is rejected.
+  @Test(expected = JsonSyntaxException.class)
+  public void rejectsMissingFields() throws Exception {
+    read("{\"firstSlot\":\"2020-07-06T08:00:00Z\",\"lastSlot\":\"2020-07-12T23:45:00Z\"}");
+  }
+
+  // Checks that a slot which isn't an ISO instant is rejected.
+  @Test(expected = JsonSyntaxException.class)
+  public void rejectsBadSlots() throws Exception {
+    read("{\"firstSlot\":\"Monday\",\"lastSlot\":\"2020-07-12T23:45:00Z\",\"markedSlots\":[]}");
+  }
+}
@@ -0,0 +1,78 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class AvailabilityWeekTest {
+  private static final long FIRST_SLOT = Instant.parse("2020-07-14T12:00:00Z").toEpochMilli();
+
+  // Checks that slots are laid out day by day, skipping the hours between days.
+  @Test
+  public void slotStarts() {
+    AvailabilityWeek week = new AvailabilityWeek(FIRST_SLOT);
+    Assert.assertEquals(FIRST_SLOT, week.slotStart(0));
+    Assert.assertEquals(
+        Instant.parse("2020-07-14T23:45:00Z").toEpochMilli(),
+        week.slotStart(AvailabilityWeek.SLOTS_PER_DAY - 1));
+    Assert.assertEquals(
+        Instant.parse("2020-07-15T12:00:00Z").toEpochMilli(),
+        week.slotStart(AvailabilityWeek.SLOTS_PER_DAY));
+    Assert.assertEquals(
+        Instant.parse("2020-07-20T23:45:00Z").toEpochMilli(), week.getLastSlot());
+  }
+
+  // Checks that a week decodes to the same slots it was encoded from.
+  @Test
+  public void encodesAndDecodes() {
+    AvailabilityWeek week = new AvailabilityWeek(FIRST_SLOT);
+    week.selected().set(0);
+    week.selected().set(63);
+    week.selected().set(AvailabilityWeek.SLOTS - 1);
+    week.scheduled().set(64);
+    Assert.assertEquals(AvailabilityWeek.ENCODED_BYTES, week.encode().length);
+
+    AvailabilityWeek decoded = AvailabilityWeek.decodeBase64(week.encodeBase64());
+    Assert.assertEquals(FIRST_SLOT, decoded.getFirstSlot());
+    Assert.assertEquals(week.selected(), decoded.selected());
+    Assert.assertEquals(week.scheduled(), decoded.scheduled());
+  }
+
+  // Checks that scheduled slots are marked in the update along with selected ones.
+  @Test
+  public void toUpdate() {
+    AvailabilityWeek week = new AvailabilityWeek(FIRST_SLOT);
+    week.selected().set(5);
+    week.scheduled().set(AvailabilityWeek.SLOTS_PER_DAY);
+    AvailabilityUpdate update = week.toUpdate();
+    Assert.assertEquals(FIRST_SLOT, update.getFirstSlot());
+    Assert.assertEquals(week.getLastSlot(), update.getLastSlot());
+    Assert.assertEquals(2, update.getMarkedSlotCount());
+    Assert.assertEquals(week.slotStart(5), update.getMarkedSlot(0));
+    Assert.assertEquals(
+        week.slotStart(AvailabilityWeek.SLOTS_PER_DAY), update.getMarkedSlot(1));
+  }
+
+  // Checks that an encoding of the wrong length is rejected.
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsWrongLength() {
+    AvailabilityWeek.decode(new byte[AvailabilityWeek.ENCODED_BYTES - 1]);
+  }
+}
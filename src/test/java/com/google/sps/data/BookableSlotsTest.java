@@ -0,0 +1,95 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.collect.ImmutableSet;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class BookableSlotsTest {
+  private static final Instant TIME_1PM = Instant.parse("2020-07-07T13:00:00Z");
+  private static final Instant TIME_2PM = Instant.parse("2020-07-07T14:00:00Z");
+  private static final Instant TIME_3PM = Instant.parse("2020-07-07T15:00:00Z");
+  private static final Instant TIME_5PM = Instant.parse("2020-07-07T17:00:00Z");
+  private static final TimeRange AFTERNOON = new TimeRange(TIME_1PM, TIME_5PM);
+
+  private BookableSlots bookableSlots;
+
+  @Before
+  public void setUp() {
+    SortedMap<Instant, Set<String>> interviewers = new TreeMap<Instant, Set<String>>();
+    interviewers.put(TIME_1PM, ImmutableSet.of("interviewer1", "interviewer2"));
+    interviewers.put(TIME_2PM, ImmutableSet.of("interviewer1"));
+    interviewers.put(TIME_3PM, Collections.emptySet());
+    interviewers.put(TIME_5PM, ImmutableSet.of("interviewer2"));
+    bookableSlots = new BookableSlots(interviewers, ZoneOffset.UTC);
+  }
+
+  private static List<String> starts(List<PossibleInterviewSlot> slots) {
+    List<String> starts = new ArrayList<String>();
+    for (PossibleInterviewSlot slot : slots) {
+      starts.add(slot.utcEncoding());
+    }
+    return starts;
+  }
+
+  // Checks that only hours with an interviewer that end within the range are returned.
+  @Test
+  public void returnsHoursWithinRange() {
+    Assert.assertEquals(3, bookableSlots.size());
+    Assert.assertEquals(
+        Arrays.asList(TIME_1PM.toString(), TIME_2PM.toString()),
+        starts(bookableSlots.forUser("interviewee", IntervalSet.empty(), AFTERNOON)));
+    Assert.assertEquals(
+        Arrays.asList(TIME_2PM.toString()),
+        starts(
+            bookableSlots.forUser(
+                "interviewee",
+                IntervalSet.empty(),
+                new TimeRange(TIME_1PM.plus(1, ChronoUnit.MINUTES), TIME_3PM))));
+  }
+
+  // Checks that hours the user is already scheduled for are left out.
+  @Test
+  public void leavesOutUserConflicts() {
+    IntervalSet scheduled =
+        IntervalSet.of(Arrays.asList(new TimeRange(TIME_1PM, TIME_1PM.plus(1, ChronoUnit.HOURS))));
+    Assert.assertEquals(
+        Arrays.asList(TIME_2PM.toString()),
+        starts(bookableSlots.forUser("interviewee", scheduled, AFTERNOON)));
+  }
+
+  // Checks that hours only the user could conduct are left out, but not hours others could.
+  @Test
+  public void leavesOutHoursOnlyTheUserCouldConduct() {
+    Assert.assertEquals(
+        Arrays.asList(TIME_1PM.toString()),
+        starts(bookableSlots.forUser("interviewer1", IntervalSet.empty(), AFTERNOON)));
+  }
+}
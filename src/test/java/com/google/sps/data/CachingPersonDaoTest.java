@@ -0,0 +1,155 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CachingPersonDaoTest {
+  private static final Duration TTL = Duration.ofMinutes(5);
+
+  private final Person a =
+      Person.create(
+          "id_a", "a@gmail.com", "a", "a", "", "", "", EnumSet.of(Job.SOFTWARE_ENGINEER), true);
+  private final Person b =
+      Person.create("id_b", "b@gmail.com", "b", "b", "", "", "", EnumSet.noneOf(Job.class), false);
+
+  private FakePersonDao delegate;
+  private FakeTicker ticker;
+  private CachingPersonDao dao;
+
+  @Before
+  public void setUp() {
+    delegate = new FakePersonDao();
+    ticker = new FakeTicker();
+    dao = new CachingPersonDao(delegate, /*maximumSize=*/ 100, TTL, ticker);
+    delegate.create(a);
+  }
+
+  // Checks that a second read of the same Person is served from the cache.
+  @Test
+  public void cachesReads() {
+    Assert.assertEquals(Optional.of(a), dao.get("id_a"));
+    Assert.assertEquals(Optional.of(a), dao.get("id_a"));
+    Assert.assertEquals(1, dao.stats().hitCount());
+    Assert.assertEquals(1, dao.stats().missCount());
+  }
+
+  // Checks that writes through the cache are seen by the next read.
+  @Test
+  public void writesInvalidate() {
+    Assert.assertEquals(Optional.empty(), dao.get("id_b"));
+    dao.create(b);
+    Assert.assertEquals(Optional.of(b), dao.get("id_b"));
+
+    Person updatedA =
+        Person.create(
+            "id_a", "a@gmail.com", "new", "a", "", "", "", EnumSet.of(Job.SOFTWARE_ENGINEER), true);
+    dao.get("id_a");
+    dao.update(updatedA);
+    Assert.assertEquals(Optional.of(updatedA), dao.get("id_a"));
+  }
+
+  // Checks that cached Persons are read again from the delegate once they expire.
+  @Test
+  public void entriesExpire() {
+    Person updatedA =
+        Person.create(
+            "id_a", "a@gmail.com", "new", "a", "", "", "", EnumSet.of(Job.SOFTWARE_ENGINEER), true);
+    dao.get("id_a");
+    delegate.update(updatedA);
+    Assert.assertEquals(Optional.of(a), dao.get("id_a"));
+    ticker.advance(TTL.plusSeconds(1));
+    Assert.assertEquals(Optional.of(updatedA), dao.get("id_a"));
+  }
+
+  // Checks that an id with no Person isn't cached, so a Person created without going through the
+  // cache is found on the next read.
+  @Test
+  public void missingPersonsAreNotCached() {
+    Assert.assertEquals(Optional.empty(), dao.get("id_b"));
+    Assert.assertTrue(dao.getAll(Arrays.asList("id_b")).isEmpty());
+    delegate.create(b);
+    Assert.assertEquals(Optional.of(b), dao.get("id_b"));
+  }
+
+  // Checks that a Person read just before a write invalidates it isn't cached once the write is
+  // done.
+  @Test
+  public void readsRacingWritesAreNotCached() {
+    Person updatedA =
+        Person.create(
+            "id_a", "a@gmail.com", "new", "a", "", "", "", EnumSet.of(Job.SOFTWARE_ENGINEER), true);
+    // Updates a through the cache right after the first read of it, before that read is cached.
+    FakePersonDao racingDelegate =
+        new FakePersonDao() {
+          private boolean raced = false;
+
+          @Override
+          public synchronized Optional<Person> get(String id) {
+            Optional<Person> person = super.get(id);
+            if (!raced) {
+              raced = true;
+              dao.update(updatedA);
+            }
+            return person;
+          }
+        };
+    racingDelegate.create(a);
+    dao = new CachingPersonDao(racingDelegate, /*maximumSize=*/ 100, TTL, ticker);
+
+    Assert.assertEquals(Optional.of(a), dao.get("id_a"));
+    Assert.assertEquals(Optional.of(updatedA), dao.get("id_a"));
+  }
+
+  // Checks that getAll only asks the delegate for the ids it has not cached.
+  @Test
+  public void getAllMixesHitsAndMisses() {
+    dao.get("id_a");
+    delegate.create(b);
+    Map<String, Person> people = dao.getAll(Arrays.asList("id_a", "id_b", "id_c"));
+    Assert.assertEquals(2, people.size());
+    Assert.assertEquals(a, people.get("id_a"));
+    Assert.assertEquals(b, people.get("id_b"));
+    Assert.assertEquals(1, dao.stats().hitCount());
+
+    // id_c has no Person, so it is read from the delegate every time.
+    dao.getAll(Arrays.asList("id_a", "id_b", "id_c"));
+    Assert.assertEquals(3, dao.stats().hitCount());
+  }
+
+  private static class FakeTicker extends Ticker {
+    private long nanos = 0;
+
+    void advance(Duration duration) {
+      nanos += duration.toNanos();
+    }
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+  }
+}
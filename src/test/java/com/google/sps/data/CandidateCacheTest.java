@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.base.Ticker;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class CandidateCacheTest {
+  private static final Duration TTL = Duration.ofMinutes(1);
+  private static final Instant TIME_1PM = Instant.parse("2020-07-07T13:00:00Z");
+
+  private FakeTicker ticker;
+  private CandidateCache<String> cache;
+  private AtomicInteger loads;
+
+  @Before
+  public void setUp() {
+    ticker = new FakeTicker();
+    cache = new CandidateCache<String>(/*maximumSize=*/ 100, TTL, ticker);
+    loads = new AtomicInteger();
+  }
+
+  private String load(String value) {
+    loads.incrementAndGet();
+    return value;
+  }
+
+  // Checks that a second read of the same key is served from the cache.
+  @Test
+  public void cachesValues() {
+    Assert.assertEquals("a", cache.get("key", () -> load("a")));
+    Assert.assertEquals("a", cache.get("key", () -> load("b")));
+    Assert.assertEquals(1, loads.get());
+    Assert.assertEquals(1, cache.stats().hitCount());
+  }
+
+  // Checks that values are loaded again after the cache is invalidated.
+  @Test
+  public void invalidateAllDropsValues() {
+    cache.get("key", () -> load("a"));
+    cache.invalidateAll();
+    Assert.assertEquals("b", cache.get("key", () -> load("b")));
+    Assert.assertEquals(2, loads.get());
+  }
+
+  // Checks that a value whose load was still running when the cache was invalidated isn't
+  // returned to later reads.
+  @Test
+  public void invalidateAllDropsValuesBeingLoaded() {
+    cache.get(
+        "key",
+        () -> {
+          cache.invalidateAll();
+          return load("a");
+        });
+    Assert.assertEquals("b", cache.get("key", () -> load("b")));
+  }
+
+  // Checks that values are loaded again once they expire.
+  @Test
+  public void valuesExpire() {
+    cache.get("key", () -> load("a"));
+    ticker.advance(TTL.plusSeconds(1));
+    Assert.assertEquals("b", cache.get("key", () -> load("b")));
+  }
+
+  // Checks that writing an interview through an InvalidatingScheduledInterviewDao invalidates the
+  // cache.
+  @Test
+  public void interviewWritesInvalidate() {
+    ScheduledInterviewDao dao =
+        new InvalidatingScheduledInterviewDao(new FakeScheduledInterviewDao(), cache);
+    cache.get("key", () -> load("a"));
+    ScheduledInterview interview =
+        dao.create(
+            ScheduledInterview.create(
+                -1,
+                new TimeRange(TIME_1PM, TIME_1PM.plus(1, ChronoUnit.HOURS)),
+                "interviewer",
+                "interviewee",
+                "",
+                Job.SOFTWARE_ENGINEER,
+                /*shadowId=*/ ""));
+    Assert.assertEquals("b", cache.get("key", () -> load("b")));
+    dao.delete(interview.id());
+    Assert.assertEquals("c", cache.get("key", () -> load("c")));
+  }
+
+  private static class FakeTicker extends Ticker {
+    private long nanos = 0;
+
+    void advance(Duration duration) {
+      nanos += duration.toNanos();
+    }
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+  }
+}
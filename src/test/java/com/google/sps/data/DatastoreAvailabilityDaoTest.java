@@ -27,8 +27,10 @@ import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestC
 import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import org.junit.After;
@@ -229,6 +231,22 @@ public class DatastoreAvailabilityDaoTest {
     Assert.assertEquals(expectedAvailabilities, actual);
   }
 
+  // Checks that only the unscheduled Availability objects for a user within a given time range
+  // are returned.
+  @Test
+  public void getsUsersUnscheduledAvailabilityInRange() {
+    dao.create(availabilityOne);
+    dao.create(availabilityTwo);
+    dao.create(availabilityThree);
+    dao.create(availabilityFour);
+    List<Availability> actual =
+        dao.getUnscheduledInRangeForUser(
+            "user1", availabilityOne.when().start(), availabilityFour.when().end());
+    Assert.assertEquals(1, actual.size());
+    Assert.assertEquals(availabilityTwo.when(), actual.get(0).when());
+    Assert.assertFalse(actual.get(0).scheduled());
+  }
+
   // Checks that only the Availability objects for the specified user are returned within
   // a given time range (and not the Availability objects of other users).
   @Test
@@ -367,4 +385,77 @@ public class DatastoreAvailabilityDaoTest {
     expected.add("user2");
     Assert.assertEquals(expected, actual);
   }
+
+  // Checks that the Availabilities of each requested user are returned in order, and only theirs,
+  // even when there are more users than fit in one query.
+  @Test
+  public void getsAvailabilityOfEachUserInRange() {
+    dao.create(availabilityFour);
+    dao.create(availabilityThree);
+    dao.create(availabilityTwo);
+    dao.create(availabilityOne);
+    dao.create(availabilityFive);
+    List<String> userIds = new ArrayList<String>();
+    userIds.add("user1");
+    userIds.add("user2");
+    for (int i = 0; i < 31; i++) {
+      String userId = "other" + i;
+      dao.create(
+          Availability.create(userId, availabilityThree.when(), /*id=*/ -1, /*scheduled=*/ false));
+      userIds.add(userId);
+    }
+
+    Instant minTime = availabilityOne.when().start();
+    Instant maxTime = availabilityFive.when().end();
+    Map<String, List<Availability>> actual = dao.getInRangeForUsers(userIds, minTime, maxTime);
+    Map<String, List<Availability>> expected = new HashMap<String, List<Availability>>();
+    for (String userId : userIds) {
+      expected.put(userId, dao.getInRangeForUser(userId, minTime, maxTime));
+    }
+    Assert.assertEquals(3, expected.get("user1").size());
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that replacing a range keeps unchanged slots, updates changed ones, adds new ones and
+  // deletes the rest.
+  @Test
+  public void replacesRange() {
+    dao.create(availabilityOne);
+    dao.create(availabilityTwo);
+    dao.create(availabilityFour);
+    List<Availability> before =
+        dao.getInRangeForUser(
+            "user1", availabilityOne.when().start(), availabilityOne.when().end());
+    long unchangedId = before.get(0).id();
+    List<Availability> replacement = new ArrayList<Availability>();
+    replacement.add(availabilityOne);
+    replacement.add(availabilityFour.withScheduled(false));
+    dao.replaceRange(
+        "user1", availabilityOne.when().start(), availabilityFour.when().end(), replacement);
+    List<Availability> actual =
+        dao.getInRangeForUser(
+            "user1", availabilityOne.when().start(), availabilityFour.when().end());
+    List<Availability> expected = new ArrayList<Availability>();
+    expected.add(availabilityOne.withId(unchangedId));
+    expected.add(availabilityFour.withScheduled(false).withId(actual.get(1).id()));
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that Availabilities are created and deleted in bulk.
+  @Test
+  public void createsAndDeletesAll() {
+    List<Availability> availabilities = new ArrayList<Availability>();
+    availabilities.add(availabilityOne);
+    availabilities.add(availabilityThree);
+    dao.createAll(availabilities);
+    List<Availability> stored =
+        dao.getInRangeForAll(availabilityOne.when().start(), availabilityThree.when().end());
+    Assert.assertEquals(2, stored.size());
+    dao.deleteAll(stored);
+    Assert.assertEquals(
+        0,
+        datastore
+            .prepare(new Query("Availability"))
+            .countEntities(FetchOptions.Builder.withDefaults()));
+  }
 }
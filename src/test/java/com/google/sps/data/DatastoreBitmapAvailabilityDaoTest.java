@@ -0,0 +1,378 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.Test;
+
+@RunWith(JUnit4.class)
+public class DatastoreBitmapAvailabilityDaoTest {
+
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+
+  private DatastoreBitmapAvailabilityDao dao;
+  private DatastoreService datastore;
+
+  private final Availability availabilityOne =
+      Availability.create(
+          /*userId*/ "user1",
+          new TimeRange(
+              Instant.parse("2020-07-07T12:00:00Z"), Instant.parse("2020-07-07T12:15:00Z")),
+          /*id=*/ -1,
+          /*scheduled=*/ true);
+  private final Availability availabilityTwo =
+      Availability.create(
+          /*userId*/ "user1",
+          new TimeRange(
+              Instant.parse("2020-07-07T15:45:00Z"), Instant.parse("2020-07-07T16:00:00Z")),
+          /*id=*/ -1,
+          /*scheduled=*/ false);
+  private final Availability availabilityThree =
+      Availability.create(
+          /*userId*/ "user2",
+          new TimeRange(
+              Instant.parse("2020-07-07T17:30:00Z"), Instant.parse("2020-07-07T17:45:00Z")),
+          /*id=*/ -1,
+          /*scheduled=*/ true);
+  private final Availability availabilityFour =
+      Availability.create(
+          /*userId*/ "user1",
+          new TimeRange(
+              Instant.parse("2020-07-08T22:30:00Z"), Instant.parse("2020-07-08T22:45:00Z")),
+          /*id=*/ -1,
+          /*scheduled=*/ true);
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+    dao = new DatastoreBitmapAvailabilityDao();
+    datastore = DatastoreServiceFactory.getDatastoreService();
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  // Returns avail with the id the bitmap Dao gives it, the start of its slot.
+  private static Availability withSlotId(Availability avail) {
+    return avail.withId(avail.when().start().toEpochMilli());
+  }
+
+  // Checks that slots on the same UTC day share a single entity.
+  @Test
+  public void storesOneEntityPerUserPerDay() {
+    dao.create(availabilityOne);
+    dao.create(availabilityTwo);
+    dao.create(availabilityThree);
+    dao.create(availabilityFour);
+    int entityCount =
+        datastore
+            .prepare(new Query(DatastoreBitmapAvailabilityDao.KIND))
+            .countEntities(FetchOptions.Builder.withDefaults());
+    Assert.assertEquals(3, entityCount);
+  }
+
+  // Checks that all Availability objects for a user within a given time range are returned in
+  // order, and that those of other users are not.
+  @Test
+  public void getsUsersAvailabilityInRange() {
+    dao.create(availabilityFour);
+    dao.create(availabilityThree);
+    dao.create(availabilityTwo);
+    dao.create(availabilityOne);
+    List<Availability> actual =
+        dao.getInRangeForUser(
+            "user1", availabilityOne.when().start(), availabilityThree.when().end());
+    List<Availability> expected = new ArrayList<Availability>();
+    expected.add(withSlotId(availabilityOne));
+    expected.add(withSlotId(availabilityTwo));
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that only the unscheduled slots of a user within a given time range are returned.
+  @Test
+  public void getsUsersUnscheduledAvailabilityInRange() {
+    dao.create(availabilityFour);
+    dao.create(availabilityThree);
+    dao.create(availabilityTwo);
+    dao.create(availabilityOne);
+    List<Availability> actual =
+        dao.getUnscheduledInRangeForUser(
+            "user1", availabilityOne.when().start(), availabilityFour.when().end());
+    List<Availability> expected = new ArrayList<Availability>();
+    expected.add(withSlotId(availabilityTwo));
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that updating a slot changes its scheduled status.
+  @Test
+  public void updatesAvailability() {
+    dao.create(availabilityTwo);
+    dao.update(availabilityTwo.withScheduled(true));
+    List<Availability> actual =
+        dao.getInRangeForUser(
+            "user1", availabilityTwo.when().start(), availabilityTwo.when().end());
+    List<Availability> expected = new ArrayList<Availability>();
+    expected.add(withSlotId(availabilityTwo.withScheduled(true)));
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that only the slots in range are deleted, and that emptied days are removed.
+  @Test
+  public void deletesInRange() {
+    dao.create(availabilityOne);
+    dao.create(availabilityTwo);
+    dao.create(availabilityFour);
+    dao.deleteInRangeForUser("user1", availabilityOne.when().start(), availabilityTwo.when().end());
+    List<Availability> actual =
+        dao.getInRangeForUser(
+            "user1", availabilityOne.when().start(), availabilityFour.when().end());
+    List<Availability> expected = new ArrayList<Availability>();
+    expected.add(withSlotId(availabilityFour));
+    Assert.assertEquals(expected, actual);
+    int entityCount =
+        datastore
+            .prepare(new Query(DatastoreBitmapAvailabilityDao.KIND))
+            .countEntities(FetchOptions.Builder.withDefaults());
+    Assert.assertEquals(1, entityCount);
+  }
+
+  // Checks that all of the Availability objects within a given time range are returned in order.
+  @Test
+  public void getsAllUsersAvailabilityInRangeInOrder() {
+    dao.create(availabilityFour);
+    dao.create(availabilityThree);
+    dao.create(availabilityTwo);
+    dao.create(availabilityOne);
+    List<Availability> actual =
+        dao.getInRangeForAll(availabilityOne.when().start(), availabilityThree.when().end());
+    List<Availability> expected = new ArrayList<Availability>();
+    expected.add(withSlotId(availabilityOne));
+    expected.add(withSlotId(availabilityTwo));
+    expected.add(withSlotId(availabilityThree));
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that the userIds of the Availabilities in range are returned.
+  @Test
+  public void userIdsInRangeReturned() {
+    dao.create(availabilityFour);
+    dao.create(availabilityThree);
+    dao.create(availabilityTwo);
+    Set<String> actual =
+        dao.getUsersAvailableInRange(
+            availabilityTwo.when().start(), availabilityThree.when().end());
+    Set<String> expected = new HashSet<String>();
+    expected.add("user1");
+    expected.add("user2");
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that per-slot Availability entities are moved into AvailabilityDay entities.
+  @Test
+  public void migratesSlotEntities() {
+    DatastoreAvailabilityDao slotDao = new DatastoreAvailabilityDao();
+    slotDao.create(availabilityOne);
+    slotDao.create(availabilityTwo);
+    slotDao.create(availabilityThree);
+    AvailabilityMigration migration = dao.migrateFromSlotEntities(5, Optional.empty());
+    Assert.assertEquals(AvailabilityMigration.create(3, Optional.empty()), migration);
+    Assert.assertEquals(
+        0,
+        datastore
+            .prepare(new Query("Availability"))
+            .countEntities(FetchOptions.Builder.withDefaults()));
+    List<Availability> actual =
+        dao.getInRangeForAll(availabilityOne.when().start(), availabilityThree.when().end());
+    List<Availability> expected = new ArrayList<Availability>();
+    expected.add(withSlotId(availabilityOne));
+    expected.add(withSlotId(availabilityTwo));
+    expected.add(withSlotId(availabilityThree));
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that a migration can be spread over several chunks, each continuing from the cursor of
+  // the last.
+  @Test
+  public void migratesSlotEntitiesInChunks() {
+    DatastoreAvailabilityDao slotDao = new DatastoreAvailabilityDao();
+    slotDao.create(availabilityOne);
+    slotDao.create(availabilityTwo);
+    slotDao.create(availabilityThree);
+    AvailabilityMigration first = dao.migrateFromSlotEntities(2, Optional.empty());
+    Assert.assertEquals(2, first.migrated());
+    Assert.assertTrue(first.nextCursor().isPresent());
+    AvailabilityMigration second = dao.migrateFromSlotEntities(2, first.nextCursor());
+    Assert.assertEquals(AvailabilityMigration.create(1, Optional.empty()), second);
+    Assert.assertEquals(
+        0,
+        datastore
+            .prepare(new Query("Availability"))
+            .countEntities(FetchOptions.Builder.withDefaults()));
+    List<Availability> actual =
+        dao.getInRangeForAll(availabilityOne.when().start(), availabilityThree.when().end());
+    List<Availability> expected = new ArrayList<Availability>();
+    expected.add(withSlotId(availabilityOne));
+    expected.add(withSlotId(availabilityTwo));
+    expected.add(withSlotId(availabilityThree));
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that replacing a range marks exactly the given slots, keeping the scheduled status each
+  // slot already had.
+  @Test
+  public void replacesRange() {
+    dao.create(availabilityOne);
+    dao.create(availabilityTwo);
+    dao.create(availabilityFour);
+    List<Availability> replacement = new ArrayList<Availability>();
+    replacement.add(availabilityOne);
+    replacement.add(availabilityFour.withScheduled(false));
+    dao.replaceRange(
+        "user1", availabilityOne.when().start(), availabilityFour.when().end(), replacement);
+    List<Availability> actual =
+        dao.getInRangeForUser(
+            "user1", availabilityOne.when().start(), availabilityFour.when().end());
+    List<Availability> expected = new ArrayList<Availability>();
+    expected.add(withSlotId(availabilityOne));
+    expected.add(withSlotId(availabilityFour));
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that saving slots read before a reservation was made doesn't undo the reservation, even
+  // if the save leaves a reserved slot out.
+  @Test
+  public void replacingRangeKeepsReservations() {
+    dao.createAll(hourFrom1PM(/*firstScheduled=*/ false));
+    TimeRange hour =
+        new TimeRange(Instant.parse("2020-07-07T13:00:00Z"), Instant.parse("2020-07-07T14:00:00Z"));
+    List<Availability> staleWeek = dao.getInRangeForUser("user1", hour.start(), hour.end());
+    Assert.assertTrue(dao.reserve("user1", hour));
+
+    dao.replaceRange("user1", hour.start(), hour.end(), staleWeek.subList(1, 4));
+
+    List<Availability> actual = dao.getInRangeForUser("user1", hour.start(), hour.end());
+    Assert.assertEquals(4, actual.size());
+    for (Availability avail : actual) {
+      Assert.assertTrue(avail.scheduled());
+    }
+    Assert.assertFalse(dao.reserve("user1", hour));
+  }
+
+  // Checks that creating slots that are already reserved keeps them reserved.
+  @Test
+  public void creatingAllKeepsReservations() {
+    dao.createAll(hourFrom1PM(/*firstScheduled=*/ false));
+    TimeRange hour =
+        new TimeRange(Instant.parse("2020-07-07T13:00:00Z"), Instant.parse("2020-07-07T14:00:00Z"));
+    Assert.assertTrue(dao.reserve("user1", hour));
+
+    dao.createAll(hourFrom1PM(/*firstScheduled=*/ false));
+
+    Assert.assertTrue(
+        dao.getUnscheduledInRangeForUser("user1", hour.start(), hour.end()).isEmpty());
+  }
+
+  // Checks that Availabilities are created and deleted in bulk.
+  @Test
+  public void createsAndDeletesAll() {
+    List<Availability> availabilities = new ArrayList<Availability>();
+    availabilities.add(availabilityOne);
+    availabilities.add(availabilityTwo);
+    availabilities.add(availabilityThree);
+    dao.createAll(availabilities);
+    Assert.assertEquals(
+        3,
+        dao.getInRangeForAll(availabilityOne.when().start(), availabilityThree.when().end())
+            .size());
+    dao.deleteAll(availabilities);
+    Assert.assertEquals(
+        0,
+        datastore
+            .prepare(new Query(DatastoreBitmapAvailabilityDao.KIND))
+            .countEntities(FetchOptions.Builder.withDefaults()));
+  }
+
+  // Returns the four available slots of user1 from 2020-07-07T13:00:00Z, the first of which is
+  // scheduled if firstScheduled is true.
+  private static List<Availability> hourFrom1PM(boolean firstScheduled) {
+    List<Availability> slots = new ArrayList<Availability>();
+    Instant start = Instant.parse("2020-07-07T13:00:00Z");
+    for (int i = 0; i < 4; i++) {
+      Instant slotStart = start.plusSeconds(15 * 60 * i);
+      slots.add(
+          Availability.create(
+              "user1",
+              new TimeRange(slotStart, slotStart.plusSeconds(15 * 60)),
+              -1,
+              firstScheduled && i == 0));
+    }
+    return slots;
+  }
+
+  // Checks that reserving marks every slot as scheduled, after which it can't be reserved again
+  // until it is released.
+  @Test
+  public void reservesAndReleases() {
+    dao.createAll(hourFrom1PM(/*firstScheduled=*/ false));
+    TimeRange hour =
+        new TimeRange(Instant.parse("2020-07-07T13:00:00Z"), Instant.parse("2020-07-07T14:00:00Z"));
+
+    Assert.assertTrue(dao.reserve("user1", hour));
+    for (Availability avail : dao.getInRangeForUser("user1", hour.start(), hour.end())) {
+      Assert.assertTrue(avail.scheduled());
+    }
+    Assert.assertFalse(dao.reserve("user1", hour));
+
+    Assert.assertTrue(dao.release("user1", hour));
+    Assert.assertTrue(dao.reserve("user1", hour));
+  }
+
+  // Checks that nothing is reserved if any slot is already scheduled or isn't available.
+  @Test
+  public void doesNotReservePartially() {
+    dao.createAll(hourFrom1PM(/*firstScheduled=*/ true));
+    TimeRange hour =
+        new TimeRange(Instant.parse("2020-07-07T13:00:00Z"), Instant.parse("2020-07-07T14:00:00Z"));
+    TimeRange laterHour =
+        new TimeRange(Instant.parse("2020-07-07T13:15:00Z"), Instant.parse("2020-07-07T14:15:00Z"));
+
+    Assert.assertFalse(dao.reserve("user1", hour));
+    Assert.assertFalse(dao.reserve("user1", laterHour));
+    Assert.assertEquals(
+        1,
+        dao.getInRangeForUser("user1", hour.start(), hour.end()).stream()
+            .filter(Availability::scheduled)
+            .count());
+  }
+}
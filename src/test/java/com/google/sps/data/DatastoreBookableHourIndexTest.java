@@ -0,0 +1,204 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.appengine.api.datastore.DatastoreService;
+import com.google.appengine.api.datastore.DatastoreServiceFactory;
+import com.google.appengine.api.datastore.FetchOptions;
+import com.google.appengine.api.datastore.Query;
+import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.junit.Test;
+
+@RunWith(JUnit4.class)
+public class DatastoreBookableHourIndexTest {
+
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalDatastoreServiceTestConfig());
+
+  private DatastoreBookableHourIndex index;
+  private FakePersonDao personDao;
+  private DatastoreService datastore;
+
+  private final Person sweInterviewer =
+      Person.create(
+          "user1", "a@gmail.com", "a", "a", "", "", "", EnumSet.of(Job.SOFTWARE_ENGINEER), true);
+  private final Person pmInterviewer =
+      Person.create(
+          "user2", "b@gmail.com", "b", "b", "", "", "", EnumSet.of(Job.PRODUCT_MANAGER), true);
+
+  private final Instant weekStart = Instant.parse("2020-07-06T00:00:00Z");
+  private final Instant weekEnd = Instant.parse("2020-07-13T00:00:00Z");
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+    personDao = new FakePersonDao();
+    personDao.create(sweInterviewer);
+    personDao.create(pmInterviewer);
+    index = new DatastoreBookableHourIndex(personDao);
+    datastore = DatastoreServiceFactory.getDatastoreService();
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  // Returns count consecutive unscheduled slots of userId starting at start.
+  private static List<Availability> slots(String userId, String start, int count) {
+    List<Availability> slots = new ArrayList<Availability>();
+    Instant slotStart = Instant.parse(start);
+    for (int i = 0; i < count; i++) {
+      slots.add(
+          Availability.create(
+              userId,
+              new TimeRange(slotStart, slotStart.plus(15, ChronoUnit.MINUTES)),
+              /*id=*/ -1,
+              /*scheduled=*/ false));
+      slotStart = slotStart.plus(15, ChronoUnit.MINUTES);
+    }
+    return slots;
+  }
+
+  private static Set<String> users(String... userIds) {
+    Set<String> users = new HashSet<String>();
+    for (String userId : userIds) {
+      users.add(userId);
+    }
+    return users;
+  }
+
+  // Checks that every start of four consecutive free slots is indexed, including an hour that runs
+  // past midnight UTC.
+  @Test
+  public void indexesEveryHourOfFreeSlots() {
+    List<Availability> availabilities = slots("user1", "2020-07-07T12:00:00Z", 5);
+    availabilities.addAll(slots("user1", "2020-07-07T23:30:00Z", 4));
+    index.update("user1", availabilities, weekStart, weekEnd);
+    SortedMap<Instant, Set<String>> expected = new TreeMap<Instant, Set<String>>();
+    expected.put(Instant.parse("2020-07-07T12:00:00Z"), users("user1"));
+    expected.put(Instant.parse("2020-07-07T12:15:00Z"), users("user1"));
+    expected.put(Instant.parse("2020-07-07T23:30:00Z"), users("user1"));
+    Assert.assertEquals(expected, index.getInRange(Job.SOFTWARE_ENGINEER, weekStart, weekEnd));
+  }
+
+  // Checks that hours with a scheduled slot aren't indexed.
+  @Test
+  public void skipsScheduledSlots() {
+    List<Availability> availabilities = slots("user1", "2020-07-07T12:00:00Z", 4);
+    availabilities.set(2, availabilities.get(2).withScheduled(true));
+    index.update("user1", availabilities, weekStart, weekEnd);
+    Assert.assertTrue(index.getInRange(Job.SOFTWARE_ENGINEER, weekStart, weekEnd).isEmpty());
+  }
+
+  // Checks that only interviewers qualified for the position are returned.
+  @Test
+  public void getsInterviewersForPosition() {
+    index.update("user1", slots("user1", "2020-07-07T12:00:00Z", 4), weekStart, weekEnd);
+    index.update("user2", slots("user2", "2020-07-07T12:00:00Z", 4), weekStart, weekEnd);
+    SortedMap<Instant, Set<String>> expected = new TreeMap<Instant, Set<String>>();
+    expected.put(Instant.parse("2020-07-07T12:00:00Z"), users("user2"));
+    Assert.assertEquals(expected, index.getInRange(Job.PRODUCT_MANAGER, weekStart, weekEnd));
+  }
+
+  // Checks that only hours lying entirely within the range are returned.
+  @Test
+  public void getsHoursInRange() {
+    index.update("user1", slots("user1", "2020-07-07T12:00:00Z", 8), weekStart, weekEnd);
+    SortedMap<Instant, Set<String>> expected = new TreeMap<Instant, Set<String>>();
+    expected.put(Instant.parse("2020-07-07T12:30:00Z"), users("user1"));
+    expected.put(Instant.parse("2020-07-07T12:45:00Z"), users("user1"));
+    Assert.assertEquals(
+        expected,
+        index.getInRange(
+            Job.SOFTWARE_ENGINEER,
+            Instant.parse("2020-07-07T12:30:00Z"),
+            Instant.parse("2020-07-07T13:45:00Z")));
+  }
+
+  // Checks that updating a range only recomputes the hours within it, and that days left without
+  // any hours are deleted.
+  @Test
+  public void updatesOnlyHoursInRange() {
+    List<Availability> availabilities = slots("user1", "2020-07-07T12:00:00Z", 4);
+    availabilities.addAll(slots("user1", "2020-07-08T12:00:00Z", 4));
+    index.update("user1", availabilities, weekStart, weekEnd);
+    index.update(
+        "user1",
+        new ArrayList<Availability>(),
+        Instant.parse("2020-07-07T00:00:00Z"),
+        Instant.parse("2020-07-08T00:00:00Z"));
+    SortedMap<Instant, Set<String>> expected = new TreeMap<Instant, Set<String>>();
+    expected.put(Instant.parse("2020-07-08T12:00:00Z"), users("user1"));
+    Assert.assertEquals(expected, index.getInRange(Job.SOFTWARE_ENGINEER, weekStart, weekEnd));
+    Assert.assertEquals(
+        1,
+        datastore
+            .prepare(new Query(DatastoreBookableHourIndex.KIND))
+            .countEntities(FetchOptions.Builder.withDefaults()));
+  }
+
+  // Checks that a user's hours are offered for a position as soon as they become qualified for it,
+  // even though they saved their availability before then.
+  @Test
+  public void indexesNewQualifications() {
+    Person unqualified =
+        Person.create(
+            "user3", "c@gmail.com", "c", "c", "", "", "", EnumSet.noneOf(Job.class), true);
+    personDao.create(unqualified);
+    index.update("user3", slots("user3", "2020-07-07T12:00:00Z", 4), weekStart, weekEnd);
+    Assert.assertTrue(index.getInRange(Job.SOFTWARE_ENGINEER, weekStart, weekEnd).isEmpty());
+
+    Person qualified =
+        Person.create(
+            "user3", "c@gmail.com", "c", "c", "", "", "", EnumSet.of(Job.SOFTWARE_ENGINEER), true);
+    personDao.update(qualified);
+    index.updateQualifications(qualified);
+
+    SortedMap<Instant, Set<String>> expected = new TreeMap<Instant, Set<String>>();
+    expected.put(Instant.parse("2020-07-07T12:00:00Z"), users("user3"));
+    Assert.assertEquals(expected, index.getInRange(Job.SOFTWARE_ENGINEER, weekStart, weekEnd));
+  }
+
+  // Checks that a user's hours stop being offered for a position they are no longer qualified for.
+  @Test
+  public void dropsOldQualifications() {
+    index.update("user1", slots("user1", "2020-07-07T12:00:00Z", 4), weekStart, weekEnd);
+
+    index.updateQualifications(
+        Person.create(
+            "user1", "a@gmail.com", "a", "a", "", "", "", EnumSet.of(Job.PRODUCT_MANAGER), true));
+
+    Assert.assertTrue(index.getInRange(Job.SOFTWARE_ENGINEER, weekStart, weekEnd).isEmpty());
+    SortedMap<Instant, Set<String>> expected = new TreeMap<Instant, Set<String>>();
+    expected.put(Instant.parse("2020-07-07T12:00:00Z"), users("user1"));
+    Assert.assertEquals(expected, index.getInRange(Job.PRODUCT_MANAGER, weekStart, weekEnd));
+  }
+}
@@ -27,8 +27,11 @@ import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestC
 import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import org.junit.After;
 import org.junit.Assert;
@@ -137,4 +140,49 @@ public class DatastorePersonDaoTest {
     Optional<Person> expected = Optional.empty();
     Assert.assertEquals(expected, actual);
   }
+
+  // Checks that all of the stored people are returned by a batch lookup, and that missing ids are
+  // left out.
+  @Test
+  public void getsAllPeople() {
+    Person b =
+        Person.create(
+            "id_b", "b@gmail.com", "b", "b", "", "", "", EnumSet.of(Job.PRODUCT_MANAGER), false);
+    dao.create(a);
+    dao.create(b);
+    Map<String, Person> actual = dao.getAll(Arrays.asList("id_a", "id_b", "$"));
+    Map<String, Person> expected = new HashMap<String, Person>();
+    expected.put("id_a", a);
+    expected.put("id_b", b);
+    Assert.assertEquals(expected, actual);
+  }
+
+  // Checks that only the requested people qualified for the position are kept, with their company
+  // and job.
+  @Test
+  public void getsPossibleInterviewers() {
+    Person b =
+        Person.create(
+            "id_b",
+            "b@gmail.com",
+            "b",
+            "b",
+            "Google",
+            "Engineer",
+            "",
+            EnumSet.of(Job.SOFTWARE_ENGINEER),
+            false);
+    Person c =
+        Person.create(
+            "id_c", "c@gmail.com", "c", "c", "", "", "", EnumSet.of(Job.PRODUCT_MANAGER), false);
+    dao.create(a);
+    dao.create(b);
+    dao.create(c);
+    Map<String, PossibleInterviewer> actual =
+        PossibleInterviewer.ofQualified(
+            Job.SOFTWARE_ENGINEER, dao.getAll(Arrays.asList("id_b", "id_c", "$")));
+    Map<String, PossibleInterviewer> expected = new HashMap<String, PossibleInterviewer>();
+    expected.put("id_b", PossibleInterviewer.create("Google", "Engineer"));
+    Assert.assertEquals(expected, actual);
+  }
 }
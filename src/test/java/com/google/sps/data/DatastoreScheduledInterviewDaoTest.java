@@ -24,6 +24,7 @@ import com.google.appengine.api.datastore.Query;
 import com.google.appengine.api.datastore.Query.SortDirection;
 import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
 import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.common.collect.ImmutableList;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -190,6 +191,69 @@ public class DatastoreScheduledInterviewDaoTest {
     Assert.assertEquals(expected, result);
   }
 
+  // Returns the start times of interviews, in order.
+  private static List<Instant> starts(List<ScheduledInterview> interviews) {
+    List<Instant> starts = new ArrayList<Instant>();
+    for (ScheduledInterview interview : interviews) {
+      starts.add(interview.when().start());
+    }
+    return starts;
+  }
+
+  // Tests that a user's interviews in all 3 roles are split into pages in order, and that the
+  // last page has no cursor.
+  @Test
+  public void getForPersonPages() {
+    dao.create(scheduledInterview7);
+    dao.create(scheduledInterview6);
+    dao.create(scheduledInterview5);
+    dao.create(scheduledInterview4);
+    dao.create(scheduledInterview2);
+    dao.create(scheduledInterview1);
+    String userId = scheduledInterview1.interviewerId();
+    ScheduledInterviewPage firstPage =
+        dao.getForPerson(userId, Instant.EPOCH, /*limit=*/ 4, Optional.empty());
+    Assert.assertEquals(
+        starts(
+            ImmutableList.of(
+                scheduledInterview1,
+                scheduledInterview2,
+                scheduledInterview4,
+                scheduledInterview5)),
+        starts(firstPage.interviews()));
+    Assert.assertTrue(firstPage.nextCursor().isPresent());
+    ScheduledInterviewPage secondPage =
+        dao.getForPerson(userId, Instant.EPOCH, /*limit=*/ 4, firstPage.nextCursor());
+    Assert.assertEquals(
+        starts(ImmutableList.of(scheduledInterview6, scheduledInterview7)),
+        starts(secondPage.interviews()));
+    Assert.assertEquals(Optional.empty(), secondPage.nextCursor());
+  }
+
+  // Tests that only interviews starting at or after from are paged through.
+  @Test
+  public void getForPersonFrom() {
+    dao.create(scheduledInterview1);
+    dao.create(scheduledInterview4);
+    dao.create(scheduledInterview6);
+    ScheduledInterviewPage page =
+        dao.getForPerson(
+            scheduledInterview1.interviewerId(),
+            scheduledInterview4.when().start(),
+            /*limit=*/ 10,
+            Optional.empty());
+    Assert.assertEquals(
+        starts(ImmutableList.of(scheduledInterview4, scheduledInterview6)),
+        starts(page.interviews()));
+    Assert.assertEquals(Optional.empty(), page.nextCursor());
+  }
+
+  // Tests that a cursor this Dao didn't return is rejected.
+  @Test(expected = IllegalArgumentException.class)
+  public void getForPersonRejectsInvalidCursor() {
+    dao.getForPerson("user@company.org", Instant.EPOCH, /*limit=*/ 10, Optional.of("cursor"));
+  }
+
   // Tests that only interviews without a shadow are returned.
   @Test
   public void getsInterviewsWithoutShadow() {
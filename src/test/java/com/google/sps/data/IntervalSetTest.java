@@ -0,0 +1,122 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.util.Arrays;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class IntervalSetTest {
+  Instant TIME_5PM = Instant.parse("2020-07-06T17:00:00Z");
+  Instant TIME_530PM = Instant.parse("2020-07-06T17:30:00Z");
+  Instant TIME_6PM = Instant.parse("2020-07-06T18:00:00Z");
+  Instant TIME_630PM = Instant.parse("2020-07-06T18:30:00Z");
+  Instant TIME_7PM = Instant.parse("2020-07-06T19:00:00Z");
+  Instant TIME_730PM = Instant.parse("2020-07-06T19:30:00Z");
+  Instant TIME_8PM = Instant.parse("2020-07-06T20:00:00Z");
+  Instant TIME_830PM = Instant.parse("2020-07-06T20:30:00Z");
+  Instant TIME_9PM = Instant.parse("2020-07-06T21:00:00Z");
+
+  private static IntervalSet setOf(TimeRange... ranges) {
+    return IntervalSet.of(Arrays.asList(ranges));
+  }
+
+  // Tests that overlapping and adjacent ranges are merged, and empty ranges are dropped.
+  @Test
+  public void mergesRanges() {
+    IntervalSet set =
+        setOf(
+            TimeRange.fromStartEnd(TIME_7PM, TIME_8PM),
+            TimeRange.fromStartEnd(TIME_5PM, TIME_6PM),
+            TimeRange.fromStartEnd(TIME_530PM, TIME_630PM),
+            TimeRange.fromStartEnd(TIME_630PM, TIME_630PM),
+            TimeRange.fromStartEnd(TIME_8PM, TIME_830PM));
+    Assert.assertEquals(
+        Arrays.asList(
+            TimeRange.fromStartEnd(TIME_5PM, TIME_630PM),
+            TimeRange.fromStartEnd(TIME_7PM, TIME_830PM)),
+        set.toTimeRanges());
+  }
+
+  // Tests that a set contains the start of its ranges but not their ends.
+  @Test
+  public void containsPoint() {
+    IntervalSet set = setOf(TimeRange.fromStartEnd(TIME_5PM, TIME_6PM));
+    Assert.assertTrue(set.contains(TIME_5PM));
+    Assert.assertTrue(set.contains(TIME_530PM));
+    Assert.assertFalse(set.contains(TIME_6PM));
+    Assert.assertFalse(IntervalSet.empty().contains(TIME_5PM));
+  }
+
+  // Tests whether a set contains or overlaps a range.
+  @Test
+  public void containsAndOverlapsRange() {
+    IntervalSet set =
+        setOf(
+            TimeRange.fromStartEnd(TIME_5PM, TIME_6PM),
+            TimeRange.fromStartEnd(TIME_7PM, TIME_8PM));
+    Assert.assertTrue(set.contains(TimeRange.fromStartEnd(TIME_530PM, TIME_6PM)));
+    Assert.assertFalse(set.contains(TimeRange.fromStartEnd(TIME_530PM, TIME_730PM)));
+    Assert.assertTrue(set.overlaps(TimeRange.fromStartEnd(TIME_630PM, TIME_730PM)));
+    Assert.assertFalse(set.overlaps(TimeRange.fromStartEnd(TIME_6PM, TIME_7PM)));
+  }
+
+  // Tests that sorted points are looked up in one pass.
+  @Test
+  public void containsAllPoints() {
+    IntervalSet set =
+        setOf(
+            TimeRange.fromStartEnd(TIME_5PM, TIME_6PM),
+            TimeRange.fromStartEnd(TIME_7PM, TIME_8PM));
+    long[] points =
+        new long[] {
+          TIME_5PM.toEpochMilli(),
+          TIME_6PM.toEpochMilli(),
+          TIME_730PM.toEpochMilli(),
+          TIME_9PM.toEpochMilli()
+        };
+    Assert.assertArrayEquals(new boolean[] {true, false, true, false}, set.containsAll(points));
+  }
+
+  // Tests union, intersection and subtraction of two sets.
+  @Test
+  public void combinesSets() {
+    IntervalSet set =
+        setOf(
+            TimeRange.fromStartEnd(TIME_5PM, TIME_7PM),
+            TimeRange.fromStartEnd(TIME_8PM, TIME_9PM));
+    IntervalSet other =
+        setOf(
+            TimeRange.fromStartEnd(TIME_530PM, TIME_6PM),
+            TimeRange.fromStartEnd(TIME_630PM, TIME_830PM));
+    Assert.assertEquals(setOf(TimeRange.fromStartEnd(TIME_5PM, TIME_9PM)), set.union(other));
+    Assert.assertEquals(
+        setOf(
+            TimeRange.fromStartEnd(TIME_530PM, TIME_6PM),
+            TimeRange.fromStartEnd(TIME_630PM, TIME_7PM),
+            TimeRange.fromStartEnd(TIME_8PM, TIME_830PM)),
+        set.intersect(other));
+    Assert.assertEquals(
+        setOf(
+            TimeRange.fromStartEnd(TIME_5PM, TIME_530PM),
+            TimeRange.fromStartEnd(TIME_6PM, TIME_630PM),
+            TimeRange.fromStartEnd(TIME_830PM, TIME_9PM)),
+        set.subtract(other));
+  }
+}
@@ -0,0 +1,128 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class InterviewBookerTest {
+  private final Instant TIME_1PM = Instant.parse("2020-07-07T13:00:00Z");
+  private final TimeRange hour = new TimeRange(TIME_1PM, TIME_1PM.plus(1, ChronoUnit.HOURS));
+
+  private FakeScheduledInterviewDao scheduledInterviewDao;
+  private FakeAvailabilityDao availabilityDao;
+  private InterviewBooker interviewBooker;
+
+  @Before
+  public void setUp() {
+    scheduledInterviewDao = new FakeScheduledInterviewDao();
+    availabilityDao = new FakeAvailabilityDao();
+    interviewBooker = new InterviewBooker(scheduledInterviewDao, availabilityDao);
+  }
+
+  // Makes userId available for every slot of hour.
+  private void makeAvailable(String userId) {
+    for (int i = 0; i < 4; i++) {
+      Instant start = TIME_1PM.plus(15 * i, ChronoUnit.MINUTES);
+      availabilityDao.create(
+          Availability.create(
+              userId, new TimeRange(start, start.plus(15, ChronoUnit.MINUTES)), -1, false));
+    }
+  }
+
+  private ScheduledInterview interviewFor(String intervieweeId) {
+    return ScheduledInterview.create(
+        -1, hour, "", intervieweeId, "", Job.SOFTWARE_ENGINEER, /*shadowId=*/ "");
+  }
+
+  // Checks that the booked interview is stored with its generated id and the interviewer's slots
+  // are marked as scheduled.
+  @Test
+  public void booksInterviewer() {
+    makeAvailable("interviewer1");
+    ScheduledInterview booked =
+        interviewBooker.book(interviewFor("interviewee"), Arrays.asList("interviewer1")).get();
+    Assert.assertEquals("interviewer1", booked.interviewerId());
+    Assert.assertEquals(Optional.of(booked), scheduledInterviewDao.get(booked.id()));
+    for (Availability avail :
+        availabilityDao.getInRangeForUser("interviewer1", hour.start(), hour.end())) {
+      Assert.assertTrue(avail.scheduled());
+    }
+  }
+
+  // Checks that an interviewer who has been booked since is skipped for the next one.
+  @Test
+  public void skipsBookedInterviewers() {
+    makeAvailable("interviewer1");
+    makeAvailable("interviewer2");
+    availabilityDao.reserve("interviewer1", hour);
+    ScheduledInterview booked =
+        interviewBooker
+            .book(interviewFor("interviewee"), Arrays.asList("interviewer1", "interviewer2"))
+            .get();
+    Assert.assertEquals("interviewer2", booked.interviewerId());
+  }
+
+  // Checks that nothing is booked when every interviewer has been booked.
+  @Test
+  public void failsWhenAllAreBooked() {
+    makeAvailable("interviewer1");
+    availabilityDao.reserve("interviewer1", hour);
+    Assert.assertEquals(
+        Optional.empty(),
+        interviewBooker.book(interviewFor("interviewee"), Arrays.asList("interviewer1")));
+    Assert.assertTrue(scheduledInterviewDao.data.isEmpty());
+  }
+
+  // Checks that of many interviewees booking the same interviewer at once, only one succeeds.
+  @Test
+  public void concurrentBookingsDoNotDoubleBook() throws Exception {
+    makeAvailable("interviewer1");
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    List<Callable<Optional<ScheduledInterview>>> bookings =
+        new ArrayList<Callable<Optional<ScheduledInterview>>>();
+    for (int i = 0; i < 32; i++) {
+      String intervieweeId = "interviewee" + i;
+      bookings.add(
+          () ->
+              interviewBooker.book(
+                  interviewFor(intervieweeId), Collections.singletonList("interviewer1")));
+    }
+    int booked = 0;
+    for (Future<Optional<ScheduledInterview>> result : executor.invokeAll(bookings)) {
+      if (result.get().isPresent()) {
+        booked++;
+      }
+    }
+    executor.shutdown();
+    Assert.assertEquals(1, booked);
+    Assert.assertEquals(1, scheduledInterviewDao.data.size());
+  }
+}
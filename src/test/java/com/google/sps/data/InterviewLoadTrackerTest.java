@@ -0,0 +1,120 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.data;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class InterviewLoadTrackerTest {
+  private final Instant TIME_1PM = Instant.parse("2020-07-07T13:00:00Z");
+
+  private MutableClock clock;
+  private InterviewLoadTracker loadTracker;
+
+  @Before
+  public void setUp() {
+    clock = new MutableClock(TIME_1PM);
+    loadTracker = new InterviewLoadTracker(clock);
+  }
+
+  private ScheduledInterview interview(long id, String interviewerId, Instant start) {
+    return ScheduledInterview.create(
+        id,
+        new TimeRange(start, start.plus(1, ChronoUnit.HOURS)),
+        interviewerId,
+        "interviewee",
+        "",
+        Job.SOFTWARE_ENGINEER,
+        /*shadowId=*/ "");
+  }
+
+  // Checks that interviews are counted towards their interviewer until they end.
+  @Test
+  public void countsUntilInterviewsEnd() {
+    loadTracker.track(interview(1, "interviewer1", TIME_1PM));
+    loadTracker.track(interview(2, "interviewer1", TIME_1PM.plus(1, ChronoUnit.DAYS)));
+    Assert.assertEquals(2, loadTracker.upcomingInterviews("interviewer1"));
+    Assert.assertEquals(0, loadTracker.upcomingInterviews("interviewer2"));
+
+    clock.now = TIME_1PM.plus(1, ChronoUnit.HOURS);
+    Assert.assertEquals(1, loadTracker.upcomingInterviews("interviewer1"));
+  }
+
+  // Checks that tracking an interview again moves it to its new interviewer rather than counting
+  // it twice, and that untracked interviews aren't counted.
+  @Test
+  public void replacesAndUntracks() {
+    loadTracker.track(interview(1, "interviewer1", TIME_1PM));
+    loadTracker.track(interview(1, "interviewer2", TIME_1PM));
+    Assert.assertEquals(0, loadTracker.upcomingInterviews("interviewer1"));
+    Assert.assertEquals(1, loadTracker.upcomingInterviews("interviewer2"));
+
+    loadTracker.untrack(1);
+    Assert.assertEquals(0, loadTracker.upcomingInterviews("interviewer2"));
+    clock.now = TIME_1PM.plus(2, ChronoUnit.HOURS);
+    Assert.assertEquals(0, loadTracker.upcomingInterviews("interviewer2"));
+  }
+
+  // Checks that interviews that have already ended aren't counted.
+  @Test
+  public void ignoresPastInterviews() {
+    loadTracker.track(interview(1, "interviewer1", TIME_1PM.minus(2, ChronoUnit.HOURS)));
+    Assert.assertEquals(0, loadTracker.upcomingInterviews("interviewer1"));
+  }
+
+  // Checks that interviews written through a LoadTrackingScheduledInterviewDao are counted.
+  @Test
+  public void tracksDaoWrites() {
+    FakeScheduledInterviewDao fakeDao = new FakeScheduledInterviewDao();
+    LoadTrackingScheduledInterviewDao dao =
+        new LoadTrackingScheduledInterviewDao(fakeDao, loadTracker);
+    ScheduledInterview created = dao.create(interview(-1, "interviewer1", TIME_1PM));
+    Assert.assertEquals(1, loadTracker.upcomingInterviews("interviewer1"));
+
+    dao.delete(created.id());
+    Assert.assertEquals(0, loadTracker.upcomingInterviews("interviewer1"));
+  }
+
+  private static class MutableClock extends Clock {
+    Instant now;
+
+    MutableClock(Instant now) {
+      this.now = now;
+    }
+
+    @Override
+    public ZoneOffset getZone() {
+      return ZoneOffset.UTC;
+    }
+
+    @Override
+    public Clock withZone(ZoneId zone) {
+      return this;
+    }
+
+    @Override
+    public Instant instant() {
+      return now;
+    }
+  }
+}
@@ -0,0 +1,87 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class InterviewerSelectionStrategyTest {
+  private final Instant TOMORROW = Instant.now().plus(1, ChronoUnit.DAYS);
+  private final List<String> interviewers = Arrays.asList("busy", "idle", "quiet");
+
+  private InterviewLoadTracker loadTracker;
+  private long nextId = 0;
+
+  @Before
+  public void setUp() {
+    loadTracker = new InterviewLoadTracker();
+    book("busy", 3);
+    book("quiet", 1);
+  }
+
+  // Tracks count upcoming interviews for interviewerId.
+  private void book(String interviewerId, int count) {
+    for (int i = 0; i < count; i++) {
+      Instant start = TOMORROW.plus(nextId, ChronoUnit.HOURS);
+      loadTracker.track(
+          ScheduledInterview.create(
+              nextId++,
+              new TimeRange(start, start.plus(1, ChronoUnit.HOURS)),
+              interviewerId,
+              "interviewee",
+              "",
+              Job.SOFTWARE_ENGINEER,
+              /*shadowId=*/ ""));
+    }
+  }
+
+  // Checks that the interviewer with the fewest upcoming interviews is selected.
+  @Test
+  public void leastLoadedSelectsIdle() {
+    InterviewerSelectionStrategy strategy = new LeastLoadedSelectionStrategy(loadTracker);
+    Assert.assertEquals("idle", interviewers.get(strategy.select(interviewers)));
+  }
+
+  // Checks that the busiest interviewer is never selected over a less loaded one.
+  @Test
+  public void powerOfTwoChoicesAvoidsBusiest() {
+    InterviewerSelectionStrategy strategy =
+        new PowerOfTwoChoicesSelectionStrategy(loadTracker, new Random(7));
+    for (int i = 0; i < 100; i++) {
+      Assert.assertNotEquals("busy", interviewers.get(strategy.select(interviewers)));
+    }
+  }
+
+  // Checks that turns are handed out in proportion to the room each interviewer has left.
+  @Test
+  public void weightedRoundRobinFollowsWeights() {
+    // With a capacity of 4 the weights are busy 1, idle 4 and quiet 3.
+    InterviewerSelectionStrategy strategy =
+        new WeightedRoundRobinSelectionStrategy(loadTracker, 4);
+    int[] turns = new int[interviewers.size()];
+    for (int i = 0; i < 80; i++) {
+      turns[strategy.select(interviewers)]++;
+    }
+    Assert.assertArrayEquals(new int[] {10, 40, 30}, turns);
+  }
+}
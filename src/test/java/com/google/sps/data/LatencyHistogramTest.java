@@ -0,0 +1,110 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class LatencyHistogramTest {
+  // Checks that the buckets cover every latency, one after another, without gaps or overlaps.
+  @Test
+  public void bucketsAreContiguous() {
+    Assert.assertEquals(0, LatencyHistogram.lowerBoundMicros(0));
+    for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+      long lower = LatencyHistogram.lowerBoundMicros(i);
+      long upper = LatencyHistogram.lowerBoundMicros(i + 1);
+      Assert.assertTrue(lower < upper);
+      Assert.assertEquals(i, LatencyHistogram.bucket(lower));
+      Assert.assertEquals(i, LatencyHistogram.bucket(upper - 1));
+    }
+    Assert.assertEquals(
+        LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucket(TimeUnit.DAYS.toMicros(365)));
+  }
+
+  // Checks that quantiles are read back no more than an eighth above the true ones.
+  @Test
+  public void quantilesAreWithinAnEighth() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long micros = 1; micros <= 100000; micros++) {
+      histogram.record(TimeUnit.MICROSECONDS.toNanos(micros));
+    }
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    Assert.assertEquals(100000, snapshot.count());
+    for (double quantile : new double[] {0.5, 0.95, 0.99}) {
+      double trueSeconds = quantile * 100000 / 1e6;
+      double seconds = snapshot.quantileSeconds(quantile);
+      Assert.assertTrue(seconds >= trueSeconds);
+      Assert.assertTrue(seconds <= trueSeconds * 1.125);
+    }
+  }
+
+  // Checks that the latencies under a power of two microseconds are counted exactly.
+  @Test
+  public void countsUnderPowersOfTwo() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(63));
+    histogram.record(TimeUnit.MICROSECONDS.toNanos(64));
+    histogram.record(TimeUnit.MILLISECONDS.toNanos(3));
+
+    LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+    Assert.assertEquals(0, snapshot.countUnderMicros(32));
+    Assert.assertEquals(1, snapshot.countUnderMicros(64));
+    Assert.assertEquals(2, snapshot.countUnderMicros(128));
+    Assert.assertEquals(3, snapshot.countUnderMicros(4096));
+    Assert.assertEquals(0.003127, snapshot.sumSeconds(), 1e-9);
+  }
+
+  // Checks that an empty histogram has no quantiles.
+  @Test
+  public void emptyHistogramHasNoQuantiles() {
+    Assert.assertTrue(Double.isNaN(new LatencyHistogram().snapshot().quantileSeconds(0.5)));
+  }
+
+  // Checks that latencies recorded from many threads at once are all counted.
+  @Test
+  public void countsConcurrentRecords() throws Exception {
+    LatencyHistogram histogram = new LatencyHistogram();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<Future<?>>();
+      for (int thread = 0; thread < 8; thread++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < 10000; i++) {
+                    histogram.record(TimeUnit.MILLISECONDS.toNanos(i % 10));
+                  }
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    Assert.assertEquals(80000, histogram.snapshot().count());
+  }
+}
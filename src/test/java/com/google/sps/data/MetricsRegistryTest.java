@@ -0,0 +1,99 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class MetricsRegistryTest {
+  private final MetricsRegistry registry = new MetricsRegistry();
+
+  private String write() {
+    StringBuilder out = new StringBuilder();
+    registry.write(out);
+    return out.toString();
+  }
+
+  // Checks that requests are counted by status code class, with a cumulative latency histogram and
+  // its quantiles.
+  @Test
+  public void writesRequests() {
+    MetricsRegistry.RequestMetrics metrics = registry.request("/load-interviews", "GET");
+    metrics.record(TimeUnit.MICROSECONDS.toNanos(100), 200);
+    metrics.record(TimeUnit.MILLISECONDS.toNanos(20), 200);
+    metrics.record(TimeUnit.MILLISECONDS.toNanos(20), 409);
+    Assert.assertSame(metrics, registry.request("/load-interviews", "GET"));
+
+    String written = write();
+
+    String labels = "{endpoint=\"/load-interviews\",method=\"GET\"";
+    String requests = "interviewme_http_requests_total" + labels;
+    String buckets = "interviewme_http_request_duration_seconds_bucket" + labels;
+    Assert.assertTrue(written.contains("# TYPE interviewme_http_requests_total counter\n"));
+    Assert.assertTrue(written.contains(requests + ",code=\"2xx\"} 2\n"));
+    Assert.assertTrue(written.contains(requests + ",code=\"4xx\"} 1\n"));
+    Assert.assertTrue(written.contains(requests + ",code=\"5xx\"} 0\n"));
+    Assert.assertTrue(
+        written.contains("# TYPE interviewme_http_request_duration_seconds histogram\n"));
+    Assert.assertTrue(written.contains(buckets + ",le=\"6.4E-5\"} 0\n"));
+    Assert.assertTrue(written.contains(buckets + ",le=\"1.28E-4\"} 1\n"));
+    Assert.assertTrue(written.contains(buckets + ",le=\"0.032768\"} 3\n"));
+    Assert.assertTrue(written.contains(buckets + ",le=\"+Inf\"} 3\n"));
+    Assert.assertTrue(
+        written.contains("interviewme_http_request_duration_seconds_count" + labels + "} 3\n"));
+    Assert.assertTrue(
+        written.contains(
+            "interviewme_http_request_duration_quantile_seconds"
+                + labels
+                + ",quantile=\"0.5\"} 0.02048\n"));
+  }
+
+  // Checks that calls are written with their latencies, results and errors.
+  @Test
+  public void writesCalls() {
+    registry.call("PersonDao.getAll").record(TimeUnit.MILLISECONDS.toNanos(2), 5, false);
+    registry.call("PersonDao.getAll").record(TimeUnit.MILLISECONDS.toNanos(3), 0, true);
+
+    String written = write();
+
+    Assert.assertTrue(
+        written.contains(
+            "interviewme_call_duration_seconds_count{method=\"PersonDao.getAll\"} 2\n"));
+    Assert.assertTrue(
+        written.contains("interviewme_call_results_total{method=\"PersonDao.getAll\"} 5\n"));
+    Assert.assertTrue(
+        written.contains("interviewme_call_errors_total{method=\"PersonDao.getAll\"} 1\n"));
+  }
+
+  // Checks that counters with the same name are written together, with their label values escaped.
+  @Test
+  public void writesCounters() {
+    registry.counter("interviewme_things_total", "Things.", "kind", "a").add(2);
+    registry.counter("interviewme_things_total", "Ignored.", "kind", "\"b\"").increment();
+    registry.counter("interviewme_things_total", "Ignored.", "kind", "a").increment();
+
+    Assert.assertTrue(
+        write()
+            .endsWith(
+                "# HELP interviewme_things_total Things.\n"
+                    + "# TYPE interviewme_things_total counter\n"
+                    + "interviewme_things_total{kind=\"\\\"b\\\"\"} 1\n"
+                    + "interviewme_things_total{kind=\"a\"} 3\n"));
+  }
+}
@@ -0,0 +1,67 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class PooledMeetLinkCalendarAccessTest {
+  private final Instant TIME_5PM = Instant.parse("2020-07-06T17:00:00Z");
+  private final ScheduledInterview interview =
+      ScheduledInterview.create(
+          7,
+          new TimeRange(TIME_5PM, TIME_5PM.plus(1, ChronoUnit.HOURS)),
+          "interviewer_id",
+          "interviewee_id",
+          "",
+          Job.SOFTWARE_ENGINEER,
+          "");
+
+  // Checks that links come from the pool, which is topped back up after each one is taken.
+  @Test
+  public void handsOutReservedLinks() throws Exception {
+    PooledMeetLinkCalendarAccess calendarAccess =
+        new PooledMeetLinkCalendarAccess(new FakeCalendarAccess(), 3, Runnable::run);
+    Assert.assertEquals(3, calendarAccess.available());
+    Assert.assertEquals("reserved_1", calendarAccess.getMeetLink(interview));
+    Assert.assertEquals(3, calendarAccess.available());
+    Assert.assertEquals("reserved_2", calendarAccess.getMeetLink(interview));
+    Assert.assertEquals("reserved_3", calendarAccess.getMeetLink(interview));
+    Assert.assertEquals("reserved_4", calendarAccess.getMeetLink(interview));
+  }
+
+  // Checks that a link is made for the interview itself when the pool hasn't been filled yet.
+  @Test
+  public void fallsBackWhenEmpty() throws Exception {
+    List<Runnable> pendingRefills = new ArrayList<Runnable>();
+    PooledMeetLinkCalendarAccess calendarAccess =
+        new PooledMeetLinkCalendarAccess(new FakeCalendarAccess(), 3, pendingRefills::add);
+    Assert.assertEquals(0, calendarAccess.available());
+    Assert.assertEquals("7", calendarAccess.getMeetLink(interview));
+    // Only one refill is started while one is outstanding.
+    Assert.assertEquals(1, pendingRefills.size());
+
+    pendingRefills.get(0).run();
+    Assert.assertEquals(3, calendarAccess.available());
+    Assert.assertEquals("reserved_1", calendarAccess.getMeetLink(interview));
+  }
+}
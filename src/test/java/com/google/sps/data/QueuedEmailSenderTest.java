@@ -0,0 +1,146 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class QueuedEmailSenderTest {
+  private static final Email RECIPIENT = new Email("a@gmail.com");
+  private static final Content CONTENT = new Content("text/plain", "Hello");
+  private static final Duration TIMEOUT = Duration.ofSeconds(10);
+
+  private QueuedEmailSender queuedEmailSender;
+
+  @After
+  public void tearDown() {
+    queuedEmailSender.shutdown();
+  }
+
+  private QueuedEmailSender create(EmailSender delegate, int maxAttempts) {
+    queuedEmailSender =
+        new QueuedEmailSender(
+            delegate,
+            /*capacity=*/ 10,
+            /*workers=*/ 2,
+            /*batchSize=*/ 5,
+            maxAttempts,
+            Duration.ofMillis(1));
+    return queuedEmailSender;
+  }
+
+  // Checks that queued emails are all sent by the workers.
+  @Test
+  public void sendsQueuedEmails() throws Exception {
+    ScriptedEmailSender delegate = new ScriptedEmailSender();
+    create(delegate, /*maxAttempts=*/ 1);
+    for (int i = 0; i < 25; i++) {
+      Assert.assertEquals(
+          QueuedEmailSender.ACCEPTED,
+          queuedEmailSender.sendEmail(RECIPIENT, "Subject " + i, CONTENT));
+    }
+    Assert.assertTrue(queuedEmailSender.awaitIdle(TIMEOUT));
+    Assert.assertEquals(25, delegate.sentSubjects().size());
+    Assert.assertTrue(queuedEmailSender.deadLetters().isEmpty());
+  }
+
+  // Checks that failed attempts and server errors are retried until the email is sent.
+  @Test
+  public void retriesFailures() throws Exception {
+    ScriptedEmailSender delegate = new ScriptedEmailSender(-1, 503, 200);
+    create(delegate, /*maxAttempts=*/ 3);
+    queuedEmailSender.sendEmail(RECIPIENT, "Subject", CONTENT);
+    Assert.assertTrue(queuedEmailSender.awaitIdle(TIMEOUT));
+    Assert.assertEquals(Arrays.asList("Subject"), delegate.sentSubjects());
+    Assert.assertEquals(3, delegate.attempts());
+    Assert.assertTrue(queuedEmailSender.deadLetters().isEmpty());
+  }
+
+  // Checks that an email is dead-lettered once it runs out of attempts.
+  @Test
+  public void deadLettersAfterMaxAttempts() throws Exception {
+    ScriptedEmailSender delegate = new ScriptedEmailSender(500, 500, 500);
+    create(delegate, /*maxAttempts=*/ 2);
+    queuedEmailSender.sendEmail(RECIPIENT, "Subject", CONTENT);
+    Assert.assertTrue(queuedEmailSender.awaitIdle(TIMEOUT));
+    Assert.assertEquals(2, delegate.attempts());
+    List<QueuedEmailSender.DeadLetter> deadLetters = queuedEmailSender.deadLetters();
+    Assert.assertEquals(1, deadLetters.size());
+    Assert.assertEquals("Subject", deadLetters.get(0).subject());
+    Assert.assertEquals(2, deadLetters.get(0).attempts());
+  }
+
+  // Checks that client errors other than rate limiting are not retried.
+  @Test
+  public void doesNotRetryClientErrors() throws Exception {
+    ScriptedEmailSender delegate = new ScriptedEmailSender(400, 200);
+    create(delegate, /*maxAttempts=*/ 3);
+    queuedEmailSender.sendEmail(RECIPIENT, "Subject", CONTENT);
+    Assert.assertTrue(queuedEmailSender.awaitIdle(TIMEOUT));
+    Assert.assertEquals(1, delegate.attempts());
+    Assert.assertEquals(1, queuedEmailSender.deadLetters().size());
+  }
+
+  // Answers each attempt with the next scripted status, where -1 throws an IOException. Once the
+  // script runs out, every attempt succeeds.
+  private static class ScriptedEmailSender implements EmailSender {
+    private final Queue<Integer> statuses;
+    private final List<String> sentSubjects = Collections.synchronizedList(new ArrayList<String>());
+    private int attempts = 0;
+
+    ScriptedEmailSender(Integer... statuses) {
+      this.statuses = new LinkedList<Integer>(Arrays.asList(statuses));
+    }
+
+    @Override
+    public synchronized int sendEmail(Email recipient, String subject, Content content)
+        throws IOException {
+      attempts++;
+      Integer status = statuses.poll();
+      if (status == null) {
+        status = 200;
+      }
+      if (status == -1) {
+        throw new IOException("Connection reset");
+      }
+      if (status < 400) {
+        sentSubjects.add(subject);
+      }
+      return status;
+    }
+
+    synchronized int attempts() {
+      return attempts;
+    }
+
+    List<String> sentSubjects() {
+      return new ArrayList<String>(sentSubjects);
+    }
+  }
+}
@@ -0,0 +1,108 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.sendgrid.helpers.mail.objects.Content;
+import com.sendgrid.helpers.mail.objects.Email;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Optional;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class RequestTraceTest {
+  private final Person a =
+      Person.create(
+          "id_a", "a@gmail.com", "a", "a", "", "", "", EnumSet.of(Job.SOFTWARE_ENGINEER), true);
+  private final Person b =
+      Person.create("id_b", "b@gmail.com", "b", "b", "", "", "", EnumSet.noneOf(Job.class), false);
+
+  private TracingPersonDao dao;
+
+  @Before
+  public void setUp() {
+    FakePersonDao delegate = new FakePersonDao();
+    delegate.create(a);
+    delegate.create(b);
+    dao = new TracingPersonDao(delegate);
+  }
+
+  @After
+  public void tearDown() {
+    RequestTrace.end();
+  }
+
+  // Checks that each method's calls and results are counted separately, in the order first made.
+  @Test
+  public void countsCallsAndResults() {
+    RequestTrace trace = RequestTrace.begin();
+
+    Assert.assertEquals(Optional.of(a), dao.get("id_a"));
+    dao.get("id_c");
+    dao.getAll(Arrays.asList("id_a", "id_b", "id_c"));
+    dao.update(b);
+
+    Assert.assertEquals(
+        Arrays.asList("PersonDao.get", "PersonDao.getAll", "PersonDao.update"),
+        Arrays.asList(trace.methods().keySet().toArray()));
+    Assert.assertEquals(2, trace.methods().get("PersonDao.get").calls());
+    Assert.assertEquals(1, trace.methods().get("PersonDao.get").results());
+    Assert.assertEquals(1, trace.methods().get("PersonDao.getAll").calls());
+    Assert.assertEquals(2, trace.methods().get("PersonDao.getAll").results());
+    Assert.assertEquals(1, trace.methods().get("PersonDao.update").calls());
+    Assert.assertEquals(4, trace.calls());
+    Assert.assertTrue(trace.callNanos() <= trace.elapsedNanos());
+  }
+
+  // Checks that calls made outside of a request still go through, but aren't recorded.
+  @Test
+  public void ignoresCallsOutsideOfRequests() {
+    Assert.assertEquals(Optional.of(a), dao.get("id_a"));
+    Assert.assertFalse(RequestTrace.current().isPresent());
+
+    RequestTrace trace = RequestTrace.begin();
+    RequestTrace.end();
+    dao.get("id_a");
+
+    Assert.assertEquals(0, trace.calls());
+  }
+
+  // Checks that a call that throws is still recorded, with no results.
+  @Test
+  public void recordsFailedCalls() {
+    RequestTrace trace = RequestTrace.begin();
+    EmailSender sender =
+        new TracingEmailSender(
+            (recipient, subject, content) -> {
+              throw new IOException("Unavailable");
+            });
+
+    try {
+      sender.sendEmail(new Email("a@gmail.com"), "Subject", new Content("text/plain", "Body"));
+      Assert.fail();
+    } catch (IOException e) {
+      Assert.assertEquals("Unavailable", e.getMessage());
+    }
+
+    Assert.assertEquals(1, trace.methods().get("EmailSender.sendEmail").calls());
+    Assert.assertEquals(0, trace.methods().get("EmailSender.sendEmail").results());
+  }
+}
@@ -0,0 +1,116 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.data;
+
+import com.google.common.base.Ticker;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class SecretFetcherTest {
+  private static final Duration TTL = Duration.ofMinutes(60);
+
+  private Map<String, String> values;
+  private CountingProvider provider;
+  private FakeTicker ticker;
+  private SecretFetcher secretFetcher;
+
+  @Before
+  public void setUp() {
+    values = new HashMap<String, String>();
+    values.put("API_KEY", "first");
+    values.put("OTHER_KEY", "other");
+    provider = new CountingProvider();
+    ticker = new FakeTicker();
+    secretFetcher = new SecretFetcher(provider, TTL, Runnable::run, ticker);
+  }
+
+  // Checks that a secret is only fetched once while it is fresh.
+  @Test
+  public void cachesSecrets() throws Exception {
+    Assert.assertEquals("first", secretFetcher.getSecretValue("API_KEY"));
+    values.put("API_KEY", "second");
+    ticker.advance(Duration.ofMinutes(30));
+    Assert.assertEquals("first", secretFetcher.getSecretValue("API_KEY"));
+    Assert.assertEquals(1, provider.fetches);
+  }
+
+  // Checks that a secret nearing its time to live is refreshed, while the cached value is
+  // returned.
+  @Test
+  public void refreshesInBackground() throws Exception {
+    secretFetcher.getSecretValue("API_KEY");
+    values.put("API_KEY", "second");
+    ticker.advance(Duration.ofMinutes(50));
+    Assert.assertEquals("first", secretFetcher.getSecretValue("API_KEY"));
+    Assert.assertEquals(2, provider.fetches);
+    Assert.assertEquals("second", secretFetcher.getSecretValue("API_KEY"));
+  }
+
+  // Checks that an expired secret is fetched again before it is returned.
+  @Test
+  public void refetchesExpiredSecrets() throws Exception {
+    secretFetcher.getSecretValue("API_KEY");
+    values.put("API_KEY", "second");
+    ticker.advance(TTL);
+    Assert.assertEquals("second", secretFetcher.getSecretValue("API_KEY"));
+  }
+
+  // Checks that prewarmed secrets are cached.
+  @Test
+  public void prewarmsSecrets() throws Exception {
+    secretFetcher.prewarm(Arrays.asList("API_KEY", "OTHER_KEY")).get();
+    Assert.assertEquals(2, provider.fetches);
+    Assert.assertEquals("other", secretFetcher.getSecretValue("OTHER_KEY"));
+    Assert.assertEquals(2, provider.fetches);
+  }
+
+  // Checks that a local provider fails for secrets it doesn't have.
+  @Test(expected = IOException.class)
+  public void localProviderRejectsMissingSecrets() throws Exception {
+    new LocalSecretProvider(values).fetch("MISSING_KEY");
+  }
+
+  private class CountingProvider implements SecretProvider {
+    int fetches = 0;
+
+    @Override
+    public String fetch(String secretId) throws IOException {
+      fetches++;
+      return new LocalSecretProvider(values).fetch(secretId);
+    }
+  }
+
+  private static class FakeTicker extends Ticker {
+    private long nanos = 0;
+
+    void advance(Duration duration) {
+      nanos += duration.toNanos();
+    }
+
+    @Override
+    public long read() {
+      return nanos;
+    }
+  }
+}
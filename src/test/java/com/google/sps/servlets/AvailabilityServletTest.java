@@ -23,6 +23,7 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.sps.servlets.AvailabilityServlet;
 import com.google.sps.data.Availability;
+import com.google.sps.data.AvailabilityWeek;
 import com.google.sps.data.FakeAvailabilityDao;
 import com.google.sps.data.FakeScheduledInterviewDao;
 import com.google.sps.data.TimeRange;
@@ -130,4 +131,118 @@ public final class AvailabilityServletTest {
     expected.add(expectedAvailabilityTwo);
     Assert.assertEquals(expected, actual);
   }
+
+  // Checks that a week sent as a base64 AvailabilityWeek is saved like its JSON equivalent.
+  @Test
+  public void updatesFromBase64Week() throws IOException {
+    AvailabilityServlet availabilityServlet = new AvailabilityServlet();
+    availabilityServlet.init(availabilityDao, scheduledInterviewDao);
+    String email = "user@gmail.com";
+    helper.setEnvIsLoggedIn(true).setEnvEmail(email).setEnvAuthDomain("auth");
+    AvailabilityWeek week =
+        new AvailabilityWeek(Instant.parse("2020-07-14T12:00:00Z").toEpochMilli());
+    // 2020-07-15T13:15:00Z and 2020-07-16T14:30:00Z.
+    week.selected().set(AvailabilityWeek.SLOTS_PER_DAY + 5);
+    week.selected().set(2 * AvailabilityWeek.SLOTS_PER_DAY + 10);
+    MockHttpServletRequest putRequest = new MockHttpServletRequest();
+    putRequest.setContentType(AvailabilityWeek.BASE64_MEDIA_TYPE);
+    putRequest.setContent(week.encodeBase64().getBytes(StandardCharsets.US_ASCII));
+    MockHttpServletResponse putResponse = new MockHttpServletResponse();
+    availabilityServlet.doPut(putRequest, putResponse);
+    Assert.assertEquals(200, putResponse.getStatus());
+
+    String userId = String.format("%d", email.hashCode());
+    List<Availability> actual =
+        availabilityDao.getInRangeForUser(
+            userId, Instant.parse("2020-07-14T12:00:00Z"), Instant.parse("2020-07-21T00:00:00Z"));
+    Assert.assertEquals(2, actual.size());
+    Assert.assertEquals(Instant.parse("2020-07-15T13:15:00Z"), actual.get(0).when().start());
+    Assert.assertEquals(Instant.parse("2020-07-16T14:30:00Z"), actual.get(1).when().start());
+  }
+
+  // Checks that a base64 week of the wrong length is rejected.
+  @Test
+  public void rejectsTruncatedWeek() throws IOException {
+    AvailabilityServlet availabilityServlet = new AvailabilityServlet();
+    availabilityServlet.init(availabilityDao, scheduledInterviewDao);
+    helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
+    MockHttpServletRequest putRequest = new MockHttpServletRequest();
+    putRequest.setContentType(AvailabilityWeek.BASE64_MEDIA_TYPE);
+    putRequest.setContent("AAAA".getBytes(StandardCharsets.US_ASCII));
+    MockHttpServletResponse putResponse = new MockHttpServletResponse();
+    availabilityServlet.doPut(putRequest, putResponse);
+    Assert.assertEquals(400, putResponse.getStatus());
+  }
+
+  // Checks that a range longer than a week is rejected before anything is written.
+  @Test
+  public void rejectsRangeLongerThanWeek() throws IOException {
+    assertRejected(
+        "{\"firstSlot\":\"2020-07-14T12:00:00Z\",\"lastSlot\":\"2030-07-20T23:45:00Z\","
+            + "\"markedSlots\":[\"2020-07-15T13:15:00Z\"]}");
+  }
+
+  // Checks that a range ending before it starts is rejected.
+  @Test
+  public void rejectsBackwardsRange() throws IOException {
+    assertRejected(
+        "{\"firstSlot\":\"2020-07-20T23:45:00Z\",\"lastSlot\":\"2020-07-14T12:00:00Z\","
+            + "\"markedSlots\":[]}");
+  }
+
+  // Checks that a marked slot off the 15 minute grid is rejected before any slot is written.
+  @Test
+  public void rejectsSlotOffGrid() throws IOException {
+    assertRejected(
+        "{\"firstSlot\":\"2020-07-14T12:00:00Z\",\"lastSlot\":\"2020-07-20T23:45:00Z\","
+            + "\"markedSlots\":[\"2020-07-15T13:15:00Z\",\"2020-07-16T14:20:00Z\"]}");
+  }
+
+  // Checks that a marked slot outside the range is rejected.
+  @Test
+  public void rejectsSlotOutsideRange() throws IOException {
+    assertRejected(
+        "{\"firstSlot\":\"2020-07-14T12:00:00Z\",\"lastSlot\":\"2020-07-20T23:45:00Z\","
+            + "\"markedSlots\":[\"2020-07-15T13:15:00Z\",\"2020-07-21T14:30:00Z\"]}");
+  }
+
+  // Checks that a base64 week whose first slot is off the 15 minute grid is rejected.
+  @Test
+  public void rejectsWeekOffGrid() throws IOException {
+    AvailabilityWeek week =
+        new AvailabilityWeek(Instant.parse("2020-07-14T12:05:00Z").toEpochMilli());
+    week.selected().set(5);
+    AvailabilityServlet availabilityServlet = new AvailabilityServlet();
+    availabilityServlet.init(availabilityDao, scheduledInterviewDao);
+    helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
+    MockHttpServletRequest putRequest = new MockHttpServletRequest();
+    putRequest.setContentType(AvailabilityWeek.BASE64_MEDIA_TYPE);
+    putRequest.setContent(week.encodeBase64().getBytes(StandardCharsets.US_ASCII));
+    MockHttpServletResponse putResponse = new MockHttpServletResponse();
+    availabilityServlet.doPut(putRequest, putResponse);
+    Assert.assertEquals(400, putResponse.getStatus());
+    Assert.assertTrue(
+        availabilityDao
+            .getInRangeForAll(
+                Instant.parse("2020-07-14T00:00:00Z"), Instant.parse("2020-07-22T00:00:00Z"))
+            .isEmpty());
+  }
+
+  // Puts jsonString as the current user's availability and checks that it is rejected with 400
+  // without any availability being saved.
+  private void assertRejected(String jsonString) throws IOException {
+    AvailabilityServlet availabilityServlet = new AvailabilityServlet();
+    availabilityServlet.init(availabilityDao, scheduledInterviewDao);
+    helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
+    MockHttpServletRequest putRequest = new MockHttpServletRequest();
+    putRequest.setContent(jsonString.getBytes(StandardCharsets.UTF_8));
+    MockHttpServletResponse putResponse = new MockHttpServletResponse();
+    availabilityServlet.doPut(putRequest, putResponse);
+    Assert.assertEquals(400, putResponse.getStatus());
+    Assert.assertTrue(
+        availabilityDao
+            .getInRangeForAll(
+                Instant.parse("2020-07-14T00:00:00Z"), Instant.parse("2020-07-22T00:00:00Z"))
+            .isEmpty());
+  }
 }
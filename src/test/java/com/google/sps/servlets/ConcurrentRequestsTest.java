@@ -0,0 +1,278 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.appengine.tools.development.testing.LocalUserServiceTestConfig;
+import com.google.apphosting.api.ApiProxy;
+import com.google.sps.data.Availability;
+import com.google.sps.data.BookableHourIndex;
+import com.google.sps.data.BookableSlots;
+import com.google.sps.data.CandidateCache;
+import com.google.sps.data.ComputedBookableHourIndex;
+import com.google.sps.data.FakeAvailabilityDao;
+import com.google.sps.data.FakeCalendarAccess;
+import com.google.sps.data.FakeEmailSender;
+import com.google.sps.data.FakePersonDao;
+import com.google.sps.data.FakeScheduledInterviewDao;
+import com.google.sps.data.InvalidatingBookableHourIndex;
+import com.google.sps.data.Job;
+import com.google.sps.data.Person;
+import com.google.sps.data.PossibleInterviewSlot;
+import com.google.sps.data.ScheduledInterview;
+import com.google.sps.data.TimeRange;
+import com.sendgrid.helpers.mail.objects.Email;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Sends many requests at once to single servlet instances, as App Engine does in threadsafe mode,
+ * and checks that they give the same results as they would one at a time.
+ */
+@RunWith(JUnit4.class)
+public final class ConcurrentRequestsTest {
+  private static final int THREADS = 8;
+  private static final int INTERVIEWERS = 8;
+  private static final String USER_EMAIL = "user@company.org";
+  private static final Instant INTERVIEW_START = Instant.parse("2020-07-20T12:45:00Z");
+  private static final String BOOKING =
+      "{\"company\":\"Google\",\"job\":\"SWE\",\"utcStartTime\":\"2020-07-20T12:45:00Z\","
+          + "\"position\":\"SOFTWARE_ENGINEER\"}";
+
+  LocalServiceTestHelper helper = new LocalServiceTestHelper(new LocalUserServiceTestConfig());
+  private FakeScheduledInterviewDao scheduledInterviewDao;
+  private FakeAvailabilityDao availabilityDao;
+  private FakePersonDao personDao;
+  private CandidateCache<BookableSlots> bookableSlotsCache;
+  private BookableHourIndex bookableHourIndex;
+  private ScheduledInterviewServlet scheduledInterviewServlet;
+  private LoadInterviewsServlet loadInterviewsServlet;
+
+  @Before
+  public void setUp() throws Exception {
+    helper.setUp();
+    helper.setEnvIsLoggedIn(true).setEnvEmail(USER_EMAIL).setEnvAuthDomain("auth");
+    scheduledInterviewDao = new FakeScheduledInterviewDao();
+    availabilityDao = new FakeAvailabilityDao();
+    personDao = new FakePersonDao();
+    bookableSlotsCache = new CandidateCache<BookableSlots>();
+    bookableHourIndex =
+        new InvalidatingBookableHourIndex(
+            new ComputedBookableHourIndex(availabilityDao), bookableSlotsCache);
+    for (int i = 0; i < INTERVIEWERS; i++) {
+      addInterviewer("interviewer" + i + "@mail");
+    }
+    scheduledInterviewServlet = new ScheduledInterviewServlet();
+    scheduledInterviewServlet.init(
+        scheduledInterviewDao,
+        availabilityDao,
+        personDao,
+        bookableHourIndex,
+        new FakeCalendarAccess(),
+        new FakeEmailSender(new Email("interviewme.business@gmail.com")));
+    loadInterviewsServlet = new LoadInterviewsServlet();
+    loadInterviewsServlet.init(
+        scheduledInterviewDao,
+        personDao,
+        bookableHourIndex,
+        bookableSlotsCache,
+        Clock.fixed(Instant.parse("2020-07-20T08:00:00Z"), ZoneOffset.UTC));
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  // Makes a Google SWE who can interview software engineers, and is available for the hour
+  // starting at INTERVIEW_START.
+  private void addInterviewer(String email) {
+    String id = String.format("%d", email.hashCode());
+    personDao.create(
+        Person.create(
+            id,
+            email,
+            "User",
+            "Test",
+            "Google",
+            "SWE",
+            "linkedIn",
+            EnumSet.of(Job.SOFTWARE_ENGINEER),
+            /*okShadow=*/ true));
+    for (int i = 0; i < 4; i++) {
+      Instant start = INTERVIEW_START.plus(15 * i, ChronoUnit.MINUTES);
+      availabilityDao.create(
+          Availability.create(
+              id,
+              new TimeRange(start, start.plus(15, ChronoUnit.MINUTES)),
+              /*id=*/ -1,
+              /*scheduled=*/ false));
+    }
+  }
+
+  // Runs all of requests at once on THREADS threads, as the user logged in on this thread, and
+  // returns their results in order.
+  private <T> List<T> runConcurrently(List<Callable<T>> requests) throws Exception {
+    ApiProxy.Environment environment = ApiProxy.getCurrentEnvironment();
+    CountDownLatch start = new CountDownLatch(1);
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<T>> futures = new ArrayList<Future<T>>();
+      for (Callable<T> request : requests) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  ApiProxy.setEnvironmentForCurrentThread(environment);
+                  try {
+                    start.await();
+                    return request.call();
+                  } finally {
+                    ApiProxy.clearEnvironmentForCurrentThread();
+                  }
+                }));
+      }
+      start.countDown();
+      List<T> results = new ArrayList<T>();
+      for (Future<T> future : futures) {
+        results.add(future.get(30, TimeUnit.SECONDS));
+      }
+      return results;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // Books the hour starting at INTERVIEW_START and returns the response's status.
+  private int book() throws Exception {
+    MockHttpServletRequest postRequest = new MockHttpServletRequest();
+    postRequest.setContent(BOOKING.getBytes(StandardCharsets.UTF_8));
+    MockHttpServletResponse postResponse = new MockHttpServletResponse();
+    scheduledInterviewServlet.doPost(postRequest, postResponse);
+    return postResponse.getStatus();
+  }
+
+  // Loads the interviews the user could book, by day.
+  @SuppressWarnings("unchecked")
+  private List<List<PossibleInterviewSlot>> load() throws Exception {
+    MockHttpServletRequest getRequest = new MockHttpServletRequest();
+    getRequest.addParameter("timeZoneOffset", "0");
+    getRequest.addParameter("position", "SOFTWARE_ENGINEER");
+    loadInterviewsServlet.doGet(getRequest, new MockHttpServletResponse());
+    return (List<List<PossibleInterviewSlot>>) getRequest.getAttribute("monthList");
+  }
+
+  // Loads the interviews the user could book, from every day.
+  private List<PossibleInterviewSlot> loadSlots() throws Exception {
+    List<PossibleInterviewSlot> slots = new ArrayList<PossibleInterviewSlot>();
+    for (List<PossibleInterviewSlot> day : load()) {
+      slots.addAll(day);
+    }
+    return slots;
+  }
+
+  // Checks that when more interviewees book an hour at once than there are interviewers, each
+  // interviewer is booked exactly once and everyone else is told the hour is gone.
+  @Test
+  public void concurrentBookingsBookEachInterviewerOnce() throws Exception {
+    List<Callable<Integer>> bookings = new ArrayList<Callable<Integer>>();
+    for (int i = 0; i < 4 * INTERVIEWERS; i++) {
+      bookings.add(this::book);
+    }
+
+    List<Integer> statuses = runConcurrently(bookings);
+
+    int booked = 0;
+    for (int status : statuses) {
+      if (status == HttpServletResponse.SC_OK) {
+        booked++;
+      } else {
+        Assert.assertEquals(HttpServletResponse.SC_CONFLICT, status);
+      }
+    }
+    Assert.assertEquals(INTERVIEWERS, booked);
+    List<ScheduledInterview> interviews =
+        scheduledInterviewDao.getInRange(
+            INTERVIEW_START, INTERVIEW_START.plus(1, ChronoUnit.HOURS));
+    Set<String> interviewerIds = new HashSet<String>();
+    for (ScheduledInterview interview : interviews) {
+      interviewerIds.add(interview.interviewerId());
+      Assert.assertEquals(String.valueOf(interview.id()), interview.meetLink());
+    }
+    Assert.assertEquals(INTERVIEWERS, interviews.size());
+    Assert.assertEquals(INTERVIEWERS, interviewerIds.size());
+  }
+
+  // Checks that loads made at once all see what a single load sees.
+  @Test
+  public void concurrentLoadsMatchASingleLoad() throws Exception {
+    List<List<PossibleInterviewSlot>> expected = load();
+    Assert.assertFalse(expected.isEmpty());
+    List<Callable<List<List<PossibleInterviewSlot>>>> loads =
+        new ArrayList<Callable<List<List<PossibleInterviewSlot>>>>();
+    for (int i = 0; i < 8 * THREADS; i++) {
+      loads.add(this::load);
+    }
+
+    for (List<List<PossibleInterviewSlot>> actual : runConcurrently(loads)) {
+      Assert.assertEquals(expected, actual);
+    }
+  }
+
+  // Checks that loads made while the hour is being booked never fail or offer slots that weren't
+  // there to begin with, and that once the bookings are done the hour is no longer offered.
+  @Test
+  public void loadsDuringBookingsOnlyLoseSlots() throws Exception {
+    List<PossibleInterviewSlot> before = loadSlots();
+    Assert.assertFalse(before.isEmpty());
+    List<Callable<List<PossibleInterviewSlot>>> requests =
+        new ArrayList<Callable<List<PossibleInterviewSlot>>>();
+    for (int i = 0; i < 4 * INTERVIEWERS; i++) {
+      requests.add(this::loadSlots);
+      requests.add(
+          () -> {
+            book();
+            return before;
+          });
+    }
+
+    for (List<PossibleInterviewSlot> during : runConcurrently(requests)) {
+      Assert.assertTrue(before.containsAll(during));
+    }
+    Assert.assertTrue(loadSlots().isEmpty());
+  }
+}
@@ -0,0 +1,92 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.appengine.tools.development.testing.LocalUserServiceTestConfig;
+import com.google.sps.data.UserIdentity;
+import java.io.IOException;
+import javax.servlet.ServletException;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@RunWith(JUnit4.class)
+public final class IdentityFilterTest {
+  LocalServiceTestHelper helper = new LocalServiceTestHelper(new LocalUserServiceTestConfig());
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  // Checks that a user without a userId is given one made from their email.
+  @Test
+  public void resolvesSignedInUser() throws IOException, ServletException {
+    helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
+    MockHttpServletRequest request = new MockHttpServletRequest();
+
+    new IdentityFilter().doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    Assert.assertEquals(
+        UserIdentity.create(String.format("%d", "user@gmail.com".hashCode()), "user@gmail.com"),
+        IdentityFilter.currentUser(request));
+  }
+
+  // Checks that the user is only worked out once per request.
+  @Test
+  public void keepsUserForWholeRequest() throws IOException, ServletException {
+    helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    new IdentityFilter().doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    UserIdentity first = IdentityFilter.currentUser(request);
+
+    Assert.assertSame(first, IdentityFilter.currentUser(request));
+  }
+
+  // Checks that a request that skipped the filter still finds its user.
+  @Test
+  public void resolvesUserWithoutFilter() {
+    helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
+
+    Assert.assertEquals(
+        "user@gmail.com", IdentityFilter.currentUser(new MockHttpServletRequest()).email());
+  }
+
+  // Checks that requests from signed out users pass through the filter, but have no user.
+  @Test(expected = IllegalStateException.class)
+  public void signedOutRequestHasNoUser() throws IOException, ServletException {
+    helper.setEnvIsLoggedIn(false);
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    MockFilterChain chain = new MockFilterChain();
+
+    new IdentityFilter().doFilter(request, new MockHttpServletResponse(), chain);
+
+    Assert.assertEquals(request, chain.getRequest());
+    IdentityFilter.currentUser(request);
+  }
+}
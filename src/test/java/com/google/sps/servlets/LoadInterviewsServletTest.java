@@ -34,7 +34,9 @@ import com.google.sps.data.TimeRange;
 import java.io.IOException;
 import javax.servlet.ServletException;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
@@ -157,7 +159,7 @@ public final class LoadInterviewsServletTest {
   @Test
   public void tooLargePositiveOffset() {
     LoadInterviewsServlet servlet = new LoadInterviewsServlet();
-    servlet.init(availabilityDao, scheduledInterviewDao, personDao, Instant.now());
+    servlet.init(availabilityDao, scheduledInterviewDao, personDao, Clock.systemUTC());
     helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
     MockHttpServletRequest getRequest = new MockHttpServletRequest();
     getRequest.addParameter("timeZoneOffset", "740");
@@ -173,7 +175,7 @@ public final class LoadInterviewsServletTest {
   @Test
   public void tooLargeNegativeOffset() {
     LoadInterviewsServlet servlet = new LoadInterviewsServlet();
-    servlet.init(availabilityDao, scheduledInterviewDao, personDao, Instant.now());
+    servlet.init(availabilityDao, scheduledInterviewDao, personDao, Clock.systemUTC());
     helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
     MockHttpServletRequest getRequest = new MockHttpServletRequest();
     getRequest.addParameter("timeZoneOffset", "-740");
@@ -190,7 +192,10 @@ public final class LoadInterviewsServletTest {
   public void onlyReturnsHourLongSlots() throws IOException {
     LoadInterviewsServlet servlet = new LoadInterviewsServlet();
     servlet.init(
-        availabilityDao, scheduledInterviewDao, personDao, Instant.parse("2020-07-07T13:15:00Z"));
+        availabilityDao,
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T13:15:00Z"), ZoneOffset.UTC));
     helper.setEnvIsLoggedIn(true).setEnvEmail("person@gmail.com").setEnvAuthDomain("auth");
     personDao.create(qualifiedSWEAndNE);
     // A 15 minute slot
@@ -264,7 +269,10 @@ public final class LoadInterviewsServletTest {
   public void onlyReturnsUnscheduledSlots() throws IOException {
     LoadInterviewsServlet servlet = new LoadInterviewsServlet();
     servlet.init(
-        availabilityDao, scheduledInterviewDao, personDao, Instant.parse("2020-07-07T13:15:00Z"));
+        availabilityDao,
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T13:15:00Z"), ZoneOffset.UTC));
     helper.setEnvIsLoggedIn(true).setEnvEmail("person@gmail.com").setEnvAuthDomain("auth");
     personDao.create(qualifiedSWEAndNE);
     // A scheduled hour slot
@@ -288,7 +296,10 @@ public final class LoadInterviewsServletTest {
   public void removesInterviewsThatConflictWithUser() throws IOException {
     LoadInterviewsServlet servlet = new LoadInterviewsServlet();
     servlet.init(
-        availabilityDao, scheduledInterviewDao, personDao, Instant.parse("2020-07-07T13:15:00Z"));
+        availabilityDao,
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T13:15:00Z"), ZoneOffset.UTC));
     String userEmail = "person@gmail.com";
     helper.setEnvIsLoggedIn(true).setEnvEmail(userEmail).setEnvAuthDomain("auth");
     personDao.create(qualifiedSWEAndNE);
@@ -325,7 +336,10 @@ public final class LoadInterviewsServletTest {
   public void noSchedulingWithYourself() throws IOException {
     LoadInterviewsServlet servlet = new LoadInterviewsServlet();
     servlet.init(
-        availabilityDao, scheduledInterviewDao, personDao, Instant.parse("2020-07-07T13:15:00Z"));
+        availabilityDao,
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T13:15:00Z"), ZoneOffset.UTC));
     helper.setEnvIsLoggedIn(true).setEnvEmail(qualifiedSWEAndNE.email()).setEnvAuthDomain("auth");
     personDao.create(qualifiedSWEAndNE);
     // An hour of the user's availability
@@ -349,7 +363,10 @@ public final class LoadInterviewsServletTest {
   public void possibleInterviewSlotsAreSorted() throws IOException {
     LoadInterviewsServlet servlet = new LoadInterviewsServlet();
     servlet.init(
-        availabilityDao, scheduledInterviewDao, personDao, Instant.parse("2020-07-07T13:15:00Z"));
+        availabilityDao,
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T13:15:00Z"), ZoneOffset.UTC));
     helper.setEnvIsLoggedIn(true).setEnvEmail("person@gmail.com").setEnvAuthDomain("auth");
     personDao.create(qualifiedSWEAndNE);
     // An hour and 15 minute slot
@@ -388,7 +405,10 @@ public final class LoadInterviewsServletTest {
   public void daysAreSorted() throws IOException {
     LoadInterviewsServlet servlet = new LoadInterviewsServlet();
     servlet.init(
-        availabilityDao, scheduledInterviewDao, personDao, Instant.parse("2020-07-07T13:15:00Z"));
+        availabilityDao,
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T13:15:00Z"), ZoneOffset.UTC));
     helper.setEnvIsLoggedIn(true).setEnvEmail("person@gmail.com").setEnvAuthDomain("auth");
     personDao.create(qualifiedSWEAndNE);
     personDao.create(qualifiedSWE);
@@ -428,7 +448,10 @@ public final class LoadInterviewsServletTest {
   public void onlyReturnsQualifiedInterviewerTimes() throws IOException {
     LoadInterviewsServlet servlet = new LoadInterviewsServlet();
     servlet.init(
-        availabilityDao, scheduledInterviewDao, personDao, Instant.parse("2020-07-07T13:15:00Z"));
+        availabilityDao,
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T13:15:00Z"), ZoneOffset.UTC));
     helper.setEnvIsLoggedIn(true).setEnvEmail("person@gmail.com").setEnvAuthDomain("auth");
     personDao.create(qualifiedSWEAndNE);
     personDao.create(qualifiedSWE);
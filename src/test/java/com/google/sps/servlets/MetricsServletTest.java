@@ -0,0 +1,179 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
+import com.google.appengine.tools.development.testing.LocalUserServiceTestConfig;
+import com.google.common.cache.CacheStats;
+import com.google.sps.data.MetricsRegistry;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.function.Supplier;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@RunWith(JUnit4.class)
+public final class MetricsServletTest {
+  private final LocalServiceTestHelper helper =
+      new LocalServiceTestHelper(new LocalUserServiceTestConfig());
+  private final MetricsRegistry registry = new MetricsRegistry();
+  private final RequestMetricsFilter filter = new RequestMetricsFilter();
+  private MetricsServlet servlet;
+
+  @Before
+  public void setUp() {
+    helper.setUp();
+    helper
+        .setEnvIsLoggedIn(true)
+        .setEnvIsAdmin(true)
+        .setEnvEmail("admin@company.org")
+        .setEnvAuthDomain("auth");
+    filter.init(registry);
+    Supplier<CacheStats> stats = () -> new CacheStats(3, 1, 1, 0, 1000, 2);
+    servlet = new MetricsServlet();
+    servlet.init(registry, Collections.singletonMap("person", stats));
+  }
+
+  @After
+  public void tearDown() {
+    helper.tearDown();
+  }
+
+  private String scrape() throws IOException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    servlet.doGet(new MockHttpServletRequest("GET", "/metrics"), response);
+    Assert.assertEquals(MetricsServlet.CONTENT_TYPE, response.getContentType());
+    return response.getContentAsString();
+  }
+
+  // Checks that requests through the filter are reported by endpoint, method and status.
+  @Test
+  public void reportsRequests() throws IOException, ServletException {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/load-interviews");
+    request.setServletPath("/load-interviews");
+    filter.doFilter(
+        request,
+        new MockHttpServletResponse(),
+        new MockFilterChain(
+            new HttpServlet() {
+              @Override
+              public void doPost(HttpServletRequest request, HttpServletResponse response) {
+                response.setStatus(HttpServletResponse.SC_CONFLICT);
+              }
+            }));
+
+    String metrics = scrape();
+
+    Assert.assertTrue(
+        metrics,
+        metrics.contains(
+            "interviewme_http_requests_total"
+                + "{endpoint=\"/load-interviews\",method=\"POST\",code=\"4xx\"} 1\n"));
+    Assert.assertTrue(
+        metrics.contains(
+            "interviewme_http_request_duration_seconds_count"
+                + "{endpoint=\"/load-interviews\",method=\"POST\"} 1\n"));
+  }
+
+  // Checks that requests made with methods the pages don't handle are reported together.
+  @Test
+  public void reportsOtherMethodsTogether() throws IOException, ServletException {
+    for (String method : new String[] {"PATCH", "MADE-UP"}) {
+      MockHttpServletRequest request = new MockHttpServletRequest(method, "/availability");
+      request.setServletPath("/availability");
+      filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+    }
+
+    String metrics = scrape();
+
+    Assert.assertTrue(
+        metrics.contains(
+            "interviewme_http_requests_total"
+                + "{endpoint=\"/availability\",method=\"other\",code=\"2xx\"} 2\n"));
+    Assert.assertFalse(metrics.contains("PATCH"));
+  }
+
+  // Checks that a request that throws is reported as a server error.
+  @Test
+  public void reportsFailedRequests() throws IOException {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/availability");
+    request.setServletPath("/availability");
+
+    try {
+      filter.doFilter(
+          request,
+          new MockHttpServletResponse(),
+          (chainRequest, chainResponse) -> {
+            throw new ServletException("Unavailable");
+          });
+      Assert.fail();
+    } catch (ServletException e) {
+      Assert.assertEquals("Unavailable", e.getMessage());
+    }
+
+    Assert.assertTrue(
+        scrape()
+            .contains(
+                "interviewme_http_requests_total"
+                    + "{endpoint=\"/availability\",method=\"GET\",code=\"5xx\"} 1\n"));
+  }
+
+  // Checks that each cache's hits, misses, hit ratio and evictions are reported.
+  @Test
+  public void reportsCaches() throws IOException {
+    String metrics = scrape();
+
+    Assert.assertTrue(
+        metrics.contains("interviewme_cache_requests_total{cache=\"person\",result=\"hit\"} 3\n"));
+    Assert.assertTrue(
+        metrics.contains("interviewme_cache_requests_total{cache=\"person\",result=\"miss\"} 1\n"));
+    Assert.assertTrue(metrics.contains("interviewme_cache_hit_ratio{cache=\"person\"} 0.75\n"));
+    Assert.assertTrue(metrics.contains("interviewme_cache_evictions_total{cache=\"person\"} 2\n"));
+  }
+
+  // Checks that users who aren't admins can't read the metrics.
+  @Test
+  public void rejectsNonAdmins() throws IOException {
+    helper.setEnvIsAdmin(false);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    servlet.doGet(new MockHttpServletRequest("GET", "/metrics"), response);
+
+    Assert.assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+    Assert.assertEquals("", response.getContentAsString());
+  }
+
+  // Checks that signed out users can't read the metrics.
+  @Test
+  public void rejectsSignedOutUsers() throws IOException {
+    helper.setEnvIsLoggedIn(false).setEnvIsAdmin(false);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    servlet.doGet(new MockHttpServletRequest("GET", "/metrics"), response);
+
+    Assert.assertEquals(HttpServletResponse.SC_FORBIDDEN, response.getStatus());
+  }
+}
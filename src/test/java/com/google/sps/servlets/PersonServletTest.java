@@ -25,6 +25,8 @@ import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonParser;
 import com.google.gson.reflect.TypeToken;
+import com.google.sps.data.ComputedBookableHourIndex;
+import com.google.sps.data.FakeAvailabilityDao;
 import com.google.sps.data.FakePersonDao;
 import com.google.sps.data.Job;
 import com.google.sps.data.Person;
@@ -75,7 +77,8 @@ public final class PersonServletTest {
     MockHttpServletRequest postRequest =
         post("/person").content(unqualified).buildRequest(new MockServletContext());
     PersonServlet personServlet = new PersonServlet();
-    personServlet.init(new FakePersonDao());
+    personServlet.init(
+        new FakePersonDao(), new ComputedBookableHourIndex(new FakeAvailabilityDao()));
     personServlet.doPost(postRequest, new MockHttpServletResponse());
 
     MockHttpServletRequest getRequest = new MockHttpServletRequest();
@@ -116,7 +119,8 @@ public final class PersonServletTest {
     MockHttpServletRequest postRequest =
         post("/person").content(personA).buildRequest(new MockServletContext());
     PersonServlet personServlet = new PersonServlet();
-    personServlet.init(new FakePersonDao());
+    personServlet.init(
+        new FakePersonDao(), new ComputedBookableHourIndex(new FakeAvailabilityDao()));
     personServlet.doPost(postRequest, new MockHttpServletResponse());
 
     // b is logged in.
@@ -164,7 +168,8 @@ public final class PersonServletTest {
     MockHttpServletRequest postRequest =
         post("/person").content(personA).buildRequest(new MockServletContext());
     PersonServlet personServlet = new PersonServlet();
-    personServlet.init(new FakePersonDao());
+    personServlet.init(
+        new FakePersonDao(), new ComputedBookableHourIndex(new FakeAvailabilityDao()));
     personServlet.doPost(postRequest, new MockHttpServletResponse());
 
     // Update person a.
@@ -205,7 +210,8 @@ public final class PersonServletTest {
     MockHttpServletRequest getRequest = new MockHttpServletRequest();
 
     PersonServlet personServlet = new PersonServlet();
-    personServlet.init(new FakePersonDao());
+    personServlet.init(
+        new FakePersonDao(), new ComputedBookableHourIndex(new FakeAvailabilityDao()));
 
     MockHttpServletResponse getResponse = new MockHttpServletResponse();
     // a requests their info, but they aren't in database.
@@ -0,0 +1,190 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.servlets;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.sps.data.FakePersonDao;
+import com.google.sps.data.PersonDao;
+import com.google.sps.data.RequestTrace;
+import com.google.sps.data.TracingPersonDao;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockFilterConfig;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+@RunWith(JUnit4.class)
+public final class RequestTracingFilterTest {
+  private final PersonDao personDao = new TracingPersonDao(new FakePersonDao());
+  private RequestTracingFilter filter;
+
+  // A page that looks up some people, then writes its body.
+  private final HttpServlet page =
+      new HttpServlet() {
+        @Override
+        public void doGet(HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+          personDao.get("id_a");
+          personDao.getAll(Arrays.asList("id_a", "id_b"));
+          response.getWriter().print("Done");
+          personDao.get("id_b");
+        }
+      };
+
+  @Before
+  public void setUp() {
+    filter = new RequestTracingFilter();
+    filter.init(new MockFilterConfig());
+  }
+
+  // Checks that the calls made before the body is written are sent back in the Server-Timing
+  // header.
+  @Test
+  public void addsServerTiming() throws IOException, ServletException {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/page");
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(request, response, new MockFilterChain(page));
+
+    Assert.assertEquals("Done", response.getContentAsString());
+    String serverTiming = response.getHeader("Server-Timing");
+    Assert.assertTrue(
+        serverTiming,
+        Pattern.matches(
+            "PersonDao\\.get;dur=[0-9.]+;desc=\"1 calls, 0 results\", "
+                + "PersonDao\\.getAll;dur=[0-9.]+;desc=\"1 calls, 0 results\", "
+                + "total;dur=[0-9.]+",
+            serverTiming));
+    Assert.assertFalse(RequestTrace.current().isPresent());
+  }
+
+  // Checks that a response without a body still gets the Server-Timing header.
+  @Test
+  public void addsServerTimingWithoutBody() throws IOException, ServletException {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(
+        new MockHttpServletRequest("GET", "/empty"),
+        response,
+        new MockFilterChain(
+            new HttpServlet() {
+              @Override
+              public void doGet(HttpServletRequest request, HttpServletResponse response) {
+                personDao.get("id_a");
+              }
+            }));
+
+    Assert.assertTrue(response.getHeader("Server-Timing").startsWith("PersonDao.get;dur="));
+  }
+
+  // Checks that requests slower than slowRequestMillis are logged with their calls.
+  @Test
+  public void logsSlowRequests() throws IOException, ServletException {
+    MockFilterConfig config = new MockFilterConfig();
+    config.addInitParameter("slowRequestMillis", "0");
+    filter.init(config);
+    List<LogRecord> records = new ArrayList<LogRecord>();
+    Handler handler =
+        new Handler() {
+          @Override
+          public void publish(LogRecord record) {
+            records.add(record);
+          }
+
+          @Override
+          public void flush() {}
+
+          @Override
+          public void close() {}
+        };
+    Logger logger = Logger.getLogger(RequestTracingFilter.class.getName());
+    logger.addHandler(handler);
+    try {
+      filter.doFilter(
+          new MockHttpServletRequest("GET", "/page"),
+          new MockHttpServletResponse(),
+          new MockFilterChain(page));
+    } finally {
+      logger.removeHandler(handler);
+    }
+
+    Assert.assertEquals(1, records.size());
+    JsonObject log = JsonParser.parseString(records.get(0).getMessage()).getAsJsonObject();
+    Assert.assertEquals("/page", log.get("path").getAsString());
+    Assert.assertEquals(200, log.get("status").getAsInt());
+    Assert.assertEquals(3, log.get("calls").getAsInt());
+    Assert.assertEquals(
+        2, log.getAsJsonObject("methods").getAsJsonObject("PersonDao.get").get("calls").getAsInt());
+  }
+
+  // Checks that slow requests are logged with the status they were answered with.
+  @Test
+  public void logsStatusOfSlowRequests() throws IOException, ServletException {
+    MockFilterConfig config = new MockFilterConfig();
+    config.addInitParameter("slowRequestMillis", "0");
+    filter.init(config);
+    List<LogRecord> records = new ArrayList<LogRecord>();
+    Handler handler =
+        new Handler() {
+          @Override
+          public void publish(LogRecord record) {
+            records.add(record);
+          }
+
+          @Override
+          public void flush() {}
+
+          @Override
+          public void close() {}
+        };
+    Logger logger = Logger.getLogger(RequestTracingFilter.class.getName());
+    logger.addHandler(handler);
+    try {
+      filter.doFilter(
+          new MockHttpServletRequest("GET", "/missing"),
+          new MockHttpServletResponse(),
+          new MockFilterChain(
+              new HttpServlet() {
+                @Override
+                public void doGet(HttpServletRequest request, HttpServletResponse response)
+                    throws IOException {
+                  response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                }
+              }));
+    } finally {
+      logger.removeHandler(handler);
+    }
+
+    JsonObject log = JsonParser.parseString(records.get(0).getMessage()).getAsJsonObject();
+    Assert.assertEquals(404, log.get("status").getAsInt());
+  }
+}
@@ -42,6 +42,7 @@ import com.sendgrid.helpers.mail.objects.Email;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
@@ -481,6 +482,52 @@ public final class ScheduledInterviewServletTest {
     Assert.assertTrue(allAvailabilitiesAreScheduled);
   }
 
+  // Tests that the interviewee's availabilities are marked as scheduled even if the Meet link
+  // can't be made after the interview is stored.
+  @Test
+  public void availabilitiesAreScheduledWhenMeetLinkFails() throws IOException {
+    personDao.create(googleSWE1);
+    availabilityDao.create(googleSWE1Avail1);
+    availabilityDao.create(googleSWE1Avail2);
+    availabilityDao.create(googleSWE1Avail3);
+    availabilityDao.create(googleSWE1Avail4);
+    availabilityDao.create(
+        Availability.create(
+            emailToId("user@company.org"),
+            new TimeRange(
+                Instant.parse("2020-07-20T12:45:00Z"), Instant.parse("2020-07-20T13:00:00Z")),
+            /*id=*/ -1,
+            false));
+    CalendarAccess failingCalendarAccess =
+        new FakeCalendarAccess() {
+          @Override
+          public String getMeetLink(ScheduledInterview interview)
+              throws GeneralSecurityException {
+            throw new GeneralSecurityException("No credentials");
+          }
+        };
+
+    ScheduledInterviewServlet scheduledInterviewServlet = new ScheduledInterviewServlet();
+    scheduledInterviewServlet.init(
+        scheduledInterviewDao, availabilityDao, personDao, failingCalendarAccess, emailSender);
+    helper.setEnvIsLoggedIn(true).setEnvEmail("user@company.org").setEnvAuthDomain("auth");
+    MockHttpServletRequest postRequest = new MockHttpServletRequest();
+    MockHttpServletResponse postResponse = new MockHttpServletResponse();
+    String jsonString =
+        "{\"company\":\"Google\",\"job\":\"SWE\",\"utcStartTime\":\"2020-07-20T12:45:00Z\",\"position\":\"SOFTWARE_ENGINEER\"}";
+    postRequest.setContent(jsonString.getBytes(StandardCharsets.UTF_8));
+    scheduledInterviewServlet.doPost(postRequest, postResponse);
+
+    Assert.assertEquals(500, postResponse.getStatus());
+    List<Availability> affectedAvailabilityForInterviewee =
+        availabilityDao.getInRangeForUser(
+            emailToId("user@company.org"),
+            Instant.parse("2020-07-20T12:45:00Z"),
+            Instant.parse("2020-07-20T13:45:00Z"));
+    Assert.assertEquals(1, affectedAvailabilityForInterviewee.size());
+    Assert.assertTrue(affectedAvailabilityForInterviewee.get(0).scheduled());
+  }
+
   // Tests errors with Instant parsing.
   @Test
   public void invalidInstant() throws IOException {
@@ -498,6 +545,57 @@ public final class ScheduledInterviewServletTest {
     Assert.assertEquals(400, postResponse.getStatus());
   }
 
+  // Tests that only the interviews starting at or after from are listed, and that there is no
+  // cursor when they fit on one page.
+  @Test
+  public void listsScheduledInterviewsFrom() throws IOException {
+    ScheduledInterviewServlet scheduledInterviewServlet = new ScheduledInterviewServlet();
+    scheduledInterviewServlet.init(
+        scheduledInterviewDao, availabilityDao, personDao, calendarAccess, emailSender);
+    helper.setEnvIsLoggedIn(true).setEnvEmail(googleSWE1.email()).setEnvAuthDomain("auth");
+    MockHttpServletRequest getRequest = new MockHttpServletRequest();
+    MockHttpServletResponse getResponse = new MockHttpServletResponse();
+    personDao.create(googleSWE1);
+    personDao.create(googleSWE2QualPMInterviewer);
+    for (String start : new String[] {"2020-07-05T18:00:00Z", "2020-07-05T20:00:00Z"}) {
+      scheduledInterviewDao.create(
+          ScheduledInterview.create(
+              /*id=*/ -1,
+              new TimeRange(Instant.parse(start), Instant.parse(start).plusSeconds(60 * 60)),
+              googleSWE1.id(),
+              googleSWE2QualPMInterviewer.id(),
+              "meet_link",
+              Job.PRODUCT_MANAGER,
+              /*shadowId=*/ ""));
+    }
+    getRequest.addParameter("timeZone", "Etc/UCT");
+    getRequest.addParameter("userTime", "2020-07-05T22:00:00Z");
+    getRequest.addParameter("from", "2020-07-05T19:00:00Z");
+    scheduledInterviewServlet.doGet(getRequest, getResponse);
+    List<ScheduledInterviewRequest> actual =
+        (List<ScheduledInterviewRequest>) getRequest.getAttribute("scheduledInterviews");
+    Assert.assertEquals(1, actual.size());
+    Assert.assertEquals(
+        "Sunday, July 5, 2020 from 8:00 PM to 9:00 PM", actual.get(0).getDateString());
+    Assert.assertEquals("", getRequest.getAttribute("nextCursor"));
+  }
+
+  // Tests that a cursor the servlet didn't hand out is rejected.
+  @Test
+  public void rejectsInvalidCursor() throws IOException {
+    ScheduledInterviewServlet scheduledInterviewServlet = new ScheduledInterviewServlet();
+    scheduledInterviewServlet.init(
+        scheduledInterviewDao, availabilityDao, personDao, calendarAccess, emailSender);
+    helper.setEnvIsLoggedIn(true).setEnvEmail(googleSWE1.email()).setEnvAuthDomain("auth");
+    MockHttpServletRequest getRequest = new MockHttpServletRequest();
+    MockHttpServletResponse getResponse = new MockHttpServletResponse();
+    getRequest.addParameter("timeZone", "Etc/UCT");
+    getRequest.addParameter("userTime", "2020-07-05T22:00:00Z");
+    getRequest.addParameter("cursor", "not a cursor");
+    scheduledInterviewServlet.doGet(getRequest, getResponse);
+    Assert.assertEquals(400, getResponse.getStatus());
+  }
+
   // Shadow's first name should be in the ScheduledInterviewRequest.
   @Test
   public void getShadowName() throws IOException {
@@ -34,7 +34,9 @@ import com.google.sps.data.TimeRange;
 import java.io.IOException;
 import javax.servlet.ServletException;
 import java.nio.charset.StandardCharsets;
+import java.time.Clock;
 import java.time.Instant;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.List;
@@ -71,7 +73,7 @@ public final class ShadowLoadInterviewsServletTest {
   @Test
   public void tooLargePositiveOffset() {
     ShadowLoadInterviewsServlet servlet = new ShadowLoadInterviewsServlet();
-    servlet.init(scheduledInterviewDao, personDao, Instant.now());
+    servlet.init(scheduledInterviewDao, personDao, Clock.systemUTC());
     helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
     MockHttpServletRequest getRequest = new MockHttpServletRequest();
     getRequest.addParameter("timeZoneOffset", "740");
@@ -87,7 +89,7 @@ public final class ShadowLoadInterviewsServletTest {
   @Test
   public void tooLargeNegativeOffset() {
     ShadowLoadInterviewsServlet servlet = new ShadowLoadInterviewsServlet();
-    servlet.init(scheduledInterviewDao, personDao, Instant.now());
+    servlet.init(scheduledInterviewDao, personDao, Clock.systemUTC());
     helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
     MockHttpServletRequest getRequest = new MockHttpServletRequest();
     getRequest.addParameter("timeZoneOffset", "-740");
@@ -162,7 +164,10 @@ public final class ShadowLoadInterviewsServletTest {
     scheduledInterviewDao.create(interviewWhoWantsShadow);
 
     ShadowLoadInterviewsServlet servlet = new ShadowLoadInterviewsServlet();
-    servlet.init(scheduledInterviewDao, personDao, Instant.parse("2020-07-07T16:00:00Z"));
+    servlet.init(
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T16:00:00Z"), ZoneOffset.UTC));
     helper.setEnvIsLoggedIn(true).setEnvEmail("user@gmail.com").setEnvAuthDomain("auth");
     MockHttpServletRequest getRequest = new MockHttpServletRequest();
     getRequest.addParameter("timeZoneOffset", "0");
@@ -243,7 +248,10 @@ public final class ShadowLoadInterviewsServletTest {
     scheduledInterviewDao.create(doesNotInvolveUser);
 
     ShadowLoadInterviewsServlet servlet = new ShadowLoadInterviewsServlet();
-    servlet.init(scheduledInterviewDao, personDao, Instant.parse("2020-07-07T16:00:00Z"));
+    servlet.init(
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T16:00:00Z"), ZoneOffset.UTC));
     helper.setEnvIsLoggedIn(true).setEnvEmail(currentUser.email()).setEnvAuthDomain("auth");
     MockHttpServletRequest getRequest = new MockHttpServletRequest();
     getRequest.addParameter("timeZoneOffset", "0");
@@ -324,7 +332,10 @@ public final class ShadowLoadInterviewsServletTest {
     scheduledInterviewDao.create(withoutShadow);
 
     ShadowLoadInterviewsServlet servlet = new ShadowLoadInterviewsServlet();
-    servlet.init(scheduledInterviewDao, personDao, Instant.parse("2020-07-07T16:00:00Z"));
+    servlet.init(
+        scheduledInterviewDao,
+        personDao,
+        Clock.fixed(Instant.parse("2020-07-07T16:00:00Z"), ZoneOffset.UTC));
     helper.setEnvIsLoggedIn(true).setEnvEmail("userEmail").setEnvAuthDomain("auth");
     MockHttpServletRequest getRequest = new MockHttpServletRequest();
     getRequest.addParameter("timeZoneOffset", "0");
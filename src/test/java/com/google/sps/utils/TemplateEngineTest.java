@@ -0,0 +1,63 @@
+// Copyright 2019 Google LLC
+//
+// Licensed under the Apache License, Version 2.0 (the "License");
+// you may not use this file except in compliance with the License.
+// You may obtain a copy of the License at
+//
+//     https://www.apache.org/licenses/LICENSE-2.0
+//
+// Unless required by applicable law or agreed to in writing, software
+// distributed under the License is distributed on an "AS IS" BASIS,
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+// See the License for the specific language governing permissions and
+// limitations under the License.
+
+package com.google.sps.utils;
+
+import java.util.HashMap;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public final class TemplateEngineTest {
+  // Checks that every placeholder with a value is replaced, and the rest are left alone.
+  @Test
+  public void replacesPlaceholders() {
+    HashMap<String, String> values = new HashMap<String, String>();
+    values.put("{{name}}", "Tess");
+    values.put("{{date}}", "June 6, 2022");
+    Assert.assertEquals(
+        "Hi Tess, see you on June 6, 2022. Tess, bring {{item}}.",
+        EmailUtils.replaceAllPairs(
+            values, "Hi {{name}}, see you on {{date}}. {{name}}, bring {{item}}."));
+  }
+
+  // Checks that text without complete placeholders is left as it is.
+  @Test
+  public void keepsUnclosedBraces() {
+    HashMap<String, String> values = new HashMap<String, String>();
+    Assert.assertEquals("{{ not closed", EmailUtils.replaceAllPairs(values, "{{ not closed"));
+  }
+
+  // Checks that the email templates are loaded from the classpath and rendered.
+  @Test
+  public void rendersEmailTemplate() {
+    HashMap<String, String> answers = new HashMap<String, String>();
+    answers.put("{{formatted_date}}", "Tuesday, July 7, 2020");
+    answers.put("{{question_1}}", "Strongly agree");
+    String rendered = EmailUtils.renderTemplate("feedbackToInterviewer.txt", answers);
+    Assert.assertTrue(rendered.contains("InterviewMe on Tuesday, July 7, 2020."));
+    Assert.assertTrue(rendered.contains("comfortable during the interview: Strongly agree\n"));
+    Assert.assertTrue(rendered.contains("{{question_2}}"));
+    Assert.assertTrue(
+        EmailUtils.fileContentToString("feedbackToInterviewer.txt").contains("{{question_1}}"));
+  }
+
+  // Checks that asking for a template that wasn't loaded fails.
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsUnknownTemplate() {
+    EmailUtils.renderTemplate("missing.txt", new HashMap<String, String>());
+  }
+}